@@ -0,0 +1,70 @@
+package com.example.demo.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.camunda.bpm.engine.runtime.ProcessInstance;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Сквозные бенчмарки user-registration-process.
+ *
+ * Throughput дает ops/sec, SampleTime - распределение задержек (p99 и т.д.).
+ * Количество потоков задается в наследниках через {@code @Threads}.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+public abstract class AbstractRegistrationBenchmark {
+
+    /**
+     * Экземпляр процесса, ожидающий на ReceiveTask, готовится отдельно для каждого вызова,
+     * чтобы замер корреляции не включал запуск процесса.
+     */
+    @State(Scope.Thread)
+    public static class WaitingInstance {
+
+        String processInstanceId;
+
+        @Setup(Level.Invocation)
+        public void startInstance(RegistrationState engine) {
+            processInstanceId = engine.startRegistration().getId();
+        }
+    }
+
+    /**
+     * Старт процесса до ReceiveTask Activity_0g1mra7: скрипт инициализации,
+     * HTTP вызов create-user и делегат отправки email.
+     */
+    @Benchmark
+    public ProcessInstance startToReceiveTask(RegistrationState engine) {
+        return engine.startRegistration();
+    }
+
+    /**
+     * Корреляция email_confirmed_message и завершение через business rule task Activity_RouteNextProcess (DMN next-process).
+     */
+    @Benchmark
+    public void correlateEmailConfirmed(RegistrationState engine, WaitingInstance instance) {
+        engine.confirmEmail(instance.processInstanceId);
+    }
+
+    /**
+     * Полный цикл регистрации: старт, подтверждение email и завершение подпроцесса.
+     */
+    @Benchmark
+    public void completeRegistration(RegistrationState engine) {
+        engine.confirmEmail(engine.startRegistration().getId());
+    }
+}
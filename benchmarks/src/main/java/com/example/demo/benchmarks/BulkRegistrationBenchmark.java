@@ -0,0 +1,133 @@
+package com.example.demo.benchmarks;
+
+import java.io.BufferedReader;
+import java.io.Reader;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.example.demo.registration.BulkRegistrationService;
+import com.example.demo.registration.RegistrationResult;
+
+/**
+ * Массовый запуск {@link #USERS} регистраций через BulkRegistrationService.startAll.
+ *
+ * Вход генерируется на лету ({@link SyntheticUsers}), поэтому прирост памяти
+ * (gc.alloc.rate.norm, размер heap) определяется только пачками в обработке.
+ * chunkSize=1 соответствует отдельной транзакции на каждый экземпляр.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class BulkRegistrationBenchmark {
+
+    static final int USERS = 100_000;
+
+    @Param({"1", "100", "500"})
+    public int chunkSize;
+
+    @Param({"4"})
+    public int workers;
+
+    private ServiceApiStub emailApi;
+    private ConfigurableApplicationContext context;
+    private BulkRegistrationService registrationService;
+    private long sequence;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        emailApi = ServiceApiStub.start();
+        context = EngineBootstrap.start("none", Map.of(
+            "email.outbox.url", emailApi.baseUrl() + "/send-email",
+            "registration.bulk.chunk-size", String.valueOf(chunkSize),
+            "registration.bulk.workers", String.valueOf(workers),
+            "spring.datasource.hikari.maximum-pool-size", String.valueOf(workers + 2)));
+        registrationService = context.getBean(BulkRegistrationService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (context != null) {
+            context.close();
+        }
+        if (emailApi != null) {
+            emailApi.close();
+        }
+    }
+
+    @Benchmark
+    public long startAll() throws Exception {
+        AtomicLong started = new AtomicLong();
+        registrationService.startAll(new BufferedReader(new SyntheticUsers(sequence, USERS)),
+            results -> count(results, started));
+        sequence += USERS;
+        if (started.get() != USERS) {
+            throw new IllegalStateException("Started " + started.get() + " of " + USERS);
+        }
+        return started.get();
+    }
+
+    private static void count(List<RegistrationResult> results, AtomicLong started) {
+        for (RegistrationResult result : results) {
+            if (result.status() == RegistrationResult.Status.STARTED) {
+                started.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * NDJSON с пользователями, строки создаются по мере чтения.
+     */
+    static final class SyntheticUsers extends Reader {
+
+        private final long end;
+        private long next;
+        private String line = "";
+        private int position;
+
+        SyntheticUsers(long from, int count) {
+            this.next = from;
+            this.end = from + count;
+        }
+
+        @Override
+        public int read(char[] buffer, int offset, int length) {
+            if (position == line.length()) {
+                if (next == end) {
+                    return -1;
+                }
+                next++;
+                line = "{\"businessKey\":\"bulk-" + next + "\",\"userName\":\"User " + next
+                    + "\",\"userEmail\":\"user" + next + "@example.com\"}\n";
+                position = 0;
+            }
+            int count = Math.min(length, line.length() - position);
+            line.getChars(position, position + count, buffer, offset);
+            position += count;
+            return count;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package com.example.demo.benchmarks;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Время холодного старта (не JMH): от старта JVM до готового контекста и до возврата первого
+ * startProcessInstanceByKey, для каждого режима в отдельных JVM ({@link ColdStartProbe}).
+ *
+ * Режимы:
+ * - default - обычный старт;
+ * - fast-start - профиль fast-start (ленивая инициализация, отложенная загрузка Groovy);
+ * - cds, fast-start+cds - то же с архивом AppCDS.
+ *
+ * Архив для режима с cds строится перед замерами тренировочным прогоном (профиль cds-training)
+ * с тем же classpath и профилями: -XX:ArchiveClassesAtExit. Классы из каталогов classpath
+ * (target/classes) в архив не попадают, поэтому выигрыш в основном на классах Spring и Camunda из jar.
+ *
+ * Аргументы key=value: runs (по умолчанию 5), modes (через запятую), output (каталог для архивов).
+ */
+public final class ColdStartBenchmark {
+
+    enum Mode {
+        DEFAULT("default", "", false),
+        FAST_START("fast-start", "fast-start", false),
+        CDS("cds", "", true),
+        FAST_START_CDS("fast-start+cds", "fast-start", true);
+
+        final String label;
+        final String profiles;
+        final boolean cds;
+
+        Mode(String label, String profiles, boolean cds) {
+            this.label = label;
+            this.profiles = profiles;
+            this.cds = cds;
+        }
+
+        static Mode of(String label) {
+            return Arrays.stream(values())
+                .filter(mode -> mode.label.equals(label))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unknown mode " + label + ", expected one of "
+                    + Arrays.stream(values()).map(mode -> mode.label).toList()));
+        }
+    }
+
+    /** Сколько строк вывода дочерней JVM показывать при ошибке */
+    private static final int TAIL_LINES = 40;
+
+    private final int runs;
+    private final List<Mode> modes;
+    private final Path output;
+
+    private ColdStartBenchmark(int runs, List<Mode> modes, Path output) {
+        this.runs = runs;
+        this.modes = modes;
+        this.output = output;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new LinkedHashMap<>(Map.of(
+            "runs", "5",
+            "modes", "default,fast-start,cds,fast-start+cds",
+            "output", "target/cold-start"));
+        Arrays.stream(args)
+            .flatMap(arg -> Arrays.stream(arg.trim().split("\\s+")))
+            .filter(arg -> !arg.isEmpty())
+            .forEach(arg -> {
+                String[] pair = arg.split("=", 2);
+                if (pair.length != 2 || !options.containsKey(pair[0])) {
+                    throw new IllegalArgumentException("Expected one of " + options.keySet() + " as key=value: " + arg);
+                }
+                options.put(pair[0], pair[1]);
+            });
+
+        new ColdStartBenchmark(
+            Integer.parseInt(options.get("runs")),
+            Arrays.stream(options.get("modes").split(",")).map(String::trim).map(Mode::of).toList(),
+            Path.of(options.get("output"))).run();
+    }
+
+    private void run() throws IOException, InterruptedException {
+        Files.createDirectories(output);
+        Map<Mode, List<long[]>> results = new LinkedHashMap<>();
+        for (Mode mode : modes) {
+            if (mode.cds) {
+                train(mode);
+            }
+            List<long[]> samples = new ArrayList<>();
+            for (int run = 0; run < runs; run++) {
+                long[] sample = measure(mode);
+                System.out.printf("%-15s run %d: ready %d ms, first instance %d ms%n",
+                    mode.label, run + 1, sample[0], sample[1]);
+                samples.add(sample);
+            }
+            results.put(mode, samples);
+        }
+
+        System.out.println();
+        System.out.printf("%-15s %12s %12s %12s %12s %12s%n",
+            "mode", "ready p50", "first p50", "first min", "first max", "vs default");
+        Long baseline = null;
+        for (Map.Entry<Mode, List<long[]>> entry : results.entrySet()) {
+            long[] ready = entry.getValue().stream().mapToLong(sample -> sample[0]).sorted().toArray();
+            long[] first = entry.getValue().stream().mapToLong(sample -> sample[1]).sorted().toArray();
+            long firstMedian = first[first.length / 2];
+            if (entry.getKey() == Mode.DEFAULT) {
+                baseline = firstMedian;
+            }
+            System.out.printf("%-15s %9d ms %9d ms %9d ms %9d ms %12s%n", entry.getKey().label,
+                ready[ready.length / 2], firstMedian, first[0], first[first.length - 1],
+                baseline != null ? String.format("%+.0f%%", 100.0 * (firstMedian - baseline) / baseline) : "-");
+        }
+    }
+
+    /**
+     * Строит архив AppCDS тренировочным прогоном с профилями режима.
+     */
+    private void train(Mode mode) throws IOException, InterruptedException {
+        Path archive = archive(mode);
+        Files.deleteIfExists(archive);
+        String profiles = mode.profiles.isEmpty() ? "cds-training" : mode.profiles + ",cds-training";
+        long start = System.nanoTime();
+        execute(List.of("-XX:ArchiveClassesAtExit=" + archive),
+            "com.example.demo.DemoApplication", "--spring.profiles.active=" + profiles,
+            "--logging.level.root=WARN", "--spring.main.banner-mode=off");
+        if (!Files.exists(archive)) {
+            throw new IllegalStateException("Training run did not produce " + archive);
+        }
+        System.out.printf("%-15s archive %s (%d MB) built in %d s%n", mode.label, archive,
+            Files.size(archive) / (1024 * 1024), TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start));
+    }
+
+    private long[] measure(Mode mode) throws IOException, InterruptedException {
+        List<String> jvmOptions = mode.cds ? List.of("-XX:SharedArchiveFile=" + archive(mode)) : List.of();
+        List<String> lines = execute(jvmOptions, ColdStartProbe.class.getName(), mode.profiles);
+        return lines.stream()
+            .filter(line -> line.startsWith(ColdStartProbe.RESULT_PREFIX + " "))
+            .map(line -> line.split(" "))
+            .map(fields -> new long[] {Long.parseLong(fields[1]), Long.parseLong(fields[2])})
+            .findFirst()
+            .orElseThrow(() -> new IllegalStateException("No result from cold start probe:\n"
+                + String.join("\n", lines)));
+    }
+
+    private Path archive(Mode mode) {
+        return output.resolve(mode.label.replace('+', '-') + ".jsa").toAbsolutePath();
+    }
+
+    /**
+     * Запускает класс в отдельной JVM с classpath бенчмарков и ждет завершения.
+     *
+     * @return последние строки вывода (stdout и stderr)
+     */
+    private static List<String> execute(List<String> jvmOptions, String mainClass, String... args)
+        throws IOException, InterruptedException {
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(jvmOptions);
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(mainClass);
+        command.addAll(Arrays.asList(args));
+
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+        Deque<String> tail = new ArrayDeque<>();
+        try (BufferedReader reader = new BufferedReader(
+            new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                tail.addLast(line);
+                if (tail.size() > TAIL_LINES) {
+                    tail.removeFirst();
+                }
+            }
+        }
+        int exitCode = process.waitFor();
+        if (exitCode != 0) {
+            throw new IllegalStateException(mainClass + " exited with " + exitCode + ":\n" + String.join("\n", tail));
+        }
+        return new ArrayList<>(tail);
+    }
+}
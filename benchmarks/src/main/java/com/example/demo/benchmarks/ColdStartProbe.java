@@ -0,0 +1,54 @@
+package com.example.demo.benchmarks;
+
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import org.camunda.bpm.engine.RuntimeService;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.example.demo.DemoApplication;
+
+/**
+ * Один холодный старт для {@link ColdStartBenchmark}: запускается в отдельной JVM, поднимает
+ * приложение целиком (веб-сервер, REST API, webapp, job executor) с профилями из аргумента,
+ * запускает первый экземпляр user-registration-process и печатает время от старта JVM.
+ */
+public final class ColdStartProbe {
+
+    static final String RESULT_PREFIX = "COLD_START";
+
+    private ColdStartProbe() {
+    }
+
+    /**
+     * @param args профили Spring через запятую, может отсутствовать
+     */
+    public static void main(String[] args) {
+        long jvmStart = ManagementFactory.getRuntimeMXBean().getStartTime();
+
+        Map<String, Object> properties = new LinkedHashMap<>();
+        properties.put("spring.datasource.url",
+            "jdbc:h2:mem:cold-start-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE");
+        properties.put("server.port", "0");
+        properties.put("spring.main.banner-mode", "off");
+        properties.put("logging.level.root", "WARN");
+        SpringApplicationBuilder builder = new SpringApplicationBuilder(DemoApplication.class).properties(properties);
+        if (args.length > 0 && !args[0].isBlank()) {
+            builder.profiles(args[0].split(","));
+        }
+
+        ConfigurableApplicationContext context = builder.run();
+        long ready = System.currentTimeMillis();
+        context.getBean(RuntimeService.class).startProcessInstanceByKey(RegistrationState.PROCESS_KEY,
+            Map.of("userName", "Cold Start User"));
+        long firstInstance = System.currentTimeMillis();
+
+        System.out.println(RESULT_PREFIX + " " + (ready - jvmStart) + " " + (firstInstance - jvmStart));
+        System.out.flush();
+        // Закрытие контекста не замеряется и не нужно: JVM завершается
+        Runtime.getRuntime().halt(0);
+    }
+}
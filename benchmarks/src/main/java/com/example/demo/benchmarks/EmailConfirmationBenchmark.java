@@ -0,0 +1,116 @@
+package com.example.demo.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.camunda.bpm.engine.ManagementService;
+import org.camunda.bpm.engine.RuntimeService;
+import org.camunda.bpm.engine.runtime.ProcessInstance;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.example.demo.confirmation.ConfirmationResult;
+import com.example.demo.confirmation.EmailConfirmation;
+import com.example.demo.confirmation.EmailConfirmationService;
+
+/**
+ * Корреляция 10k подтверждений email: по одной транзакции на подтверждение
+ * против пакетной корреляции EmailConfirmationService.confirmAll.
+ *
+ * Перед каждым замером запускается {@link #CONFIRMATIONS} экземпляров, ожидающих на ReceiveTask;
+ * в замер входит только корреляция.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EmailConfirmationBenchmark {
+
+    static final int CONFIRMATIONS = 10_000;
+
+    /** Ключ поиска экземпляра: confirmationToken (переменная процесса) или business key */
+    @Param({"confirmationToken", "businessKey"})
+    public String lookup;
+
+    private ServiceApiStub serviceApi;
+    private ServiceApiStub emailApi;
+    private ConfigurableApplicationContext context;
+    private RuntimeService runtimeService;
+    private ManagementService managementService;
+    private EmailConfirmationService confirmationService;
+
+    private List<EmailConfirmation> confirmations;
+    private long sequence;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        serviceApi = ServiceApiStub.start();
+        emailApi = ServiceApiStub.start();
+        context = EngineBootstrap.start("none", Map.of("email.outbox.url", emailApi.baseUrl() + "/send-email"));
+        runtimeService = context.getBean(RuntimeService.class);
+        managementService = context.getBean(ManagementService.class);
+        confirmationService = context.getBean(EmailConfirmationService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (context != null) {
+            context.close();
+        }
+        if (serviceApi != null) {
+            serviceApi.close();
+        }
+        if (emailApi != null) {
+            emailApi.close();
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void startWaitingInstances() {
+        confirmations = new ArrayList<>(CONFIRMATIONS);
+        for (int i = 0; i < CONFIRMATIONS; i++) {
+            String businessKey = "confirm-" + (++sequence);
+            ProcessInstance processInstance = runtimeService.startProcessInstanceByKey(
+                RegistrationState.PROCESS_KEY, businessKey, Map.of("SERVICE_API", serviceApi.baseUrl()));
+            managementService.executeJob(managementService.createJobQuery()
+                .processInstanceId(processInstance.getId())
+                .singleResult()
+                .getId());
+            confirmations.add("businessKey".equals(lookup)
+                ? EmailConfirmation.byBusinessKey(businessKey)
+                : EmailConfirmation.byToken((String) runtimeService.getVariable(processInstance.getId(), "confirmationToken")));
+        }
+    }
+
+    @Benchmark
+    public int singleCalls() {
+        int correlated = 0;
+        for (EmailConfirmation confirmation : confirmations) {
+            if (confirmationService.confirm(confirmation).status() == ConfirmationResult.Status.CORRELATED) {
+                correlated++;
+            }
+        }
+        return correlated;
+    }
+
+    @Benchmark
+    public List<ConfirmationResult> batched() {
+        return confirmationService.confirmAll(confirmations);
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.demo.benchmarks;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.example.demo.DemoApplication;
+
+/**
+ * Запуск приложения demo для бенчмарков: без веб-сервера, с отдельной
+ * in-memory базой на каждый запуск и приглушенным логированием.
+ */
+public final class EngineBootstrap {
+
+    private EngineBootstrap() {
+    }
+
+    public static ConfigurableApplicationContext start(String historyLevel) {
+        return start(historyLevel, Map.of());
+    }
+
+    public static ConfigurableApplicationContext start(String historyLevel, Map<String, Object> overrides) {
+        return start(historyLevel, overrides, new Class<?>[0]);
+    }
+
+    /**
+     * @param sources дополнительные конфигурации Spring, например плагины движка для замеров
+     */
+    public static ConfigurableApplicationContext start(String historyLevel, Map<String, Object> overrides,
+                                                       Class<?>... sources) {
+        Map<String, Object> properties = new LinkedHashMap<>();
+        // Уровень истории хранится в БД, поэтому для каждого запуска нужна своя база
+        properties.put("spring.datasource.url",
+            "jdbc:h2:mem:bench-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE");
+        properties.put("camunda.bpm.history-level", historyLevel);
+        properties.put("spring.main.banner-mode", "off");
+        properties.put("logging.level.root", "WARN");
+        // Async continuation create-registration-task выполняется в потоке бенчмарка, а не в job executor
+        properties.put("camunda.bpm.job-execution.enabled", "false");
+        // Экземпляры бенчмарков без business key и с одинаковым email: create-user должен уходить в заглушку каждый раз
+        properties.put("service-api.idempotency.enabled", "false");
+        // REST API движка требует сервлетный контейнер, в бенчмарках он не нужен
+        properties.put("spring.autoconfigure.exclude",
+            "org.camunda.bpm.spring.boot.starter.rest.CamundaBpmRestJerseyAutoConfiguration");
+        properties.putAll(overrides);
+
+        return new SpringApplicationBuilder(DemoApplication.class)
+            .sources(sources)
+            .web(WebApplicationType.NONE)
+            .properties(properties)
+            .run();
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.demo.benchmarks;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.camunda.bpm.engine.RepositoryService;
+import org.camunda.bpm.engine.RuntimeService;
+import org.camunda.bpm.engine.runtime.ProcessInstance;
+import org.camunda.bpm.model.bpmn.Bpmn;
+import org.camunda.bpm.model.bpmn.BpmnModelInstance;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Сравнение инициализации переменных через inline Groovy скрипт (JSR-223)
+ * и через скомпилированный Java делегат initVariablesDelegate.
+ *
+ * Оба процесса состоят только из одной задачи, история отключена,
+ * поэтому разница в замере приходится на выполнение самой задачи.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+@Threads(1)
+@State(Scope.Benchmark)
+public class InitVariablesBenchmark {
+
+    static final String SCRIPT_PROCESS_KEY = "init-variables-script";
+    static final String DELEGATE_PROCESS_KEY = "init-variables-delegate";
+
+    /** Скрипт, который выполнялся в Activity_InitVariables до замены на делегат */
+    static final String INIT_SCRIPT = """
+        import java.util.UUID
+        import java.time.LocalDateTime
+
+        execution.setVariable("userId", UUID.randomUUID().toString())
+        execution.setVariable("userName", execution.hasVariable("userName") ? execution.getVariable("userName") : "John Doe")
+        execution.setVariable("userEmail", execution.hasVariable("userEmail") ? execution.getVariable("userEmail") : "john.doe@example.com")
+        execution.setVariable("registrationDate", LocalDateTime.now().toString())
+        execution.setVariable("confirmationToken", UUID.randomUUID().toString())
+
+        println "Initialized variables: userId=" + execution.getVariable("userId") +
+                ", userName=" + execution.getVariable("userName") +
+                ", userEmail=" + execution.getVariable("userEmail")
+        """;
+
+    private static final Map<String, Object> VARIABLES = Map.of(
+        "userName", "Bench User",
+        "userEmail", "bench@example.com");
+
+    private ConfigurableApplicationContext context;
+    private RuntimeService runtimeService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = EngineBootstrap.start("none");
+        runtimeService = context.getBean(RuntimeService.class);
+        context.getBean(RepositoryService.class).createDeployment()
+            .name("init-variables-benchmark")
+            .addModelInstance(SCRIPT_PROCESS_KEY + ".bpmn", scriptProcess())
+            .addModelInstance(DELEGATE_PROCESS_KEY + ".bpmn", delegateProcess())
+            .deploy();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (context != null) {
+            context.close();
+        }
+    }
+
+    @Benchmark
+    public ProcessInstance groovyScript() {
+        return runtimeService.startProcessInstanceByKey(SCRIPT_PROCESS_KEY, VARIABLES);
+    }
+
+    @Benchmark
+    public ProcessInstance javaDelegate() {
+        return runtimeService.startProcessInstanceByKey(DELEGATE_PROCESS_KEY, VARIABLES);
+    }
+
+    private static BpmnModelInstance scriptProcess() {
+        return Bpmn.createExecutableProcess(SCRIPT_PROCESS_KEY)
+            .camundaHistoryTimeToLive(180)
+            .startEvent()
+            .scriptTask("Activity_InitVariables")
+                .scriptFormat("groovy")
+                .scriptText(INIT_SCRIPT)
+            .endEvent()
+            .done();
+    }
+
+    private static BpmnModelInstance delegateProcess() {
+        return Bpmn.createExecutableProcess(DELEGATE_PROCESS_KEY)
+            .camundaHistoryTimeToLive(180)
+            .startEvent()
+            .serviceTask("Activity_InitVariables")
+                .camundaDelegateExpression("${initVariablesDelegate}")
+            .endEvent()
+            .done();
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.demo.benchmarks;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.camunda.bpm.engine.ManagementService;
+import org.camunda.bpm.engine.ProcessEngine;
+import org.camunda.bpm.engine.RuntimeService;
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.camunda.bpm.engine.impl.jobexecutor.JobExecutor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Время выполнения {@link #INSTANCES} async continuation create-registration-task
+ * job executor-ом на пуле потоков стартера Camunda и на виртуальных потоках.
+ *
+ * SERVICE_API отвечает с задержкой {@link #SERVICE_API_LATENCY_MILLIS} мс, поэтому job в основном ждут сеть.
+ * Режим virtual требует запуска на Java 21.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JobExecutorBenchmark {
+
+    static final int INSTANCES = 1_000;
+    static final long SERVICE_API_LATENCY_MILLIS = 20;
+
+    @Param({"platform", "virtual"})
+    public String executor;
+
+    private ServiceApiStub serviceApi;
+    private ServiceApiStub emailApi;
+    private ConfigurableApplicationContext context;
+    private RuntimeService runtimeService;
+    private ManagementService managementService;
+    private JobExecutor jobExecutor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        serviceApi = ServiceApiStub.start(0, SERVICE_API_LATENCY_MILLIS, 256);
+        emailApi = ServiceApiStub.start();
+        context = EngineBootstrap.start("none", Map.of(
+            "email.outbox.url", emailApi.baseUrl() + "/send-email",
+            "camunda.bpm.job-execution.enabled", "true",
+            "camunda.bpm.job-execution.max-jobs-per-acquisition", "50",
+            "camunda.job-executor.virtual-threads.enabled", String.valueOf("virtual".equals(executor)),
+            // Job держит соединение БД на время HTTP вызова, пул не должен быть узким местом
+            "spring.datasource.hikari.maximum-pool-size", "64"));
+        runtimeService = context.getBean(RuntimeService.class);
+        managementService = context.getBean(ManagementService.class);
+        jobExecutor = ((ProcessEngineConfigurationImpl) context.getBean(ProcessEngine.class)
+            .getProcessEngineConfiguration()).getJobExecutor();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (context != null) {
+            context.close();
+        }
+        if (serviceApi != null) {
+            serviceApi.close();
+        }
+        if (emailApi != null) {
+            emailApi.close();
+        }
+    }
+
+    /**
+     * Job executor остановлен, пока создаются экземпляры с job в очереди.
+     */
+    @Setup(Level.Invocation)
+    public void createJobs() {
+        jobExecutor.shutdown();
+        for (int i = 0; i < INSTANCES; i++) {
+            runtimeService.startProcessInstanceByKey(RegistrationState.PROCESS_KEY,
+                Map.of("SERVICE_API", serviceApi.baseUrl()));
+        }
+    }
+
+    @Benchmark
+    public long executeJobs() throws InterruptedException {
+        jobExecutor.start();
+        long remaining;
+        while ((remaining = managementService.createJobQuery().count()) > 0) {
+            Thread.sleep(5);
+        }
+        return remaining;
+    }
+}
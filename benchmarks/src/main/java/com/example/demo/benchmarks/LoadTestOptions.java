@@ -0,0 +1,108 @@
+package com.example.demo.benchmarks;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.boot.convert.DurationStyle;
+
+/**
+ * Параметры {@link LoadTestRunner}, задаются аргументами key=value.
+ *
+ * @param rate           регистраций в секунду (открытая модель: не зависит от скорости обработки)
+ * @param poisson        интервалы между приходами экспоненциальные (true) или равные (false)
+ * @param duration       сколько времени подаются регистрации
+ * @param warmup         регистрации первых warmup не попадают в гистограммы
+ * @param thinkTime      пауза между доставкой email и подтверждением
+ * @param timeout        сколько ждать каждого этапа одной регистрации
+ * @param maxInFlight    больше регистраций в работе не запускается, лишние считаются отброшенными
+ * @param historyLevel   уровень истории движка
+ * @param createUser     поведение заглушки SERVICE_API /create-user
+ * @param sendEmail      поведение заглушки email.outbox.url /send-email
+ * @param output         каталог для файлов .hgrm
+ * @param overrides      прочие свойства приложения (аргументы с префиксом app.)
+ */
+public record LoadTestOptions(double rate, boolean poisson, Duration duration, Duration warmup, Duration thinkTime,
+                              Duration timeout, int maxInFlight, String historyLevel, StubBehavior createUser,
+                              StubBehavior sendEmail, Path output, Map<String, Object> overrides) {
+
+    static final String APP_PREFIX = "app.";
+
+    private static final Map<String, String> DEFAULTS = defaults();
+
+    private static Map<String, String> defaults() {
+        Map<String, String> defaults = new LinkedHashMap<>();
+        defaults.put("rate", "50");
+        defaults.put("arrival", "poisson");
+        defaults.put("duration", "60s");
+        defaults.put("warmup", "10s");
+        defaults.put("think-time", "0ms");
+        defaults.put("timeout", "60s");
+        defaults.put("max-in-flight", "10000");
+        defaults.put("history-level", "full");
+        defaults.put("create-user.latency", "lognormal:20,0.5");
+        defaults.put("create-user.error-rate", "0.01");
+        defaults.put("send-email.latency", "lognormal:30,0.5");
+        defaults.put("send-email.error-rate", "0.01");
+        defaults.put("output", "target/load-test");
+        return defaults;
+    }
+
+    /**
+     * Разбирает аргументы вида "rate=100 duration=2m app.history.buffer.durability=BUFFERED";
+     * один аргумент может содержать несколько пар через пробел.
+     */
+    public static LoadTestOptions parse(String... args) {
+        Map<String, String> values = new LinkedHashMap<>(DEFAULTS);
+        Map<String, Object> overrides = new LinkedHashMap<>();
+        Arrays.stream(args)
+            .flatMap(arg -> Arrays.stream(arg.trim().split("\\s+")))
+            .filter(arg -> !arg.isEmpty())
+            .forEach(arg -> {
+                int separator = arg.indexOf('=');
+                if (separator <= 0) {
+                    throw new IllegalArgumentException("Expected key=value, got: " + arg);
+                }
+                String key = arg.substring(0, separator);
+                String value = arg.substring(separator + 1);
+                if (key.startsWith(APP_PREFIX)) {
+                    overrides.put(key.substring(APP_PREFIX.length()), value);
+                } else if (DEFAULTS.containsKey(key)) {
+                    values.put(key, value);
+                } else {
+                    throw new IllegalArgumentException("Unknown option " + key + ", expected one of "
+                        + DEFAULTS.keySet() + " or " + APP_PREFIX + "<property>");
+                }
+            });
+
+        String arrival = values.get("arrival");
+        if (!Set.of("poisson", "constant").contains(arrival)) {
+            throw new IllegalArgumentException("arrival must be poisson or constant: " + arrival);
+        }
+        return new LoadTestOptions(
+            Double.parseDouble(values.get("rate")),
+            "poisson".equals(arrival),
+            DurationStyle.detectAndParse(values.get("duration")),
+            DurationStyle.detectAndParse(values.get("warmup")),
+            DurationStyle.detectAndParse(values.get("think-time")),
+            DurationStyle.detectAndParse(values.get("timeout")),
+            Integer.parseInt(values.get("max-in-flight")),
+            values.get("history-level"),
+            StubBehavior.of(values.get("create-user.latency"), Double.parseDouble(values.get("create-user.error-rate"))),
+            StubBehavior.of(values.get("send-email.latency"), Double.parseDouble(values.get("send-email.error-rate"))),
+            Path.of(values.get("output")),
+            overrides);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("rate=%.1f/s arrival=%s duration=%s warmup=%s think-time=%s history-level=%s"
+                + " create-user=%s/%.3f send-email=%s/%.3f%s",
+            rate, poisson ? "poisson" : "constant", duration, warmup, thinkTime, historyLevel,
+            createUser.latency(), createUser.errorRate(), sendEmail.latency(), sendEmail.errorRate(),
+            overrides.isEmpty() ? "" : " " + overrides);
+    }
+}
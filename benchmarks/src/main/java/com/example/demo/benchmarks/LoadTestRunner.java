@@ -0,0 +1,298 @@
+package com.example.demo.benchmarks;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.camunda.bpm.engine.RuntimeService;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.example.demo.confirmation.ConfirmationResult;
+import com.example.demo.confirmation.EmailConfirmation;
+import com.example.demo.confirmation.EmailConfirmationService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Нагрузочный тест user-registration-process по открытой модели (не JMH).
+ *
+ * Регистрации приходят с заданной частотой независимо от того, успевает ли приложение:
+ * каждая запускается в своем потоке в запланированный момент, а задержки считаются от этого
+ * момента, поэтому очередь перед приложением попадает в замер (без coordinated omission).
+ *
+ * Приложение работает с job executor и фоновым outbox, как в продакшене. /create-user и
+ * /send-email отвечают локальные заглушки с распределением задержки и долей ошибок
+ * ({@link StubBehavior}): ошибка create-user повторяется job executor-ом, ошибка send-email - outbox.
+ *
+ * Этапы одной регистрации:
+ * - start: startProcessInstanceByKey до async continuation create-registration-task;
+ * - create-registration: job create-registration-task и send-email-confirmation до ReceiveTask;
+ * - email-delivery: от ReceiveTask до запроса outbox в заглушку /send-email;
+ * - confirmation: корреляция email_confirmed_message, маршрутизация DMN и завершение экземпляра;
+ * - end-to-end: от запланированного прихода до завершения, без think-time.
+ *
+ * По каждому этапу печатаются перцентили HdrHistogram, полные распределения пишутся
+ * в output/&lt;этап&gt;.hgrm (единица - мс).
+ */
+public final class LoadTestRunner {
+
+    enum Stage {
+        START("start"),
+        CREATE_REGISTRATION("create-registration"),
+        EMAIL_DELIVERY("email-delivery"),
+        CONFIRMATION("confirmation"),
+        END_TO_END("end-to-end");
+
+        final String label;
+
+        Stage(String label) {
+            this.label = label;
+        }
+    }
+
+    /** Верхняя граница гистограмм - 1 час в микросекундах */
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.HOURS.toMicros(1);
+
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+
+    private final LoadTestOptions options;
+    private final RuntimeService runtimeService;
+    private final EmailConfirmationService confirmationService;
+    private final StageProbes probes;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final Map<Stage, Histogram> histograms = new EnumMap<>(Stage.class);
+    private final Map<Stage, LongAdder> errors = new EnumMap<>(Stage.class);
+    private final Map<String, CompletableFuture<Long>> deliveries = new ConcurrentHashMap<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder confirmationRetries = new LongAdder();
+    private final LongAdder completed = new LongAdder();
+    private final AtomicLong dropped = new AtomicLong();
+
+    private LoadTestRunner(LoadTestOptions options, ConfigurableApplicationContext context, ServiceApiStub emailApi) {
+        this.options = options;
+        this.runtimeService = context.getBean(RuntimeService.class);
+        this.confirmationService = context.getBean(EmailConfirmationService.class);
+        this.probes = context.getBean(StageProbes.class);
+        for (Stage stage : Stage.values()) {
+            histograms.put(stage, new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3));
+            errors.put(stage, new LongAdder());
+        }
+        emailApi.onRequest(this::emailDelivered);
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+        System.out.println("Load test: " + options);
+
+        try (ServiceApiStub serviceApi = ServiceApiStub.start(0, options.createUser(), 256);
+             ServiceApiStub emailApi = ServiceApiStub.start(0, options.sendEmail(), 256)) {
+            Map<String, Object> properties = new LinkedHashMap<>();
+            properties.put("SERVICE_API", serviceApi.baseUrl());
+            properties.put("email.outbox.url", emailApi.baseUrl() + "/send-email");
+            properties.put("email.outbox.poll-interval", "100ms");
+            properties.put("camunda.bpm.job-execution.enabled", "true");
+            properties.put("camunda.bpm.job-execution.max-jobs-per-acquisition", "50");
+            properties.put("camunda.bpm.job-execution.wait-time-in-millis", "200");
+            // Job держит соединение БД на время HTTP вызова, пул не должен быть узким местом
+            properties.put("spring.datasource.hikari.maximum-pool-size", "64");
+            properties.putAll(options.overrides());
+
+            try (ConfigurableApplicationContext context =
+                     EngineBootstrap.start(options.historyLevel(), properties, StageProbes.class)) {
+                LoadTestRunner runner = new LoadTestRunner(options, context, emailApi);
+                long measuredNanos = runner.run();
+                runner.report(measuredNanos);
+            }
+        }
+    }
+
+    /**
+     * Подает регистрации в течение duration и ждет завершения запущенных.
+     *
+     * @return длительность прохода после прогрева, нс
+     */
+    private long run() throws InterruptedException {
+        ExecutorService workers = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "load-registration");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long meanIntervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / options.rate());
+        long started = System.nanoTime();
+        long measuredFrom = started + options.warmup().toNanos();
+        long end = started + options.duration().toNanos();
+
+        long arrival = started;
+        for (int i = 0; arrival < end; i++) {
+            parkUntil(arrival);
+            if (inFlight.incrementAndGet() > options.maxInFlight()) {
+                inFlight.decrementAndGet();
+                dropped.incrementAndGet();
+            } else {
+                int index = i;
+                long intended = arrival;
+                boolean measured = arrival >= measuredFrom;
+                workers.execute(() -> {
+                    try {
+                        register(index, intended, measured);
+                    } finally {
+                        inFlight.decrementAndGet();
+                    }
+                });
+            }
+            arrival += options.poisson()
+                ? (long) (-Math.log(1 - ThreadLocalRandom.current().nextDouble()) * meanIntervalNanos)
+                : meanIntervalNanos;
+        }
+
+        workers.shutdown();
+        long drainSeconds = options.timeout().multipliedBy(4).plus(options.thinkTime()).toSeconds();
+        if (!workers.awaitTermination(drainSeconds, TimeUnit.SECONDS)) {
+            System.out.println(inFlight.get() + " registrations still in flight, report is partial");
+        }
+        return System.nanoTime() - measuredFrom;
+    }
+
+    private void register(int index, long intended, boolean measured) {
+        String businessKey = "load-" + index;
+        String email = businessKey + "@example.com";
+        CompletableFuture<Long> delivered = delivery(email);
+        String processInstanceId = null;
+        Stage stage = Stage.START;
+        try {
+            processInstanceId = runtimeService.startProcessInstanceByKey(RegistrationState.PROCESS_KEY, businessKey,
+                Map.of("userName", "Load User " + index, "userEmail", email)).getId();
+            long startedAt = System.nanoTime();
+            record(measured, Stage.START, startedAt - intended);
+
+            stage = Stage.CREATE_REGISTRATION;
+            long waitingAt = await(probes.waiting(processInstanceId));
+            record(measured, Stage.CREATE_REGISTRATION, waitingAt - startedAt);
+
+            stage = Stage.EMAIL_DELIVERY;
+            long deliveredAt = await(delivered);
+            record(measured, Stage.EMAIL_DELIVERY, Math.max(0, deliveredAt - waitingAt));
+
+            if (!options.thinkTime().isZero()) {
+                Thread.sleep(options.thinkTime().toMillis());
+            }
+            stage = Stage.CONFIRMATION;
+            long confirmingAt = System.nanoTime();
+            confirm(businessKey);
+            long completedAt = await(probes.completed(processInstanceId));
+            record(measured, Stage.CONFIRMATION, completedAt - confirmingAt);
+            record(measured, Stage.END_TO_END, completedAt - intended - options.thinkTime().toNanos());
+            if (measured) {
+                completed.increment();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            errors.get(stage).increment();
+        } catch (RuntimeException | ExecutionException | TimeoutException e) {
+            errors.get(stage).increment();
+        } finally {
+            deliveries.remove(email);
+            if (processInstanceId != null) {
+                probes.forget(processInstanceId);
+            }
+        }
+    }
+
+    /**
+     * Подтверждение может столкнуться с outbox, который выставляет emailSent в том же экземпляре;
+     * такая корреляция откатывается и повторяется.
+     */
+    private void confirm(String businessKey) {
+        for (int attempt = 1; ; attempt++) {
+            ConfirmationResult result = confirmationService.confirm(new EmailConfirmation(null, businessKey));
+            if (result.status() == ConfirmationResult.Status.CORRELATED) {
+                return;
+            }
+            if (result.status() != ConfirmationResult.Status.FAILED || attempt == 3) {
+                throw new IllegalStateException("Confirmation of " + businessKey + " " + result.status()
+                    + ": " + result.error());
+            }
+            confirmationRetries.increment();
+        }
+    }
+
+    private long await(CompletableFuture<Long> future)
+            throws InterruptedException, ExecutionException, TimeoutException {
+        return future.get(options.timeout().toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    private CompletableFuture<Long> delivery(String email) {
+        return deliveries.computeIfAbsent(email, key -> new CompletableFuture<>());
+    }
+
+    private void emailDelivered(String body) {
+        long deliveredAt = System.nanoTime();
+        try {
+            String recipient = objectMapper.readTree(body).path("to").asText(null);
+            if (recipient != null) {
+                CompletableFuture<Long> delivery = deliveries.get(recipient);
+                if (delivery != null) {
+                    // Заглушка сообщает только об успешных ответах; если outbox отправит письмо
+                    // повторно, момент первой доставки не меняется
+                    delivery.complete(deliveredAt);
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Unexpected send-email request: " + body, e);
+        }
+    }
+
+    private void record(boolean measured, Stage stage, long nanos) {
+        if (measured) {
+            histograms.get(stage).recordValue(Math.min(HIGHEST_TRACKABLE_MICROS, Math.max(0, nanos / 1_000)));
+        }
+    }
+
+    private static void parkUntil(long deadline) {
+        long remaining;
+        while ((remaining = deadline - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remaining);
+        }
+    }
+
+    private void report(long measuredNanos) throws IOException {
+        double seconds = measuredNanos / 1e9;
+        System.out.printf("%nCompleted %d registrations in %.1f s (%.1f/s), dropped %d, confirmation retries %d%n%n",
+            completed.sum(), seconds, completed.sum() / seconds, dropped.get(), confirmationRetries.sum());
+        System.out.printf("%-20s %8s %7s %9s %9s %9s %9s %9s%n",
+            "stage", "count", "errors", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+
+        Files.createDirectories(options.output());
+        for (Stage stage : Stage.values()) {
+            Histogram histogram = histograms.get(stage);
+            System.out.printf("%-20s %8d %7d", stage.label, histogram.getTotalCount(), errors.get(stage).sum());
+            for (double percentile : PERCENTILES) {
+                System.out.printf(" %9.2f", histogram.getValueAtPercentile(percentile) / 1000.0);
+            }
+            System.out.printf(" %9.2f%n", histogram.getMaxValue() / 1000.0);
+
+            try (PrintStream out = new PrintStream(
+                    Files.newOutputStream(options.output().resolve(stage.label + ".hgrm")))) {
+                histogram.outputPercentileDistribution(out, 1000.0);
+            }
+        }
+        System.out.println("\nHistograms: " + options.output().toAbsolutePath());
+    }
+}
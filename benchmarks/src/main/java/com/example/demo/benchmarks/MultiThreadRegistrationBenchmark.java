@@ -0,0 +1,11 @@
+package com.example.demo.benchmarks;
+
+import org.openjdk.jmh.annotations.Threads;
+
+/**
+ * Бенчмарки процесса регистрации в несколько потоков:
+ * конкурентный доступ к движку и пулу соединений БД.
+ */
+@Threads(8)
+public class MultiThreadRegistrationBenchmark extends AbstractRegistrationBenchmark {
+}
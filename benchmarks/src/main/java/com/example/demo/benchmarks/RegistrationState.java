@@ -0,0 +1,102 @@
+package com.example.demo.benchmarks;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.camunda.bpm.engine.ManagementService;
+import org.camunda.bpm.engine.RuntimeService;
+import org.camunda.bpm.engine.runtime.ProcessInstance;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Общее состояние бенчмарков процесса регистрации: поднятый движок
+ * и заглушки SERVICE_API и сервиса отправки email. Создается один раз на trial для каждого уровня истории.
+ */
+@State(Scope.Benchmark)
+public class RegistrationState {
+
+    public static final String PROCESS_KEY = "user-registration-process";
+    public static final String RECEIVE_TASK_ID = "Activity_0g1mra7";
+    public static final String MESSAGE_NAME = "email_confirmed_message";
+
+    @Param({"full", "audit", "none"})
+    public String historyLevel;
+
+    /** BUFFERED - история пишется фоновым потоком, TRANSACTIONAL - в транзакции движка */
+    @Param({"BUFFERED", "TRANSACTIONAL"})
+    public String historyDurability;
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    private ServiceApiStub serviceApi;
+    private ServiceApiStub emailApi;
+    private ConfigurableApplicationContext context;
+    private RuntimeService runtimeService;
+    private ManagementService managementService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        serviceApi = ServiceApiStub.start();
+        emailApi = ServiceApiStub.start();
+        // Outbox диспетчер отправляет email в фоне, в заглушку
+        context = EngineBootstrap.start(historyLevel, Map.of(
+            "email.outbox.url", emailApi.baseUrl() + "/send-email",
+            "history.buffer.durability", historyDurability));
+        runtimeService = context.getBean(RuntimeService.class);
+        managementService = context.getBean(ManagementService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (context != null) {
+            context.close();
+        }
+        if (serviceApi != null) {
+            serviceApi.close();
+        }
+        if (emailApi != null) {
+            emailApi.close();
+        }
+    }
+
+    /**
+     * Запускает процесс регистрации и выполняет async continuation create-registration-task,
+     * после чего экземпляр ожидает на ReceiveTask Activity_0g1mra7.
+     */
+    public ProcessInstance startRegistration() {
+        long n = sequence.incrementAndGet();
+        Map<String, Object> variables = new HashMap<>();
+        variables.put("userName", "Bench User " + n);
+        variables.put("userEmail", "bench" + n + "@example.com");
+        variables.put("SERVICE_API", serviceApi.baseUrl());
+        ProcessInstance processInstance = runtimeService.startProcessInstanceByKey(PROCESS_KEY, "bench-" + n, variables);
+        String jobId = managementService.createJobQuery()
+            .processInstanceId(processInstance.getId())
+            .singleResult()
+            .getId();
+        managementService.executeJob(jobId);
+        return processInstance;
+    }
+
+    /**
+     * Коррелирует email_confirmed_message; business rule task Activity_RouteNextProcess выполняется
+     * синхронно в той же транзакции, поэтому после вызова экземпляр завершен.
+     */
+    public void confirmEmail(String processInstanceId) {
+        runtimeService.createMessageCorrelation(MESSAGE_NAME)
+            .processInstanceId(processInstanceId)
+            .setVariable("emailConfirmed", true)
+            .correlate();
+    }
+
+    public RuntimeService runtimeService() {
+        return runtimeService;
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.demo.benchmarks;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Локальная заглушка внешних HTTP сервисов для бенчмарков.
+ * Отвечает 200 OK с пустым JSON на любой POST, чтобы сервис таски
+ * процесса не уходили в сеть. Задержка и доля ошибок задаются {@link StubBehavior}.
+ */
+public final class ServiceApiStub implements AutoCloseable {
+
+    private static final byte[] RESPONSE = "{}".getBytes(StandardCharsets.UTF_8);
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final StubBehavior behavior;
+    private volatile Consumer<String> requestListener;
+
+    private ServiceApiStub(HttpServer server, ExecutorService executor, StubBehavior behavior) {
+        this.server = server;
+        this.executor = executor;
+        this.behavior = behavior;
+    }
+
+    public static ServiceApiStub start() {
+        return start(0);
+    }
+
+    /**
+     * @param port порт для заглушки, 0 - любой свободный
+     */
+    public static ServiceApiStub start(int port) {
+        return start(port, 0, 16);
+    }
+
+    /**
+     * Заглушка с искусственной задержкой ответа, имитирующей сетевой вызов.
+     *
+     * @param port          порт для заглушки, 0 - любой свободный
+     * @param latencyMillis задержка перед ответом
+     * @param threads       число потоков, обрабатывающих запросы одновременно
+     */
+    public static ServiceApiStub start(int port, long latencyMillis, int threads) {
+        return start(port, StubBehavior.fixed(latencyMillis), threads);
+    }
+
+    /**
+     * Заглушка с распределением задержки и долей ответов с ошибкой.
+     *
+     * @param port     порт для заглушки, 0 - любой свободный
+     * @param behavior задержка и ошибки ответов
+     * @param threads  число потоков, обрабатывающих запросы одновременно
+     */
+    public static ServiceApiStub start(int port, StubBehavior behavior, int threads) {
+        try {
+            HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 0);
+            ExecutorService executor = Executors.newFixedThreadPool(threads);
+            server.setExecutor(executor);
+            ServiceApiStub stub = new ServiceApiStub(server, executor, behavior);
+            server.createContext("/", stub::handle);
+            server.start();
+            return stub;
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot start service API stub", e);
+        }
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        Consumer<String> listener = requestListener;
+        String requestBody = null;
+        try (InputStream body = exchange.getRequestBody()) {
+            if (listener != null) {
+                requestBody = new String(body.readAllBytes(), StandardCharsets.UTF_8);
+            } else {
+                body.transferTo(OutputStream.nullOutputStream());
+            }
+        }
+        long latencyMillis = behavior.nextLatencyMillis();
+        if (latencyMillis > 0) {
+            try {
+                Thread.sleep(latencyMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        int status = behavior.nextStatus();
+        if (listener != null && status == 200) {
+            listener.accept(requestBody);
+        }
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, RESPONSE.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(RESPONSE);
+        }
+    }
+
+    /**
+     * Базовый URL заглушки, передается в процесс как переменная SERVICE_API.
+     */
+    public String baseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    /**
+     * Получает тело каждого запроса, на который заглушка ответит 200, перед отправкой ответа;
+     * например, чтобы отметить время доставки email.
+     */
+    public void onRequest(Consumer<String> listener) {
+        this.requestListener = listener;
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+}
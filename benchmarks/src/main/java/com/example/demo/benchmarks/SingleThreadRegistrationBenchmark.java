@@ -0,0 +1,10 @@
+package com.example.demo.benchmarks;
+
+import org.openjdk.jmh.annotations.Threads;
+
+/**
+ * Бенчмарки процесса регистрации в один поток.
+ */
+@Threads(1)
+public class SingleThreadRegistrationBenchmark extends AbstractRegistrationBenchmark {
+}
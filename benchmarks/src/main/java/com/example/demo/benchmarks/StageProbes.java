@@ -0,0 +1,81 @@
+package com.example.demo.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.camunda.bpm.engine.delegate.ExecutionListener;
+import org.camunda.bpm.engine.impl.bpmn.parser.AbstractBpmnParseListener;
+import org.camunda.bpm.engine.impl.cfg.AbstractProcessEnginePlugin;
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.camunda.bpm.engine.impl.cfg.TransactionState;
+import org.camunda.bpm.engine.impl.context.Context;
+import org.camunda.bpm.engine.impl.persistence.entity.ProcessDefinitionEntity;
+import org.camunda.bpm.engine.impl.pvm.process.ActivityImpl;
+import org.camunda.bpm.engine.impl.util.xml.Element;
+
+/**
+ * Плагин движка для нагрузочного теста: отмечает, когда экземпляр user-registration-process
+ * встал на ReceiveTask {@link RegistrationState#RECEIVE_TASK_ID} и когда завершился.
+ *
+ * Момент берется после коммита транзакции, в которой это произошло, то есть когда состояние
+ * уже видно другим потокам (например, корреляции подтверждения). Ожидающий поток получает
+ * его через CompletableFuture по id экземпляра.
+ *
+ * Не помечен @Component, чтобы не попадать в контексты бенчмарков через сканирование
+ * com.example.demo; подключается как источник Spring в {@link EngineBootstrap}.
+ */
+public class StageProbes extends AbstractProcessEnginePlugin {
+
+    private final Map<String, CompletableFuture<Long>> waiting = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<Long>> completed = new ConcurrentHashMap<>();
+
+    @Override
+    public void preInit(ProcessEngineConfigurationImpl configuration) {
+        if (configuration.getCustomPostBPMNParseListeners() == null) {
+            configuration.setCustomPostBPMNParseListeners(new ArrayList<>());
+        }
+        configuration.getCustomPostBPMNParseListeners().add(new AbstractBpmnParseListener() {
+            @Override
+            public void parseProcess(Element processElement, ProcessDefinitionEntity processDefinition) {
+                if (!RegistrationState.PROCESS_KEY.equals(processDefinition.getKey())) {
+                    return;
+                }
+                ActivityImpl receiveTask = processDefinition.findActivity(RegistrationState.RECEIVE_TASK_ID);
+                if (receiveTask != null) {
+                    receiveTask.addBuiltInListener(ExecutionListener.EVENTNAME_START, probe(waiting));
+                }
+                processDefinition.addBuiltInListener(ExecutionListener.EVENTNAME_END, probe(completed));
+            }
+        });
+    }
+
+    /**
+     * Момент (System.nanoTime) коммита, после которого экземпляр ждет на ReceiveTask.
+     */
+    public CompletableFuture<Long> waiting(String processInstanceId) {
+        return waiting.computeIfAbsent(processInstanceId, id -> new CompletableFuture<>());
+    }
+
+    /**
+     * Момент (System.nanoTime) коммита, в котором экземпляр завершился.
+     */
+    public CompletableFuture<Long> completed(String processInstanceId) {
+        return completed.computeIfAbsent(processInstanceId, id -> new CompletableFuture<>());
+    }
+
+    public void forget(String processInstanceId) {
+        waiting.remove(processInstanceId);
+        completed.remove(processInstanceId);
+    }
+
+    private static ExecutionListener probe(Map<String, CompletableFuture<Long>> futures) {
+        return execution -> {
+            String processInstanceId = execution.getProcessInstanceId();
+            Context.getCommandContext().getTransactionContext().addTransactionListener(TransactionState.COMMITTED,
+                commandContext -> futures.computeIfAbsent(processInstanceId, id -> new CompletableFuture<>())
+                    .complete(System.nanoTime()));
+        };
+    }
+}
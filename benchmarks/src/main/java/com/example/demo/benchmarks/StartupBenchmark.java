@@ -0,0 +1,114 @@
+package com.example.demo.benchmarks;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.camunda.bpm.model.bpmn.Bpmn;
+import org.camunda.bpm.model.bpmn.builder.AbstractFlowNodeBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Время старта приложения (до готового движка) при повторном запуске на той же БД
+ * с {@link #models} моделями BPMN, в которых ничего не изменилось.
+ *
+ * Модели генерируются во временный каталог, camunda.bpm.deployment-resource-pattern
+ * указывает только на него. Первый запуск в {@link #setUp()} деплоит модели, замеряются
+ * последующие: с camunda.deployment.fingerprint.enabled=true деплой пропускается по хэшу
+ * ресурсов, с false стартер разбирает и сравнивает все модели с последним деплойментом.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 10)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StartupBenchmark {
+
+    /** Service task в каждой модели, чтобы разбор модели был не тривиальным */
+    static final int TASKS_PER_MODEL = 10;
+
+    @Param({"1", "50", "500"})
+    public int models;
+
+    @Param({"true", "false"})
+    public boolean fingerprint;
+
+    private Path modelsDirectory;
+    private Map<String, Object> properties;
+    private ConfigurableApplicationContext context;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        modelsDirectory = Files.createTempDirectory("startup-models-");
+        for (int i = 0; i < models; i++) {
+            writeModel(modelsDirectory.resolve("startup-model-" + i + ".bpmn"), "startup-model-" + i);
+        }
+        properties = Map.of(
+            // Именованная БД переживает закрытие контекста, следующий запуск видит прошлый деплоймент
+            "spring.datasource.url",
+            "jdbc:h2:mem:startup-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+            "camunda.bpm.deployment-resource-pattern", modelsDirectory.toUri() + "*.bpmn",
+            "camunda.deployment.fingerprint.enabled", String.valueOf(fingerprint),
+            "email.outbox.enabled", "false");
+        EngineBootstrap.start("none", properties).close();
+    }
+
+    @TearDown(Level.Iteration)
+    public void closeContext() {
+        if (context != null) {
+            context.close();
+            context = null;
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteModels() throws IOException {
+        try (Stream<Path> files = Files.list(modelsDirectory)) {
+            files.forEach(StartupBenchmark::delete);
+        }
+        Files.delete(modelsDirectory);
+    }
+
+    @Benchmark
+    public ConfigurableApplicationContext restart() {
+        context = EngineBootstrap.start("none", properties);
+        return context;
+    }
+
+    private static void writeModel(Path file, String processKey) {
+        AbstractFlowNodeBuilder<?, ?> builder = Bpmn.createExecutableProcess(processKey)
+            .camundaHistoryTimeToLive(180)
+            .startEvent();
+        for (int task = 0; task < TASKS_PER_MODEL; task++) {
+            builder = builder.serviceTask("Task_" + task).camundaExpression("${true}");
+        }
+        Bpmn.writeModelToFile(file.toFile(), builder.userTask("Task_Review").endEvent().done());
+    }
+
+    private static void delete(Path file) {
+        try {
+            Files.delete(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.demo.benchmarks;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Поведение заглушки HTTP сервиса: распределение задержки ответа и доля ответов с ошибкой.
+ *
+ * Задержка задается строкой:
+ * - none - без задержки;
+ * - fixed:20 - всегда 20 мс;
+ * - uniform:10-50 - равномерно от 10 до 50 мс;
+ * - lognormal:20,0.5 - логнормальное с медианой 20 мс и sigma 0.5 (длинный хвост, как у сети).
+ *
+ * @param latency     строка распределения задержки
+ * @param errorRate   доля ответов с кодом errorStatus, от 0 до 1
+ * @param errorStatus HTTP статус ответа с ошибкой
+ */
+public record StubBehavior(String latency, double errorRate, int errorStatus) {
+
+    public StubBehavior {
+        if (errorRate < 0 || errorRate > 1) {
+            throw new IllegalArgumentException("Error rate must be between 0 and 1: " + errorRate);
+        }
+        // Проверяем строку распределения сразу, а не на первом запросе
+        sample(latency, 0.5, 0.5);
+    }
+
+    public static StubBehavior fixed(long latencyMillis) {
+        return new StubBehavior(latencyMillis > 0 ? "fixed:" + latencyMillis : "none", 0, 500);
+    }
+
+    public static StubBehavior of(String latency, double errorRate) {
+        return new StubBehavior(latency, errorRate, 500);
+    }
+
+    /**
+     * Задержка очередного ответа, мс.
+     */
+    public long nextLatencyMillis() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return sample(latency, random.nextDouble(), random.nextGaussian());
+    }
+
+    /**
+     * HTTP статус очередного ответа.
+     */
+    public int nextStatus() {
+        return errorRate > 0 && ThreadLocalRandom.current().nextDouble() < errorRate ? errorStatus : 200;
+    }
+
+    private static long sample(String latency, double uniform, double gaussian) {
+        String[] spec = latency.trim().split(":", 2);
+        try {
+            switch (spec[0]) {
+                case "none":
+                    return 0;
+                case "fixed":
+                    return Long.parseLong(spec[1].trim());
+                case "uniform": {
+                    String[] bounds = spec[1].split("-");
+                    long min = Long.parseLong(bounds[0].trim());
+                    long max = Long.parseLong(bounds[1].trim());
+                    return min + Math.round((max - min) * uniform);
+                }
+                case "lognormal": {
+                    String[] parameters = spec[1].split(",");
+                    double median = Double.parseDouble(parameters[0].trim());
+                    double sigma = Double.parseDouble(parameters[1].trim());
+                    return Math.round(median * Math.exp(sigma * gaussian));
+                }
+                default:
+                    break;
+            }
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid latency distribution: " + latency, e);
+        }
+        throw new IllegalArgumentException("Unknown latency distribution: " + latency);
+    }
+}
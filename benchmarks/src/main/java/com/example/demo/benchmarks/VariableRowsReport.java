@@ -0,0 +1,106 @@
+package com.example.demo.benchmarks;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.camunda.bpm.engine.ManagementService;
+import org.camunda.bpm.engine.RuntimeService;
+import org.camunda.bpm.engine.runtime.ProcessInstance;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Количество строк переменных, записанных на один экземпляр user-registration-process:
+ * с обычными переменными и с упаковкой userId/confirmationToken/registrationDate
+ * в одну переменную (camunda.variable-packing.enabled=true).
+ *
+ * История full: каждая запись переменной дает строку в ACT_HI_VARINST и ACT_HI_DETAIL,
+ * поэтому их прирост равен числу вставок/обновлений переменных. ACT_RU_VARIABLE считается,
+ * пока экземпляр ждет на ReceiveTask. "value bytes" - суммарная длина NAME_, TEXT_ и TEXT2_
+ * строк истории переменных, "ms" - среднее время старта, job и корреляции.
+ */
+public final class VariableRowsReport {
+
+    static final int INSTANCES = 200;
+
+    private static final String RUNTIME_TABLE = "ACT_RU_VARIABLE";
+    private static final List<String> TABLES = List.of("ACT_HI_VARINST", "ACT_HI_DETAIL");
+    private static final String VALUE_BYTES = "value bytes";
+    private static final String MILLIS = "ms";
+
+    private VariableRowsReport() {
+    }
+
+    public static void main(String[] args) {
+        Map<String, Map<String, Double>> report = new LinkedHashMap<>();
+        report.put("plain", rowsPerInstance(false));
+        report.put("packed", rowsPerInstance(true));
+
+        System.out.printf("%-15s %16s %16s %16s %12s %8s%n",
+            "mode", RUNTIME_TABLE, TABLES.get(0), TABLES.get(1), VALUE_BYTES, MILLIS);
+        report.forEach((mode, rows) -> System.out.printf("%-15s %16.1f %16.1f %16.1f %12.1f %8.2f%n",
+            mode, rows.get(RUNTIME_TABLE), rows.get(TABLES.get(0)), rows.get(TABLES.get(1)),
+            rows.get(VALUE_BYTES), rows.get(MILLIS)));
+    }
+
+    private static Map<String, Double> rowsPerInstance(boolean packed) {
+        try (ServiceApiStub serviceApi = ServiceApiStub.start();
+             ServiceApiStub emailApi = ServiceApiStub.start();
+             ConfigurableApplicationContext context = EngineBootstrap.start("full", Map.of(
+                 "camunda.variable-packing.enabled", String.valueOf(packed),
+                 // Outbox выставляет emailSent в фоне, в подсчет это не должно попадать
+                 "email.outbox.enabled", "false",
+                 "email.outbox.url", emailApi.baseUrl() + "/send-email"))) {
+
+            RuntimeService runtimeService = context.getBean(RuntimeService.class);
+            ManagementService managementService = context.getBean(ManagementService.class);
+            JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+
+            Map<String, Long> before = count(jdbcTemplate);
+            long runtimeRows = 0;
+            long started = System.nanoTime();
+            long countingNanos = 0;
+            for (int i = 0; i < INSTANCES; i++) {
+                ProcessInstance processInstance = runtimeService.startProcessInstanceByKey(
+                    RegistrationState.PROCESS_KEY, "rows-" + i, Map.of("SERVICE_API", serviceApi.baseUrl()));
+                managementService.executeJob(managementService.createJobQuery()
+                    .processInstanceId(processInstance.getId())
+                    .singleResult()
+                    .getId());
+
+                long countingStarted = System.nanoTime();
+                runtimeRows += jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM " + RUNTIME_TABLE + " WHERE PROC_INST_ID_ = ?", Long.class,
+                    processInstance.getId());
+                countingNanos += System.nanoTime() - countingStarted;
+
+                runtimeService.createMessageCorrelation(RegistrationState.MESSAGE_NAME)
+                    .processInstanceId(processInstance.getId())
+                    .setVariable("emailConfirmed", true)
+                    .correlate();
+            }
+            double millis = (System.nanoTime() - started - countingNanos) / 1_000_000.0 / INSTANCES;
+            Map<String, Long> after = count(jdbcTemplate);
+
+            Map<String, Double> perInstance = new LinkedHashMap<>();
+            perInstance.put(RUNTIME_TABLE, runtimeRows / (double) INSTANCES);
+            TABLES.forEach(table -> perInstance.put(table, (after.get(table) - before.get(table)) / (double) INSTANCES));
+            perInstance.put(VALUE_BYTES, (after.get(VALUE_BYTES) - before.get(VALUE_BYTES)) / (double) INSTANCES);
+            perInstance.put(MILLIS, millis);
+            return perInstance;
+        }
+    }
+
+    private static Map<String, Long> count(JdbcTemplate jdbcTemplate) {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        long valueBytes = 0;
+        for (String table : TABLES) {
+            counts.put(table, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table, Long.class));
+            valueBytes += jdbcTemplate.queryForObject("SELECT COALESCE(SUM(LENGTH(NAME_)"
+                + " + COALESCE(LENGTH(TEXT_), 0) + COALESCE(LENGTH(TEXT2_), 0)), 0) FROM " + table, Long.class);
+        }
+        counts.put(VALUE_BYTES, valueBytes);
+        return counts;
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.demo.config;
+
+import org.camunda.bpm.engine.impl.jobexecutor.JobExecutor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Job executor для async continuation.
+ *
+ * При camunda.job-executor.virtual-threads.enabled=true (Spring профиль java21) пул
+ * camundaTaskExecutor стартера Camunda заменяется исполнением каждой пачки job на
+ * отдельном виртуальном потоке, число одновременных пачек ограничено maxConcurrency.
+ * Выборка job (размер пачки, backoff) настраивается через camunda.bpm.job-execution.*.
+ *
+ * В обоих режимах публикуются метрики {@link JobExecutorMetrics}.
+ */
+@Configuration
+@EnableConfigurationProperties(JobExecutorProperties.class)
+public class JobExecutorConfiguration {
+
+    /** Имя TaskExecutor, который стартер Camunda передает в SpringJobExecutor */
+    public static final String CAMUNDA_TASK_EXECUTOR = "camundaTaskExecutor";
+
+    @Bean
+    public JobExecutorMetrics jobExecutorMetrics(MeterRegistry meterRegistry) {
+        return new JobExecutorMetrics(meterRegistry);
+    }
+
+    @Bean(name = CAMUNDA_TASK_EXECUTOR)
+    @ConditionalOnProperty(name = "camunda.job-executor.virtual-threads.enabled", havingValue = "true")
+    public SimpleAsyncTaskExecutor virtualThreadTaskExecutor(JobExecutorProperties properties) {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("camunda-job-");
+        // На Java 17 бросает UnsupportedOperationException: профиль java21 требует Java 21
+        executor.setVirtualThreads(true);
+        executor.setConcurrencyLimit(properties.getMaxConcurrency());
+        return executor;
+    }
+
+    /**
+     * Подключает метрики к TaskExecutor и JobExecutor, созданным стартером Camunda или выше.
+     */
+    @Bean
+    public static BeanPostProcessor jobExecutorMetricsPostProcessor(ObjectProvider<JobExecutorMetrics> metrics,
+                                                                    ObjectProvider<MeterRegistry> meterRegistry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (CAMUNDA_TASK_EXECUTOR.equals(beanName) && bean instanceof TaskExecutor taskExecutor) {
+                    if (taskExecutor instanceof ThreadPoolTaskExecutor pool) {
+                        pool.setTaskDecorator(metrics.getObject());
+                    } else if (taskExecutor instanceof SimpleAsyncTaskExecutor simple) {
+                        simple.setTaskDecorator(metrics.getObject());
+                    }
+                    metrics.getObject().bindQueueDepth(meterRegistry.getObject(), taskExecutor);
+                }
+                if (bean instanceof JobExecutor jobExecutor) {
+                    metrics.getObject().instrumentAcquisition(jobExecutor);
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.demo.config;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.camunda.bpm.engine.impl.cmd.AcquireJobsCmd;
+import org.camunda.bpm.engine.impl.interceptor.Command;
+import org.camunda.bpm.engine.impl.jobexecutor.AcquireJobsCommandFactory;
+import org.camunda.bpm.engine.impl.jobexecutor.AcquiredJobs;
+import org.camunda.bpm.engine.impl.jobexecutor.JobExecutor;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Метрики job executor:
+ * camunda.job-executor.acquisition - время выборки пачки job из БД,
+ * camunda.job-executor.job.wait - время от передачи пачки в пул до начала выполнения,
+ * camunda.job-executor.queue.depth - пачки, переданные в пул и ожидающие потока,
+ * camunda.job-executor.active - выполняемые пачки.
+ */
+public class JobExecutorMetrics implements TaskDecorator {
+
+    private final Timer acquisition;
+    private final Timer jobWait;
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicInteger active = new AtomicInteger();
+
+    public JobExecutorMetrics(MeterRegistry meterRegistry) {
+        this.acquisition = Timer.builder("camunda.job-executor.acquisition")
+            .description("Job acquisition command duration")
+            .publishPercentiles(0.5, 0.99)
+            .register(meterRegistry);
+        this.jobWait = Timer.builder("camunda.job-executor.job.wait")
+            .description("Time acquired jobs wait for an executor thread")
+            .publishPercentiles(0.5, 0.99)
+            .register(meterRegistry);
+        Gauge.builder("camunda.job-executor.active", active, AtomicInteger::get)
+            .description("Job batches being executed")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Регистрирует глубину очереди: для пула потоков - размер его очереди,
+     * для виртуальных потоков - число пачек, ожидающих слота maxConcurrency.
+     */
+    void bindQueueDepth(MeterRegistry meterRegistry, TaskExecutor taskExecutor) {
+        Gauge.Builder<?> gauge = taskExecutor instanceof ThreadPoolTaskExecutor pool
+            ? Gauge.builder("camunda.job-executor.queue.depth", pool, ThreadPoolTaskExecutor::getQueueSize)
+            : Gauge.builder("camunda.job-executor.queue.depth", queued, AtomicInteger::get);
+        gauge.description("Acquired job batches waiting for an executor thread").register(meterRegistry);
+    }
+
+    /**
+     * Оборачивает команду выборки job замером времени.
+     */
+    void instrumentAcquisition(JobExecutor jobExecutor) {
+        AcquireJobsCommandFactory acquireJobs = numJobs -> {
+            Command<AcquiredJobs> command = new AcquireJobsCmd(jobExecutor, numJobs);
+            return commandContext -> acquisition.record(() -> command.execute(commandContext));
+        };
+        jobExecutor.setAcquireJobsCmdFactory(acquireJobs);
+    }
+
+    @Override
+    public Runnable decorate(Runnable runnable) {
+        long submitted = System.nanoTime();
+        queued.incrementAndGet();
+        return () -> {
+            queued.decrementAndGet();
+            jobWait.record(System.nanoTime() - submitted, TimeUnit.NANOSECONDS);
+            active.incrementAndGet();
+            try {
+                runnable.run();
+            } finally {
+                active.decrementAndGet();
+            }
+        };
+    }
+}
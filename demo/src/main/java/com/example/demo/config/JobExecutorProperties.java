@@ -0,0 +1,36 @@
+package com.example.demo.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Настройки исполнения job на виртуальных потоках (префикс camunda.job-executor.virtual-threads).
+ * Размер пачки и backoff выборки задаются стандартными camunda.bpm.job-execution.*.
+ */
+@ConfigurationProperties(prefix = "camunda.job-executor.virtual-threads")
+public class JobExecutorProperties {
+
+    /** Выполнять job на виртуальных потоках (требуется Java 21) */
+    private boolean enabled = false;
+
+    /**
+     * Максимум одновременно выполняемых job. При достижении лимита поток выборки job ждет,
+     * что ограничивает нагрузку на пул соединений БД и внешние сервисы.
+     */
+    private int maxConcurrency = 256;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    public void setMaxConcurrency(int maxConcurrency) {
+        this.maxConcurrency = maxConcurrency;
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.demo.config;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.client.RestClient;
+
+import com.example.demo.outbound.OutboundGateInterceptor;
+import com.example.demo.tracing.TracingHttpInterceptor;
+
+/**
+ * Общий HTTP клиент для SERVICE_API: пул keep-alive соединений
+ * вместо нового соединения http-connector на каждый экземпляр процесса.
+ * Все вызовы проходят через {@link OutboundGateInterceptor} (лимит одновременных вызовов и circuit breaker).
+ */
+@Configuration
+@EnableConfigurationProperties(ServiceApiClientProperties.class)
+public class ServiceApiClientConfiguration {
+
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient serviceApiHttpClient(ServiceApiClientProperties properties) {
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+            .setMaxConnTotal(properties.getMaxConnections())
+            .setMaxConnPerRoute(properties.getMaxConnectionsPerRoute())
+            .setDefaultConnectionConfig(ConnectionConfig.custom()
+                .setConnectTimeout(Timeout.of(properties.getConnectTimeout()))
+                .setSocketTimeout(Timeout.of(properties.getResponseTimeout()))
+                .build())
+            .build();
+
+        return HttpClients.custom()
+            .setConnectionManager(connectionManager)
+            .setDefaultRequestConfig(RequestConfig.custom()
+                .setConnectionRequestTimeout(Timeout.of(properties.getConnectionRequestTimeout()))
+                .setResponseTimeout(Timeout.of(properties.getResponseTimeout()))
+                .build())
+            .evictIdleConnections(TimeValue.of(properties.getIdleTimeout().toMillis(), TimeUnit.MILLISECONDS))
+            .evictExpiredConnections()
+            .build();
+    }
+
+    @Bean
+    public RestClient serviceApiRestClient(CloseableHttpClient serviceApiHttpClient,
+                                           OutboundGateInterceptor outboundGateInterceptor,
+                                           ObjectProvider<TracingHttpInterceptor> tracingHttpInterceptor) {
+        RestClient.Builder builder = RestClient.builder()
+            .requestFactory(new HttpComponentsClientHttpRequestFactory(serviceApiHttpClient));
+        // Трассировка добавляется первой, чтобы время вызова включало ожидание в gate
+        tracingHttpInterceptor.ifAvailable(builder::requestInterceptor);
+        return builder
+            .requestInterceptor(outboundGateInterceptor)
+            .build();
+    }
+}
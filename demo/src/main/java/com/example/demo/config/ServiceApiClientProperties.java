@@ -0,0 +1,89 @@
+package com.example.demo.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Настройки HTTP клиента для вызовов SERVICE_API (префикс service-api.client).
+ */
+@ConfigurationProperties(prefix = "service-api.client")
+public class ServiceApiClientProperties {
+
+    /** Адрес SERVICE_API, если он не передан переменной процесса SERVICE_API */
+    private String baseUrl = "http://localhost:8084";
+
+    /** Максимум соединений в пуле */
+    private int maxConnections = 200;
+
+    /** Максимум соединений на один хост (route) */
+    private int maxConnectionsPerRoute = 50;
+
+    /** Таймаут установки соединения */
+    private Duration connectTimeout = Duration.ofSeconds(2);
+
+    /** Таймаут ожидания ответа */
+    private Duration responseTimeout = Duration.ofSeconds(5);
+
+    /** Таймаут ожидания свободного соединения из пула */
+    private Duration connectionRequestTimeout = Duration.ofSeconds(1);
+
+    /** Время жизни простаивающего keep-alive соединения */
+    private Duration idleTimeout = Duration.ofSeconds(30);
+
+    public String getBaseUrl() {
+        return baseUrl;
+    }
+
+    public void setBaseUrl(String baseUrl) {
+        this.baseUrl = baseUrl;
+    }
+
+    public int getMaxConnections() {
+        return maxConnections;
+    }
+
+    public void setMaxConnections(int maxConnections) {
+        this.maxConnections = maxConnections;
+    }
+
+    public int getMaxConnectionsPerRoute() {
+        return maxConnectionsPerRoute;
+    }
+
+    public void setMaxConnectionsPerRoute(int maxConnectionsPerRoute) {
+        this.maxConnectionsPerRoute = maxConnectionsPerRoute;
+    }
+
+    public Duration getConnectTimeout() {
+        return connectTimeout;
+    }
+
+    public void setConnectTimeout(Duration connectTimeout) {
+        this.connectTimeout = connectTimeout;
+    }
+
+    public Duration getResponseTimeout() {
+        return responseTimeout;
+    }
+
+    public void setResponseTimeout(Duration responseTimeout) {
+        this.responseTimeout = responseTimeout;
+    }
+
+    public Duration getConnectionRequestTimeout() {
+        return connectionRequestTimeout;
+    }
+
+    public void setConnectionRequestTimeout(Duration connectionRequestTimeout) {
+        this.connectionRequestTimeout = connectionRequestTimeout;
+    }
+
+    public Duration getIdleTimeout() {
+        return idleTimeout;
+    }
+
+    public void setIdleTimeout(Duration idleTimeout) {
+        this.idleTimeout = idleTimeout;
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.demo.confirmation;
+
+/**
+ * Результат корреляции одного подтверждения.
+ */
+public record ConfirmationResult(
+    String confirmationToken,
+    String businessKey,
+    Status status,
+    String processInstanceId,
+    String error) {
+
+    public enum Status {
+        /** Сообщение коррелировано, экземпляр продолжил выполнение */
+        CORRELATED,
+        /** Нет экземпляра, ожидающего email_confirmed_message с таким ключом */
+        NOT_FOUND,
+        /** Некорректный запрос: не задан ни confirmationToken, ни businessKey */
+        INVALID,
+        /** Ошибка при выполнении процесса после корреляции */
+        FAILED
+    }
+
+    static ConfirmationResult correlated(EmailConfirmation confirmation, String processInstanceId) {
+        return new ConfirmationResult(confirmation.confirmationToken(), confirmation.businessKey(),
+            Status.CORRELATED, processInstanceId, null);
+    }
+
+    static ConfirmationResult failed(EmailConfirmation confirmation, Status status, String error) {
+        return new ConfirmationResult(confirmation.confirmationToken(), confirmation.businessKey(),
+            status, null, error);
+    }
+}
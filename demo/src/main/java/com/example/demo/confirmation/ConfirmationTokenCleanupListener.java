@@ -0,0 +1,27 @@
+package com.example.demo.confirmation;
+
+import org.camunda.bpm.engine.delegate.DelegateExecution;
+import org.camunda.bpm.engine.delegate.ExecutionListener;
+import org.springframework.stereotype.Component;
+
+import com.example.demo.variables.VariablePacking;
+
+/**
+ * Удаляет запись индекса confirmationToken при завершении (или отмене) ReceiveTask Activity_0g1mra7.
+ */
+@Component("confirmationTokenCleanupListener")
+public class ConfirmationTokenCleanupListener implements ExecutionListener {
+
+    private final ConfirmationTokenIndex tokenIndex;
+    private final VariablePacking variablePacking;
+
+    public ConfirmationTokenCleanupListener(ConfirmationTokenIndex tokenIndex, VariablePacking variablePacking) {
+        this.tokenIndex = tokenIndex;
+        this.variablePacking = variablePacking;
+    }
+
+    @Override
+    public void notify(DelegateExecution execution) {
+        tokenIndex.remove(execution.getProcessInstanceId(), (String) variablePacking.getVariable(execution, "confirmationToken"));
+    }
+}
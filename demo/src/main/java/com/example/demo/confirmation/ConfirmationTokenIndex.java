@@ -0,0 +1,87 @@
+package com.example.demo.confirmation;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * Индекс confirmationToken -> экземпляр процесса, ожидающий email_confirmed_message.
+ *
+ * Запись создается в InitVariablesDelegate вместе с токеном и удаляется
+ * ConfirmationTokenCleanupListener при завершении ReceiveTask Activity_0g1mra7,
+ * поэтому поиск идет по первичному ключу небольшой таблицы, а не по ACT_RU_VARIABLE.
+ *
+ * Кэш заполняется только при чтении. Устаревшая запись в кэше безопасна: корреляция
+ * по processInstanceId все равно проверяет подписку на сообщение.
+ */
+@Repository
+public class ConfirmationTokenIndex {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Cache<String, TokenTarget> cache;
+
+    public ConfirmationTokenIndex(JdbcTemplate jdbcTemplate, ConfirmationTokenIndexProperties properties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.cache = properties.isCacheEnabled()
+            ? Caffeine.newBuilder()
+                .maximumSize(properties.getCacheMaximumSize())
+                .expireAfterWrite(properties.getCacheExpireAfterWrite())
+                .build()
+            : null;
+    }
+
+    /**
+     * Регистрирует токен; вызывается в транзакции движка.
+     */
+    public void register(String confirmationToken, String processInstanceId) {
+        jdbcTemplate.update(
+            "INSERT INTO confirmation_token_index (confirmation_token, process_instance_id, created_at)"
+                + " VALUES (?, ?, ?)",
+            confirmationToken, processInstanceId, Timestamp.valueOf(LocalDateTime.now()));
+    }
+
+    public Optional<TokenTarget> find(String confirmationToken) {
+        if (cache != null) {
+            TokenTarget cached = cache.getIfPresent(confirmationToken);
+            if (cached != null) {
+                return Optional.of(cached);
+            }
+        }
+        List<TokenTarget> targets = jdbcTemplate.query(
+            "SELECT process_instance_id FROM confirmation_token_index WHERE confirmation_token = ?",
+            (rs, rowNum) -> new TokenTarget(rs.getString("process_instance_id")),
+            confirmationToken);
+        if (targets.isEmpty()) {
+            return Optional.empty();
+        }
+        TokenTarget target = targets.get(0);
+        if (cache != null) {
+            cache.put(confirmationToken, target);
+        }
+        return Optional.of(target);
+    }
+
+    /**
+     * Удаляет записи экземпляра процесса; вызывается в транзакции движка.
+     */
+    public void remove(String processInstanceId, String confirmationToken) {
+        jdbcTemplate.update("DELETE FROM confirmation_token_index WHERE process_instance_id = ?", processInstanceId);
+        if (cache != null && confirmationToken != null) {
+            cache.invalidate(confirmationToken);
+        }
+    }
+
+    /**
+     * Экземпляр процесса, ожидающий сообщения. Execution не хранится: при регистрации токена
+     * экземпляр еще не дошел до ReceiveTask, а корреляция по processInstanceId находит подписку сама.
+     */
+    public record TokenTarget(String processInstanceId) {
+    }
+}
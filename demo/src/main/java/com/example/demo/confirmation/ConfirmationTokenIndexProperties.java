@@ -0,0 +1,59 @@
+package com.example.demo.confirmation;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Настройки индекса confirmationToken (префикс email.confirmation.token-index).
+ */
+@ConfigurationProperties(prefix = "email.confirmation.token-index")
+public class ConfirmationTokenIndexProperties {
+
+    /** Кэшировать найденные записи индекса в памяти */
+    private boolean cacheEnabled = true;
+
+    /** Максимум записей в кэше, при превышении вытесняются редко используемые */
+    private long cacheMaximumSize = 100_000;
+
+    /** Время жизни записи в кэше */
+    private Duration cacheExpireAfterWrite = Duration.ofHours(1);
+
+    /**
+     * Искать по переменной процесса (ACT_RU_VARIABLE), если токена нет в индексе.
+     * Нужно для экземпляров, запущенных до появления индекса.
+     */
+    private boolean fallbackToVariableScan = true;
+
+    public boolean isCacheEnabled() {
+        return cacheEnabled;
+    }
+
+    public void setCacheEnabled(boolean cacheEnabled) {
+        this.cacheEnabled = cacheEnabled;
+    }
+
+    public long getCacheMaximumSize() {
+        return cacheMaximumSize;
+    }
+
+    public void setCacheMaximumSize(long cacheMaximumSize) {
+        this.cacheMaximumSize = cacheMaximumSize;
+    }
+
+    public Duration getCacheExpireAfterWrite() {
+        return cacheExpireAfterWrite;
+    }
+
+    public void setCacheExpireAfterWrite(Duration cacheExpireAfterWrite) {
+        this.cacheExpireAfterWrite = cacheExpireAfterWrite;
+    }
+
+    public boolean isFallbackToVariableScan() {
+        return fallbackToVariableScan;
+    }
+
+    public void setFallbackToVariableScan(boolean fallbackToVariableScan) {
+        this.fallbackToVariableScan = fallbackToVariableScan;
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.demo.confirmation;
+
+/**
+ * Подтверждение email от почтового провайдера.
+ * Экземпляр процесса ищется по confirmationToken, если он задан, иначе по businessKey.
+ */
+public record EmailConfirmation(String confirmationToken, String businessKey) {
+
+    public static EmailConfirmation byToken(String confirmationToken) {
+        return new EmailConfirmation(confirmationToken, null);
+    }
+
+    public static EmailConfirmation byBusinessKey(String businessKey) {
+        return new EmailConfirmation(null, businessKey);
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.demo.confirmation;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Настройки корреляции подтверждений email.
+ */
+@Configuration
+@EnableConfigurationProperties(ConfirmationTokenIndexProperties.class)
+public class EmailConfirmationConfiguration {
+}
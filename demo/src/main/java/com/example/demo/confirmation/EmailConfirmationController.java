@@ -0,0 +1,30 @@
+package com.example.demo.confirmation;
+
+import java.util.List;
+
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Прием подтверждений email от webhook почтового провайдера.
+ *
+ * POST /api/email-confirmations
+ * [{"confirmationToken": "..."}, {"businessKey": "..."}]
+ */
+@RestController
+@RequestMapping("/api/email-confirmations")
+public class EmailConfirmationController {
+
+    private final EmailConfirmationService confirmationService;
+
+    public EmailConfirmationController(EmailConfirmationService confirmationService) {
+        this.confirmationService = confirmationService;
+    }
+
+    @PostMapping
+    public List<ConfirmationResult> confirm(@RequestBody List<EmailConfirmation> confirmations) {
+        return confirmationService.confirmAll(confirmations);
+    }
+}
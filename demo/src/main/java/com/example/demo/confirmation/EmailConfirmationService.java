@@ -0,0 +1,115 @@
+package com.example.demo.confirmation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import org.camunda.bpm.engine.MismatchingMessageCorrelationException;
+import org.camunda.bpm.engine.RuntimeService;
+import org.camunda.bpm.engine.runtime.MessageCorrelationBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Пакетная корреляция email_confirmed_message.
+ *
+ * Подтверждения делятся на пачки по email.confirmation.batch-size, каждая пачка коррелируется
+ * в одной транзакции (команды движка присоединяются к транзакции Spring). Если в пачке
+ * хотя бы одна корреляция упала, транзакция пачки откатывается целиком и ее элементы
+ * коррелируются по одному, чтобы получить результат для каждого подтверждения.
+ *
+ * Экземпляр по confirmationToken ищется через ConfirmationTokenIndex, а не по переменной процесса.
+ */
+@Service
+public class EmailConfirmationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmailConfirmationService.class);
+
+    public static final String MESSAGE_NAME = "email_confirmed_message";
+
+    private final RuntimeService runtimeService;
+    private final ConfirmationTokenIndex tokenIndex;
+    private final boolean fallbackToVariableScan;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+
+    public EmailConfirmationService(RuntimeService runtimeService,
+                                    ConfirmationTokenIndex tokenIndex,
+                                    ConfirmationTokenIndexProperties tokenIndexProperties,
+                                    PlatformTransactionManager transactionManager,
+                                    @Value("${email.confirmation.batch-size:100}") int batchSize) {
+        this.runtimeService = runtimeService;
+        this.tokenIndex = tokenIndex;
+        this.fallbackToVariableScan = tokenIndexProperties.isFallbackToVariableScan();
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Коррелирует одно подтверждение в отдельной транзакции.
+     */
+    public ConfirmationResult confirm(EmailConfirmation confirmation) {
+        if (confirmation.confirmationToken() == null && confirmation.businessKey() == null) {
+            return ConfirmationResult.failed(confirmation, ConfirmationResult.Status.INVALID,
+                "confirmationToken or businessKey is required");
+        }
+        try {
+            return transactionTemplate.execute(status -> correlate(confirmation));
+        } catch (MismatchingMessageCorrelationException e) {
+            return ConfirmationResult.failed(confirmation, ConfirmationResult.Status.NOT_FOUND, e.getMessage());
+        } catch (RuntimeException e) {
+            logger.warn("Email confirmation failed: token={}, businessKey={}",
+                confirmation.confirmationToken(), confirmation.businessKey(), e);
+            return ConfirmationResult.failed(confirmation, ConfirmationResult.Status.FAILED, e.getMessage());
+        }
+    }
+
+    /**
+     * Коррелирует подтверждения пачками; результаты возвращаются в порядке входного списка.
+     */
+    public List<ConfirmationResult> confirmAll(List<EmailConfirmation> confirmations) {
+        List<ConfirmationResult> results = new ArrayList<>(confirmations.size());
+        for (int from = 0; from < confirmations.size(); from += batchSize) {
+            List<EmailConfirmation> batch = confirmations.subList(from, Math.min(from + batchSize, confirmations.size()));
+            results.addAll(confirmBatch(batch));
+        }
+        return results;
+    }
+
+    private List<ConfirmationResult> confirmBatch(List<EmailConfirmation> batch) {
+        boolean valid = batch.stream().allMatch(c -> c.confirmationToken() != null || c.businessKey() != null);
+        if (valid) {
+            try {
+                return transactionTemplate.execute(status -> batch.stream().map(this::correlate).toList());
+            } catch (RuntimeException e) {
+                logger.debug("Batch of {} confirmations rolled back, correlating one by one: {}",
+                    batch.size(), e.getMessage());
+            }
+        }
+        return batch.stream().map(this::confirm).toList();
+    }
+
+    private ConfirmationResult correlate(EmailConfirmation confirmation) {
+        MessageCorrelationBuilder correlation = runtimeService.createMessageCorrelation(MESSAGE_NAME)
+            .setVariable("emailConfirmed", true);
+        if (confirmation.confirmationToken() != null) {
+            Optional<ConfirmationTokenIndex.TokenTarget> target = tokenIndex.find(confirmation.confirmationToken());
+            if (target.isPresent()) {
+                correlation.processInstanceId(target.get().processInstanceId());
+            } else if (fallbackToVariableScan) {
+                correlation.processInstanceVariableEquals("confirmationToken", confirmation.confirmationToken());
+            } else {
+                throw new MismatchingMessageCorrelationException(MESSAGE_NAME,
+                    "confirmationToken " + confirmation.confirmationToken() + " is not indexed");
+            }
+        } else {
+            correlation.processInstanceBusinessKey(confirmation.businessKey());
+        }
+        String processInstanceId = correlation.correlateWithResult().getExecution().getProcessInstanceId();
+        return ConfirmationResult.correlated(confirmation, processInstanceId);
+    }
+}
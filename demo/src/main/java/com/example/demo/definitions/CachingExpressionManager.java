@@ -0,0 +1,65 @@
+package com.example.demo.definitions;
+
+import java.lang.reflect.Method;
+
+import org.camunda.bpm.dmn.engine.impl.spi.el.ElProvider;
+import org.camunda.bpm.engine.impl.el.ElProviderCompatible;
+import org.camunda.bpm.engine.impl.el.Expression;
+import org.camunda.bpm.engine.impl.el.ExpressionManager;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Кэш разобранных выражений по тексту поверх ExpressionManager движка.
+ *
+ * Выражения разбираются при разборе модели, поэтому после вытеснения определения из кэша
+ * повторный разбор не разбирает заново ${createRegistrationDelegate} и т.п. Разобранное выражение
+ * не хранит состояния вычисления и используется всеми экземплярами. Разбор и вычисление
+ * выполняет исходный ExpressionManager (SpringExpressionManager стартера или свой),
+ * поэтому разрешение имен не меняется.
+ *
+ * Метрики: cache.gets, cache.evictions, cache.size с тегом cache=camunda-expression.
+ */
+class CachingExpressionManager implements ExpressionManager, ElProviderCompatible {
+
+    static final String CACHE_NAME = DefinitionCacheFactory.CACHE_PREFIX + "expression";
+
+    private final ExpressionManager delegate;
+    private final Cache<String, Expression> expressions;
+
+    CachingExpressionManager(ExpressionManager delegate, int maximumSize, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.expressions = Caffeine.newBuilder()
+            .maximumSize(maximumSize)
+            // Выражения кэшируются при разборе моделей, вытеснение выполняется в потоке записи
+            .executor(Runnable::run)
+            .recordStats()
+            .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, expressions, CACHE_NAME);
+    }
+
+    @Override
+    public Expression createExpression(String expression) {
+        if (expression == null) {
+            return delegate.createExpression(null);
+        }
+        return expressions.get(expression, delegate::createExpression);
+    }
+
+    @Override
+    public void addFunction(String name, Method function) {
+        delegate.addFunction(name, function);
+        // Выражения, разобранные до регистрации функции, ее не видят
+        expressions.invalidateAll();
+    }
+
+    @Override
+    public ElProvider toElProvider() {
+        // null - DMN движок использует свой ElProvider по умолчанию, как и без обертки
+        return delegate instanceof ElProviderCompatible compatible ? compatible.toElProvider() : null;
+    }
+}
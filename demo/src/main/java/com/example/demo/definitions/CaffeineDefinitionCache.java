@@ -0,0 +1,64 @@
+package com.example.demo.definitions;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+import org.camunda.commons.utils.cache.Cache;
+
+/**
+ * Кэш движка (определения процессов, модели BPMN, решения DMN) поверх Caffeine.
+ *
+ * Движок не сообщает, какой вид определений хранит кэш, поэтому метрики регистрируются
+ * при первой записи по классу значения (см. {@link DefinitionCacheFactory}).
+ */
+class CaffeineDefinitionCache<T> implements Cache<String, T> {
+
+    private final com.github.benmanes.caffeine.cache.Cache<String, T> cache;
+    private final Consumer<Class<?>> onFirstPut;
+    private final AtomicBoolean monitored = new AtomicBoolean();
+
+    CaffeineDefinitionCache(com.github.benmanes.caffeine.cache.Cache<String, T> cache, Consumer<Class<?>> onFirstPut) {
+        this.cache = cache;
+        this.onFirstPut = onFirstPut;
+    }
+
+    @Override
+    public T get(String key) {
+        return cache.getIfPresent(key);
+    }
+
+    @Override
+    public void put(String key, T value) {
+        if (monitored.compareAndSet(false, true)) {
+            onFirstPut.accept(value.getClass());
+        }
+        cache.put(key, value);
+    }
+
+    @Override
+    public void remove(String key) {
+        cache.invalidate(key);
+    }
+
+    @Override
+    public void clear() {
+        cache.invalidateAll();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return cache.asMap().isEmpty();
+    }
+
+    @Override
+    public Set<String> keySet() {
+        return new HashSet<>(cache.asMap().keySet());
+    }
+
+    @Override
+    public int size() {
+        return cache.asMap().size();
+    }
+}
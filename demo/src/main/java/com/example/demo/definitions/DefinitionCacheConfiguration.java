@@ -0,0 +1,39 @@
+package com.example.demo.definitions;
+
+import org.camunda.bpm.engine.RepositoryService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.example.demo.routing.DecisionRouter;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Ограниченные кэши определений и выражений движка с метриками (camunda.definition-cache.*)
+ * и прогрев определений при старте (camunda.warm-up.*). Включаются и выключаются независимо.
+ */
+@Configuration
+@EnableConfigurationProperties({DefinitionCacheProperties.class, WarmUpProperties.class})
+public class DefinitionCacheConfiguration {
+
+    @Bean
+    @ConditionalOnProperty(name = "camunda.definition-cache.enabled", havingValue = "true", matchIfMissing = true)
+    public DefinitionCachePlugin definitionCachePlugin(DefinitionCacheProperties properties,
+                                                       MeterRegistry meterRegistry) {
+        return new DefinitionCachePlugin(properties, meterRegistry);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "camunda.warm-up.enabled", havingValue = "true", matchIfMissing = true)
+    public DefinitionWarmUp definitionWarmUp(WarmUpProperties properties,
+                                             RepositoryService repositoryService,
+                                             DecisionRouter decisionRouter,
+                                             ApplicationContext applicationContext,
+                                             MeterRegistry meterRegistry) {
+        return new DefinitionWarmUp(properties, repositoryService, decisionRouter, applicationContext,
+            meterRegistry);
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.demo.definitions;
+
+import java.util.Locale;
+
+import org.camunda.bpm.engine.impl.persistence.deploy.cache.CacheFactory;
+import org.camunda.commons.utils.cache.Cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Фабрика кэшей DeploymentCache движка: ограниченные по размеру кэши Caffeine
+ * со статистикой попаданий.
+ *
+ * Метрики Micrometer cache.gets (result: hit, miss), cache.evictions, cache.size, cache.puts
+ * с тегом cache по виду определения: camunda-process-definition, camunda-bpmn-model-instance,
+ * camunda-decision-definition и т.д.
+ */
+public class DefinitionCacheFactory implements CacheFactory {
+
+    static final String CACHE_PREFIX = "camunda-";
+
+    private final MeterRegistry meterRegistry;
+
+    public DefinitionCacheFactory(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public <T> Cache<String, T> createCache(int maxNumberOfElementsInCache) {
+        com.github.benmanes.caffeine.cache.Cache<String, T> cache = Caffeine.newBuilder()
+            .maximumSize(maxNumberOfElementsInCache)
+            // Записи в кэш определений редкие, обслуживание (вытеснение) выполняется в потоке записи
+            .executor(Runnable::run)
+            .recordStats()
+            .build();
+        return new CaffeineDefinitionCache<>(cache,
+            valueType -> CaffeineCacheMetrics.monitor(meterRegistry, cache, cacheName(valueType)));
+    }
+
+    /**
+     * ProcessDefinitionEntity -> camunda-process-definition, BpmnModelInstanceImpl -> camunda-bpmn-model-instance.
+     */
+    static String cacheName(Class<?> valueType) {
+        String name = valueType.getSimpleName().replaceAll("(Entity|Impl)$", "");
+        return CACHE_PREFIX + name.replaceAll("([a-z0-9])([A-Z])", "$1-$2").toLowerCase(Locale.ROOT);
+    }
+}
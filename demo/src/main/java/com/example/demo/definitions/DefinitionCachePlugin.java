@@ -0,0 +1,45 @@
+package com.example.demo.definitions;
+
+import org.camunda.bpm.engine.impl.cfg.AbstractProcessEnginePlugin;
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.camunda.bpm.engine.impl.el.ExpressionManager;
+import org.camunda.bpm.engine.impl.el.JuelExpressionManager;
+import org.springframework.core.Ordered;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Подключает {@link DefinitionCacheFactory} с лимитом camunda.definition-cache.maximum-size
+ * и оборачивает ExpressionManager движка в {@link CachingExpressionManager}.
+ *
+ * Выполняется последним из плагинов, поэтому оборачивает ExpressionManager, установленный
+ * другими плагинами (например, с разрешением моков в тестах).
+ */
+public class DefinitionCachePlugin extends AbstractProcessEnginePlugin implements Ordered {
+
+    private final DefinitionCacheProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    public DefinitionCachePlugin(DefinitionCacheProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.LOWEST_PRECEDENCE;
+    }
+
+    @Override
+    public void preInit(ProcessEngineConfigurationImpl configuration) {
+        configuration.setCacheCapacity(properties.getMaximumSize());
+        configuration.setCacheFactory(new DefinitionCacheFactory(meterRegistry));
+
+        // Стартер создает SpringExpressionManager до сборки движка; без него движок создал бы JuelExpressionManager
+        ExpressionManager expressionManager = configuration.getExpressionManager() != null
+            ? configuration.getExpressionManager()
+            : new JuelExpressionManager(configuration.getBeans());
+        configuration.setExpressionManager(new CachingExpressionManager(expressionManager,
+            properties.getExpressionMaximumSize(), meterRegistry));
+    }
+}
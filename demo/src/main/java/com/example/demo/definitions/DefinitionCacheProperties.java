@@ -0,0 +1,43 @@
+package com.example.demo.definitions;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Настройки кэшей определений и выражений движка (префикс camunda.definition-cache).
+ */
+@ConfigurationProperties(prefix = "camunda.definition-cache")
+public class DefinitionCacheProperties {
+
+    /** Заменять ли кэши движка кэшами Caffeine с метриками; при false остаются кэши движка по умолчанию */
+    private boolean enabled = true;
+
+    /** Сколько определений каждого вида (процессы, модели BPMN, решения DMN) хранится в памяти */
+    private int maximumSize = 500;
+
+    /** Сколько разобранных выражений ${...} хранится в памяти */
+    private int expressionMaximumSize = 5_000;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getMaximumSize() {
+        return maximumSize;
+    }
+
+    public void setMaximumSize(int maximumSize) {
+        this.maximumSize = maximumSize;
+    }
+
+    public int getExpressionMaximumSize() {
+        return expressionMaximumSize;
+    }
+
+    public void setExpressionMaximumSize(int expressionMaximumSize) {
+        this.expressionMaximumSize = expressionMaximumSize;
+    }
+}
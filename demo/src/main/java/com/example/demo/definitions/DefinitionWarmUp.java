@@ -0,0 +1,147 @@
+package com.example.demo.definitions;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.camunda.bpm.engine.RepositoryService;
+import org.camunda.bpm.engine.repository.ProcessDefinition;
+import org.camunda.bpm.model.bpmn.BpmnModelInstance;
+import org.camunda.bpm.model.bpmn.instance.SendTask;
+import org.camunda.bpm.model.bpmn.instance.ServiceTask;
+import org.camunda.bpm.model.bpmn.instance.camunda.CamundaExecutionListener;
+import org.camunda.bpm.model.bpmn.instance.camunda.CamundaTaskListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.ApplicationContext;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+
+import com.example.demo.routing.DecisionRouter;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Прогрев после старта: первые экземпляры после деплоя или перезапуска не платят за разбор моделей.
+ *
+ * Для каждого ключа camunda.warm-up.process-keys последняя версия процесса загружается в кэш
+ * определений движка (разбор BPMN и выражений) и в кэш моделей BPMN, бины delegate-ов вида
+ * ${beanName} создаются заранее (при ленивой инициализации - первым обращением здесь, а не
+ * в первом экземпляре). Решения camunda.warm-up.decision-keys загружаются в кэш DecisionRouter.
+ *
+ * Выполняется ApplicationRunner-ом, то есть до ApplicationReadyEvent: readiness
+ * (/actuator/health/readiness) переходит в ACCEPTING_TRAFFIC после прогрева.
+ * Ошибка прогрева одного процесса или решения записывается в лог и не прерывает старт.
+ *
+ * Метрика: camunda.warm-up.duration.
+ */
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class DefinitionWarmUp implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(DefinitionWarmUp.class);
+
+    private static final Pattern BEAN_EXPRESSION = Pattern.compile("\\$\\{\\s*([A-Za-z_][A-Za-z0-9_]*)\\s*}");
+
+    private final WarmUpProperties properties;
+    private final RepositoryService repositoryService;
+    private final DecisionRouter decisionRouter;
+    private final ApplicationContext applicationContext;
+    private final Timer duration;
+
+    public DefinitionWarmUp(WarmUpProperties properties,
+                            RepositoryService repositoryService,
+                            DecisionRouter decisionRouter,
+                            ApplicationContext applicationContext,
+                            MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.repositoryService = repositoryService;
+        this.decisionRouter = decisionRouter;
+        this.applicationContext = applicationContext;
+        this.duration = Timer.builder("camunda.warm-up.duration")
+            .description("Time to preload process definitions, delegates and decisions")
+            .register(meterRegistry);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        warmUp();
+    }
+
+    /**
+     * Прогревает настроенные процессы и решения.
+     *
+     * @return id загруженных определений процессов
+     */
+    public List<String> warmUp() {
+        long start = System.nanoTime();
+        List<String> processDefinitionIds = new ArrayList<>();
+        for (String processKey : properties.getProcessKeys()) {
+            try {
+                String processDefinitionId = warmUpProcess(processKey);
+                if (processDefinitionId != null) {
+                    processDefinitionIds.add(processDefinitionId);
+                }
+            } catch (RuntimeException e) {
+                // Прогрев только ускоряет первый экземпляр, ошибка не должна останавливать старт
+                logger.warn("Warm-up failed for process {}", processKey, e);
+            }
+        }
+        for (String decisionKey : properties.getDecisionKeys()) {
+            try {
+                decisionRouter.preload(decisionKey);
+            } catch (RuntimeException e) {
+                logger.warn("Warm-up failed for decision {}", decisionKey, e);
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        duration.record(elapsed, TimeUnit.NANOSECONDS);
+        logger.info("Warmed up processes {} and decisions {} in {} ms", properties.getProcessKeys(),
+            properties.getDecisionKeys(), TimeUnit.NANOSECONDS.toMillis(elapsed));
+        return processDefinitionIds;
+    }
+
+    private String warmUpProcess(String processKey) {
+        ProcessDefinition processDefinition = repositoryService.createProcessDefinitionQuery()
+            .processDefinitionKey(processKey)
+            .latestVersion()
+            .singleResult();
+        if (processDefinition == null) {
+            logger.warn("Warm-up skipped process {}: no deployed definition", processKey);
+            return null;
+        }
+        // Загрузка в DeploymentCache: разбор BPMN, listener-ы плагинов и выражения
+        repositoryService.getProcessDefinition(processDefinition.getId());
+        BpmnModelInstance model = repositoryService.getBpmnModelInstance(processDefinition.getId());
+        createDelegates(model);
+        return processDefinition.getId();
+    }
+
+    private void createDelegates(BpmnModelInstance model) {
+        Set<String> expressions = new LinkedHashSet<>();
+        model.getModelElementsByType(ServiceTask.class)
+            .forEach(task -> expressions.add(task.getCamundaDelegateExpression()));
+        model.getModelElementsByType(SendTask.class)
+            .forEach(task -> expressions.add(task.getCamundaDelegateExpression()));
+        model.getModelElementsByType(CamundaExecutionListener.class)
+            .forEach(listener -> expressions.add(listener.getCamundaDelegateExpression()));
+        model.getModelElementsByType(CamundaTaskListener.class)
+            .forEach(listener -> expressions.add(listener.getCamundaDelegateExpression()));
+
+        for (String expression : expressions) {
+            if (expression == null) {
+                continue;
+            }
+            Matcher matcher = BEAN_EXPRESSION.matcher(expression.trim());
+            if (matcher.matches() && applicationContext.containsBean(matcher.group(1))) {
+                applicationContext.getBean(matcher.group(1));
+            }
+        }
+    }
+}
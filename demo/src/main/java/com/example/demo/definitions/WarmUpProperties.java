@@ -0,0 +1,46 @@
+package com.example.demo.definitions;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Настройки прогрева определений при старте (префикс camunda.warm-up).
+ */
+@ConfigurationProperties(prefix = "camunda.warm-up")
+public class WarmUpProperties {
+
+    /** Прогревать ли определения до того, как приложение сообщит о готовности */
+    private boolean enabled = true;
+
+    /** Ключи процессов, последние версии которых загружаются в кэш движка */
+    private List<String> processKeys = new ArrayList<>();
+
+    /** Ключи DMN решений для кэша DecisionRouter */
+    private List<String> decisionKeys = new ArrayList<>();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public List<String> getProcessKeys() {
+        return processKeys;
+    }
+
+    public void setProcessKeys(List<String> processKeys) {
+        this.processKeys = processKeys;
+    }
+
+    public List<String> getDecisionKeys() {
+        return decisionKeys;
+    }
+
+    public void setDecisionKeys(List<String> decisionKeys) {
+        this.decisionKeys = decisionKeys;
+    }
+}
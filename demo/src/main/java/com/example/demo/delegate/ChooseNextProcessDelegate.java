@@ -0,0 +1,45 @@
+package com.example.demo.delegate;
+
+import java.util.Map;
+
+import org.camunda.bpm.engine.ProcessEngineException;
+import org.camunda.bpm.engine.delegate.DelegateExecution;
+import org.camunda.bpm.engine.delegate.JavaDelegate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import com.example.demo.routing.DecisionRouter;
+
+/**
+ * Делегат выбора следующего процесса: business rule task Activity_RouteNextProcess
+ * в user-registration-process и Activity_Decision в chose-next-process.
+ *
+ * Выходы DMN решения {@link #DECISION_KEY} (nextProcess, processChosen) записываются
+ * в переменные экземпляра. Решение вычисляется через {@link DecisionRouter} с кэшем.
+ */
+@Component("chooseNextProcessDelegate")
+public class ChooseNextProcessDelegate implements JavaDelegate {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChooseNextProcessDelegate.class);
+
+    public static final String DECISION_KEY = "next-process";
+
+    private final DecisionRouter decisionRouter;
+
+    public ChooseNextProcessDelegate(DecisionRouter decisionRouter) {
+        this.decisionRouter = decisionRouter;
+    }
+
+    @Override
+    public void execute(DelegateExecution execution) {
+        Map<String, Object> outputs = decisionRouter.evaluate(DECISION_KEY, execution);
+        if (outputs.isEmpty()) {
+            throw new ProcessEngineException("Decision '" + DECISION_KEY + "' matched no rule for process instance "
+                + execution.getProcessInstanceId());
+        }
+        logger.debug("Next process for user {}: {}", execution.getVariable("userName"), outputs.get("nextProcess"));
+
+        execution.setVariables(outputs);
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.demo.delegate;
+
+import java.util.Optional;
+
+import org.camunda.bpm.engine.delegate.DelegateExecution;
+import org.camunda.bpm.engine.delegate.JavaDelegate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+
+import com.example.demo.config.ServiceApiClientProperties;
+import com.example.demo.idempotency.CreateUserIdempotencyStore;
+import com.example.demo.idempotency.StoredCreateUserResponse;
+import com.example.demo.variables.VariablePacking;
+
+/**
+ * Делегат создания пользователя (create-registration-task).
+ * Выполняет HTTP POST на ${SERVICE_API}/create-user через общий пул соединений,
+ * тело запроса сериализуется Jackson без Groovy скрипта.
+ *
+ * Service task помечен asyncBefore, поэтому вызов выполняется в потоке job executor,
+ * а при ошибке HTTP job повторяется движком.
+ *
+ * Повторный вызов для того же business key (или email, переданного при старте) не уходит в SERVICE_API:
+ * ответ берется из CreateUserIdempotencyStore, а userId экземпляра заменяется на
+ * userId, с которым пользователь был создан.
+ */
+@Component("createRegistrationDelegate")
+public class CreateRegistrationDelegate implements JavaDelegate {
+
+    private static final Logger logger = LoggerFactory.getLogger(CreateRegistrationDelegate.class);
+
+    static final String CREATE_USER_PATH = "/create-user";
+
+    private final RestClient serviceApiRestClient;
+    private final String defaultServiceApi;
+    private final CreateUserIdempotencyStore idempotencyStore;
+    private final VariablePacking variablePacking;
+
+    public CreateRegistrationDelegate(RestClient serviceApiRestClient,
+                                      ServiceApiClientProperties clientProperties,
+                                      CreateUserIdempotencyStore idempotencyStore,
+                                      VariablePacking variablePacking) {
+        this.serviceApiRestClient = serviceApiRestClient;
+        this.defaultServiceApi = clientProperties.getBaseUrl();
+        this.idempotencyStore = idempotencyStore;
+        this.variablePacking = variablePacking;
+    }
+
+    @Override
+    public void execute(DelegateExecution execution) {
+        // Переменная процесса SERVICE_API имеет приоритет над настройкой приложения
+        String serviceApi = execution.hasVariable("SERVICE_API")
+            ? (String) execution.getVariable("SERVICE_API") : defaultServiceApi;
+
+        CreateUserRequest request = new CreateUserRequest(
+            (String) variablePacking.getVariable(execution, "userId"),
+            (String) execution.getVariable("userName"),
+            (String) execution.getVariable("userEmail"),
+            (String) variablePacking.getVariable(execution, "registrationDate"));
+
+        // Адрес по умолчанию общий для всех регистраций без email и ключом служить не может
+        String suppliedEmail = execution.hasVariable(InitVariablesDelegate.USER_EMAIL_DEFAULTED)
+            ? null : request.userEmail();
+        String idempotencyKey = CreateUserIdempotencyStore.key(execution.getProcessBusinessKey(), suppliedEmail);
+        Optional<StoredCreateUserResponse> stored = idempotencyStore.find(idempotencyKey);
+        if (stored.isPresent()) {
+            logger.debug("User for {} already created as {}, skipping create-user", idempotencyKey, stored.get().userId());
+            variablePacking.setVariable(execution, "userId", stored.get().userId());
+            return;
+        }
+
+        logger.debug("Creating user {} via {}", request.userId(), serviceApi);
+
+        ResponseEntity<String> response = serviceApiRestClient.post()
+            .uri(serviceApi + CREATE_USER_PATH)
+            .contentType(MediaType.APPLICATION_JSON)
+            .accept(MediaType.APPLICATION_JSON)
+            .body(request)
+            .retrieve()
+            .toEntity(String.class);
+
+        StoredCreateUserResponse created = idempotencyStore.save(idempotencyKey, new StoredCreateUserResponse(
+            request.userId(), response.getStatusCode().value(), response.getBody()));
+        if (!created.userId().equals(request.userId())) {
+            // Параллельный вызов с тем же ключом успел сохранить ответ раньше
+            variablePacking.setVariable(execution, "userId", created.userId());
+        }
+    }
+
+    /**
+     * Тело запроса create-user.
+     */
+    public record CreateUserRequest(String userId, String userName, String userEmail, String registrationDate) {
+    }
+}
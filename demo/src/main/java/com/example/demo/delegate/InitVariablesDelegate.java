@@ -0,0 +1,66 @@
+package com.example.demo.delegate;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+
+import org.camunda.bpm.engine.delegate.DelegateExecution;
+import org.camunda.bpm.engine.delegate.JavaDelegate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import com.example.demo.confirmation.ConfirmationTokenIndex;
+import com.example.demo.variables.VariablePacking;
+
+/**
+ * Делегат инициализации переменных пользователя (Activity_InitVariables).
+ * Заменяет Groovy скрипт: не требует JSR-223 движка и компиляции скрипта на каждый экземпляр.
+ * Сгенерированный confirmationToken сразу регистрируется в ConfirmationTokenIndex.
+ * Если userEmail не передан, подставляется адрес по умолчанию и ставится флаг
+ * {@link #USER_EMAIL_DEFAULTED}: такой адрес не идентифицирует пользователя.
+ * userId, registrationDate и confirmationToken при camunda.variable-packing.enabled=true
+ * записываются одной упакованной переменной (см. VariablePacking).
+ */
+@Component("initVariablesDelegate")
+public class InitVariablesDelegate implements JavaDelegate {
+
+    private static final Logger logger = LoggerFactory.getLogger(InitVariablesDelegate.class);
+
+    static final String DEFAULT_USER_NAME = "John Doe";
+    static final String DEFAULT_USER_EMAIL = "john.doe@example.com";
+
+    /** Переменная-флаг: userEmail подставлен по умолчанию, а не передан при старте */
+    static final String USER_EMAIL_DEFAULTED = "userEmailDefaulted";
+
+    private final ConfirmationTokenIndex tokenIndex;
+    private final VariablePacking variablePacking;
+
+    public InitVariablesDelegate(ConfirmationTokenIndex tokenIndex, VariablePacking variablePacking) {
+        this.tokenIndex = tokenIndex;
+        this.variablePacking = variablePacking;
+    }
+
+    @Override
+    public void execute(DelegateExecution execution) {
+        String userId = UUID.randomUUID().toString();
+        String confirmationToken = UUID.randomUUID().toString();
+        String userName = execution.hasVariable("userName")
+            ? (String) execution.getVariable("userName") : DEFAULT_USER_NAME;
+        boolean userEmailSupplied = execution.hasVariable("userEmail");
+        String userEmail = userEmailSupplied ? (String) execution.getVariable("userEmail") : DEFAULT_USER_EMAIL;
+
+        variablePacking.setVariables(execution, Map.of(
+            "userId", userId,
+            "userName", userName,
+            "userEmail", userEmail,
+            "registrationDate", LocalDateTime.now().toString(),
+            "confirmationToken", confirmationToken));
+        if (!userEmailSupplied) {
+            execution.setVariable(USER_EMAIL_DEFAULTED, true);
+        }
+        tokenIndex.register(confirmationToken, execution.getProcessInstanceId());
+
+        logger.debug("Initialized variables: userId={}, userName={}, userEmail={}", userId, userName, userEmail);
+    }
+}
@@ -6,32 +6,37 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 
+import com.example.demo.outbox.EmailOutboxRepository;
+import com.example.demo.variables.VariablePacking;
+
 /**
  * Делегат для отправки email подтверждения.
- * Выполняет HTTP POST запрос на эндпоинт отправки email.
+ * Не вызывает email сервис напрямую, а записывает сообщение в outbox в транзакции движка.
+ * Отправку и установку emailSent/emailSentDate выполняет EmailOutboxDispatcher.
  */
 @Component("sendEmailDelegate")
 public class SendEmailDelegate implements JavaDelegate {
 
     private static final Logger logger = LoggerFactory.getLogger(SendEmailDelegate.class);
 
+    private final EmailOutboxRepository outboxRepository;
+    private final VariablePacking variablePacking;
+
+    public SendEmailDelegate(EmailOutboxRepository outboxRepository, VariablePacking variablePacking) {
+        this.outboxRepository = outboxRepository;
+        this.variablePacking = variablePacking;
+    }
+
     @Override
     public void execute(DelegateExecution execution) throws Exception {
-        logger.info("=== Executing SendEmailDelegate ===");
-        
         // Получаем переменные из контекста процесса
         String userEmail = (String) execution.getVariable("userEmail");
         String userName = (String) execution.getVariable("userName");
-        String confirmationToken = (String) execution.getVariable("confirmationToken");
-        
-        logger.info("Sending email confirmation to: {}, userName={}, confirmationToken={}", 
-                   userEmail, userName, confirmationToken);
-        
-        // Симулируем успешную отправку email
-        // В реальном приложении здесь был бы HTTP вызов к email сервису
-        execution.setVariable("emailSent", true);
-        execution.setVariable("emailSentDate", java.time.LocalDateTime.now().toString());
-        
-        logger.info("Email sent successfully to: {}", userEmail);
+        String confirmationToken = (String) variablePacking.getVariable(execution, "confirmationToken");
+
+        outboxRepository.enqueue(execution.getProcessInstanceId(), userEmail, userName, confirmationToken);
+
+        logger.debug("Email confirmation queued: to={}, userName={}, processInstanceId={}",
+                    userEmail, userName, execution.getProcessInstanceId());
     }
 }
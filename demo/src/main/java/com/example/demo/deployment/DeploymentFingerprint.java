@@ -0,0 +1,57 @@
+package com.example.demo.deployment;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.Objects;
+
+import org.springframework.core.io.Resource;
+
+/**
+ * SHA-256 набора ресурсов деплоймента: имена файлов и содержимое в порядке имен.
+ * Порядок, в котором classpath отдает ресурсы, и путь к jar на хэш не влияют.
+ */
+public final class DeploymentFingerprint {
+
+    private DeploymentFingerprint() {
+    }
+
+    public static String of(Resource... resources) {
+        MessageDigest digest = sha256();
+        byte[] buffer = new byte[8192];
+        Resource[] sorted = resources.clone();
+        Arrays.sort(sorted, Comparator.comparing(DeploymentFingerprint::name));
+        for (Resource resource : sorted) {
+            digest.update(name(resource).getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            try (InputStream in = resource.getInputStream()) {
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    digest.update(buffer, 0, read);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot read deployment resource " + resource.getDescription(), e);
+            }
+            digest.update((byte) 0);
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static String name(Resource resource) {
+        return Objects.requireNonNullElse(resource.getFilename(), resource.getDescription());
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
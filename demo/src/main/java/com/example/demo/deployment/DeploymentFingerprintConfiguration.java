@@ -0,0 +1,27 @@
+package com.example.demo.deployment;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Заменяет auto-deployment стартера Camunda (бин CamundaDeploymentConfiguration)
+ * на {@link FingerprintedDeploymentConfiguration}.
+ * Проверка выключается через camunda.deployment.fingerprint.enabled=false.
+ */
+@Configuration
+@EnableConfigurationProperties(DeploymentFingerprintProperties.class)
+public class DeploymentFingerprintConfiguration {
+
+    @Bean
+    public DeploymentFingerprintStore deploymentFingerprintStore(JdbcTemplate jdbcTemplate) {
+        return new DeploymentFingerprintStore(jdbcTemplate);
+    }
+
+    @Bean
+    public FingerprintedDeploymentConfiguration camundaDeploymentConfiguration(DeploymentFingerprintStore store,
+                                                                               DeploymentFingerprintProperties properties) {
+        return new FingerprintedDeploymentConfiguration(store, properties);
+    }
+}
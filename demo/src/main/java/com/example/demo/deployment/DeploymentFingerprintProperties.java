@@ -0,0 +1,24 @@
+package com.example.demo.deployment;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Настройки пропуска auto-deployment без изменений (префикс camunda.deployment.fingerprint).
+ */
+@ConfigurationProperties(prefix = "camunda.deployment.fingerprint")
+public class DeploymentFingerprintProperties {
+
+    /**
+     * Сравнивать хэш ресурсов camunda.bpm.deployment-resource-pattern с хэшем последнего деплоймента
+     * и не деплоить, если ресурсы не изменились
+     */
+    private boolean enabled = true;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.demo.deployment;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Хэш ресурсов последнего auto-deployment по имени движка (таблица deployment_fingerprint).
+ *
+ * Читается до построения движка, поэтому работает через JdbcTemplate, а не через API движка.
+ */
+public class DeploymentFingerprintStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(DeploymentFingerprintStore.class);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public DeploymentFingerprintStore(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public Optional<StoredFingerprint> find(String engineName) {
+        try {
+            List<StoredFingerprint> stored = jdbcTemplate.query(
+                "SELECT fingerprint, deployment_id FROM deployment_fingerprint WHERE engine_name = ?",
+                (rs, rowNum) -> new StoredFingerprint(rs.getString("fingerprint"), rs.getString("deployment_id")),
+                engineName);
+            return stored.stream().findFirst();
+        } catch (DataAccessException e) {
+            logger.warn("Cannot read deployment fingerprint for engine '{}': {}", engineName, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Есть ли деплоймент в ACT_RE_DEPLOYMENT. Схема движка может еще не существовать (первый запуск на пустой БД).
+     */
+    public boolean deploymentExists(String tablePrefix, String deploymentId) {
+        try {
+            Integer count = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM " + tablePrefix + "ACT_RE_DEPLOYMENT WHERE ID_ = ?", Integer.class, deploymentId);
+            return count != null && count > 0;
+        } catch (DataAccessException e) {
+            logger.debug("Cannot check deployment {}: {}", deploymentId, e.getMessage());
+            return false;
+        }
+    }
+
+    public void save(String engineName, String fingerprint, String deploymentId) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        int updated = jdbcTemplate.update(
+            "UPDATE deployment_fingerprint SET fingerprint = ?, deployment_id = ?, updated_at = ? WHERE engine_name = ?",
+            fingerprint, deploymentId, now, engineName);
+        if (updated == 0) {
+            try {
+                jdbcTemplate.update(
+                    "INSERT INTO deployment_fingerprint (engine_name, fingerprint, deployment_id, updated_at) VALUES (?, ?, ?, ?)",
+                    engineName, fingerprint, deploymentId, now);
+            } catch (DuplicateKeyException e) {
+                // Другой узел с той же БД задеплоил те же ресурсы одновременно
+                logger.debug("Deployment fingerprint for engine '{}' already stored", engineName);
+            }
+        }
+    }
+
+    public record StoredFingerprint(String fingerprint, String deploymentId) {
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.demo.deployment;
+
+import java.util.List;
+import java.util.Objects;
+
+import org.camunda.bpm.engine.ProcessEngine;
+import org.camunda.bpm.engine.repository.Deployment;
+import org.camunda.bpm.engine.spring.SpringProcessEngineConfiguration;
+import org.camunda.bpm.spring.boot.starter.configuration.impl.DefaultDeploymentConfiguration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.Resource;
+
+/**
+ * Auto-deployment стартера Camunda, который пропускается, если ресурсы не изменились.
+ *
+ * Ресурсы по camunda.bpm.deployment-resource-pattern находятся как обычно, но вместо
+ * разбора и деплоя сравнивается их {@link DeploymentFingerprint} с хэшем, сохраненным
+ * после прошлого деплоя. При совпадении (и если тот деплоймент еще есть в БД) движок
+ * стартует без ресурсов для деплоя: BPMN/DMN не разбираются, а определения загружаются
+ * в DeploymentCache при первом обращении к процессу (старт экземпляра, job, корреляция).
+ *
+ * При изменении хотя бы одного ресурса выполняется обычный деплой стартера
+ * (с фильтрацией дубликатов), после чего сохраняется новый хэш.
+ *
+ * При camunda.bpm.job-execution.deployment-aware=true job executor узла выбирает только job
+ * зарегистрированных на нем деплойментов. Обычный деплой регистрирует созданный (или совпавший)
+ * деплоймент сам, а пропущенный - нет, поэтому узел, стартовавший без деплоя, регистрирует
+ * все деплойменты auto-deployment по имени.
+ */
+public class FingerprintedDeploymentConfiguration extends DefaultDeploymentConfiguration {
+
+    private static final Logger logger = LoggerFactory.getLogger(FingerprintedDeploymentConfiguration.class);
+
+    private final DeploymentFingerprintStore store;
+    private final DeploymentFingerprintProperties properties;
+
+    /** Хэш ресурсов, которые деплоятся при этом запуске; null, если деплой пропущен */
+    private String pendingFingerprint;
+
+    public FingerprintedDeploymentConfiguration(DeploymentFingerprintStore store,
+                                                DeploymentFingerprintProperties properties) {
+        this.store = store;
+        this.properties = properties;
+    }
+
+    @Override
+    public void preInit(SpringProcessEngineConfiguration configuration) {
+        super.preInit(configuration);
+        Resource[] resources = configuration.getDeploymentResources();
+        if (!properties.isEnabled() || resources == null || resources.length == 0) {
+            return;
+        }
+
+        long started = System.nanoTime();
+        String fingerprint = DeploymentFingerprint.of(resources);
+        String engineName = camundaBpmProperties.getProcessEngineName();
+        String tablePrefix = Objects.requireNonNullElse(camundaBpmProperties.getDatabase().getTablePrefix(), "");
+
+        boolean unchanged = store.find(engineName)
+            .filter(stored -> stored.fingerprint().equals(fingerprint))
+            .filter(stored -> store.deploymentExists(tablePrefix, stored.deploymentId()))
+            .isPresent();
+        if (unchanged) {
+            logger.info("{} deployment resources unchanged (fingerprint {}, checked in {} ms), skipping auto-deployment",
+                resources.length, fingerprint.substring(0, 12), (System.nanoTime() - started) / 1_000_000);
+            configuration.setDeploymentResources(new Resource[0]);
+        } else {
+            logger.info("{} deployment resources changed (fingerprint {}), deploying", resources.length,
+                fingerprint.substring(0, 12));
+            pendingFingerprint = fingerprint;
+        }
+    }
+
+    @Override
+    public void postProcessEngineBuild(ProcessEngine processEngine) {
+        super.postProcessEngineBuild(processEngine);
+        SpringProcessEngineConfiguration configuration =
+            (SpringProcessEngineConfiguration) processEngine.getProcessEngineConfiguration();
+        String deploymentName = configuration.getDeploymentName();
+        if (pendingFingerprint == null) {
+            if (properties.isEnabled() && configuration.isJobExecutorDeploymentAware()) {
+                registerDeploymentsForJobExecutor(processEngine, deploymentName);
+            }
+            return;
+        }
+        List<Deployment> latest = processEngine.getRepositoryService().createDeploymentQuery()
+            .deploymentName(deploymentName)
+            .orderByDeploymentTime().desc()
+            .listPage(0, 1);
+        if (latest.isEmpty()) {
+            logger.warn("Auto-deployment '{}' not found, fingerprint is not stored", deploymentName);
+            return;
+        }
+        store.save(processEngine.getName(), pendingFingerprint, latest.get(0).getId());
+        pendingFingerprint = null;
+    }
+
+    private void registerDeploymentsForJobExecutor(ProcessEngine processEngine, String deploymentName) {
+        List<Deployment> deployments = processEngine.getRepositoryService().createDeploymentQuery()
+            .deploymentName(deploymentName)
+            .list();
+        for (Deployment deployment : deployments) {
+            processEngine.getManagementService().registerDeploymentForJobExecutor(deployment.getId());
+        }
+        logger.info("Registered {} deployment(s) '{}' for deployment-aware job executor", deployments.size(),
+            deploymentName);
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.demo.engine;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.camunda.bpm.engine.impl.bpmn.behavior.CallableElementActivityBehavior;
+import org.camunda.bpm.engine.impl.bpmn.parser.AbstractBpmnParseListener;
+import org.camunda.bpm.engine.impl.bpmn.parser.BpmnParse;
+import org.camunda.bpm.engine.impl.core.model.CallableElement;
+import org.camunda.bpm.engine.impl.core.model.CallableElementParameter;
+import org.camunda.bpm.engine.impl.persistence.entity.ProcessDefinitionEntity;
+import org.camunda.bpm.engine.impl.pvm.process.ActivityImpl;
+import org.camunda.bpm.engine.impl.pvm.process.ScopeImpl;
+import org.camunda.bpm.engine.impl.util.xml.Element;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Выборочная передача переменных в CallActivity.
+ *
+ * - Для процесса с camunda:properties variables.reads / variables.writes регистрирует контракт
+ *   этой версии процесса.
+ * - Для CallActivity с camunda:property variables.mapping=selective заменяет
+ *   camunda:in/out variables="all" на {@link SelectiveVariablesParameter}.
+ *
+ * Без variables.mapping=selective CallActivity не меняется (строгий opt-in).
+ */
+public class SelectiveVariableMappingParseListener extends AbstractBpmnParseListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(SelectiveVariableMappingParseListener.class);
+
+    public static final String MAPPING_PROPERTY = "variables.mapping";
+    public static final String MAPPING_SELECTIVE = "selective";
+
+    private final VariableContractRegistry registry;
+
+    public SelectiveVariableMappingParseListener(VariableContractRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public void parseProcess(Element processElement, ProcessDefinitionEntity processDefinition) {
+        Map<String, String> properties = camundaProperties(processElement);
+        if (properties.containsKey(VariableContract.READS_PROPERTY)
+            || properties.containsKey(VariableContract.WRITES_PROPERTY)) {
+            registry.register(processDefinition, VariableContract.of(
+                properties.get(VariableContract.READS_PROPERTY),
+                properties.get(VariableContract.WRITES_PROPERTY)));
+        }
+    }
+
+    @Override
+    public void parseCallActivity(Element callActivityElement, ScopeImpl scope, ActivityImpl activity) {
+        if (!MAPPING_SELECTIVE.equals(camundaProperties(callActivityElement).get(MAPPING_PROPERTY))) {
+            return;
+        }
+        String calledElement = callActivityElement.attribute("calledElement");
+        if (calledElement == null || calledElement.contains("{")) {
+            logger.warn("Call activity '{}': selective variable mapping needs a constant calledElement, mapping all variables",
+                activity.getId());
+            return;
+        }
+        if (!(activity.getActivityBehavior() instanceof CallableElementActivityBehavior behavior)) {
+            return;
+        }
+        CallableElement callableElement = behavior.getCallableElement();
+        replaceAllVariables(callableElement, callableElement.getInputs(), calledElement,
+            SelectiveVariablesParameter.Direction.IN);
+        replaceAllVariables(callableElement, callableElement.getOutputs(), calledElement,
+            SelectiveVariablesParameter.Direction.OUT);
+    }
+
+    private void replaceAllVariables(CallableElement callableElement, List<CallableElementParameter> parameters,
+                                     String calledElement, SelectiveVariablesParameter.Direction direction) {
+        parameters.replaceAll(parameter -> parameter.isAllVariables()
+            ? new SelectiveVariablesParameter(calledElement, callableElement, direction, registry, parameter)
+            : parameter);
+    }
+
+    private static Map<String, String> camundaProperties(Element element) {
+        Map<String, String> result = new HashMap<>();
+        Element extensionElements = element.element("extensionElements");
+        if (extensionElements == null) {
+            return result;
+        }
+        Element properties = extensionElements.elementNS(BpmnParse.CAMUNDA_BPMN_EXTENSIONS_NS, "properties");
+        if (properties == null) {
+            return result;
+        }
+        for (Element property : properties.elementsNS(BpmnParse.CAMUNDA_BPMN_EXTENSIONS_NS, "property")) {
+            result.put(property.attribute("name"), property.attribute("value"));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.demo.engine;
+
+import java.util.ArrayList;
+
+import org.camunda.bpm.engine.impl.cfg.AbstractProcessEnginePlugin;
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Подключает {@link SelectiveVariableMappingParseListener}.
+ * Выключается через camunda.variable-mapping.selective.enabled=false,
+ * тогда variables.mapping=selective в BPMN игнорируется.
+ */
+@Component
+@ConditionalOnProperty(name = "camunda.variable-mapping.selective.enabled", havingValue = "true", matchIfMissing = true)
+public class SelectiveVariableMappingPlugin extends AbstractProcessEnginePlugin {
+
+    private final VariableContractRegistry registry = new VariableContractRegistry();
+
+    @Override
+    public void preInit(ProcessEngineConfigurationImpl configuration) {
+        if (configuration.getCustomPostBPMNParseListeners() == null) {
+            configuration.setCustomPostBPMNParseListeners(new ArrayList<>());
+        }
+        configuration.getCustomPostBPMNParseListeners().add(new SelectiveVariableMappingParseListener(registry));
+    }
+}
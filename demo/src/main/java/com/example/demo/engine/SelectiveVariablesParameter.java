@@ -0,0 +1,85 @@
+package com.example.demo.engine;
+
+import java.util.Optional;
+import java.util.Set;
+
+import org.camunda.bpm.engine.delegate.DelegateExecution;
+import org.camunda.bpm.engine.delegate.VariableScope;
+import org.camunda.bpm.engine.impl.core.model.CallableElement;
+import org.camunda.bpm.engine.impl.core.model.CallableElementParameter;
+import org.camunda.bpm.engine.impl.persistence.entity.ExecutionEntity;
+import org.camunda.bpm.engine.impl.util.CallableElementUtil;
+import org.camunda.bpm.engine.variable.VariableMap;
+
+/**
+ * Замена camunda:in/out variables="all" для CallActivity в режиме selective:
+ * передаются только переменные из контракта вызываемого процесса
+ * (variables.reads на входе, variables.writes на выходе).
+ *
+ * Контракт берется у той версии, которая вызывается: на входе она определяется по binding
+ * CallActivity так же, как при старте подпроцесса, на выходе - по определению завершенного
+ * экземпляра подпроцесса.
+ *
+ * Если контракт не объявлен, используется исходный параметр (все переменные).
+ *
+ * Предупреждение выводится только о записи необъявленной переменной (локальная переменная
+ * завершенного подпроцесса вне контракта). Чтение необъявленной переменной не обнаруживается:
+ * движок не сообщает о чтении, и в подпроцессе такая переменная просто отсутствует (null).
+ * Поэтому variables.reads нужно сверять с кодом подпроцесса при каждом его изменении.
+ */
+public class SelectiveVariablesParameter extends CallableElementParameter {
+
+    enum Direction {
+        IN, OUT
+    }
+
+    private final String calledProcessKey;
+    private final CallableElement callableElement;
+    private final Direction direction;
+    private final VariableContractRegistry registry;
+    private final CallableElementParameter allVariables;
+
+    public SelectiveVariablesParameter(String calledProcessKey, CallableElement callableElement, Direction direction,
+                                       VariableContractRegistry registry, CallableElementParameter allVariables) {
+        this.calledProcessKey = calledProcessKey;
+        this.callableElement = callableElement;
+        this.direction = direction;
+        this.registry = registry;
+        this.allVariables = allVariables;
+    }
+
+    @Override
+    public void applyTo(VariableScope variableScope, VariableMap variables) {
+        Optional<VariableContract> contract = calledContract(variableScope);
+        if (contract.isEmpty()) {
+            allVariables.applyTo(variableScope, variables);
+            return;
+        }
+
+        Set<String> names = direction == Direction.IN ? contract.get().reads() : contract.get().writes();
+        for (String name : names) {
+            if (variableScope.hasVariable(name)) {
+                variables.put(name, variableScope.getVariableTyped(name));
+            }
+        }
+
+        if (direction == Direction.OUT) {
+            for (String name : variableScope.getVariableNamesLocal()) {
+                if (!contract.get().declares(name)) {
+                    registry.reportUndeclared(calledProcessKey, name);
+                }
+            }
+        }
+    }
+
+    private Optional<VariableContract> calledContract(VariableScope variableScope) {
+        if (direction == Direction.IN && variableScope instanceof ExecutionEntity caller) {
+            return registry.find(CallableElementUtil.getProcessDefinitionToCall(caller, caller.getTenantId(),
+                callableElement));
+        }
+        if (direction == Direction.OUT && variableScope instanceof DelegateExecution calledInstance) {
+            return registry.find(calledInstance.getProcessDefinitionId());
+        }
+        return Optional.empty();
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.demo.engine;
+
+import java.util.Arrays;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Переменные, которые процесс читает из вызывающего процесса и возвращает в него.
+ * Объявляется на уровне процесса через camunda:properties variables.reads и variables.writes
+ * (имена через запятую). Полнота variables.reads не проверяется (см. {@link SelectiveVariablesParameter}).
+ */
+public record VariableContract(Set<String> reads, Set<String> writes) {
+
+    public static final String READS_PROPERTY = "variables.reads";
+    public static final String WRITES_PROPERTY = "variables.writes";
+
+    static VariableContract of(String reads, String writes) {
+        return new VariableContract(names(reads), names(writes));
+    }
+
+    private static Set<String> names(String value) {
+        if (value == null || value.isBlank()) {
+            return Set.of();
+        }
+        return Arrays.stream(value.split(","))
+            .map(String::trim)
+            .filter(name -> !name.isEmpty())
+            .collect(Collectors.toUnmodifiableSet());
+    }
+
+    boolean declares(String variableName) {
+        return reads.contains(variableName) || writes.contains(variableName);
+    }
+}
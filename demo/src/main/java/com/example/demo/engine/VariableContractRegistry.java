@@ -0,0 +1,58 @@
+package com.example.demo.engine;
+
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.camunda.bpm.engine.impl.context.Context;
+import org.camunda.bpm.engine.impl.persistence.entity.ProcessDefinitionEntity;
+import org.camunda.bpm.engine.impl.pvm.process.ProcessDefinitionImpl;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Контракты переменных конкретных версий процессов.
+ *
+ * Контракт хранится в свойстве разобранного определения процесса, поэтому живет ровно столько,
+ * сколько определение в кэше деплоймента, и относится к своей версии: если старая версия
+ * вытеснена из кэша и разобрана заново, контракт последней версии не меняется.
+ */
+public class VariableContractRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(VariableContractRegistry.class);
+
+    static final String CONTRACT_PROPERTY = "variableContract";
+
+    private final Set<String> reportedUndeclared = ConcurrentHashMap.newKeySet();
+
+    void register(ProcessDefinitionEntity processDefinition, VariableContract contract) {
+        processDefinition.setProperty(CONTRACT_PROPERTY, contract);
+    }
+
+    /**
+     * Контракт разобранного определения процесса.
+     */
+    Optional<VariableContract> find(ProcessDefinitionImpl processDefinition) {
+        return Optional.ofNullable((VariableContract) processDefinition.getProperty(CONTRACT_PROPERTY));
+    }
+
+    /**
+     * Контракт определения процесса по id. Если определение не в кэше деплоймента
+     * (например, после рестарта или вытеснения), оно загружается и разбирается заново,
+     * что и регистрирует контракт. Вызывается внутри команды движка.
+     */
+    Optional<VariableContract> find(String processDefinitionId) {
+        return find(Context.getProcessEngineConfiguration().getDeploymentCache()
+            .findDeployedProcessDefinitionById(processDefinitionId));
+    }
+
+    /**
+     * Предупреждение о необъявленной переменной выводится один раз на процесс и переменную.
+     */
+    void reportUndeclared(String processDefinitionKey, String variableName) {
+        if (reportedUndeclared.add(processDefinitionKey + "#" + variableName)) {
+            logger.warn("Process '{}' writes variable '{}' that is not declared in {}/{}, it is not mapped back to the caller",
+                processDefinitionKey, variableName, VariableContract.READS_PROPERTY, VariableContract.WRITES_PROPERTY);
+        }
+    }
+}
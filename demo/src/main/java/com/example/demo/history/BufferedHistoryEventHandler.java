@@ -0,0 +1,243 @@
+package com.example.demo.history;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.camunda.bpm.engine.ProcessEngineException;
+import org.camunda.bpm.engine.impl.cfg.TransactionState;
+import org.camunda.bpm.engine.impl.context.Context;
+import org.camunda.bpm.engine.impl.history.event.HistoryEvent;
+import org.camunda.bpm.engine.impl.history.handler.HistoryEventHandler;
+import org.camunda.bpm.engine.impl.interceptor.CommandContext;
+import org.camunda.bpm.engine.impl.interceptor.CommandExecutor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * HistoryEventHandler, который откладывает запись истории из транзакции движка в фоновый поток.
+ *
+ * События попадают в ограниченную очередь только после коммита транзакции движка,
+ * поэтому откаченные транзакции не оставляют истории. Фоновый поток пишет очередь
+ * пачками по flushSize событий, каждая пачка - одна команда движка (один JDBC batch)
+ * через стандартный handler записи в БД.
+ *
+ * Если очередь заполнена, поток движка сам записывает накопленную очередь и свое событие,
+ * сохраняя порядок событий. После {@link #stop()} так записывается каждое событие:
+ * транзакции, завершающиеся при остановке приложения, не оставляют событий в очереди.
+ *
+ * Пачка, которую не удалось записать, не теряется: она и события после нее остаются
+ * в {@link #unwritten} и записываются первыми при следующем сбросе. Список незаписанных
+ * ограничен емкостью очереди: пока БД недоступна, заполненная очередь переводит запись
+ * в поток движка, а когда исчерпан и лимит незаписанных, ошибка записи пробрасывается
+ * потоку, закоммитившему транзакцию, вместо накопления событий в памяти.
+ */
+public class BufferedHistoryEventHandler implements HistoryEventHandler {
+
+    private static final Logger logger = LoggerFactory.getLogger(BufferedHistoryEventHandler.class);
+
+    private final HistoryEventHandler delegate;
+    private final BufferedHistoryProperties properties;
+    private final BlockingQueue<HistoryEvent> queue;
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+
+    /** События, запись которых не удалась; пишутся раньше очереди. Доступ под flushLock */
+    private final List<HistoryEvent> unwritten = new ArrayList<>();
+
+    private volatile CommandExecutor commandExecutor;
+    private volatile boolean stopped;
+    private ScheduledExecutorService flusher;
+
+    public BufferedHistoryEventHandler(HistoryEventHandler delegate, BufferedHistoryProperties properties) {
+        this.delegate = delegate;
+        this.properties = properties;
+        this.queue = new ArrayBlockingQueue<>(properties.getQueueCapacity());
+    }
+
+    /**
+     * Запускает фоновый сброс очереди; вызывается после построения движка.
+     */
+    public synchronized void start(CommandExecutor commandExecutor) {
+        this.commandExecutor = commandExecutor;
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "history-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = properties.getFlushInterval().toMillis();
+        flusher.scheduleWithFixedDelay(this::flushQuietly, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Останавливает фоновый поток и записывает оставшиеся события; дальше события
+     * пишутся синхронно в потоке, закоммитившем транзакцию.
+     */
+    public synchronized void stop() {
+        stopped = true;
+        if (flusher != null) {
+            flusher.shutdown();
+            try {
+                flusher.awaitTermination(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            flusher = null;
+        }
+        if (commandExecutor != null) {
+            flush();
+        }
+        if (unwrittenCount() > 0) {
+            logger.error("{} history events were not written on shutdown", unwrittenCount());
+        }
+    }
+
+    @Override
+    public void handleEvent(HistoryEvent historyEvent) {
+        CommandContext commandContext = Context.getCommandContext();
+        if (commandContext == null || commandExecutor == null) {
+            delegate.handleEvent(historyEvent);
+            return;
+        }
+        commandContext.getTransactionContext()
+            .addTransactionListener(TransactionState.COMMITTED, committed -> enqueue(historyEvent));
+    }
+
+    @Override
+    public void handleEvents(List<HistoryEvent> historyEvents) {
+        for (HistoryEvent historyEvent : historyEvents) {
+            handleEvent(historyEvent);
+        }
+    }
+
+    public int queueSize() {
+        return queue.size();
+    }
+
+    /**
+     * Число событий, запись которых не удалась и будет повторена.
+     */
+    public int unwrittenCount() {
+        flushLock.lock();
+        try {
+            return unwritten.size();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void enqueue(HistoryEvent historyEvent) {
+        if (stopped || !queue.offer(historyEvent)) {
+            // Очередь заполнена или фоновый поток остановлен: записываем очередь в текущем потоке,
+            // затем само событие
+            logger.debug("Writing history in caller thread (queue {} events, stopped {})", queue.size(), stopped);
+            flushLock.lock();
+            try {
+                flushQueue();
+                write(List.of(historyEvent));
+            } catch (RuntimeException e) {
+                if (!unwritten.contains(historyEvent)) {
+                    if (unwritten.size() >= properties.getQueueCapacity()) {
+                        throw new ProcessEngineException("History event " + historyEvent.getId()
+                            + " not written, " + unwritten.size() + " events already wait for retry", e);
+                    }
+                    // Событие не должно обогнать незаписанные раньше него
+                    unwritten.add(historyEvent);
+                }
+                logger.error("Cannot write history events, {} kept for retry", unwritten.size(), e);
+            } finally {
+                flushLock.unlock();
+            }
+            return;
+        }
+        if (queue.size() >= properties.getFlushSize() && flusher != null && flushRequested.compareAndSet(false, true)) {
+            flusher.execute(this::flushQuietly);
+        }
+    }
+
+    /**
+     * Записывает все события из очереди.
+     */
+    public void flush() {
+        flushLock.lock();
+        try {
+            flushQueue();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void flushQuietly() {
+        flushRequested.set(false);
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            logger.error("Cannot write buffered history events", e);
+        }
+    }
+
+    private void flushQueue() {
+        if (!unwritten.isEmpty()) {
+            List<HistoryEvent> retry = new ArrayList<>(unwritten);
+            unwritten.clear();
+            write(retry);
+        }
+        List<HistoryEvent> events = new ArrayList<>(properties.getFlushSize());
+        while (queue.drainTo(events, properties.getFlushSize()) > 0) {
+            write(events);
+            events.clear();
+        }
+    }
+
+    /**
+     * Пишет события командами движка по flushSize событий.
+     *
+     * Стандартный handler пропускает обновление сущности, вставленной в той же команде
+     * (в движке это одна транзакция), поэтому если событие относится к сущности, уже
+     * записанной в текущей пачке, пачка закрывается и событие уходит в следующую.
+     *
+     * Если пачка не записалась, она и все события после нее переносятся в unwritten
+     * (уже записанные пачки не повторяются), исключение пробрасывается.
+     */
+    private void write(List<HistoryEvent> events) {
+        List<HistoryEvent> chunk = new ArrayList<>();
+        Set<String> chunkEntities = new HashSet<>();
+        int chunkStart = 0;
+        try {
+            for (int i = 0; i < events.size(); i++) {
+                HistoryEvent event = events.get(i);
+                String entityKey = event.getId() != null ? event.getClass().getName() + "#" + event.getId() : null;
+                if (entityKey != null && !chunkEntities.add(entityKey)) {
+                    writeChunk(chunk);
+                    chunk = new ArrayList<>();
+                    chunkStart = i;
+                    chunkEntities.clear();
+                    chunkEntities.add(entityKey);
+                }
+                chunk.add(event);
+            }
+            writeChunk(chunk);
+        } catch (RuntimeException e) {
+            unwritten.addAll(events.subList(chunkStart, events.size()));
+            throw e;
+        }
+    }
+
+    private void writeChunk(List<HistoryEvent> chunk) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        commandExecutor.execute(commandContext -> {
+            chunk.forEach(delegate::handleEvent);
+            return null;
+        });
+    }
+}
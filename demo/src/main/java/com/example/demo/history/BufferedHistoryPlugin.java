@@ -0,0 +1,80 @@
+package com.example.demo.history;
+
+import org.camunda.bpm.engine.ProcessEngine;
+import org.camunda.bpm.engine.impl.cfg.AbstractProcessEnginePlugin;
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.camunda.bpm.engine.impl.history.handler.DbHistoryEventHandler;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+/**
+ * Подключает {@link BufferedHistoryEventHandler} при history.buffer.durability=BUFFERED.
+ *
+ * Реализует SmartLifecycle, чтобы при остановке приложения записать очередь
+ * до закрытия движка и DataSource. Фаза минимальная: бин останавливается последним,
+ * после web сервера и остальных lifecycle бинов, а транзакции, завершившиеся позже
+ * (job executor останавливается вместе с движком), пишут историю синхронно.
+ */
+@Component
+@EnableConfigurationProperties(BufferedHistoryProperties.class)
+public class BufferedHistoryPlugin extends AbstractProcessEnginePlugin implements SmartLifecycle {
+
+    private final BufferedHistoryProperties properties;
+
+    private BufferedHistoryEventHandler handler;
+    private volatile boolean running;
+
+    public BufferedHistoryPlugin(BufferedHistoryProperties properties) {
+        this.properties = properties;
+    }
+
+    @Override
+    public void preInit(ProcessEngineConfigurationImpl configuration) {
+        if (properties.getDurability() != BufferedHistoryProperties.Durability.BUFFERED) {
+            return;
+        }
+        handler = new BufferedHistoryEventHandler(new DbHistoryEventHandler(), properties);
+        configuration.setHistoryEventHandler(handler);
+    }
+
+    @Override
+    public void postProcessEngineBuild(ProcessEngine processEngine) {
+        if (handler != null) {
+            ProcessEngineConfigurationImpl configuration =
+                (ProcessEngineConfigurationImpl) processEngine.getProcessEngineConfiguration();
+            // Запись из afterCommit и из фонового потока - всегда в новой транзакции
+            handler.start(configuration.getCommandExecutorTxRequiresNew());
+        }
+    }
+
+    /**
+     * Буферизующий handler или null, если история пишется в транзакции движка.
+     */
+    public BufferedHistoryEventHandler getHandler() {
+        return handler;
+    }
+
+    @Override
+    public void start() {
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        if (handler != null) {
+            handler.stop();
+        }
+        running = false;
+    }
+
+    @Override
+    public int getPhase() {
+        return Integer.MIN_VALUE;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.demo.history;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Настройки буферизованной записи истории (префикс history.buffer).
+ */
+@ConfigurationProperties(prefix = "history.buffer")
+public class BufferedHistoryProperties {
+
+    public enum Durability {
+        /** История пишется в транзакции движка (стандартное поведение Camunda) */
+        TRANSACTIONAL,
+        /**
+         * История пишется фоновым потоком после коммита транзакции движка.
+         * События, не записанные к моменту аварийной остановки, теряются.
+         */
+        BUFFERED
+    }
+
+    private Durability durability = Durability.TRANSACTIONAL;
+
+    /** Размер очереди событий; при переполнении запись выполняется в потоке движка */
+    private int queueCapacity = 10_000;
+
+    /** Сколько событий записывается в одной транзакции (JDBC batch) */
+    private int flushSize = 500;
+
+    /** Пауза между фоновыми сбросами очереди */
+    private Duration flushInterval = Duration.ofMillis(200);
+
+    public Durability getDurability() {
+        return durability;
+    }
+
+    public void setDurability(Durability durability) {
+        this.durability = durability;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+
+    public int getFlushSize() {
+        return flushSize;
+    }
+
+    public void setFlushSize(int flushSize) {
+        this.flushSize = flushSize;
+    }
+
+    public Duration getFlushInterval() {
+        return flushInterval;
+    }
+
+    public void setFlushInterval(Duration flushInterval) {
+        this.flushInterval = flushInterval;
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.demo.history;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Аренда очистки истории в таблице history_cleanup_lock, общая для всех узлов кластера.
+ *
+ * Строка блокировки создается скриптом схемы. Узел получает аренду, если она свободна
+ * (locked_until в прошлом) или уже принадлежит ему, и продлевает ее перед каждой пачкой.
+ * Если узел остановился, не освободив аренду, ее получает другой узел после истечения lease.
+ */
+class HistoryCleanupLock {
+
+    static final String NAME = "history-cleanup";
+
+    private static final Timestamp RELEASED = Timestamp.valueOf("1970-01-01 00:00:00");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String owner;
+    private final Duration lease;
+
+    HistoryCleanupLock(JdbcTemplate jdbcTemplate, String owner, Duration lease) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.owner = owner;
+        this.lease = lease;
+    }
+
+    /**
+     * Получает или продлевает аренду.
+     *
+     * @return false, если аренду держит другой узел
+     */
+    boolean tryAcquire() {
+        LocalDateTime now = LocalDateTime.now();
+        return jdbcTemplate.update(
+            "UPDATE history_cleanup_lock SET locked_by = ?, locked_until = ?"
+                + " WHERE name = ? AND (locked_until <= ? OR locked_by = ?)",
+            owner, Timestamp.valueOf(now.plus(lease)), NAME, Timestamp.valueOf(now), owner) == 1;
+    }
+
+    void release() {
+        jdbcTemplate.update("UPDATE history_cleanup_lock SET locked_until = ? WHERE name = ? AND locked_by = ?",
+            RELEASED, NAME, owner);
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.demo.history;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Настройки потоковой очистки истории (префикс history.cleanup).
+ */
+@ConfigurationProperties(prefix = "history.cleanup")
+public class HistoryCleanupProperties {
+
+    /** Включает очистку по расписанию */
+    private boolean enabled = false;
+
+    /** Сколько экземпляров процесса удаляется одной командой движка */
+    private int batchSize = 500;
+
+    /** Как часто проверяется, есть ли истекшая история и открыто ли окно очистки */
+    private Duration pollInterval = Duration.ofMinutes(1);
+
+    /** Окна очистки в формате HH:mm-HH:mm (например 22:00-06:00); пусто - очистка в любое время */
+    private List<String> windows = new ArrayList<>();
+
+    /** Срок аренды прохода в кластере; продлевается перед каждой пачкой, должен превышать max-pause и время пачки */
+    private Duration lockLease = Duration.ofMinutes(5);
+
+    /** Пауза между пачками без нагрузки */
+    private Duration minPause = Duration.ofMillis(50);
+
+    /** Максимальная пауза между пачками при нагрузке */
+    private Duration maxPause = Duration.ofSeconds(30);
+
+    /** Пачка, удалявшаяся дольше, считается признаком нагрузки на БД */
+    private Duration maxBatchDuration = Duration.ofSeconds(1);
+
+    /** Доля занятых соединений пула, начиная с которой очистка замедляется */
+    private double maxPoolUsage = 0.75;
+
+    /** Таймеры Micrometer, по среднему времени которых оценивается задержка основной нагрузки */
+    private List<String> foregroundTimers = new ArrayList<>(List.of("camunda.job-executor.acquisition"));
+
+    /** Среднее время foregroundTimers между пачками, начиная с которого очистка замедляется */
+    private Duration foregroundLatencyThreshold = Duration.ofMillis(250);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public Duration getPollInterval() {
+        return pollInterval;
+    }
+
+    public void setPollInterval(Duration pollInterval) {
+        this.pollInterval = pollInterval;
+    }
+
+    public List<String> getWindows() {
+        return windows;
+    }
+
+    public void setWindows(List<String> windows) {
+        this.windows = windows;
+    }
+
+    public Duration getLockLease() {
+        return lockLease;
+    }
+
+    public void setLockLease(Duration lockLease) {
+        this.lockLease = lockLease;
+    }
+
+    public Duration getMinPause() {
+        return minPause;
+    }
+
+    public void setMinPause(Duration minPause) {
+        this.minPause = minPause;
+    }
+
+    public Duration getMaxPause() {
+        return maxPause;
+    }
+
+    public void setMaxPause(Duration maxPause) {
+        this.maxPause = maxPause;
+    }
+
+    public Duration getMaxBatchDuration() {
+        return maxBatchDuration;
+    }
+
+    public void setMaxBatchDuration(Duration maxBatchDuration) {
+        this.maxBatchDuration = maxBatchDuration;
+    }
+
+    public double getMaxPoolUsage() {
+        return maxPoolUsage;
+    }
+
+    public void setMaxPoolUsage(double maxPoolUsage) {
+        this.maxPoolUsage = maxPoolUsage;
+    }
+
+    public List<String> getForegroundTimers() {
+        return foregroundTimers;
+    }
+
+    public void setForegroundTimers(List<String> foregroundTimers) {
+        this.foregroundTimers = foregroundTimers;
+    }
+
+    public Duration getForegroundLatencyThreshold() {
+        return foregroundLatencyThreshold;
+    }
+
+    public void setForegroundLatencyThreshold(Duration foregroundLatencyThreshold) {
+        this.foregroundLatencyThreshold = foregroundLatencyThreshold;
+    }
+}
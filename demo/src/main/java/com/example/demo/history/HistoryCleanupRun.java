@@ -0,0 +1,16 @@
+package com.example.demo.history;
+
+import java.time.Duration;
+
+/**
+ * Итог одного прохода очистки истории.
+ *
+ * @param deleted      удалено экземпляров процесса (вместе с их активностями, переменными и т.д.)
+ * @param batches      сколько пачек удалено
+ * @param largestBatch наибольшая пачка: больше идентификаторов в памяти одновременно не было
+ * @param duration     длительность прохода, включая паузы
+ */
+public record HistoryCleanupRun(long deleted, int batches, int largestBatch, Duration duration) {
+
+    static final HistoryCleanupRun EMPTY = new HistoryCleanupRun(0, 0, 0, Duration.ZERO);
+}
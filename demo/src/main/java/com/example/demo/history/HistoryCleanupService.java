@@ -0,0 +1,389 @@
+package com.example.demo.history;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+import javax.sql.DataSource;
+
+import org.camunda.bpm.engine.HistoryService;
+import org.camunda.bpm.engine.ProcessEngine;
+import org.camunda.bpm.engine.ProcessEngineException;
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.ArgumentPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Потоковая очистка истории экземпляров, у которых истек historyTimeToLive.
+ *
+ * Вместо больших DELETE по REMOVAL_TIME_ встроенной очистки Camunda истекшие экземпляры
+ * выбираются из ACT_HI_PROCINST постранично по ключу (REMOVAL_TIME_, ID_) и удаляются пачками
+ * по history.cleanup.batch-size через HistoryService (вместе с активностями, переменными,
+ * задачами, job log и решениями DMN экземпляра). В памяти одновременно только одна страница
+ * идентификаторов, курсор не возвращается к пачкам, удаление которых не удалось.
+ *
+ * Между пачками выдерживается пауза {@link HistoryCleanupThrottle}, она растет, если пачка
+ * удалялась дольше history.cleanup.max-batch-duration, пул соединений занят больше
+ * history.cleanup.max-pool-usage (или есть ожидающие соединения) или среднее время
+ * history.cleanup.foreground-timers с прошлой пачки выше foreground-latency-threshold.
+ * Проход прерывается, когда закрывается окно history.cleanup.windows.
+ *
+ * Очистка выполняется своим потоком, а не общим планировщиком @Scheduled, чтобы длинный
+ * проход не задерживал outbox. В кластере проход выполняет один узел: он держит аренду
+ * {@link HistoryCleanupLock} в БД и продлевает ее перед каждой пачкой, остальные узлы
+ * пропускают проход. Метрики: history.cleanup.deleted (удаленные экземпляры),
+ * history.cleanup.rate (экземпляров в секунду за текущий проход), history.cleanup.backlog
+ * (истекшие экземпляры, еще не удаленные), history.cleanup.batch (время удаления пачки),
+ * history.cleanup.pause (текущая пауза, мс).
+ */
+@Component
+@EnableConfigurationProperties(HistoryCleanupProperties.class)
+public class HistoryCleanupService implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(HistoryCleanupService.class);
+
+    private static final Timestamp KEYSET_START = Timestamp.valueOf("1970-01-01 00:00:00");
+
+    private final HistoryCleanupProperties properties;
+    private final HistoryService historyService;
+    private final JdbcTemplate jdbcTemplate;
+    private final DataSource dataSource;
+    private final MeterRegistry meterRegistry;
+    private final String tablePrefix;
+    private final List<HistoryCleanupWindow> windows;
+    private final HistoryCleanupThrottle throttle;
+    private final ReentrantLock runLock = new ReentrantLock();
+    private final HistoryCleanupLock clusterLock;
+
+    private final Counter deleted;
+    private final Timer batchTimer;
+    private final AtomicLong backlog = new AtomicLong();
+    private final AtomicLong rateMillis = new AtomicLong();
+    private final Map<String, TimerSnapshot> foregroundSnapshots = new HashMap<>();
+
+    private ScheduledExecutorService scheduler;
+    private volatile boolean running;
+    private volatile boolean stopping;
+
+    public HistoryCleanupService(HistoryCleanupProperties properties,
+                                 ProcessEngine processEngine,
+                                 JdbcTemplate jdbcTemplate,
+                                 DataSource dataSource,
+                                 MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.historyService = processEngine.getHistoryService();
+        this.jdbcTemplate = jdbcTemplate;
+        this.dataSource = dataSource;
+        this.meterRegistry = meterRegistry;
+        this.tablePrefix = ((ProcessEngineConfigurationImpl) processEngine.getProcessEngineConfiguration())
+            .getDatabaseTablePrefix();
+        this.windows = properties.getWindows().stream()
+            .filter(window -> !window.isBlank())
+            .map(HistoryCleanupWindow::parse)
+            .toList();
+        this.throttle = new HistoryCleanupThrottle(properties.getMinPause(), properties.getMaxPause());
+        this.clusterLock = new HistoryCleanupLock(jdbcTemplate, processEngine.getName() + "/" + UUID.randomUUID(),
+            properties.getLockLease());
+
+        this.deleted = Counter.builder("history.cleanup.deleted")
+            .description("Historic process instances deleted by the cleanup")
+            .register(meterRegistry);
+        this.batchTimer = Timer.builder("history.cleanup.batch")
+            .description("Duration of one history cleanup batch delete")
+            .register(meterRegistry);
+        Gauge.builder("history.cleanup.backlog", backlog, AtomicLong::get)
+            .description("Expired historic process instances not deleted yet")
+            .register(meterRegistry);
+        Gauge.builder("history.cleanup.rate", rateMillis, rate -> rate.get() / 1000.0)
+            .description("Historic process instances deleted per second in the current run")
+            .register(meterRegistry);
+        Gauge.builder("history.cleanup.pause", throttle, t -> t.pause().toMillis())
+            .description("Current pause between history cleanup batches, ms")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Удаляет истекшую историю, пока она есть, окно открыто и приложение не останавливается.
+     * Если проход уже выполняется в другом потоке или на другом узле, сразу возвращает пустой итог.
+     */
+    public HistoryCleanupRun cleanUp() {
+        if (!runLock.tryLock()) {
+            return HistoryCleanupRun.EMPTY;
+        }
+        try {
+            if (!clusterLock.tryAcquire()) {
+                logger.debug("History cleanup is running on another node");
+                return HistoryCleanupRun.EMPTY;
+            }
+            try {
+                return runBatches();
+            } finally {
+                clusterLock.release();
+            }
+        } finally {
+            runLock.unlock();
+        }
+    }
+
+    private HistoryCleanupRun runBatches() {
+        if (!inWindow()) {
+            return HistoryCleanupRun.EMPTY;
+        }
+        Timestamp cutoff = Timestamp.valueOf(LocalDateTime.now());
+        backlog.set(countExpired(cutoff));
+        if (backlog.get() == 0) {
+            return HistoryCleanupRun.EMPTY;
+        }
+        logger.info("History cleanup started: {} expired process instances", backlog.get());
+
+        long started = System.nanoTime();
+        long deletedInRun = 0;
+        int batches = 0;
+        int largestBatch = 0;
+        Timestamp lastRemovalTime = KEYSET_START;
+        String lastId = "";
+        throttle.reset();
+        resetForegroundSnapshots();
+
+        while (!stopping && inWindow()) {
+            if (!clusterLock.tryAcquire()) {
+                logger.warn("History cleanup lease taken over by another node, stopping");
+                break;
+            }
+            List<ExpiredInstance> page = nextPage(cutoff, lastRemovalTime, lastId);
+            if (page.isEmpty()) {
+                break;
+            }
+            ExpiredInstance last = page.get(page.size() - 1);
+            lastRemovalTime = last.removalTime();
+            lastId = last.id();
+            largestBatch = Math.max(largestBatch, page.size());
+
+            long batchStarted = System.nanoTime();
+            boolean failed = false;
+            try {
+                historyService.deleteHistoricProcessInstancesIfExists(page.stream().map(ExpiredInstance::id).toList());
+            } catch (ProcessEngineException e) {
+                // Пачка пропускается курсором, экземпляры будут выбраны в следующем проходе
+                logger.warn("History cleanup batch of {} instances failed: {}", page.size(), e.getMessage());
+                failed = true;
+            }
+            long batchNanos = System.nanoTime() - batchStarted;
+            batchTimer.record(batchNanos, TimeUnit.NANOSECONDS);
+            batches++;
+            if (!failed) {
+                deletedInRun += page.size();
+                deleted.increment(page.size());
+                backlog.updateAndGet(value -> Math.max(0, value - page.size()));
+            }
+            rateMillis.set((long) (deletedInRun * 1_000_000_000_000.0 / (System.nanoTime() - started)));
+
+            if (page.size() < properties.getBatchSize()) {
+                break;
+            }
+            Duration pause = throttle.onBatch(failed || overloaded(batchNanos));
+            if (!sleep(pause)) {
+                break;
+            }
+        }
+
+        Duration duration = Duration.ofNanos(System.nanoTime() - started);
+        logger.info("History cleanup finished: {} process instances in {} batches, {} ms, backlog {}",
+            deletedInRun, batches, duration.toMillis(), backlog.get());
+        return new HistoryCleanupRun(deletedInRun, batches, largestBatch, duration);
+    }
+
+    private long countExpired(Timestamp cutoff) {
+        Long count = jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM " + tablePrefix + "ACT_HI_PROCINST"
+                + " WHERE REMOVAL_TIME_ <= ? AND END_TIME_ IS NOT NULL",
+            Long.class, cutoff);
+        return count != null ? count : 0;
+    }
+
+    /**
+     * Следующая страница истекших экземпляров после (lastRemovalTime, lastId) по индексу REMOVAL_TIME_.
+     * Размер страницы ограничивается через Statement.setMaxRows: синтаксис LIMIT есть не во всех БД движка.
+     */
+    private List<ExpiredInstance> nextPage(Timestamp cutoff, Timestamp lastRemovalTime, String lastId) {
+        String sql = "SELECT ID_, REMOVAL_TIME_ FROM " + tablePrefix + "ACT_HI_PROCINST"
+            + " WHERE REMOVAL_TIME_ <= ? AND END_TIME_ IS NOT NULL"
+            + " AND (REMOVAL_TIME_ > ? OR (REMOVAL_TIME_ = ? AND ID_ > ?))"
+            + " ORDER BY REMOVAL_TIME_, ID_";
+        int batchSize = properties.getBatchSize();
+        return jdbcTemplate.query(connection -> {
+                PreparedStatement statement = connection.prepareStatement(sql);
+                statement.setMaxRows(batchSize);
+                statement.setFetchSize(batchSize);
+                new ArgumentPreparedStatementSetter(new Object[] {cutoff, lastRemovalTime, lastRemovalTime, lastId})
+                    .setValues(statement);
+                return statement;
+            },
+            (rs, rowNum) -> new ExpiredInstance(rs.getString("ID_"), rs.getTimestamp("REMOVAL_TIME_")));
+    }
+
+    private boolean inWindow() {
+        if (windows.isEmpty()) {
+            return true;
+        }
+        LocalTime now = LocalTime.now();
+        return windows.stream().anyMatch(window -> window.contains(now));
+    }
+
+    private boolean overloaded(long batchNanos) {
+        if (batchNanos > properties.getMaxBatchDuration().toNanos()) {
+            logger.debug("History cleanup batch took {} ms, slowing down", batchNanos / 1_000_000);
+            return true;
+        }
+        return poolBusy() | foregroundSlow();
+    }
+
+    private boolean poolBusy() {
+        HikariPoolMXBean pool = hikariPool();
+        if (pool == null) {
+            return false;
+        }
+        int total = Math.max(1, pool.getTotalConnections());
+        boolean busy = pool.getThreadsAwaitingConnection() > 0
+            || (double) pool.getActiveConnections() / total >= properties.getMaxPoolUsage();
+        if (busy) {
+            logger.debug("Connection pool busy ({} active of {}, {} waiting), slowing down history cleanup",
+                pool.getActiveConnections(), total, pool.getThreadsAwaitingConnection());
+        }
+        return busy;
+    }
+
+    private HikariPoolMXBean hikariPool() {
+        try {
+            return dataSource.isWrapperFor(HikariDataSource.class)
+                ? dataSource.unwrap(HikariDataSource.class).getHikariPoolMXBean() : null;
+        } catch (SQLException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Среднее время foreground таймеров по вызовам, завершившимся после прошлой пачки.
+     */
+    private boolean foregroundSlow() {
+        boolean slow = false;
+        for (String name : properties.getForegroundTimers()) {
+            TimerSnapshot current = TimerSnapshot.of(meterRegistry, name);
+            TimerSnapshot previous = foregroundSnapshots.put(name, current);
+            if (previous == null || current.count() <= previous.count()) {
+                continue;
+            }
+            double meanNanos = (current.totalNanos() - previous.totalNanos()) / (current.count() - previous.count());
+            if (meanNanos > properties.getForegroundLatencyThreshold().toNanos()) {
+                logger.debug("{} mean {} ms since last batch, slowing down history cleanup", name,
+                    (long) (meanNanos / 1_000_000));
+                slow = true;
+            }
+        }
+        return slow;
+    }
+
+    private void resetForegroundSnapshots() {
+        foregroundSnapshots.clear();
+        for (String name : properties.getForegroundTimers()) {
+            foregroundSnapshots.put(name, TimerSnapshot.of(meterRegistry, name));
+        }
+    }
+
+    private static boolean sleep(Duration pause) {
+        if (pause.isZero()) {
+            return true;
+        }
+        try {
+            Thread.sleep(pause.toMillis());
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void runQuietly() {
+        try {
+            cleanUp();
+        } catch (RuntimeException e) {
+            logger.error("History cleanup run failed", e);
+        }
+    }
+
+    @Override
+    public synchronized void start() {
+        stopping = false;
+        if (properties.isEnabled()) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "history-cleanup");
+                thread.setDaemon(true);
+                return thread;
+            });
+            long interval = properties.getPollInterval().toMillis();
+            scheduler.scheduleWithFixedDelay(this::runQuietly, interval, interval, TimeUnit.MILLISECONDS);
+        }
+        running = true;
+    }
+
+    @Override
+    public synchronized void stop() {
+        stopping = true;
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            try {
+                scheduler.awaitTermination(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            scheduler = null;
+        }
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private record ExpiredInstance(String id, Timestamp removalTime) {
+    }
+
+    private record TimerSnapshot(long count, double totalNanos) {
+
+        static TimerSnapshot of(MeterRegistry meterRegistry, String name) {
+            long count = 0;
+            double totalNanos = 0;
+            for (Timer timer : meterRegistry.find(name).timers()) {
+                count += timer.count();
+                totalNanos += timer.totalTime(TimeUnit.NANOSECONDS);
+            }
+            return new TimerSnapshot(count, totalNanos);
+        }
+    }
+}
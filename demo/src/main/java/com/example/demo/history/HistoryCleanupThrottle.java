@@ -0,0 +1,51 @@
+package com.example.demo.history;
+
+import java.time.Duration;
+
+/**
+ * Пауза между пачками очистки истории.
+ *
+ * - Признак нагрузки после пачки: пауза удваивается, но не больше maxPause.
+ * - Пачка без нагрузки: пауза уменьшается вдвое, но не меньше minPause.
+ *
+ * Удвоение начинается с {@link #INITIAL_BACKOFF}, если minPause меньше.
+ */
+public class HistoryCleanupThrottle {
+
+    static final Duration INITIAL_BACKOFF = Duration.ofMillis(100);
+
+    private final Duration minPause;
+    private final Duration maxPause;
+
+    private Duration pause;
+
+    public HistoryCleanupThrottle(Duration minPause, Duration maxPause) {
+        this.minPause = minPause;
+        this.maxPause = maxPause.compareTo(minPause) < 0 ? minPause : maxPause;
+        this.pause = minPause;
+    }
+
+    /**
+     * Учитывает завершенную пачку.
+     *
+     * @return пауза перед следующей пачкой
+     */
+    public synchronized Duration onBatch(boolean overloaded) {
+        if (overloaded) {
+            Duration increased = pause.compareTo(INITIAL_BACKOFF) < 0 ? INITIAL_BACKOFF : pause.multipliedBy(2);
+            pause = increased.compareTo(maxPause) > 0 ? maxPause : increased;
+        } else {
+            Duration decreased = pause.dividedBy(2);
+            pause = decreased.compareTo(minPause) < 0 ? minPause : decreased;
+        }
+        return pause;
+    }
+
+    public synchronized Duration pause() {
+        return pause;
+    }
+
+    public synchronized void reset() {
+        pause = minPause;
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.demo.history;
+
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Окно очистки истории в пределах суток, например 22:00-06:00 (через полночь).
+ */
+public record HistoryCleanupWindow(LocalTime start, LocalTime end) {
+
+    /**
+     * Разбирает окно в формате HH:mm-HH:mm.
+     */
+    public static HistoryCleanupWindow parse(String window) {
+        String[] bounds = window.trim().split("-");
+        if (bounds.length != 2) {
+            throw new IllegalArgumentException("History cleanup window must be HH:mm-HH:mm: " + window);
+        }
+        try {
+            return new HistoryCleanupWindow(LocalTime.parse(bounds[0].trim()), LocalTime.parse(bounds[1].trim()));
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("History cleanup window must be HH:mm-HH:mm: " + window, e);
+        }
+    }
+
+    public boolean contains(LocalTime time) {
+        if (start.isBefore(end)) {
+            return !time.isBefore(start) && time.isBefore(end);
+        }
+        // Окно через полночь (или на все сутки, если start == end)
+        return !time.isBefore(start) || time.isBefore(end);
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.demo.idempotency;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Настройки идемпотентности вызова create-user (префикс service-api.idempotency).
+ */
+@ConfigurationProperties(prefix = "service-api.idempotency")
+public class CreateUserIdempotencyProperties {
+
+    /** Пропускать повторный create-user для уже созданного пользователя */
+    private boolean enabled = true;
+
+    /** Максимум ответов в кэше, при превышении вытесняются редко используемые */
+    private long cacheMaximumSize = 100_000;
+
+    /** Время жизни ответа в кэше; после него ответ читается из таблицы create_user_dedup */
+    private Duration cacheExpireAfterWrite = Duration.ofMinutes(30);
+
+    /** Сколько хранится запись в create_user_dedup */
+    private Duration retention = Duration.ofDays(30);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public long getCacheMaximumSize() {
+        return cacheMaximumSize;
+    }
+
+    public void setCacheMaximumSize(long cacheMaximumSize) {
+        this.cacheMaximumSize = cacheMaximumSize;
+    }
+
+    public Duration getCacheExpireAfterWrite() {
+        return cacheExpireAfterWrite;
+    }
+
+    public void setCacheExpireAfterWrite(Duration cacheExpireAfterWrite) {
+        this.cacheExpireAfterWrite = cacheExpireAfterWrite;
+    }
+
+    public Duration getRetention() {
+        return retention;
+    }
+
+    public void setRetention(Duration retention) {
+        this.retention = retention;
+    }
+}
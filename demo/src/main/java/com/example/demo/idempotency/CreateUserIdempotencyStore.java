@@ -0,0 +1,158 @@
+package com.example.demo.idempotency;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Ответы create-user по ключу идемпотентности: business key экземпляра или email, переданный при старте.
+ *
+ * Поиск идет сначала в кэше в памяти (ограничен по размеру и времени жизни), затем
+ * в таблице create_user_dedup. Запись сохраняется в отдельной транзакции сразу после
+ * успешного HTTP вызова: если транзакция job затем откатится, повтор job найдет ответ
+ * и не создаст пользователя второй раз.
+ *
+ * Метрики: create-user.idempotency.lookups (тег outcome: cache, table, miss)
+ * и create-user.idempotency.hit.ratio.
+ */
+@Repository
+@EnableConfigurationProperties(CreateUserIdempotencyProperties.class)
+public class CreateUserIdempotencyStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(CreateUserIdempotencyStore.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final CreateUserIdempotencyProperties properties;
+    private final TransactionTemplate requiresNew;
+    private final Cache<String, StoredCreateUserResponse> cache;
+
+    private final Counter cacheHits;
+    private final Counter tableHits;
+    private final Counter misses;
+
+    public CreateUserIdempotencyStore(JdbcTemplate jdbcTemplate,
+                                      CreateUserIdempotencyProperties properties,
+                                      PlatformTransactionManager transactionManager,
+                                      MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.properties = properties;
+        this.requiresNew = new TransactionTemplate(transactionManager);
+        this.requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.cache = Caffeine.newBuilder()
+            .maximumSize(properties.getCacheMaximumSize())
+            .expireAfterWrite(properties.getCacheExpireAfterWrite())
+            .build();
+
+        this.cacheHits = lookupCounter(meterRegistry, "cache");
+        this.tableHits = lookupCounter(meterRegistry, "table");
+        this.misses = lookupCounter(meterRegistry, "miss");
+        Gauge.builder("create-user.idempotency.hit.ratio", this, CreateUserIdempotencyStore::hitRatio)
+            .description("Share of create-user calls answered from the idempotency cache or table")
+            .register(meterRegistry);
+    }
+
+    private static Counter lookupCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("create-user.idempotency.lookups")
+            .description("Idempotency lookups before create-user")
+            .tag("outcome", outcome)
+            .register(meterRegistry);
+    }
+
+    /**
+     * Ключ идемпотентности: business key, иначе email в нижнем регистре; null, если нет ни того, ни другого
+     * (тогда дедупликация не выполняется). Email, подставленный по умолчанию, сюда передавать нельзя.
+     */
+    public static String key(String businessKey, String userEmail) {
+        if (businessKey != null && !businessKey.isBlank()) {
+            return "bk:" + businessKey;
+        }
+        if (userEmail != null && !userEmail.isBlank()) {
+            return "email:" + userEmail.trim().toLowerCase(Locale.ROOT);
+        }
+        return null;
+    }
+
+    public Optional<StoredCreateUserResponse> find(String key) {
+        if (!properties.isEnabled() || key == null) {
+            return Optional.empty();
+        }
+        StoredCreateUserResponse cached = cache.getIfPresent(key);
+        if (cached != null) {
+            cacheHits.increment();
+            return Optional.of(cached);
+        }
+        List<StoredCreateUserResponse> stored = jdbcTemplate.query(
+            "SELECT user_id, response_status, response_body FROM create_user_dedup WHERE idempotency_key = ?",
+            (rs, rowNum) -> new StoredCreateUserResponse(
+                rs.getString("user_id"), rs.getInt("response_status"), rs.getString("response_body")),
+            key);
+        if (stored.isEmpty()) {
+            misses.increment();
+            return Optional.empty();
+        }
+        tableHits.increment();
+        cache.put(key, stored.get(0));
+        return Optional.of(stored.get(0));
+    }
+
+    /**
+     * Сохраняет ответ в отдельной транзакции. Если ключ уже записан параллельным вызовом,
+     * возвращается ранее сохраненный ответ.
+     */
+    public StoredCreateUserResponse save(String key, StoredCreateUserResponse response) {
+        if (!properties.isEnabled() || key == null) {
+            return response;
+        }
+        try {
+            requiresNew.executeWithoutResult(status -> jdbcTemplate.update(
+                "INSERT INTO create_user_dedup (idempotency_key, user_id, response_status, response_body, created_at)"
+                    + " VALUES (?, ?, ?, ?, ?)",
+                key, response.userId(), response.status(), response.body(), Timestamp.valueOf(LocalDateTime.now())));
+        } catch (DuplicateKeyException e) {
+            logger.debug("create-user response for {} already stored", key);
+            cache.invalidate(key);
+            return find(key).orElse(response);
+        }
+        cache.put(key, response);
+        return response;
+    }
+
+    /**
+     * Удаляет записи старше service-api.idempotency.retention.
+     */
+    @Scheduled(fixedDelayString = "${service-api.idempotency.purge-interval:1h}")
+    public int purgeExpired() {
+        int deleted = jdbcTemplate.update("DELETE FROM create_user_dedup WHERE created_at < ?",
+            Timestamp.valueOf(LocalDateTime.now().minus(properties.getRetention())));
+        if (deleted > 0) {
+            logger.debug("Purged {} expired create-user dedup records", deleted);
+        }
+        return deleted;
+    }
+
+    private double hitRatio() {
+        double hits = cacheHits.count() + tableHits.count();
+        double total = hits + misses.count();
+        return total == 0 ? 0 : hits / total;
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.demo.idempotency;
+
+/**
+ * Сохраненный результат успешного create-user.
+ *
+ * @param userId userId, с которым пользователь создан в SERVICE_API
+ */
+public record StoredCreateUserResponse(String userId, int status, String body) {
+}
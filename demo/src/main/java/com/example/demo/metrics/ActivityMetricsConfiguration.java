@@ -0,0 +1,35 @@
+package com.example.demo.metrics;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Метрики по активностям BPMN: таймер camunda.activity.duration и счетчик
+ * camunda.activity.started с тегами process, activity, type.
+ * Выключаются целиком через camunda.activity-metrics.enabled=false.
+ */
+@Configuration
+@ConditionalOnProperty(name = "camunda.activity-metrics.enabled", havingValue = "true", matchIfMissing = true)
+@EnableConfigurationProperties(ActivityMetricsProperties.class)
+public class ActivityMetricsConfiguration {
+
+    @Bean
+    public ActivityMetricsRegistry activityMetricsRegistry(MeterRegistry meterRegistry,
+                                                           ActivityMetricsProperties properties) {
+        return new ActivityMetricsRegistry(meterRegistry, properties);
+    }
+
+    @Bean
+    public ActivityMetricsPlugin activityMetricsPlugin(ActivityMetricsRegistry registry) {
+        return new ActivityMetricsPlugin(registry);
+    }
+
+    @Bean
+    public ActivityMetricsEndpoint activityMetricsEndpoint(ActivityMetricsRegistry registry) {
+        return new ActivityMetricsEndpoint(registry);
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.demo.metrics;
+
+import java.util.Map;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+
+/**
+ * Переключение метрик активностей по процессу без перезапуска.
+ *
+ * GET  /actuator/activitymetrics              - состояние всех процессов
+ * POST /actuator/activitymetrics/{processKey} - тело {"enabled": false}
+ */
+@Endpoint(id = "activitymetrics")
+public class ActivityMetricsEndpoint {
+
+    private final ActivityMetricsRegistry registry;
+
+    public ActivityMetricsEndpoint(ActivityMetricsRegistry registry) {
+        this.registry = registry;
+    }
+
+    @ReadOperation
+    public Map<String, Boolean> switches() {
+        return registry.switches();
+    }
+
+    @ReadOperation
+    public Map<String, Boolean> process(@Selector String processKey) {
+        return Map.of(processKey, registry.isEnabled(processKey));
+    }
+
+    @WriteOperation
+    public Map<String, Boolean> setEnabled(@Selector String processKey, boolean enabled) {
+        registry.setEnabled(processKey, enabled);
+        return Map.of(processKey, enabled);
+    }
+}
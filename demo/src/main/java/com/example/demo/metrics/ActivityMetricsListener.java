@@ -0,0 +1,46 @@
+package com.example.demo.metrics;
+
+import java.util.concurrent.TimeUnit;
+
+import org.camunda.bpm.engine.delegate.DelegateExecution;
+import org.camunda.bpm.engine.delegate.ExecutionListener;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Listener start/end одной активности: считает запуски и пишет длительность.
+ *
+ * Время старта хранится до конца команды движка; для wait state (receive task, user task)
+ * и других активностей, завершенных в другой команде, оно берется из истории.
+ */
+class ActivityMetricsListener implements ExecutionListener {
+
+    private final ActivityMetricsRegistry.Switch processSwitch;
+    private final ActivityMetricsRegistry registry;
+    private final Timer duration;
+    private final Counter started;
+
+    ActivityMetricsListener(ActivityMetricsRegistry.Switch processSwitch, ActivityMetricsRegistry registry,
+                            Timer duration, Counter started) {
+        this.processSwitch = processSwitch;
+        this.registry = registry;
+        this.duration = duration;
+        this.started = started;
+    }
+
+    @Override
+    public void notify(DelegateExecution execution) {
+        if (EVENTNAME_START.equals(execution.getEventName())) {
+            if (processSwitch.enabled) {
+                started.increment();
+                registry.markStarted(execution.getActivityInstanceId(), System.nanoTime());
+            }
+        } else if (processSwitch.enabled) {
+            long elapsedNanos = registry.elapsedNanos(execution.getActivityInstanceId());
+            if (elapsedNanos >= 0) {
+                duration.record(elapsedNanos, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.demo.metrics;
+
+import org.camunda.bpm.engine.delegate.ExecutionListener;
+import org.camunda.bpm.engine.impl.bpmn.parser.AbstractBpmnParseListener;
+import org.camunda.bpm.engine.impl.persistence.entity.ProcessDefinitionEntity;
+import org.camunda.bpm.engine.impl.pvm.process.ActivityImpl;
+import org.camunda.bpm.engine.impl.pvm.process.ScopeImpl;
+import org.camunda.bpm.engine.impl.util.xml.Element;
+
+/**
+ * Добавляет {@link ActivityMetricsListener} на start/end каждой активности процесса,
+ * включая активности подпроцессов и тела multi-instance.
+ *
+ * Listener-ы встроенные (built-in), поэтому срабатывают и при skipCustomListeners.
+ */
+public class ActivityMetricsParseListener extends AbstractBpmnParseListener {
+
+    private final ActivityMetricsRegistry registry;
+
+    public ActivityMetricsParseListener(ActivityMetricsRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public void parseProcess(Element processElement, ProcessDefinitionEntity processDefinition) {
+        // parseProcess вызывается после разбора всех элементов процесса
+        addListeners(processDefinition, processDefinition.getKey());
+    }
+
+    private void addListeners(ScopeImpl scope, String processDefinitionKey) {
+        for (ActivityImpl activity : scope.getActivities()) {
+            Object type = activity.getProperty("type");
+            ActivityMetricsListener listener = registry.createListener(processDefinitionKey, activity.getId(),
+                type != null ? type.toString() : "unknown");
+            activity.addBuiltInListener(ExecutionListener.EVENTNAME_START, listener);
+            activity.addBuiltInListener(ExecutionListener.EVENTNAME_END, listener);
+            addListeners(activity, processDefinitionKey);
+        }
+    }
+}
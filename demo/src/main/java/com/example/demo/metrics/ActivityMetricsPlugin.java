@@ -0,0 +1,30 @@
+package com.example.demo.metrics;
+
+import java.util.ArrayList;
+
+import org.camunda.bpm.engine.impl.cfg.AbstractProcessEnginePlugin;
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+
+/**
+ * Подключает {@link ActivityMetricsParseListener} и сессию {@link ActivityStartTimes}.
+ */
+public class ActivityMetricsPlugin extends AbstractProcessEnginePlugin {
+
+    private final ActivityMetricsRegistry registry;
+
+    public ActivityMetricsPlugin(ActivityMetricsRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public void preInit(ProcessEngineConfigurationImpl configuration) {
+        if (configuration.getCustomPostBPMNParseListeners() == null) {
+            configuration.setCustomPostBPMNParseListeners(new ArrayList<>());
+        }
+        configuration.getCustomPostBPMNParseListeners().add(new ActivityMetricsParseListener(registry));
+        if (configuration.getCustomSessionFactories() == null) {
+            configuration.setCustomSessionFactories(new ArrayList<>());
+        }
+        configuration.getCustomSessionFactories().add(new ActivityStartTimes.Factory());
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.demo.metrics;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Настройки метрик по активностям BPMN (префикс camunda.activity-metrics).
+ */
+@ConfigurationProperties(prefix = "camunda.activity-metrics")
+public class ActivityMetricsProperties {
+
+    /** Подключать ли parse listener; при false метрики не собираются и не переключаются */
+    private boolean enabled = true;
+
+    /** Ключи процессов, для которых метрики выключены при старте (включаются через actuator) */
+    private Set<String> disabledProcesses = new HashSet<>();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Set<String> getDisabledProcesses() {
+        return disabledProcesses;
+    }
+
+    public void setDisabledProcesses(Set<String> disabledProcesses) {
+        this.disabledProcesses = disabledProcesses;
+    }
+}
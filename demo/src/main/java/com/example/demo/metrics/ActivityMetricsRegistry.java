@@ -0,0 +1,117 @@
+package com.example.demo.metrics;
+
+import java.util.Date;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.camunda.bpm.engine.impl.context.Context;
+import org.camunda.bpm.engine.impl.interceptor.CommandContext;
+import org.camunda.bpm.engine.impl.persistence.entity.HistoricActivityInstanceEntity;
+import org.camunda.bpm.engine.impl.util.ClockUtil;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Метрики активностей и их переключатели по ключу процесса.
+ *
+ * Метры создаются один раз при разборе BPMN, в listener-ах на каждое выполнение
+ * остаются только проверка volatile флага, запись в таймер и отметка времени старта.
+ * Отметки старта хранятся в сессии команды ({@link ActivityStartTimes}), а не в общей памяти.
+ */
+public class ActivityMetricsRegistry {
+
+    public static final String DURATION = "camunda.activity.duration";
+    public static final String STARTED = "camunda.activity.started";
+
+    private final MeterRegistry meterRegistry;
+    private final ActivityMetricsProperties properties;
+    private final Map<String, Switch> switches = new ConcurrentHashMap<>();
+
+    public ActivityMetricsRegistry(MeterRegistry meterRegistry, ActivityMetricsProperties properties) {
+        this.meterRegistry = meterRegistry;
+        this.properties = properties;
+    }
+
+    /**
+     * Переключатель процесса; один экземпляр на ключ, его держат listener-ы всех версий процесса.
+     */
+    public Switch processSwitch(String processDefinitionKey) {
+        return switches.computeIfAbsent(processDefinitionKey,
+            key -> new Switch(!properties.getDisabledProcesses().contains(key)));
+    }
+
+    public boolean isEnabled(String processDefinitionKey) {
+        return processSwitch(processDefinitionKey).enabled;
+    }
+
+    public void setEnabled(String processDefinitionKey, boolean enabled) {
+        processSwitch(processDefinitionKey).enabled = enabled;
+    }
+
+    /**
+     * Состояние переключателей всех разобранных процессов.
+     */
+    public Map<String, Boolean> switches() {
+        Map<String, Boolean> result = new TreeMap<>();
+        switches.forEach((key, processSwitch) -> result.put(key, processSwitch.enabled));
+        return result;
+    }
+
+    ActivityMetricsListener createListener(String processDefinitionKey, String activityId, String activityType) {
+        Timer duration = Timer.builder(DURATION)
+            .description("Время выполнения активности BPMN, для wait state - время ожидания")
+            .tag("process", processDefinitionKey)
+            .tag("activity", activityId)
+            .tag("type", activityType)
+            .register(meterRegistry);
+        Counter started = Counter.builder(STARTED)
+            .description("Число запусков активности BPMN")
+            .tag("process", processDefinitionKey)
+            .tag("activity", activityId)
+            .tag("type", activityType)
+            .register(meterRegistry);
+        return new ActivityMetricsListener(processSwitch(processDefinitionKey), this, duration, started);
+    }
+
+    void markStarted(String activityInstanceId, long startNanos) {
+        Context.getCommandContext().getSession(ActivityStartTimes.class).put(activityInstanceId, startNanos);
+    }
+
+    /**
+     * Время с начала активности или -1, если оно неизвестно.
+     *
+     * Активность, начатая в этой же команде, измеряется по отметке старта. Для начатой
+     * в другой команде (wait state, asyncAfter, старт до включения метрик) время старта берется
+     * из истории; без истории уровня activity длительность не пишется.
+     */
+    long elapsedNanos(String activityInstanceId) {
+        CommandContext commandContext = Context.getCommandContext();
+        Long startNanos = commandContext.getSession(ActivityStartTimes.class).remove(activityInstanceId);
+        if (startNanos != null) {
+            return System.nanoTime() - startNanos;
+        }
+        HistoricActivityInstanceEntity activityInstance = commandContext.getDbEntityManager()
+            .selectById(HistoricActivityInstanceEntity.class, activityInstanceId);
+        Date startTime = activityInstance != null ? activityInstance.getStartTime() : null;
+        if (startTime == null) {
+            return -1;
+        }
+        return TimeUnit.MILLISECONDS.toNanos(Math.max(0, ClockUtil.getCurrentTime().getTime() - startTime.getTime()));
+    }
+
+    /**
+     * Флаг включения метрик процесса.
+     */
+    static final class Switch {
+
+        volatile boolean enabled;
+
+        Switch(boolean enabled) {
+            this.enabled = enabled;
+        }
+    }
+}
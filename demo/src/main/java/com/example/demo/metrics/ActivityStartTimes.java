@@ -0,0 +1,51 @@
+package com.example.demo.metrics;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.camunda.bpm.engine.impl.interceptor.Session;
+import org.camunda.bpm.engine.impl.interceptor.SessionFactory;
+
+/**
+ * Время старта активностей, начатых в текущей команде движка, по activityInstanceId.
+ *
+ * Сессия живет до конца команды, поэтому отметки не переживают откат,
+ * неудачный повтор job или переход в wait state.
+ */
+class ActivityStartTimes implements Session {
+
+    private final Map<String, Long> startNanos = new HashMap<>();
+
+    void put(String activityInstanceId, long nanos) {
+        startNanos.put(activityInstanceId, nanos);
+    }
+
+    /**
+     * Время старта или null, если активность началась в другой команде.
+     */
+    Long remove(String activityInstanceId) {
+        return startNanos.remove(activityInstanceId);
+    }
+
+    @Override
+    public void flush() {
+    }
+
+    @Override
+    public void close() {
+        startNanos.clear();
+    }
+
+    static class Factory implements SessionFactory {
+
+        @Override
+        public Class<?> getSessionType() {
+            return ActivityStartTimes.class;
+        }
+
+        @Override
+        public Session openSession() {
+            return new ActivityStartTimes();
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.demo.outbound;
+
+/**
+ * Градиентный лимит одновременных вызовов.
+ *
+ * Сравниваются две сглаженные задержки: короткая (последние ~10 вызовов) и долгая
+ * (последние ~600 вызовов, первые 10 - простое среднее). Градиент
+ * latencyTolerance * долгая / короткая, ограниченный отрезком [0.5, 1]:
+ *
+ * - Короткая задержка выше долгой больше чем в latencyTolerance раз: лимит уменьшается
+ *   пропорционально градиенту.
+ * - Иначе при загрузке не меньше половины лимита лимит растет на sqrt(лимит).
+ * - Ошибка: лимит умножается на backoffRatio.
+ *
+ * Новое значение сглаживается с текущим, поэтому одиночный медленный вызов лимит почти
+ * не меняет. Базовая задержка - средняя, а не минимальная: разброс задержек здорового
+ * сервиса не уменьшает лимит. Если сервис стал заметно быстрее, долгая задержка
+ * ускоренно догоняет короткую.
+ */
+class AdaptiveConcurrencyLimit {
+
+    private static final int SHORT_WINDOW = 10;
+    private static final int LONG_WINDOW = 600;
+    private static final int WARM_UP_SAMPLES = 10;
+    private static final double MIN_GRADIENT = 0.5;
+    private static final double SMOOTHING = 0.2;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double latencyTolerance;
+    private final double backoffRatio;
+
+    private volatile int limit;
+    private double estimate;
+    private double shortNanos;
+    private double longNanos;
+    private long samples;
+
+    AdaptiveConcurrencyLimit(OutboundGateProperties properties) {
+        this.minLimit = properties.getMinLimit();
+        this.maxLimit = properties.getMaxLimit();
+        this.latencyTolerance = properties.getLatencyTolerance();
+        this.backoffRatio = properties.getBackoffRatio();
+        this.estimate = Math.max(minLimit, Math.min(maxLimit, properties.getInitialLimit()));
+        this.limit = (int) estimate;
+    }
+
+    int limit() {
+        return limit;
+    }
+
+    /**
+     * Учитывает завершенный вызов.
+     *
+     * @param inFlight число вызовов, выполнявшихся вместе с этим (включая его)
+     */
+    synchronized void onSample(long latencyNanos, int inFlight, boolean failed) {
+        if (failed) {
+            update(estimate * backoffRatio);
+            return;
+        }
+        samples++;
+        if (samples == 1) {
+            shortNanos = latencyNanos;
+            longNanos = latencyNanos;
+        } else {
+            shortNanos += (latencyNanos - shortNanos) * 2.0 / (SHORT_WINDOW + 1);
+            longNanos += (latencyNanos - longNanos)
+                * (samples <= WARM_UP_SAMPLES ? 1.0 / samples : 2.0 / (LONG_WINDOW + 1));
+        }
+        if (longNanos > shortNanos * 2) {
+            // Сервис стал быстрее: базовая задержка не должна держаться на старом уровне
+            longNanos *= 0.95;
+        }
+
+        double gradient = shortNanos > 0
+            ? Math.max(MIN_GRADIENT, Math.min(1.0, latencyTolerance * longNanos / shortNanos))
+            : 1.0;
+        double target = estimate * gradient;
+        if (inFlight * 2 >= estimate) {
+            target += Math.sqrt(estimate);
+        }
+        update(estimate * (1 - SMOOTHING) + target * SMOOTHING);
+    }
+
+    private void update(double value) {
+        estimate = Math.max(minLimit, Math.min(maxLimit, value));
+        limit = (int) estimate;
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.demo.outbound;
+
+import org.springframework.web.client.RestClientException;
+
+/**
+ * Вызов не выполнен: лимит одновременных вызовов endpoint-а исчерпан или circuit breaker разомкнут.
+ *
+ * Для service task с asyncBefore отказ по лимиту не считается ошибкой job: {@link RejectedJobCommandFactory}
+ * откладывает job на service-api.gate.rejected-job-retry-delay без уменьшения retries.
+ * Разомкнутый circuit breaker - обычная ошибка job, повтор идет по failedJobRetryTimeCycle.
+ */
+public class OutboundCallRejectedException extends RestClientException {
+
+    /** Причина отказа */
+    public enum Reason {
+        LIMIT,
+        CIRCUIT_OPEN
+    }
+
+    private final Reason reason;
+
+    public OutboundCallRejectedException(Reason reason, String message) {
+        super(message);
+        this.reason = reason;
+    }
+
+    public Reason getReason() {
+        return reason;
+    }
+}
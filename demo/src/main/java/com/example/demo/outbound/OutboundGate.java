@@ -0,0 +1,94 @@
+package com.example.demo.outbound;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Gate одного endpoint-а: адаптивный лимит одновременных вызовов и circuit breaker.
+ * Вызов, не получивший разрешения, сразу отклоняется, ожидания в очереди нет.
+ */
+public class OutboundGate {
+
+    private final String endpoint;
+    private final AdaptiveConcurrencyLimit limit;
+    private final CircuitBreaker circuitBreaker;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private final Counter limitRejections;
+    private final Counter circuitRejections;
+
+    OutboundGate(String endpoint, OutboundGateProperties properties, MeterRegistry meterRegistry) {
+        this.endpoint = endpoint;
+        this.limit = new AdaptiveConcurrencyLimit(properties);
+        this.circuitBreaker = new CircuitBreaker(properties);
+
+        Gauge.builder("service-api.gate.limit", limit, AdaptiveConcurrencyLimit::limit)
+            .description("Current concurrency limit of the outbound endpoint")
+            .tag("endpoint", endpoint)
+            .register(meterRegistry);
+        Gauge.builder("service-api.gate.in-flight", inFlight, AtomicInteger::get)
+            .description("Outbound calls in progress")
+            .tag("endpoint", endpoint)
+            .register(meterRegistry);
+        Gauge.builder("service-api.gate.circuit.state", circuitBreaker, breaker -> breaker.state().ordinal())
+            .description("Circuit breaker state: 0 closed, 1 half-open, 2 open")
+            .tag("endpoint", endpoint)
+            .register(meterRegistry);
+        this.limitRejections = rejectionCounter(meterRegistry, endpoint, "limit");
+        this.circuitRejections = rejectionCounter(meterRegistry, endpoint, "circuit-open");
+    }
+
+    private static Counter rejectionCounter(MeterRegistry meterRegistry, String endpoint, String reason) {
+        return Counter.builder("service-api.gate.rejections")
+            .description("Outbound calls rejected without reaching the endpoint")
+            .tag("endpoint", endpoint)
+            .tag("reason", reason)
+            .register(meterRegistry);
+    }
+
+    /**
+     * Занимает место для вызова.
+     *
+     * @return время начала вызова для {@link #release}
+     * @throws OutboundCallRejectedException если лимит исчерпан или circuit breaker разомкнут
+     */
+    public long acquire() {
+        if (inFlight.incrementAndGet() > limit.limit()) {
+            inFlight.decrementAndGet();
+            limitRejections.increment();
+            throw new OutboundCallRejectedException(OutboundCallRejectedException.Reason.LIMIT,
+                "Concurrency limit " + limit.limit() + " reached for " + endpoint);
+        }
+        long start = System.nanoTime();
+        if (!circuitBreaker.tryAcquire(start)) {
+            inFlight.decrementAndGet();
+            circuitRejections.increment();
+            throw new OutboundCallRejectedException(OutboundCallRejectedException.Reason.CIRCUIT_OPEN,
+                "Circuit breaker is open for " + endpoint);
+        }
+        return start;
+    }
+
+    /**
+     * Освобождает место и учитывает результат вызова.
+     *
+     * @param failed ответ 5xx, таймаут или ошибка соединения
+     */
+    public void release(long start, boolean failed) {
+        long now = System.nanoTime();
+        int concurrent = inFlight.getAndDecrement();
+        limit.onSample(now - start, concurrent, failed);
+        circuitBreaker.onResult(failed, now);
+    }
+
+    public int limit() {
+        return limit.limit();
+    }
+
+    public boolean isCircuitOpen() {
+        return circuitBreaker.state() == CircuitBreaker.State.OPEN;
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.demo.outbound;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Пропускает вызовы общего RestClient (create-user, send-email) через {@link OutboundGate}.
+ * Gate выбирается по пути запроса: у каждого endpoint-а свой лимит и circuit breaker.
+ *
+ * Метрики (тег endpoint): service-api.gate.limit, service-api.gate.in-flight,
+ * service-api.gate.circuit.state, service-api.gate.rejections (тег reason: limit, circuit-open).
+ */
+@Component
+@EnableConfigurationProperties(OutboundGateProperties.class)
+public class OutboundGateInterceptor implements ClientHttpRequestInterceptor {
+
+    private final OutboundGateProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, OutboundGate> gates = new ConcurrentHashMap<>();
+
+    public OutboundGateInterceptor(OutboundGateProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+        throws IOException {
+        if (!properties.isEnabled()) {
+            return execution.execute(request, body);
+        }
+        OutboundGate gate = gate(request.getURI().getPath());
+        long start = gate.acquire();
+        boolean failed = true;
+        try {
+            ClientHttpResponse response = execution.execute(request, body);
+            failed = response.getStatusCode().is5xxServerError();
+            return response;
+        } finally {
+            gate.release(start, failed);
+        }
+    }
+
+    /**
+     * Gate endpoint-а, например "/create-user".
+     */
+    public OutboundGate gate(String endpoint) {
+        return gates.computeIfAbsent(endpoint, key -> new OutboundGate(key, properties, meterRegistry));
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.demo.outbound;
+
+import org.camunda.bpm.engine.impl.cfg.AbstractProcessEnginePlugin;
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.camunda.bpm.engine.impl.jobexecutor.DefaultFailedJobCommandFactory;
+import org.camunda.bpm.engine.impl.jobexecutor.FailedJobCommandFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Подключает {@link RejectedJobCommandFactory}: job, отклоненные gate-ом по лимиту,
+ * откладываются без уменьшения retries.
+ */
+@Component
+public class OutboundGatePlugin extends AbstractProcessEnginePlugin {
+
+    private final OutboundGateProperties properties;
+
+    public OutboundGatePlugin(OutboundGateProperties properties) {
+        this.properties = properties;
+    }
+
+    @Override
+    public void preInit(ProcessEngineConfigurationImpl configuration) {
+        FailedJobCommandFactory delegate = configuration.getFailedJobCommandFactory() != null
+            ? configuration.getFailedJobCommandFactory()
+            : new DefaultFailedJobCommandFactory();
+        configuration.setFailedJobCommandFactory(
+            new RejectedJobCommandFactory(delegate, properties.getRejectedJobRetryDelay()));
+    }
+}
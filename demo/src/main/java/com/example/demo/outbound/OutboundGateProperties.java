@@ -0,0 +1,148 @@
+package com.example.demo.outbound;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Настройки ограничения исходящих вызовов (префикс service-api.gate).
+ * Значения общие для всех endpoint-ов, состояние (лимит, circuit breaker) у каждого endpoint-а свое.
+ */
+@ConfigurationProperties(prefix = "service-api.gate")
+public class OutboundGateProperties {
+
+    /** Пропускать исходящие вызовы через gate */
+    private boolean enabled = true;
+
+    /** Начальный лимит одновременных вызовов endpoint-а */
+    private int initialLimit = 20;
+
+    /** Нижняя граница лимита */
+    private int minLimit = 1;
+
+    /** Верхняя граница лимита */
+    private int maxLimit = 200;
+
+    /**
+     * Во сколько раз задержка может превысить базовую, прежде чем лимит уменьшится.
+     * Сравниваются средняя задержка последних ~10 вызовов и долгосрочная средняя (~600 вызовов).
+     */
+    private double latencyTolerance = 2.0;
+
+    /** Множитель лимита при ошибке или росте задержки */
+    private double backoffRatio = 0.9;
+
+    /** Через сколько повторяется job, отклоненный по лимиту (retries не уменьшаются), плюс случайная добавка до того же значения */
+    private Duration rejectedJobRetryDelay = Duration.ofSeconds(1);
+
+    /** Доля ошибок (5xx, таймауты) в окне, при которой circuit breaker размыкается */
+    private double failureRateThreshold = 0.5;
+
+    /** Размер окна последних вызовов для расчета доли ошибок */
+    private int slidingWindowSize = 50;
+
+    /** Минимум вызовов в окне до первой оценки доли ошибок */
+    private int minimumCalls = 20;
+
+    /** Сколько circuit breaker остается разомкнутым до пробных вызовов */
+    private Duration openDuration = Duration.ofSeconds(30);
+
+    /** Сколько пробных вызовов пропускается в полуоткрытом состоянии */
+    private int halfOpenCalls = 5;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getInitialLimit() {
+        return initialLimit;
+    }
+
+    public void setInitialLimit(int initialLimit) {
+        this.initialLimit = initialLimit;
+    }
+
+    public int getMinLimit() {
+        return minLimit;
+    }
+
+    public void setMinLimit(int minLimit) {
+        this.minLimit = minLimit;
+    }
+
+    public int getMaxLimit() {
+        return maxLimit;
+    }
+
+    public void setMaxLimit(int maxLimit) {
+        this.maxLimit = maxLimit;
+    }
+
+    public double getLatencyTolerance() {
+        return latencyTolerance;
+    }
+
+    public void setLatencyTolerance(double latencyTolerance) {
+        this.latencyTolerance = latencyTolerance;
+    }
+
+    public double getBackoffRatio() {
+        return backoffRatio;
+    }
+
+    public void setBackoffRatio(double backoffRatio) {
+        this.backoffRatio = backoffRatio;
+    }
+
+    public Duration getRejectedJobRetryDelay() {
+        return rejectedJobRetryDelay;
+    }
+
+    public void setRejectedJobRetryDelay(Duration rejectedJobRetryDelay) {
+        this.rejectedJobRetryDelay = rejectedJobRetryDelay;
+    }
+
+    public double getFailureRateThreshold() {
+        return failureRateThreshold;
+    }
+
+    public void setFailureRateThreshold(double failureRateThreshold) {
+        this.failureRateThreshold = failureRateThreshold;
+    }
+
+    public int getSlidingWindowSize() {
+        return slidingWindowSize;
+    }
+
+    public void setSlidingWindowSize(int slidingWindowSize) {
+        this.slidingWindowSize = slidingWindowSize;
+    }
+
+    public int getMinimumCalls() {
+        return minimumCalls;
+    }
+
+    public void setMinimumCalls(int minimumCalls) {
+        this.minimumCalls = minimumCalls;
+    }
+
+    public Duration getOpenDuration() {
+        return openDuration;
+    }
+
+    public void setOpenDuration(Duration openDuration) {
+        this.openDuration = openDuration;
+    }
+
+    public int getHalfOpenCalls() {
+        return halfOpenCalls;
+    }
+
+    public void setHalfOpenCalls(int halfOpenCalls) {
+        this.halfOpenCalls = halfOpenCalls;
+    }
+}
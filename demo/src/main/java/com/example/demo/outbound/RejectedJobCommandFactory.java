@@ -0,0 +1,76 @@
+package com.example.demo.outbound;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.camunda.bpm.engine.impl.cmd.JobRetryCmd;
+import org.camunda.bpm.engine.impl.interceptor.Command;
+import org.camunda.bpm.engine.impl.interceptor.CommandContext;
+import org.camunda.bpm.engine.impl.jobexecutor.FailedJobCommandFactory;
+import org.camunda.bpm.engine.impl.persistence.entity.JobEntity;
+import org.camunda.bpm.engine.impl.util.ClockUtil;
+
+/**
+ * Обработка упавших job: отказ gate-а по лимиту одновременных вызовов откладывает job,
+ * остальные ошибки передаются стандартной стратегии (failedJobRetryTimeCycle).
+ *
+ * Отказ по лимиту значит, что вызов не дошел до сервиса, поэтому retries не уменьшаются
+ * и исключение в job не записывается (иначе движок не распознал бы первую настоящую ошибку
+ * и не применил бы failedJobRetryTimeCycle). Повтор через delay плюс случайную добавку
+ * до delay, чтобы отклоненные одновременно job не вернулись одной волной.
+ */
+class RejectedJobCommandFactory implements FailedJobCommandFactory {
+
+    private final FailedJobCommandFactory delegate;
+    private final Duration delay;
+
+    RejectedJobCommandFactory(FailedJobCommandFactory delegate, Duration delay) {
+        this.delegate = delegate;
+        this.delay = delay;
+    }
+
+    @Override
+    public Command<Object> getCommand(String jobId, Throwable exception) {
+        if (isLimitRejection(exception)) {
+            return new RescheduleJobCmd(jobId, exception, delay);
+        }
+        return delegate.getCommand(jobId, exception);
+    }
+
+    private static boolean isLimitRejection(Throwable exception) {
+        for (Throwable cause = exception; cause != null; cause = cause.getCause()) {
+            if (cause instanceof OutboundCallRejectedException rejected) {
+                return rejected.getReason() == OutboundCallRejectedException.Reason.LIMIT;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Снимает блокировку и переносит срок job, не трогая retries.
+     */
+    static class RescheduleJobCmd extends JobRetryCmd {
+
+        private final Duration delay;
+
+        RescheduleJobCmd(String jobId, Throwable exception, Duration delay) {
+            super(jobId, exception);
+            this.delay = delay;
+        }
+
+        @Override
+        public Object execute(CommandContext commandContext) {
+            JobEntity job = getJob();
+            if (job == null) {
+                return null;
+            }
+            long delayMillis = delay.toMillis();
+            long jitterMillis = delayMillis > 0 ? ThreadLocalRandom.current().nextLong(delayMillis) : 0;
+            job.unlock();
+            job.setDuedate(new Date(ClockUtil.getCurrentTime().getTime() + delayMillis + jitterMillis));
+            notifyAcquisition(commandContext);
+            return null;
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.demo.outbox;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Включает фоновую отправку сообщений из email_outbox.
+ */
+@Configuration
+@EnableScheduling
+@EnableConfigurationProperties(EmailOutboxProperties.class)
+public class EmailOutboxConfiguration {
+}
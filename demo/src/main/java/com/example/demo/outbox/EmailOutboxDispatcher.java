@@ -0,0 +1,263 @@
+package com.example.demo.outbox;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.camunda.bpm.engine.OptimisticLockingException;
+import org.camunda.bpm.engine.ProcessEngineException;
+import org.camunda.bpm.engine.RuntimeService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientException;
+
+import com.example.demo.outbound.OutboundCallRejectedException;
+import com.example.demo.tracing.TracingHttpInterceptor;
+import com.example.demo.variables.VariablePacking;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Фоновая отправка email из outbox.
+ *
+ * Выбирает сообщения пачками по email.outbox.batch-size, отправляет их на email.outbox.url
+ * и после подтвержденной доставки выставляет emailSent/emailSentDate в экземпляре процесса.
+ * Сообщение получает статус SENT, только когда переменные записаны или экземпляр уже завершен.
+ * Если запись переменных конфликтует с параллельным изменением экземпляра, сообщение остается
+ * в статусе DELIVERED, и следующий проход повторяет запись переменных без повторной отправки.
+ * При ошибке сообщение откладывается с экспоненциальной задержкой, после
+ * email.outbox.max-attempts попыток помечается FAILED.
+ * Если gate исходящих вызовов отклонил отправку, остаток пачки остается в outbox
+ * до следующего опроса без увеличения числа попыток.
+ *
+ * Если задан email.outbox.claim-lease, выбранная пачка сначала арендуется (next_attempt_at
+ * сдвигается на срок аренды), и отправляются только арендованные сообщения: диспетчеры
+ * нескольких узлов с общей БД не отправляют одно сообщение дважды.
+ *
+ * Метрики: email.outbox.depth (ожидающие отправки), email.outbox.dispatch (время HTTP вызова, тег outcome),
+ * email.outbox.delivery.lag (от записи в outbox до доставки).
+ */
+@Component
+public class EmailOutboxDispatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmailOutboxDispatcher.class);
+
+    static final String EMAIL_SUBJECT = "Email Confirmation";
+
+    /** Сколько раз подряд повторяется запись emailSent при OptimisticLockingException */
+    static final int CONFIRM_ATTEMPTS = 3;
+
+    private final EmailOutboxRepository repository;
+    private final EmailOutboxProperties properties;
+    private final RestClient restClient;
+    private final VariablePacking variablePacking;
+    private final RuntimeService runtimeService;
+
+    private final Timer dispatchSuccess;
+    private final Timer dispatchFailure;
+    private final Timer deliveryLag;
+
+    public EmailOutboxDispatcher(EmailOutboxRepository repository,
+                                 EmailOutboxProperties properties,
+                                 RestClient restClient,
+                                 VariablePacking variablePacking,
+                                 RuntimeService runtimeService,
+                                 MeterRegistry meterRegistry) {
+        this.repository = repository;
+        this.properties = properties;
+        this.restClient = restClient;
+        this.variablePacking = variablePacking;
+        this.runtimeService = runtimeService;
+
+        Gauge.builder("email.outbox.depth", repository, EmailOutboxRepository::countPending)
+            .description("Email messages waiting in the outbox")
+            .register(meterRegistry);
+        this.dispatchSuccess = dispatchTimer(meterRegistry, "success");
+        this.dispatchFailure = dispatchTimer(meterRegistry, "failure");
+        this.deliveryLag = Timer.builder("email.outbox.delivery.lag")
+            .description("Time from outbox insert to confirmed delivery")
+            .register(meterRegistry);
+    }
+
+    private static Timer dispatchTimer(MeterRegistry meterRegistry, String outcome) {
+        return Timer.builder("email.outbox.dispatch")
+            .description("Send-email HTTP call duration")
+            .tag("outcome", outcome)
+            .publishPercentiles(0.5, 0.99)
+            .register(meterRegistry);
+    }
+
+    /**
+     * Опрашивает outbox по расписанию и отправляет все готовые сообщения.
+     */
+    @Scheduled(fixedDelayString = "${email.outbox.poll-interval:1s}")
+    public void scheduledDispatch() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        int dispatched;
+        do {
+            dispatched = dispatch();
+        } while (dispatched == properties.getBatchSize());
+    }
+
+    /**
+     * Повторяет отметку доставки для отправленных ранее сообщений, затем отправляет одну пачку сообщений.
+     *
+     * @return сколько сообщений обработано: отправлено или отложено после ошибки
+     */
+    public int dispatch() {
+        LocalDateTime now = LocalDateTime.now();
+        confirmUnconfirmed(now);
+
+        List<EmailOutboxMessage> batch = repository.findDue(now, properties.getBatchSize());
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        if (properties.getClaimLease().compareTo(Duration.ZERO) > 0) {
+            int selected = batch.size();
+            batch = repository.claim(batch, now, now.plus(properties.getClaimLease()));
+            if (batch.size() < selected) {
+                logger.debug("{} of {} outbox messages claimed by another node", selected - batch.size(), selected);
+            }
+        }
+
+        List<EmailOutboxMessage> delivered = new ArrayList<>();
+        int processed = 0;
+        for (EmailOutboxMessage message : batch) {
+            long start = System.nanoTime();
+            try {
+                TracingHttpInterceptor.runFor(message.processInstanceId(), () -> send(message));
+                dispatchSuccess.record(Duration.ofNanos(System.nanoTime() - start));
+                delivered.add(message);
+            } catch (OutboundCallRejectedException e) {
+                logger.debug("Email dispatch paused: {}", e.getMessage());
+                break;
+            } catch (RestClientException e) {
+                dispatchFailure.record(Duration.ofNanos(System.nanoTime() - start));
+                scheduleRetry(message, e);
+            }
+            processed++;
+        }
+
+        if (!delivered.isEmpty()) {
+            LocalDateTime sentAt = LocalDateTime.now();
+            repository.markDelivered(delivered.stream().map(EmailOutboxMessage::id).toList(), sentAt);
+            List<Long> confirmed = new ArrayList<>(delivered.size());
+            for (EmailOutboxMessage message : delivered) {
+                deliveryLag.record(Duration.between(message.createdAt(), sentAt));
+                if (confirmDelivery(message, sentAt)) {
+                    confirmed.add(message.id());
+                }
+            }
+            repository.markSent(confirmed);
+        }
+        logger.debug("Email outbox batch dispatched: selected={}, delivered={}", batch.size(), delivered.size());
+        return processed;
+    }
+
+    private void send(EmailOutboxMessage message) {
+        restClient.post()
+            .uri(properties.getUrl())
+            .contentType(MediaType.APPLICATION_JSON)
+            .accept(MediaType.APPLICATION_JSON)
+            .body(new SendEmailRequest(
+                message.recipient(),
+                EMAIL_SUBJECT,
+                "Please confirm your email for user: " + message.userName(),
+                message.confirmationToken()))
+            .retrieve()
+            .toBodilessEntity();
+    }
+
+    private void scheduleRetry(EmailOutboxMessage message, RestClientException error) {
+        int attempt = message.attempts() + 1;
+        if (attempt >= properties.getMaxAttempts()) {
+            logger.error("Email to {} failed after {} attempts, giving up", message.recipient(), attempt, error);
+            repository.markFailed(message.id(), error.getMessage());
+            return;
+        }
+        Duration backoff = backoff(attempt);
+        logger.warn("Email to {} failed (attempt {}), retry in {}: {}",
+            message.recipient(), attempt, backoff, error.getMessage());
+        repository.markRetry(message.id(), LocalDateTime.now().plus(backoff), error.getMessage());
+    }
+
+    /**
+     * Задержка перед следующей попыткой: initialBackoff * 2^(attempt - 1), но не больше maxBackoff.
+     */
+    Duration backoff(int attempt) {
+        Duration backoff = properties.getInitialBackoff().multipliedBy(1L << Math.min(attempt - 1, 30));
+        return backoff.compareTo(properties.getMaxBackoff()) > 0 ? properties.getMaxBackoff() : backoff;
+    }
+
+    private void confirmUnconfirmed(LocalDateTime now) {
+        List<EmailOutboxMessage> unconfirmed = repository.findUnconfirmed(now, properties.getBatchSize());
+        List<Long> confirmed = new ArrayList<>(unconfirmed.size());
+        for (EmailOutboxMessage message : unconfirmed) {
+            if (confirmDelivery(message, message.sentAt())) {
+                confirmed.add(message.id());
+            }
+        }
+        repository.markSent(confirmed);
+    }
+
+    /**
+     * Выставляет emailSent/emailSentDate в экземпляре процесса.
+     *
+     * @return true, если обработка сообщения завершена: переменные записаны или экземпляр
+     * уже завершен; false, если запись отложена до следующего прохода
+     */
+    private boolean confirmDelivery(EmailOutboxMessage message, LocalDateTime sentAt) {
+        Map<String, Object> variables = Map.of(
+            "emailSent", true,
+            "emailSentDate", sentAt.toString());
+        for (int attempt = 1; ; attempt++) {
+            try {
+                variablePacking.setVariables(message.processInstanceId(), variables);
+                return true;
+            } catch (OptimisticLockingException e) {
+                // Экземпляр изменен параллельно (например, корреляцией подтверждения email)
+                if (attempt >= CONFIRM_ATTEMPTS) {
+                    deferConfirmation(message, e);
+                    return false;
+                }
+                logger.debug("Concurrent update of process instance {}, setting emailSent again",
+                    message.processInstanceId());
+            } catch (ProcessEngineException e) {
+                if (!processInstanceExists(message.processInstanceId())) {
+                    // Экземпляр уже завершился (email подтвержден раньше, чем пришел ответ)
+                    logger.debug("Process instance {} has ended, emailSent is not set", message.processInstanceId());
+                    return true;
+                }
+                deferConfirmation(message, e);
+                return false;
+            }
+        }
+    }
+
+    private boolean processInstanceExists(String processInstanceId) {
+        return runtimeService.createProcessInstanceQuery().processInstanceId(processInstanceId).count() > 0;
+    }
+
+    private void deferConfirmation(EmailOutboxMessage message, ProcessEngineException error) {
+        LocalDateTime nextAttemptAt = LocalDateTime.now().plus(properties.getInitialBackoff());
+        logger.warn("Cannot set emailSent for process instance {}, retry at {}: {}",
+            message.processInstanceId(), nextAttemptAt, error.getMessage());
+        repository.markUnconfirmed(message.id(), nextAttemptAt, error.getMessage());
+    }
+
+    /**
+     * Тело запроса send-email.
+     */
+    public record SendEmailRequest(String to, String subject, String body, String confirmationToken) {
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.demo.outbox;
+
+import java.time.LocalDateTime;
+
+/**
+ * Сообщение из таблицы email_outbox, ожидающее отправки или подтверждения доставки в процессе.
+ * sentAt заполнено только у отправленных сообщений.
+ */
+public record EmailOutboxMessage(
+    long id,
+    String processInstanceId,
+    String recipient,
+    String userName,
+    String confirmationToken,
+    int attempts,
+    LocalDateTime createdAt,
+    LocalDateTime sentAt) {
+}
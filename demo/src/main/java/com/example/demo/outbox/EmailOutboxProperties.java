@@ -0,0 +1,103 @@
+package com.example.demo.outbox;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Настройки outbox отправки email (префикс email.outbox).
+ */
+@ConfigurationProperties(prefix = "email.outbox")
+public class EmailOutboxProperties {
+
+    /** Эндпоинт отправки email */
+    private String url = "http://localhost:8086/send-email";
+
+    /** Включает фоновую отправку по расписанию */
+    private boolean enabled = true;
+
+    /** Сколько сообщений выбирается из outbox за один проход */
+    private int batchSize = 50;
+
+    /** Пауза между проходами диспетчера */
+    private Duration pollInterval = Duration.ofSeconds(1);
+
+    /** После стольких неудачных попыток сообщение помечается FAILED */
+    private int maxAttempts = 5;
+
+    /** Задержка перед первой повторной попыткой, далее удваивается */
+    private Duration initialBackoff = Duration.ofSeconds(1);
+
+    /** Максимальная задержка между попытками */
+    private Duration maxBackoff = Duration.ofMinutes(5);
+
+    /**
+     * Аренда выбранной пачки: пока она не истекла, сообщения не выбираются диспетчерами
+     * других узлов кластера. 0 - без аренды (один узел)
+     */
+    private Duration claimLease = Duration.ZERO;
+
+    public String getUrl() {
+        return url;
+    }
+
+    public void setUrl(String url) {
+        this.url = url;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public Duration getPollInterval() {
+        return pollInterval;
+    }
+
+    public void setPollInterval(Duration pollInterval) {
+        this.pollInterval = pollInterval;
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    public void setMaxAttempts(int maxAttempts) {
+        this.maxAttempts = maxAttempts;
+    }
+
+    public Duration getInitialBackoff() {
+        return initialBackoff;
+    }
+
+    public void setInitialBackoff(Duration initialBackoff) {
+        this.initialBackoff = initialBackoff;
+    }
+
+    public Duration getMaxBackoff() {
+        return maxBackoff;
+    }
+
+    public void setMaxBackoff(Duration maxBackoff) {
+        this.maxBackoff = maxBackoff;
+    }
+
+    public Duration getClaimLease() {
+        return claimLease;
+    }
+
+    public void setClaimLease(Duration claimLease) {
+        this.claimLease = claimLease;
+    }
+}
@@ -0,0 +1,179 @@
+package com.example.demo.outbox;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.jdbc.core.ArgumentPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Доступ к таблице email_outbox.
+ *
+ * Использует тот же DataSource, что и движок, поэтому запись из делегата
+ * выполняется в транзакции движка и фиксируется вместе с состоянием процесса.
+ */
+@Repository
+public class EmailOutboxRepository {
+
+    static final String STATUS_PENDING = "PENDING";
+    /** Email отправлен, emailSent в экземпляре процесса еще не выставлен */
+    static final String STATUS_DELIVERED = "DELIVERED";
+    static final String STATUS_SENT = "SENT";
+    static final String STATUS_FAILED = "FAILED";
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private static final RowMapper<EmailOutboxMessage> MESSAGE_MAPPER = (rs, rowNum) -> new EmailOutboxMessage(
+        rs.getLong("id"),
+        rs.getString("process_instance_id"),
+        rs.getString("recipient"),
+        rs.getString("user_name"),
+        rs.getString("confirmation_token"),
+        rs.getInt("attempts"),
+        rs.getTimestamp("created_at").toLocalDateTime(),
+        rs.getTimestamp("sent_at") != null ? rs.getTimestamp("sent_at").toLocalDateTime() : null);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public EmailOutboxRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void enqueue(String processInstanceId, String recipient, String userName, String confirmationToken) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.update(
+            "INSERT INTO email_outbox (process_instance_id, recipient, user_name, confirmation_token,"
+                + " status, attempts, next_attempt_at, created_at) VALUES (?, ?, ?, ?, ?, 0, ?, ?)",
+            processInstanceId, recipient, userName, confirmationToken, STATUS_PENDING, now, now);
+    }
+
+    /**
+     * Сообщения, готовые к отправке, в порядке постановки в очередь.
+     */
+    public List<EmailOutboxMessage> findDue(LocalDateTime now, int limit) {
+        return findByStatus(STATUS_PENDING, now, limit);
+    }
+
+    /**
+     * Отправленные сообщения, доставку которых не удалось отметить в экземпляре процесса
+     * и срок повторной отметки которых наступил.
+     */
+    public List<EmailOutboxMessage> findUnconfirmed(LocalDateTime now, int limit) {
+        return findByStatus(STATUS_DELIVERED, now, limit);
+    }
+
+    /**
+     * Не больше limit сообщений в статусе status, срок которых наступил. Число строк ограничивается
+     * через Statement.setMaxRows: синтаксис LIMIT есть не во всех БД (Oracle, SQL Server).
+     */
+    private List<EmailOutboxMessage> findByStatus(String status, LocalDateTime now, int limit) {
+        return jdbcTemplate.query(connection -> {
+                PreparedStatement statement = connection.prepareStatement(
+                    "SELECT id, process_instance_id, recipient, user_name, confirmation_token, attempts, created_at, sent_at"
+                        + " FROM email_outbox WHERE status = ? AND next_attempt_at <= ? ORDER BY id");
+                statement.setMaxRows(limit);
+                statement.setFetchSize(limit);
+                new ArgumentPreparedStatementSetter(new Object[] {status, Timestamp.valueOf(now)}).setValues(statement);
+                return statement;
+            },
+            MESSAGE_MAPPER);
+    }
+
+    /**
+     * Арендует сообщения до leaseUntil, сдвигая next_attempt_at.
+     * Сообщение, которое за это время арендовал или отправил другой узел, не обновляется.
+     *
+     * @return сообщения, аренда которых удалась
+     */
+    public List<EmailOutboxMessage> claim(List<EmailOutboxMessage> messages, LocalDateTime now, LocalDateTime leaseUntil) {
+        Timestamp nowTimestamp = Timestamp.valueOf(now);
+        Timestamp leaseTimestamp = Timestamp.valueOf(leaseUntil);
+        int[][] counts = jdbcTemplate.batchUpdate(
+            "UPDATE email_outbox SET next_attempt_at = ? WHERE id = ? AND status = ? AND next_attempt_at <= ?",
+            messages, messages.size(), (ps, message) -> {
+                ps.setTimestamp(1, leaseTimestamp);
+                ps.setLong(2, message.id());
+                ps.setString(3, STATUS_PENDING);
+                ps.setTimestamp(4, nowTimestamp);
+            });
+        List<EmailOutboxMessage> claimed = new ArrayList<>(messages.size());
+        for (int i = 0; i < messages.size(); i++) {
+            // Драйвер может не сообщить число строк (SUCCESS_NO_INFO), считаем такую аренду удачной
+            if (counts[0][i] != 0) {
+                claimed.add(messages.get(i));
+            }
+        }
+        return claimed;
+    }
+
+    /**
+     * Отмечает отправку сообщений. Сообщение остается в статусе DELIVERED, пока доставка
+     * не отмечена в экземпляре процесса (см. {@link #markSent(List)}).
+     */
+    public void markDelivered(List<Long> ids, LocalDateTime sentAt) {
+        Timestamp timestamp = Timestamp.valueOf(sentAt);
+        jdbcTemplate.batchUpdate(
+            "UPDATE email_outbox SET status = ?, sent_at = ?, attempts = attempts + 1, last_error = NULL WHERE id = ?",
+            ids, ids.size(), (ps, id) -> {
+                ps.setString(1, STATUS_DELIVERED);
+                ps.setTimestamp(2, timestamp);
+                ps.setLong(3, id);
+            });
+    }
+
+    /**
+     * Завершает обработку отправленных сообщений: доставка отмечена в экземпляре процесса
+     * или экземпляр уже завершен.
+     */
+    public void markSent(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(
+            "UPDATE email_outbox SET status = ?, last_error = NULL WHERE id = ?",
+            ids, ids.size(), (ps, id) -> {
+                ps.setString(1, STATUS_SENT);
+                ps.setLong(2, id);
+            });
+    }
+
+    /**
+     * Откладывает повторную отметку доставки в экземпляре процесса до nextAttemptAt.
+     * Email повторно не отправляется, число попыток отправки не меняется.
+     */
+    public void markUnconfirmed(long id, LocalDateTime nextAttemptAt, String error) {
+        jdbcTemplate.update(
+            "UPDATE email_outbox SET next_attempt_at = ?, last_error = ? WHERE id = ?",
+            Timestamp.valueOf(nextAttemptAt), truncate(error), id);
+    }
+
+    public void markRetry(long id, LocalDateTime nextAttemptAt, String error) {
+        jdbcTemplate.update(
+            "UPDATE email_outbox SET attempts = attempts + 1, next_attempt_at = ?, last_error = ? WHERE id = ?",
+            Timestamp.valueOf(nextAttemptAt), truncate(error), id);
+    }
+
+    public void markFailed(long id, String error) {
+        jdbcTemplate.update(
+            "UPDATE email_outbox SET status = ?, attempts = attempts + 1, last_error = ? WHERE id = ?",
+            STATUS_FAILED, truncate(error), id);
+    }
+
+    public long countPending() {
+        Long count = jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM email_outbox WHERE status = ?", Long.class, STATUS_PENDING);
+        return count != null ? count : 0;
+    }
+
+    private static String truncate(String error) {
+        if (error == null || error.length() <= MAX_ERROR_LENGTH) {
+            return error;
+        }
+        return error.substring(0, MAX_ERROR_LENGTH);
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.demo.registration;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Массовый запуск регистраций.
+ *
+ * POST /api/registrations/bulk, Content-Type: application/x-ndjson
+ * {"businessKey": "u-1", "userName": "...", "userEmail": "..."}
+ * {"businessKey": "u-2", ...}
+ *
+ * Ответ - поток NDJSON с {@link RegistrationResult} на каждую строку, отправляется по мере запуска пачек.
+ */
+@RestController
+@RequestMapping("/api/registrations")
+public class BulkRegistrationController {
+
+    private final BulkRegistrationService registrationService;
+    private final ObjectMapper objectMapper;
+
+    public BulkRegistrationController(BulkRegistrationService registrationService, ObjectMapper objectMapper) {
+        this.registrationService = registrationService;
+        this.objectMapper = objectMapper;
+    }
+
+    @PostMapping(path = "/bulk", consumes = MediaType.APPLICATION_NDJSON_VALUE,
+        produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> startAll(InputStream body) {
+        StreamingResponseBody response = output -> {
+            BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+            try {
+                registrationService.startAll(reader, results -> write(output, results));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Bulk registration interrupted");
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(response);
+    }
+
+    private void write(OutputStream output, Iterable<RegistrationResult> results) {
+        try {
+            for (RegistrationResult result : results) {
+                output.write(objectMapper.writeValueAsBytes(result));
+                output.write('\n');
+            }
+            output.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.demo.registration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Настройки массового запуска регистраций (префикс registration.bulk).
+ */
+@ConfigurationProperties(prefix = "registration.bulk")
+public class BulkRegistrationProperties {
+
+    /** Сколько экземпляров запускается в одной транзакции */
+    private int chunkSize = 500;
+
+    /** Число потоков, запускающих пачки; общее для всех запросов */
+    private int workers = 4;
+
+    /**
+     * Сколько пачек одного запроса может ждать или выполняться одновременно.
+     * Чтение входного потока приостанавливается, пока пачки не освободятся,
+     * поэтому в памяти не больше maxPendingChunks * chunkSize строк.
+     */
+    private int maxPendingChunks = 8;
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    public void setChunkSize(int chunkSize) {
+        this.chunkSize = chunkSize;
+    }
+
+    public int getWorkers() {
+        return workers;
+    }
+
+    public void setWorkers(int workers) {
+        this.workers = workers;
+    }
+
+    public int getMaxPendingChunks() {
+        return maxPendingChunks;
+    }
+
+    public void setMaxPendingChunks(int maxPendingChunks) {
+        this.maxPendingChunks = maxPendingChunks;
+    }
+}
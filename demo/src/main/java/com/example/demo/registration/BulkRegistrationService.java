@@ -0,0 +1,193 @@
+package com.example.demo.registration;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+import org.camunda.bpm.engine.RuntimeService;
+import org.camunda.bpm.engine.variable.VariableMap;
+import org.camunda.bpm.engine.variable.Variables;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Массовый запуск user-registration-process из потока NDJSON.
+ *
+ * Строки читаются по одной и собираются в пачки по registration.bulk.chunk-size. Каждая пачка
+ * запускается в одной транзакции на общем пуле из registration.bulk.workers потоков. Если в пачке
+ * хотя бы один запуск упал, транзакция пачки откатывается и ее строки запускаются по одной.
+ * Результаты передаются в sink по мере завершения пачек, порядок пачек не сохраняется.
+ */
+@Service
+@EnableConfigurationProperties(BulkRegistrationProperties.class)
+public class BulkRegistrationService implements DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(BulkRegistrationService.class);
+
+    public static final String PROCESS_KEY = "user-registration-process";
+
+    private final RuntimeService runtimeService;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final BulkRegistrationProperties properties;
+    private final ExecutorService workers;
+
+    public BulkRegistrationService(RuntimeService runtimeService,
+                                   ObjectMapper objectMapper,
+                                   PlatformTransactionManager transactionManager,
+                                   BulkRegistrationProperties properties) {
+        this.runtimeService = runtimeService;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.properties = properties;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(properties.getWorkers(), runnable -> {
+            Thread thread = new Thread(runnable, "bulk-registration-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Запускает экземпляры для всех строк reader и возвращает число обработанных строк.
+     * Возвращается после того, как результаты всех пачек переданы в sink.
+     *
+     * @param sink получает результаты одной пачки; вызовы sink не пересекаются по времени
+     */
+    public long startAll(BufferedReader reader, Consumer<List<RegistrationResult>> sink)
+        throws IOException, InterruptedException {
+        int maxPending = properties.getMaxPendingChunks();
+        Semaphore pending = new Semaphore(maxPending);
+        AtomicReference<RuntimeException> sinkFailure = new AtomicReference<>();
+        Consumer<List<RegistrationResult>> serializedSink = results -> {
+            synchronized (pending) {
+                if (sinkFailure.get() != null) {
+                    return;
+                }
+                try {
+                    sink.accept(results);
+                } catch (RuntimeException e) {
+                    // Клиент отключился: дочитывать вход и запускать остальные пачки незачем
+                    sinkFailure.set(e);
+                }
+            }
+        };
+
+        long lineNumber = 0;
+        List<NumberedRecord> chunk = new ArrayList<>(properties.getChunkSize());
+        try {
+            String line;
+            while ((line = reader.readLine()) != null && sinkFailure.get() == null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                RegistrationRecord record;
+                try {
+                    record = objectMapper.readValue(line, RegistrationRecord.class);
+                } catch (JsonProcessingException e) {
+                    serializedSink.accept(List.of(RegistrationResult.failed(lineNumber, null,
+                        RegistrationResult.Status.INVALID, e.getOriginalMessage())));
+                    continue;
+                }
+                if (record == null) {
+                    // Строка "null" - корректный JSON, но не запись
+                    serializedSink.accept(List.of(RegistrationResult.failed(lineNumber, null,
+                        RegistrationResult.Status.INVALID, "Expected a JSON object")));
+                    continue;
+                }
+                chunk.add(new NumberedRecord(lineNumber, record));
+                if (chunk.size() == properties.getChunkSize()) {
+                    submit(chunk, pending, serializedSink);
+                    chunk = new ArrayList<>(properties.getChunkSize());
+                }
+            }
+            if (!chunk.isEmpty() && sinkFailure.get() == null) {
+                submit(chunk, pending, serializedSink);
+            }
+        } finally {
+            // Все разрешения свободны - все отправленные пачки завершены
+            pending.acquire(maxPending);
+            pending.release(maxPending);
+        }
+        if (sinkFailure.get() != null) {
+            throw sinkFailure.get();
+        }
+        return lineNumber;
+    }
+
+    private void submit(List<NumberedRecord> chunk, Semaphore pending, Consumer<List<RegistrationResult>> sink)
+        throws InterruptedException {
+        pending.acquire();
+        try {
+            workers.execute(() -> {
+                try {
+                    sink.accept(startChunk(chunk));
+                } finally {
+                    pending.release();
+                }
+            });
+        } catch (RuntimeException e) {
+            pending.release();
+            throw e;
+        }
+    }
+
+    private List<RegistrationResult> startChunk(List<NumberedRecord> chunk) {
+        try {
+            return transactionTemplate.execute(status -> chunk.stream().map(this::start).toList());
+        } catch (RuntimeException e) {
+            logger.debug("Chunk of {} registrations rolled back, starting one by one: {}", chunk.size(), e.getMessage());
+        }
+        return chunk.stream().map(this::startInOwnTransaction).toList();
+    }
+
+    private RegistrationResult startInOwnTransaction(NumberedRecord numbered) {
+        try {
+            return transactionTemplate.execute(status -> start(numbered));
+        } catch (RuntimeException e) {
+            logger.warn("Registration start failed: line={}, businessKey={}",
+                numbered.line(), numbered.record().businessKey(), e);
+            return RegistrationResult.failed(numbered.line(), numbered.record().businessKey(),
+                RegistrationResult.Status.FAILED, e.getMessage());
+        }
+    }
+
+    private RegistrationResult start(NumberedRecord numbered) {
+        RegistrationRecord record = numbered.record();
+        VariableMap variables = Variables.createVariables();
+        if (record.userName() != null) {
+            variables.putValue("userName", record.userName());
+        }
+        if (record.userEmail() != null) {
+            variables.putValue("userEmail", record.userEmail());
+        }
+        String processInstanceId = runtimeService
+            .startProcessInstanceByKey(PROCESS_KEY, record.businessKey(), variables)
+            .getId();
+        return RegistrationResult.started(numbered.line(), record.businessKey(), processInstanceId);
+    }
+
+    @Override
+    public void destroy() {
+        workers.shutdownNow();
+    }
+
+    private record NumberedRecord(long line, RegistrationRecord record) {
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.demo.registration;
+
+/**
+ * Строка NDJSON массовой регистрации: {"businessKey": "...", "userName": "...", "userEmail": "..."}.
+ * Все поля необязательные, значения по умолчанию задает InitVariablesDelegate.
+ */
+public record RegistrationRecord(String businessKey, String userName, String userEmail) {
+}
@@ -0,0 +1,31 @@
+package com.example.demo.registration;
+
+/**
+ * Результат запуска экземпляра для одной строки входного потока.
+ *
+ * @param line номер строки входного NDJSON (с 1)
+ */
+public record RegistrationResult(
+    long line,
+    String businessKey,
+    Status status,
+    String processInstanceId,
+    String error) {
+
+    public enum Status {
+        /** Экземпляр user-registration-process запущен */
+        STARTED,
+        /** Строка не разбирается как JSON */
+        INVALID,
+        /** Ошибка при запуске экземпляра */
+        FAILED
+    }
+
+    static RegistrationResult started(long line, String businessKey, String processInstanceId) {
+        return new RegistrationResult(line, businessKey, Status.STARTED, processInstanceId, null);
+    }
+
+    static RegistrationResult failed(long line, String businessKey, Status status, String error) {
+        return new RegistrationResult(line, businessKey, status, null, error);
+    }
+}
@@ -0,0 +1,222 @@
+package com.example.demo.routing;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+import org.camunda.bpm.dmn.engine.DmnDecision;
+import org.camunda.bpm.dmn.engine.DmnDecisionResult;
+import org.camunda.bpm.dmn.engine.DmnDecisionResultEntries;
+import org.camunda.bpm.dmn.engine.DmnEngine;
+import org.camunda.bpm.dmn.engine.DmnEngineConfiguration;
+import org.camunda.bpm.dmn.engine.impl.DmnDecisionTableImpl;
+import org.camunda.bpm.dmn.engine.impl.DmnDecisionTableInputImpl;
+import org.camunda.bpm.engine.ProcessEngine;
+import org.camunda.bpm.engine.ProcessEngineException;
+import org.camunda.bpm.engine.RepositoryService;
+import org.camunda.bpm.engine.delegate.VariableScope;
+import org.camunda.bpm.engine.repository.DecisionDefinition;
+import org.camunda.bpm.engine.variable.Variables;
+import org.camunda.bpm.engine.variable.context.VariableContext;
+import org.camunda.bpm.engine.variable.value.TypedValue;
+import org.springframework.beans.factory.ObjectProvider;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Вычисление DMN решений по ключу без обращения к БД на каждый вызов.
+ *
+ * Последняя версия решения разбирается один раз и хранится в кэше
+ * (camunda.routing.decision-cache-expire-after-write), деплой новой версии на этом узле кэш сбрасывает. Если все входы таблицы - имена переменных,
+ * результат запоминается по значениям входов (camunda.routing.memo-*): повторный вызов
+ * с теми же значениями не вычисляет таблицу.
+ *
+ * Решения разбирает и вычисляет отдельный DMN движок без слушателей движка процессов:
+ * результаты не пишутся в историю решений и не учитываются в метриках движка, а вызов
+ * не требует контекста команды движка.
+ *
+ * Вызывается из BPMN (см. ChooseNextProcessDelegate) или напрямую из Java.
+ *
+ * Метрика: routing.decision.evaluations (теги decision, outcome: memo, evaluated).
+ */
+public class DecisionRouter {
+
+    private static final Pattern VARIABLE_NAME = Pattern.compile("[A-Za-z_][A-Za-z0-9_]*");
+
+    private final ObjectProvider<ProcessEngine> processEngine;
+    private final MeterRegistry meterRegistry;
+    private final DmnEngine dmnEngine = DmnEngineConfiguration.createDefaultDmnEngineConfiguration().buildEngine();
+    private final LoadingCache<String, CachedDecision> decisions;
+    private final Cache<MemoKey, Map<String, Object>> memo;
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+
+    public DecisionRouter(ObjectProvider<ProcessEngine> processEngine,
+                          DecisionRoutingProperties properties,
+                          MeterRegistry meterRegistry) {
+        this.processEngine = processEngine;
+        this.meterRegistry = meterRegistry;
+        this.decisions = Caffeine.newBuilder()
+            .expireAfterWrite(properties.getDecisionCacheExpireAfterWrite())
+            .build(this::load);
+        this.memo = Caffeine.newBuilder()
+            .maximumSize(properties.getMemoMaximumSize())
+            .expireAfterWrite(properties.getMemoExpireAfterWrite())
+            .build();
+    }
+
+    /**
+     * Выходы первого сработавшего правила; пустой Map, если ни одно правило не сработало.
+     */
+    public Map<String, Object> evaluate(String decisionKey, Map<String, ?> variables) {
+        return evaluate(decisionKey, (Function<String, Object>) variables::get);
+    }
+
+    public Map<String, Object> evaluate(String decisionKey, VariableScope scope) {
+        return evaluate(decisionKey, (Function<String, Object>) scope::getVariable);
+    }
+
+    private Map<String, Object> evaluate(String decisionKey, Function<String, Object> variables) {
+        CachedDecision cached = decisions.get(decisionKey);
+        if (cached.inputNames() == null) {
+            counter(decisionKey, "evaluated").increment();
+            return entries(dmnEngine.evaluateDecision(cached.decision(), variableContext(variables)));
+        }
+
+        Map<String, Object> inputs = new HashMap<>();
+        Object[] values = new Object[cached.inputNames().size()];
+        boolean memoizable = true;
+        for (int i = 0; i < values.length; i++) {
+            String name = cached.inputNames().get(i);
+            values[i] = variables.apply(name);
+            inputs.put(name, values[i]);
+            memoizable &= isImmutable(values[i]);
+        }
+        if (!memoizable) {
+            counter(decisionKey, "evaluated").increment();
+            return evaluate(cached, inputs);
+        }
+
+        MemoKey key = new MemoKey(cached.definitionId(), Arrays.asList(values));
+        Map<String, Object> result = memo.getIfPresent(key);
+        if (result != null) {
+            counter(decisionKey, "memo").increment();
+            return result;
+        }
+        counter(decisionKey, "evaluated").increment();
+        result = evaluate(cached, inputs);
+        memo.put(key, result);
+        return result;
+    }
+
+    /**
+     * Загружает и разбирает последнюю версию решения заранее, например при прогреве после старта.
+     */
+    public void preload(String decisionKey) {
+        decisions.get(decisionKey);
+    }
+
+    /**
+     * Сбрасывает разобранные решения и запомненные результаты; вызывается после деплоя новой версии.
+     */
+    public void invalidate() {
+        decisions.invalidateAll();
+        memo.invalidateAll();
+    }
+
+    private Map<String, Object> evaluate(CachedDecision cached, Map<String, Object> inputs) {
+        return entries(dmnEngine.evaluateDecision(cached.decision(), inputs));
+    }
+
+    private static Map<String, Object> entries(DmnDecisionResult result) {
+        DmnDecisionResultEntries entries = result.getFirstResult();
+        if (entries == null) {
+            return Map.of();
+        }
+        return Collections.unmodifiableMap(new LinkedHashMap<>(entries.getEntryMap()));
+    }
+
+    private CachedDecision load(String decisionKey) {
+        RepositoryService repositoryService = processEngine.getObject().getRepositoryService();
+        DecisionDefinition definition = repositoryService.createDecisionDefinitionQuery()
+            .decisionDefinitionKey(decisionKey)
+            .latestVersion()
+            .singleResult();
+        if (definition == null) {
+            throw new ProcessEngineException("No decision definition deployed with key '" + decisionKey + "'");
+        }
+        DmnDecision decision = dmnEngine.parseDecision(decisionKey, repositoryService.getDmnModelInstance(definition.getId()));
+        return new CachedDecision(definition.getId(), decision, inputNames(decision));
+    }
+
+    /**
+     * Имена входов таблицы, если каждый вход - имя переменной; иначе null (результат не запоминается).
+     */
+    private static List<String> inputNames(DmnDecision decision) {
+        if (!(decision.getDecisionLogic() instanceof DmnDecisionTableImpl table)) {
+            return null;
+        }
+        List<String> names = new ArrayList<>();
+        for (DmnDecisionTableInputImpl input : table.getInputs()) {
+            String expression = input.getExpression() == null ? null : input.getExpression().getExpression();
+            if (expression == null || !VARIABLE_NAME.matcher(expression.trim()).matches()) {
+                return null;
+            }
+            names.add(expression.trim());
+        }
+        return List.copyOf(names);
+    }
+
+    /**
+     * Переменные для таблицы с произвольными выражениями во входах: значения читаются по запросу.
+     */
+    private static VariableContext variableContext(Function<String, Object> variables) {
+        return new VariableContext() {
+            @Override
+            public TypedValue resolve(String name) {
+                Object value = variables.apply(name);
+                return value == null ? null : Variables.untypedValue(value);
+            }
+
+            @Override
+            public boolean containsVariable(String name) {
+                return variables.apply(name) != null;
+            }
+
+            @Override
+            public Set<String> keySet() {
+                return Set.of();
+            }
+        };
+    }
+
+    private static boolean isImmutable(Object value) {
+        return value == null || value instanceof String || value instanceof Boolean || value instanceof Number;
+    }
+
+    private Counter counter(String decisionKey, String outcome) {
+        return counters.computeIfAbsent(decisionKey + "#" + outcome, key -> Counter.builder("routing.decision.evaluations")
+            .description("DMN routing decisions answered from memo or evaluated")
+            .tag("decision", decisionKey)
+            .tag("outcome", outcome)
+            .register(meterRegistry));
+    }
+
+    private record CachedDecision(String definitionId, DmnDecision decision, List<String> inputNames) {
+    }
+
+    private record MemoKey(String definitionId, List<Object> inputs) {
+    }
+}
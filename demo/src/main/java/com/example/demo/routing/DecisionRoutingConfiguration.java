@@ -0,0 +1,31 @@
+package com.example.demo.routing;
+
+import org.camunda.bpm.engine.ProcessEngine;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Маршрутизация по DMN решениям (camunda.routing.*). Решения (.dmn) деплоятся
+ * вместе с BPMN по camunda.bpm.deployment-resource-pattern; деплой новой версии сбрасывает
+ * кэш решений ({@link DecisionRoutingPlugin}).
+ */
+@Configuration
+@EnableConfigurationProperties(DecisionRoutingProperties.class)
+public class DecisionRoutingConfiguration {
+
+    @Bean
+    public DecisionRouter decisionRouter(ObjectProvider<ProcessEngine> processEngine,
+                                         DecisionRoutingProperties properties,
+                                         MeterRegistry meterRegistry) {
+        return new DecisionRouter(processEngine, properties, meterRegistry);
+    }
+
+    @Bean
+    public DecisionRoutingPlugin decisionRoutingPlugin(DecisionRouter decisionRouter) {
+        return new DecisionRoutingPlugin(decisionRouter);
+    }
+}
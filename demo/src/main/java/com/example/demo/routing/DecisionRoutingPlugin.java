@@ -0,0 +1,45 @@
+package com.example.demo.routing;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.camunda.bpm.engine.impl.cfg.AbstractProcessEnginePlugin;
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.camunda.bpm.engine.impl.cfg.TransactionState;
+import org.camunda.bpm.engine.impl.context.Context;
+import org.camunda.bpm.engine.impl.dmn.entity.repository.DecisionDefinitionEntity;
+import org.camunda.bpm.engine.impl.persistence.entity.DeploymentEntity;
+
+/**
+ * Сбрасывает кэш {@link DecisionRouter} после деплоя новых версий решений.
+ *
+ * Кэш сбрасывается после коммита деплоя, иначе параллельный вызов успел бы снова загрузить
+ * прежнюю версию. Деплой на другом узле кластера сюда не доходит: там новая версия подхватывается
+ * по camunda.routing.decision-cache-expire-after-write.
+ */
+public class DecisionRoutingPlugin extends AbstractProcessEnginePlugin {
+
+    private final DecisionRouter decisionRouter;
+
+    public DecisionRoutingPlugin(DecisionRouter decisionRouter) {
+        this.decisionRouter = decisionRouter;
+    }
+
+    @Override
+    public void preInit(ProcessEngineConfigurationImpl configuration) {
+        if (configuration.getCustomPostDeployers() == null) {
+            configuration.setCustomPostDeployers(new ArrayList<>());
+        }
+        configuration.getCustomPostDeployers().add(this::onDeploy);
+    }
+
+    private void onDeploy(DeploymentEntity deployment) {
+        // Загрузка старого деплоя в кэш движка (isNew = false) версии решений не меняет
+        List<DecisionDefinitionEntity> decisions = deployment.getDeployedArtifacts(DecisionDefinitionEntity.class);
+        if (!deployment.isNew() || decisions == null || decisions.isEmpty()) {
+            return;
+        }
+        Context.getCommandContext().getTransactionContext()
+            .addTransactionListener(TransactionState.COMMITTED, commandContext -> decisionRouter.invalidate());
+    }
+}
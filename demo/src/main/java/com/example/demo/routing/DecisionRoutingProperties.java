@@ -0,0 +1,48 @@
+package com.example.demo.routing;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Настройки маршрутизации по DMN решениям (префикс camunda.routing).
+ */
+@ConfigurationProperties(prefix = "camunda.routing")
+public class DecisionRoutingProperties {
+
+    /**
+     * Сколько разобранное решение используется без проверки последней версии.
+     * Новая версия .dmn начинает применяться не позже чем через это время.
+     */
+    private Duration decisionCacheExpireAfterWrite = Duration.ofMinutes(5);
+
+    /** Максимум запомненных результатов по набору входов */
+    private long memoMaximumSize = 10_000;
+
+    /** Время жизни запомненного результата */
+    private Duration memoExpireAfterWrite = Duration.ofMinutes(10);
+
+    public Duration getDecisionCacheExpireAfterWrite() {
+        return decisionCacheExpireAfterWrite;
+    }
+
+    public void setDecisionCacheExpireAfterWrite(Duration decisionCacheExpireAfterWrite) {
+        this.decisionCacheExpireAfterWrite = decisionCacheExpireAfterWrite;
+    }
+
+    public long getMemoMaximumSize() {
+        return memoMaximumSize;
+    }
+
+    public void setMemoMaximumSize(long memoMaximumSize) {
+        this.memoMaximumSize = memoMaximumSize;
+    }
+
+    public Duration getMemoExpireAfterWrite() {
+        return memoExpireAfterWrite;
+    }
+
+    public void setMemoExpireAfterWrite(Duration memoExpireAfterWrite) {
+        this.memoExpireAfterWrite = memoExpireAfterWrite;
+    }
+}
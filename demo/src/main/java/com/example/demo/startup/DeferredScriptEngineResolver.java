@@ -0,0 +1,55 @@
+package com.example.demo.startup;
+
+import javax.script.ScriptEngine;
+import javax.script.ScriptEngineFactory;
+import javax.script.ScriptEngineManager;
+
+import org.camunda.bpm.engine.impl.scripting.engine.DefaultScriptEngineResolver;
+import org.camunda.bpm.engine.impl.scripting.engine.ScriptEngineResolver;
+
+/**
+ * ScriptEngineResolver движка, который создает ScriptEngineManager (поиск JSR-223 фабрик,
+ * в том числе Groovy, через ServiceLoader) при первом обращении, то есть при первом скрипте
+ * в модели, а не при сборке движка.
+ */
+public class DeferredScriptEngineResolver implements ScriptEngineResolver {
+
+    private volatile ScriptEngineResolver resolver;
+
+    @Override
+    public void addScriptEngineFactory(ScriptEngineFactory scriptEngineFactory) {
+        resolver().addScriptEngineFactory(scriptEngineFactory);
+    }
+
+    @Override
+    public ScriptEngineManager getScriptEngineManager() {
+        return resolver().getScriptEngineManager();
+    }
+
+    @Override
+    public ScriptEngine getScriptEngine(String language, boolean resolveFromCache) {
+        return resolver().getScriptEngine(language, resolveFromCache);
+    }
+
+    /**
+     * Создан ли уже ScriptEngineManager.
+     */
+    public boolean isResolved() {
+        return resolver != null;
+    }
+
+    private ScriptEngineResolver resolver() {
+        ScriptEngineResolver current = resolver;
+        if (current == null) {
+            synchronized (this) {
+                current = resolver;
+                if (current == null) {
+                    // То же, что создает движок по умолчанию в initScripting
+                    current = new DefaultScriptEngineResolver(new ScriptEngineManager());
+                    resolver = current;
+                }
+            }
+        }
+        return current;
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.demo.startup;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Отложенная загрузка JSR-223 движков скриптов до первого скрипта в модели.
+ * Включается camunda.scripting.deferred-engine-loading=true (профиль fast-start).
+ */
+@Configuration
+@ConditionalOnProperty(name = "camunda.scripting.deferred-engine-loading", havingValue = "true")
+public class DeferredScriptingConfiguration {
+
+    @Bean
+    public DeferredScriptingPlugin deferredScriptingPlugin() {
+        return new DeferredScriptingPlugin();
+    }
+}
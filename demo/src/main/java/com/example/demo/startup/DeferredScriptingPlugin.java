@@ -0,0 +1,17 @@
+package com.example.demo.startup;
+
+import org.camunda.bpm.engine.impl.cfg.AbstractProcessEnginePlugin;
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+
+/**
+ * Подключает {@link DeferredScriptEngineResolver}, если resolver не задан другим плагином.
+ */
+public class DeferredScriptingPlugin extends AbstractProcessEnginePlugin {
+
+    @Override
+    public void preInit(ProcessEngineConfigurationImpl configuration) {
+        if (configuration.getScriptEngineResolver() == null) {
+            configuration.setScriptEngineResolver(new DeferredScriptEngineResolver());
+        }
+    }
+}
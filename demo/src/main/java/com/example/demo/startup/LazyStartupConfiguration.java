@@ -0,0 +1,43 @@
+package com.example.demo.startup;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+
+import org.camunda.bpm.engine.ProcessEngine;
+import org.camunda.bpm.engine.impl.cfg.ProcessEnginePlugin;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.MethodIntrospector;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.scheduling.annotation.Scheduled;
+
+/**
+ * Ленивая инициализация (spring.main.lazy-initialization=true, профиль fast-start): контроллеры,
+ * REST API движка, webapp, actuator endpoint-ы и HTTP клиенты создаются при первом обращении.
+ *
+ * Движок с плагинами и бины с @Scheduled остаются неленивыми: иначе деплой и запуск job executor
+ * сдвинулись бы на первый запрос, а фоновая отправка outbox и очистка create_user_dedup
+ * не запустились бы вовсе. Метрики ленивых бинов (например, кэша решений DMN) появляются
+ * после первого использования.
+ */
+@Configuration
+@ConditionalOnProperty(name = "spring.main.lazy-initialization", havingValue = "true")
+public class LazyStartupConfiguration {
+
+    @Bean
+    public static LazyInitializationExcludeFilter eagerEngineBeans() {
+        return (beanName, beanDefinition, beanType) -> beanType != null
+            && (ProcessEngine.class.isAssignableFrom(beanType)
+                || ProcessEnginePlugin.class.isAssignableFrom(beanType)
+                || hasScheduledMethods(beanType));
+    }
+
+    private static boolean hasScheduledMethods(Class<?> beanType) {
+        Map<Method, Boolean> scheduled = MethodIntrospector.selectMethods(beanType,
+            (MethodIntrospector.MetadataLookup<Boolean>) method ->
+                AnnotatedElementUtils.hasAnnotation(method, Scheduled.class) ? Boolean.TRUE : null);
+        return !scheduled.isEmpty();
+    }
+}
@@ -0,0 +1,203 @@
+package com.example.demo.startup;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.camunda.bpm.engine.RuntimeService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import com.example.demo.confirmation.EmailConfirmation;
+import com.example.demo.registration.RegistrationRecord;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Тренировочный прогон для архива AppCDS: после старта проводит startup.training.registrations
+ * регистраций через весь путь, каким они идут в работе, и завершает JVM. Запущенная с
+ * -XX:ArchiveClassesAtExit JVM при выходе записывает в архив все загруженные классы.
+ *
+ * Первый экземпляр запускается через REST API движка, остальные - через POST /api/registrations/bulk;
+ * create-registration-task выполняет job executor, письма отправляет outbox на локальную заглушку,
+ * подтверждения идут через POST /api/email-confirmations. В конце запрашиваются Cockpit и actuator,
+ * чтобы в архив попали и классы webapp.
+ *
+ * Прогон пишет в БД из профиля cds-training (in-memory H2), а не в рабочую.
+ */
+@Component
+@ConditionalOnProperty(name = "startup.training.enabled", havingValue = "true")
+@EnableConfigurationProperties(TrainingRunProperties.class)
+public class TrainingRun implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(TrainingRun.class);
+
+    static final String PROCESS_KEY = "user-registration-process";
+    static final String RECEIVE_TASK_ID = "Activity_0g1mra7";
+    static final String BUSINESS_KEY_PREFIX = "cds-training-";
+
+    private final TrainingRunProperties properties;
+    private final WebServerApplicationContext context;
+    private final RuntimeService runtimeService;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+
+    public TrainingRun(TrainingRunProperties properties,
+                       WebServerApplicationContext context,
+                       RuntimeService runtimeService,
+                       JdbcTemplate jdbcTemplate,
+                       ObjectMapper objectMapper) {
+        this.properties = properties;
+        this.context = context;
+        this.runtimeService = runtimeService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws IOException {
+        HttpServer stub = startStub();
+        int exitCode = 0;
+        long start = System.nanoTime();
+        try {
+            train("http://localhost:" + context.getWebServer().getPort());
+            logger.info("Training run completed {} registrations in {} ms", properties.getRegistrations(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        } catch (Exception e) {
+            logger.error("Training run failed", e);
+            exitCode = 1;
+        } finally {
+            stub.stop(0);
+        }
+        int status = exitCode;
+        System.exit(SpringApplication.exit(context, () -> status));
+    }
+
+    private void train(String baseUrl) throws IOException, InterruptedException {
+        int registrations = properties.getRegistrations();
+        Set<String> processInstanceIds = new HashSet<>();
+
+        // REST API движка (Jersey)
+        JsonNode started = postJson(baseUrl + "/engine-rest/process-definition/key/" + PROCESS_KEY + "/start",
+            Map.of("businessKey", BUSINESS_KEY_PREFIX + 0,
+                "variables", Map.of(
+                    "userName", Map.of("value", "Training User 0"),
+                    "userEmail", Map.of("value", "training-0@example.com"))));
+        if (!started.hasNonNull("id")) {
+            throw new IllegalStateException("Process instance not started: " + started);
+        }
+        processInstanceIds.add(started.get("id").asText());
+
+        // Массовый запуск (Spring MVC, NDJSON)
+        String records = IntStream.range(1, registrations)
+            .mapToObj(i -> json(new RegistrationRecord(BUSINESS_KEY_PREFIX + i, "Training User " + i,
+                "training-" + i + "@example.com")))
+            .collect(Collectors.joining("\n"));
+        String results = send(HttpRequest.newBuilder(URI.create(baseUrl + "/api/registrations/bulk"))
+            .header("Content-Type", "application/x-ndjson")
+            .POST(HttpRequest.BodyPublishers.ofString(records))
+            .build());
+        for (String line : results.split("\n")) {
+            if (line.isBlank()) {
+                continue;
+            }
+            JsonNode result = objectMapper.readTree(line);
+            if (!"STARTED".equals(result.path("status").asText())) {
+                throw new IllegalStateException("Registration not started: " + line);
+            }
+            processInstanceIds.add(result.get("processInstanceId").asText());
+        }
+
+        await("registrations waiting for confirmation", () -> runtimeService.createProcessInstanceQuery()
+            .processInstanceIds(processInstanceIds)
+            .activityIdIn(RECEIVE_TASK_ID)
+            .count() == registrations);
+        await("confirmation emails sent", () -> jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM email_outbox WHERE status = 'PENDING'", Long.class) == 0);
+
+        List<EmailConfirmation> confirmations = new ArrayList<>();
+        for (int i = 0; i < registrations; i++) {
+            confirmations.add(EmailConfirmation.byBusinessKey(BUSINESS_KEY_PREFIX + i));
+        }
+        postJson(baseUrl + "/api/email-confirmations", confirmations);
+        await("registrations completed", () -> runtimeService.createProcessInstanceQuery()
+            .processInstanceIds(processInstanceIds)
+            .count() == 0);
+
+        // Webapp и actuator: статус ответа не важен, нужны загруженные классы
+        send(HttpRequest.newBuilder(URI.create(baseUrl + "/camunda/app/cockpit/default/")).GET().build());
+        send(HttpRequest.newBuilder(URI.create(baseUrl + "/actuator/prometheus")).GET().build());
+    }
+
+    private HttpServer startStub() throws IOException {
+        HttpServer stub = HttpServer.create(new InetSocketAddress("localhost", properties.getStubPort()), 0);
+        stub.createContext("/", exchange -> {
+            exchange.getRequestBody().readAllBytes();
+            byte[] body = "{}".getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream response = exchange.getResponseBody()) {
+                response.write(body);
+            }
+        });
+        stub.start();
+        return stub;
+    }
+
+    private JsonNode postJson(String url, Object body) throws IOException, InterruptedException {
+        String response = send(HttpRequest.newBuilder(URI.create(url))
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString(json(body)))
+            .build());
+        return objectMapper.readTree(response);
+    }
+
+    private String send(HttpRequest request) throws IOException, InterruptedException {
+        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        logger.debug("{} {} -> {}", request.method(), request.uri(), response.statusCode());
+        return response.body();
+    }
+
+    private String json(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (IOException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    private void await(String stage, BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + properties.getTimeout().toNanos();
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                throw new IllegalStateException("Training run timed out waiting for " + stage);
+            }
+            Thread.sleep(100);
+        }
+        logger.info("Training run: {}", stage);
+    }
+}
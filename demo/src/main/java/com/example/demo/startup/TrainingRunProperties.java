@@ -0,0 +1,56 @@
+package com.example.demo.startup;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Настройки тренировочного прогона для архива AppCDS (префикс startup.training).
+ */
+@ConfigurationProperties(prefix = "startup.training")
+public class TrainingRunProperties {
+
+    /** Выполнить прогон после старта и завершить JVM (профиль cds-training) */
+    private boolean enabled = false;
+
+    /** Сколько регистраций проходит полный цикл */
+    private int registrations = 20;
+
+    /** Порт заглушки create-user и send-email; SERVICE_API и email.outbox.url профиля указывают на него */
+    private int stubPort = 18086;
+
+    /** Сколько ждать каждого этапа прогона */
+    private Duration timeout = Duration.ofMinutes(2);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getRegistrations() {
+        return registrations;
+    }
+
+    public void setRegistrations(int registrations) {
+        this.registrations = registrations;
+    }
+
+    public int getStubPort() {
+        return stubPort;
+    }
+
+    public void setStubPort(int stubPort) {
+        this.stubPort = stubPort;
+    }
+
+    public Duration getTimeout() {
+        return timeout;
+    }
+
+    public void setTimeout(Duration timeout) {
+        this.timeout = timeout;
+    }
+}
@@ -0,0 +1,150 @@
+package com.example.demo.tracing;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Переводит события одного экземпляра в JSON в формате OTLP/HTTP JSON (ExportTraceServiceRequest),
+ * который принимают OpenTelemetry Collector, Jaeger и Tempo.
+ *
+ * Трасса строится так: корневой span экземпляра процесса, под ним span-ы активностей
+ * (пары ACTIVITY_START/ACTIVITY_END по activityInstanceId), под активностями - вызовы
+ * delegate-ов, скриптов и HTTP. Flush не относится к одной активности и висит на корневом span.
+ * Незавершенные активности и процесс закрываются временем последнего события с атрибутом
+ * camunda.open=true. traceId и spanId выводятся из id экземпляров, поэтому повторный экспорт
+ * дает те же идентификаторы.
+ */
+class OtlpTraceExporter {
+
+    static final String SCOPE = "com.example.demo.tracing";
+
+    private static final int KIND_INTERNAL = 1;
+    private static final int KIND_CLIENT = 3;
+
+    private final String serviceName;
+
+    OtlpTraceExporter(String serviceName) {
+        this.serviceName = serviceName;
+    }
+
+    Map<String, Object> export(String processInstanceId, List<TraceEvent> events) {
+        String traceId = hex(processInstanceId, 32);
+        String rootSpanId = hex(processInstanceId, 16);
+        long last = events.stream().mapToLong(TraceEvent::endEpochNanos).max().orElse(0);
+
+        Set<String> activityInstanceIds = events.stream()
+            .filter(event -> event.type() == TraceEvent.Type.ACTIVITY_START)
+            .map(TraceEvent::activityInstanceId)
+            .collect(Collectors.toSet());
+
+        List<Map<String, Object>> spans = new ArrayList<>();
+        Map<String, TraceEvent> openActivities = new HashMap<>();
+        TraceEvent processStart = null;
+        TraceEvent processEnd = null;
+        for (TraceEvent event : events) {
+            switch (event.type()) {
+                case PROCESS_START -> processStart = event;
+                case PROCESS_END -> processEnd = event;
+                case ACTIVITY_START -> openActivities.put(event.activityInstanceId(), event);
+                case ACTIVITY_END -> {
+                    TraceEvent start = openActivities.remove(event.activityInstanceId());
+                    if (start != null) {
+                        spans.add(span(traceId, hex(event.activityInstanceId(), 16), rootSpanId, start.name(),
+                            KIND_INTERNAL, start.startEpochNanos(), event.startEpochNanos(),
+                            attributes(processInstanceId, start, false)));
+                    }
+                }
+                default -> {
+                    // Старт активности мог быть затерт в буфере, тогда вызов висит на корневом span
+                    String parentSpanId = activityInstanceIds.contains(event.activityInstanceId())
+                        ? hex(event.activityInstanceId(), 16) : rootSpanId;
+                    String spanId = hex(processInstanceId + event.activityInstanceId() + event.type()
+                        + event.startEpochNanos(), 16);
+                    spans.add(span(traceId, spanId, parentSpanId, spanName(event),
+                        event.type() == TraceEvent.Type.HTTP ? KIND_CLIENT : KIND_INTERNAL,
+                        event.startEpochNanos(), event.endEpochNanos(), attributes(processInstanceId, event, false)));
+                }
+            }
+        }
+        for (TraceEvent start : openActivities.values()) {
+            spans.add(span(traceId, hex(start.activityInstanceId(), 16), rootSpanId, start.name(), KIND_INTERNAL,
+                start.startEpochNanos(), last, attributes(processInstanceId, start, true)));
+        }
+
+        long rootStart = processStart != null ? processStart.startEpochNanos()
+            : events.stream().mapToLong(TraceEvent::startEpochNanos).min().orElse(0);
+        long rootEnd = processEnd != null ? processEnd.startEpochNanos() : last;
+        TraceEvent root = processStart != null ? processStart : processEnd;
+        spans.add(0, span(traceId, rootSpanId, null, root != null ? root.name() : "process-instance", KIND_INTERNAL,
+            rootStart, rootEnd, attributes(processInstanceId, root, processEnd == null)));
+
+        return Map.of("resourceSpans", List.of(Map.of(
+            "resource", Map.of("attributes", List.of(attribute("service.name", serviceName))),
+            "scopeSpans", List.of(Map.of(
+                "scope", Map.of("name", SCOPE),
+                "spans", spans)))));
+    }
+
+    private static String spanName(TraceEvent event) {
+        return switch (event.type()) {
+            case DELEGATE -> "delegate " + event.name();
+            case SCRIPT -> "script " + event.name();
+            case DB_FLUSH -> "db.flush";
+            default -> event.name();
+        };
+    }
+
+    private static Map<String, Object> span(String traceId, String spanId, String parentSpanId, String name, int kind,
+                                            long startEpochNanos, long endEpochNanos,
+                                            List<Map<String, Object>> attributes) {
+        Map<String, Object> span = new LinkedHashMap<>();
+        span.put("traceId", traceId);
+        span.put("spanId", spanId);
+        if (parentSpanId != null) {
+            span.put("parentSpanId", parentSpanId);
+        }
+        span.put("name", name);
+        span.put("kind", kind);
+        // В OTLP JSON 64-битные числа передаются строками
+        span.put("startTimeUnixNano", String.valueOf(startEpochNanos));
+        span.put("endTimeUnixNano", String.valueOf(Math.max(startEpochNanos, endEpochNanos)));
+        span.put("attributes", attributes);
+        return span;
+    }
+
+    private static List<Map<String, Object>> attributes(String processInstanceId, TraceEvent event, boolean open) {
+        List<Map<String, Object>> attributes = new ArrayList<>();
+        attributes.add(attribute("camunda.process_instance_id", processInstanceId));
+        if (event != null) {
+            attributes.add(attribute("camunda.event", event.type().name()));
+            if (event.activityInstanceId() != null) {
+                attributes.add(attribute("camunda.activity_instance_id", event.activityInstanceId()));
+            }
+            event.attributes().forEach((key, value) -> attributes.add(attribute(key, value)));
+        }
+        if (open) {
+            attributes.add(Map.of("key", "camunda.open", "value", Map.of("boolValue", true)));
+        }
+        return attributes;
+    }
+
+    private static Map<String, Object> attribute(String key, String value) {
+        return Map.of("key", key, "value", Map.of("stringValue", value));
+    }
+
+    /**
+     * Детерминированный hex идентификатор длиной 32 (traceId) или 16 (spanId) символов.
+     */
+    static String hex(String seed, int length) {
+        UUID uuid = UUID.nameUUIDFromBytes(seed.getBytes(StandardCharsets.UTF_8));
+        String hex = String.format("%016x%016x", uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+        return hex.substring(0, length);
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.demo.tracing;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Трассировка выборочных экземпляров процесса: start/end активностей, вызовы delegate-ов и скриптов,
+ * HTTP вызовы общего RestClient и flush в БД пишутся в кольцевой буфер {@link TraceRecorder}
+ * и отдаются через /actuator/processtrace.
+ * Выключается целиком через camunda.tracing.enabled=false.
+ */
+@Configuration
+@ConditionalOnProperty(name = "camunda.tracing.enabled", havingValue = "true", matchIfMissing = true)
+@EnableConfigurationProperties(ProcessTraceProperties.class)
+public class ProcessTraceConfiguration {
+
+    @Bean
+    public TraceRecorder traceRecorder(ProcessTraceProperties properties) {
+        return new TraceRecorder(properties);
+    }
+
+    @Bean
+    public TracingPlugin tracingPlugin(TraceRecorder traceRecorder) {
+        return new TracingPlugin(traceRecorder);
+    }
+
+    @Bean
+    public TracingHttpInterceptor tracingHttpInterceptor(TraceRecorder traceRecorder) {
+        return new TracingHttpInterceptor(traceRecorder);
+    }
+
+    @Bean
+    public ProcessTraceEndpoint processTraceEndpoint(TraceRecorder traceRecorder,
+                                                     @Value("${spring.application.name:demo}") String serviceName) {
+        return new ProcessTraceEndpoint(traceRecorder, serviceName);
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.demo.tracing;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+
+/**
+ * Трассы выборочных экземпляров процесса.
+ *
+ * GET  /actuator/processtrace                          - доля выборки, заполнение буфера, последние экземпляры
+ * GET  /actuator/processtrace/{processInstanceId}      - события экземпляра по времени
+ * GET  /actuator/processtrace/{processInstanceId}/otlp - то же в формате OTLP JSON
+ * POST /actuator/processtrace                          - тело {"sampleRate": 0.1}
+ */
+@Endpoint(id = "processtrace")
+public class ProcessTraceEndpoint {
+
+    private static final int RECENT_INSTANCES = 100;
+
+    private final TraceRecorder recorder;
+    private final OtlpTraceExporter exporter;
+
+    public ProcessTraceEndpoint(TraceRecorder recorder, String serviceName) {
+        this.recorder = recorder;
+        this.exporter = new OtlpTraceExporter(serviceName);
+    }
+
+    @ReadOperation
+    public Map<String, Object> status() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("sampleRate", recorder.getSampleRate());
+        status.put("capacity", recorder.capacity());
+        status.put("recorded", recorder.recorded());
+        status.put("processInstances", recorder.processInstanceIds(RECENT_INSTANCES));
+        return status;
+    }
+
+    @ReadOperation
+    public List<TraceEvent> timeline(@Selector String processInstanceId) {
+        return recorder.events(processInstanceId);
+    }
+
+    @ReadOperation
+    public Map<String, Object> export(@Selector String processInstanceId, @Selector String format) {
+        if (!"otlp".equals(format)) {
+            throw new InvalidEndpointRequestException("Unknown trace format: " + format, "Unknown trace format");
+        }
+        return exporter.export(processInstanceId, recorder.events(processInstanceId));
+    }
+
+    @WriteOperation
+    public Map<String, Object> setSampleRate(double sampleRate) {
+        try {
+            recorder.setSampleRate(sampleRate);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidEndpointRequestException(e.getMessage(), "Invalid sample rate");
+        }
+        return Map.of("sampleRate", recorder.getSampleRate());
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.demo.tracing;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Настройки трассировки выборочных экземпляров процесса (префикс camunda.tracing).
+ */
+@ConfigurationProperties(prefix = "camunda.tracing")
+public class ProcessTraceProperties {
+
+    /** Подключать ли трассировку; при false плагин и interceptor-ы не регистрируются */
+    private boolean enabled = true;
+
+    /** Доля трассируемых экземпляров от 0 до 1; меняется в runtime через POST /actuator/processtrace */
+    private double sampleRate = 0.01;
+
+    /** Размер кольцевого буфера событий (округляется вверх до степени двойки); старые события затираются */
+    private int bufferSize = 65_536;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public double getSampleRate() {
+        return sampleRate;
+    }
+
+    public void setSampleRate(double sampleRate) {
+        this.sampleRate = sampleRate;
+    }
+
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    public void setBufferSize(int bufferSize) {
+        this.bufferSize = bufferSize;
+    }
+}
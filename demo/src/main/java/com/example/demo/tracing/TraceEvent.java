@@ -0,0 +1,33 @@
+package com.example.demo.tracing;
+
+import java.util.Map;
+
+/**
+ * Событие трассы экземпляра процесса.
+ *
+ * @param processInstanceId    экземпляр процесса
+ * @param type                 вид события
+ * @param name                 id активности, класс delegate, "POST /create-user" и т.п.
+ * @param activityInstanceId   экземпляр активности, в которой произошло событие; null, если не известен
+ * @param startEpochNanos      время начала, наносекунды от epoch
+ * @param durationNanos        длительность; 0 для отметок start/end
+ * @param attributes           дополнительные атрибуты (тип активности, HTTP статус, язык скрипта)
+ */
+public record TraceEvent(String processInstanceId, Type type, String name, String activityInstanceId,
+                         long startEpochNanos, long durationNanos, Map<String, String> attributes) {
+
+    public enum Type {
+        PROCESS_START,
+        PROCESS_END,
+        ACTIVITY_START,
+        ACTIVITY_END,
+        DELEGATE,
+        SCRIPT,
+        HTTP,
+        DB_FLUSH
+    }
+
+    public long endEpochNanos() {
+        return startEpochNanos + durationNanos;
+    }
+}
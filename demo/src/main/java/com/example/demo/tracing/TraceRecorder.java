@@ -0,0 +1,131 @@
+package com.example.demo.tracing;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Кольцевой буфер событий трассировки выборочных экземпляров процесса.
+ *
+ * Запись не блокирует: слот выбирается атомарным инкрементом счетчика, событие неизменяемое
+ * и публикуется одной записью в AtomicReferenceArray. При переполнении затираются самые
+ * старые события, поэтому трассы давно завершенных экземпляров могут быть неполными.
+ *
+ * Выборка детерминирована по хэшу id экземпляра: решение одинаково во всех потоках и на всех
+ * узлах и не требует хранить множество трассируемых экземпляров.
+ */
+public class TraceRecorder {
+
+    private static final int SAMPLING_SCALE = 1_000_000;
+
+    private final AtomicReferenceArray<TraceEvent> slots;
+    private final int mask;
+    private final AtomicLong sequence = new AtomicLong();
+
+    private final long baseEpochNanos;
+    private final long baseNanos;
+
+    private volatile int sampleThreshold;
+
+    public TraceRecorder(ProcessTraceProperties properties) {
+        int capacity = Integer.highestOneBit(Math.max(2, properties.getBufferSize()) - 1) << 1;
+        this.slots = new AtomicReferenceArray<>(capacity);
+        this.mask = capacity - 1;
+        Instant now = Instant.now();
+        this.baseEpochNanos = now.getEpochSecond() * 1_000_000_000L + now.getNano();
+        this.baseNanos = System.nanoTime();
+        setSampleRate(properties.getSampleRate());
+    }
+
+    public double getSampleRate() {
+        return (double) sampleThreshold / SAMPLING_SCALE;
+    }
+
+    public void setSampleRate(double sampleRate) {
+        if (sampleRate < 0 || sampleRate > 1) {
+            throw new IllegalArgumentException("Sample rate must be between 0 and 1: " + sampleRate);
+        }
+        this.sampleThreshold = (int) Math.round(sampleRate * SAMPLING_SCALE);
+    }
+
+    /**
+     * Есть ли смысл проверять отдельные экземпляры: false при нулевой доле.
+     */
+    public boolean isActive() {
+        return sampleThreshold > 0;
+    }
+
+    public boolean isSampled(String processInstanceId) {
+        int threshold = sampleThreshold;
+        if (threshold == 0 || processInstanceId == null) {
+            return false;
+        }
+        if (threshold >= SAMPLING_SCALE) {
+            return true;
+        }
+        // Перемешивание битов: id из генератора движка отличаются в основном младшими разрядами
+        int hash = processInstanceId.hashCode() * 0x9E3779B9;
+        return Integer.remainderUnsigned(hash ^ (hash >>> 16), SAMPLING_SCALE) < threshold;
+    }
+
+    /**
+     * Текущее время в наносекундах от epoch, монотонное в пределах процесса JVM.
+     */
+    public long now() {
+        return baseEpochNanos + (System.nanoTime() - baseNanos);
+    }
+
+    public void record(String processInstanceId, TraceEvent.Type type, String name, String activityInstanceId,
+                       long startEpochNanos, long durationNanos, Map<String, String> attributes) {
+        TraceEvent event = new TraceEvent(processInstanceId, type, name, activityInstanceId,
+            startEpochNanos, durationNanos, attributes);
+        slots.set((int) (sequence.getAndIncrement() & mask), event);
+    }
+
+    /**
+     * События экземпляра, оставшиеся в буфере, по времени начала.
+     */
+    public List<TraceEvent> events(String processInstanceId) {
+        List<TraceEvent> events = new ArrayList<>();
+        for (int i = 0; i < slots.length(); i++) {
+            TraceEvent event = slots.get(i);
+            if (event != null && event.processInstanceId().equals(processInstanceId)) {
+                events.add(event);
+            }
+        }
+        events.sort(Comparator.comparingLong(TraceEvent::startEpochNanos));
+        return events;
+    }
+
+    /**
+     * Экземпляры, события которых есть в буфере, начиная с последних записанных.
+     */
+    public Set<String> processInstanceIds(int limit) {
+        Set<String> ids = new LinkedHashSet<>();
+        long last = sequence.get();
+        for (long i = last - 1; i >= Math.max(0, last - slots.length()) && ids.size() < limit; i--) {
+            TraceEvent event = slots.get((int) (i & mask));
+            if (event != null) {
+                ids.add(event.processInstanceId());
+            }
+        }
+        return ids;
+    }
+
+    public int capacity() {
+        return slots.length();
+    }
+
+    /**
+     * Сколько событий записано с запуска, включая затертые.
+     */
+    public long recorded() {
+        return sequence.get();
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.demo.tracing;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.camunda.bpm.engine.impl.cfg.IdGenerator;
+import org.camunda.bpm.engine.impl.context.Context;
+import org.camunda.bpm.engine.impl.db.PersistenceSession;
+import org.camunda.bpm.engine.impl.db.entitymanager.DbEntityManager;
+import org.camunda.bpm.engine.impl.interceptor.Session;
+import org.camunda.bpm.engine.impl.interceptor.SessionFactory;
+import org.camunda.bpm.engine.impl.persistence.entity.ExecutionEntity;
+
+/**
+ * Замена DbEntityManagerFactory движка: DbEntityManager пишет время flush в конце команды
+ * в трассы экземпляров, executions которых команда загрузила или изменила.
+ */
+class TracingDbEntityManagerFactory implements SessionFactory {
+
+    private final IdGenerator idGenerator;
+    private final TraceRecorder recorder;
+
+    TracingDbEntityManagerFactory(IdGenerator idGenerator, TraceRecorder recorder) {
+        this.idGenerator = idGenerator;
+        this.recorder = recorder;
+    }
+
+    @Override
+    public Class<?> getSessionType() {
+        return DbEntityManager.class;
+    }
+
+    @Override
+    public Session openSession() {
+        PersistenceSession persistenceSession = Context.getCommandContext().getSession(PersistenceSession.class);
+        return new TracingDbEntityManager(idGenerator, persistenceSession, recorder);
+    }
+
+    static class TracingDbEntityManager extends DbEntityManager {
+
+        private final TraceRecorder recorder;
+
+        TracingDbEntityManager(IdGenerator idGenerator, PersistenceSession persistenceSession,
+                               TraceRecorder recorder) {
+            super(idGenerator, persistenceSession);
+            this.recorder = recorder;
+        }
+
+        @Override
+        public void flush() {
+            if (!recorder.isActive()) {
+                super.flush();
+                return;
+            }
+            // Экземпляры берутся из кэша сущностей команды до записи
+            Set<String> sampled = getDbEntityCache().getEntitiesByType(ExecutionEntity.class).stream()
+                .map(ExecutionEntity::getProcessInstanceId)
+                .filter(recorder::isSampled)
+                .collect(Collectors.toSet());
+            if (sampled.isEmpty()) {
+                super.flush();
+                return;
+            }
+            long start = recorder.now();
+            long startNanos = System.nanoTime();
+            try {
+                super.flush();
+            } finally {
+                long duration = System.nanoTime() - startNanos;
+                Map<String, String> attributes = Map.of("camunda.flush.instances", String.valueOf(sampled.size()));
+                for (String processInstanceId : sampled) {
+                    recorder.record(processInstanceId, TraceEvent.Type.DB_FLUSH, "db.flush", null,
+                        start, duration, attributes);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.demo.tracing;
+
+import java.util.Map;
+
+import org.camunda.bpm.engine.delegate.DelegateExecution;
+import org.camunda.bpm.engine.impl.delegate.DelegateInvocation;
+import org.camunda.bpm.engine.impl.interceptor.DelegateInterceptor;
+
+/**
+ * Оборачивает DelegateInterceptor движка и пишет время вызовов delegate-ов, listener-ов
+ * и скриптов трассируемых экземпляров. Вычисление выражений (Expression*Invocation) не пишется:
+ * их много, и они почти ничего не стоят.
+ */
+class TracingDelegateInterceptor implements DelegateInterceptor {
+
+    private final DelegateInterceptor delegate;
+    private final TraceRecorder recorder;
+
+    TracingDelegateInterceptor(DelegateInterceptor delegate, TraceRecorder recorder) {
+        this.delegate = delegate;
+        this.recorder = recorder;
+    }
+
+    @Override
+    public void handleInvocation(DelegateInvocation invocation) throws Exception {
+        if (!recorder.isActive()
+            || !(invocation.getContextExecution() instanceof DelegateExecution execution)
+            || !recorder.isSampled(execution.getProcessInstanceId())) {
+            delegate.handleInvocation(invocation);
+            return;
+        }
+        String kind = invocation.getClass().getSimpleName();
+        if (kind.startsWith("Expression")) {
+            delegate.handleInvocation(invocation);
+            return;
+        }
+
+        // Данные execution берутся до вызова: delegate может завершить активность
+        String processInstanceId = execution.getProcessInstanceId();
+        String activityInstanceId = execution.getActivityInstanceId();
+        String activityId = execution.getCurrentActivityId();
+        boolean script = "ScriptInvocation".equals(kind);
+        long start = recorder.now();
+        long startNanos = System.nanoTime();
+        try {
+            delegate.handleInvocation(invocation);
+        } finally {
+            recorder.record(processInstanceId, script ? TraceEvent.Type.SCRIPT : TraceEvent.Type.DELEGATE,
+                activityId != null ? activityId : kind, activityInstanceId, start, System.nanoTime() - startNanos,
+                Map.of("camunda.invocation", kind));
+        }
+    }
+}
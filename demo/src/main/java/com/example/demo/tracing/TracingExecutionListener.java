@@ -0,0 +1,38 @@
+package com.example.demo.tracing;
+
+import java.util.Map;
+
+import org.camunda.bpm.engine.delegate.DelegateExecution;
+import org.camunda.bpm.engine.delegate.ExecutionListener;
+
+/**
+ * Отметки start/end активности или всего процесса для трассируемых экземпляров.
+ */
+class TracingExecutionListener implements ExecutionListener {
+
+    private final TraceRecorder recorder;
+    private final String name;
+    private final Map<String, String> attributes;
+    private final boolean process;
+
+    TracingExecutionListener(TraceRecorder recorder, String name, String activityType, boolean process) {
+        this.recorder = recorder;
+        this.name = name;
+        this.attributes = Map.of("camunda.activity.type", activityType);
+        this.process = process;
+    }
+
+    @Override
+    public void notify(DelegateExecution execution) {
+        String processInstanceId = execution.getProcessInstanceId();
+        if (!recorder.isSampled(processInstanceId)) {
+            return;
+        }
+        boolean start = EVENTNAME_START.equals(execution.getEventName());
+        TraceEvent.Type type = process
+            ? start ? TraceEvent.Type.PROCESS_START : TraceEvent.Type.PROCESS_END
+            : start ? TraceEvent.Type.ACTIVITY_START : TraceEvent.Type.ACTIVITY_END;
+        recorder.record(processInstanceId, type, name, process ? processInstanceId : execution.getActivityInstanceId(),
+            recorder.now(), 0, attributes);
+    }
+}
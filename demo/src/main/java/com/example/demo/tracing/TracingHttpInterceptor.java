@@ -0,0 +1,81 @@
+package com.example.demo.tracing;
+
+import java.io.IOException;
+import java.util.Map;
+
+import org.camunda.bpm.engine.impl.context.BpmnExecutionContext;
+import org.camunda.bpm.engine.impl.context.Context;
+import org.camunda.bpm.engine.impl.persistence.entity.ExecutionEntity;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+/**
+ * Пишет время HTTP вызовов общего RestClient в трассу экземпляра процесса.
+ *
+ * Экземпляр берется из контекста выполнения движка (вызов из delegate), а для вызовов вне движка,
+ * например отправки из email outbox, - из {@link #runFor(String, Runnable)}.
+ * Время включает ожидание в gate исходящих вызовов.
+ */
+public class TracingHttpInterceptor implements ClientHttpRequestInterceptor {
+
+    private static final ThreadLocal<String> PROCESS_INSTANCE = new ThreadLocal<>();
+
+    private final TraceRecorder recorder;
+
+    public TracingHttpInterceptor(TraceRecorder recorder) {
+        this.recorder = recorder;
+    }
+
+    /**
+     * Выполняет action, относя HTTP вызовы текущего потока к экземпляру processInstanceId.
+     */
+    public static void runFor(String processInstanceId, Runnable action) {
+        String previous = PROCESS_INSTANCE.get();
+        PROCESS_INSTANCE.set(processInstanceId);
+        try {
+            action.run();
+        } finally {
+            if (previous != null) {
+                PROCESS_INSTANCE.set(previous);
+            } else {
+                PROCESS_INSTANCE.remove();
+            }
+        }
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+        throws IOException {
+        if (!recorder.isActive()) {
+            return execution.execute(request, body);
+        }
+        String processInstanceId = PROCESS_INSTANCE.get();
+        String activityInstanceId = null;
+        BpmnExecutionContext context = Context.getBpmnExecutionContext();
+        if (context != null) {
+            ExecutionEntity processExecution = context.getExecution();
+            processInstanceId = processExecution.getProcessInstanceId();
+            activityInstanceId = processExecution.getActivityInstanceId();
+        }
+        if (!recorder.isSampled(processInstanceId)) {
+            return execution.execute(request, body);
+        }
+
+        String method = request.getMethod().name();
+        String path = request.getURI().getPath();
+        long start = recorder.now();
+        long startNanos = System.nanoTime();
+        String status = "error";
+        try {
+            ClientHttpResponse response = execution.execute(request, body);
+            status = String.valueOf(response.getStatusCode().value());
+            return response;
+        } finally {
+            recorder.record(processInstanceId, TraceEvent.Type.HTTP, method + " " + path, activityInstanceId,
+                start, System.nanoTime() - startNanos,
+                Map.of("http.request.method", method, "url.path", path, "http.response.status_code", status));
+        }
+    }
+}
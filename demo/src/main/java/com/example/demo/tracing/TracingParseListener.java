@@ -0,0 +1,41 @@
+package com.example.demo.tracing;
+
+import org.camunda.bpm.engine.delegate.ExecutionListener;
+import org.camunda.bpm.engine.impl.bpmn.parser.AbstractBpmnParseListener;
+import org.camunda.bpm.engine.impl.persistence.entity.ProcessDefinitionEntity;
+import org.camunda.bpm.engine.impl.pvm.process.ActivityImpl;
+import org.camunda.bpm.engine.impl.pvm.process.ScopeImpl;
+import org.camunda.bpm.engine.impl.util.xml.Element;
+
+/**
+ * Добавляет {@link TracingExecutionListener} на start/end процесса и каждой его активности,
+ * включая активности подпроцессов. Listener-ы встроенные, как у метрик активностей.
+ */
+class TracingParseListener extends AbstractBpmnParseListener {
+
+    private final TraceRecorder recorder;
+
+    TracingParseListener(TraceRecorder recorder) {
+        this.recorder = recorder;
+    }
+
+    @Override
+    public void parseProcess(Element processElement, ProcessDefinitionEntity processDefinition) {
+        TracingExecutionListener listener = new TracingExecutionListener(recorder, processDefinition.getKey(),
+            "process", true);
+        processDefinition.addBuiltInListener(ExecutionListener.EVENTNAME_START, listener);
+        processDefinition.addBuiltInListener(ExecutionListener.EVENTNAME_END, listener);
+        addListeners(processDefinition);
+    }
+
+    private void addListeners(ScopeImpl scope) {
+        for (ActivityImpl activity : scope.getActivities()) {
+            Object type = activity.getProperty("type");
+            TracingExecutionListener listener = new TracingExecutionListener(recorder, activity.getId(),
+                type != null ? type.toString() : "unknown", false);
+            activity.addBuiltInListener(ExecutionListener.EVENTNAME_START, listener);
+            activity.addBuiltInListener(ExecutionListener.EVENTNAME_END, listener);
+            addListeners(activity);
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.demo.tracing;
+
+import java.util.ArrayList;
+
+import org.camunda.bpm.engine.impl.cfg.AbstractProcessEnginePlugin;
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.camunda.bpm.engine.impl.db.entitymanager.DbEntityManager;
+
+/**
+ * Подключает трассировку к движку: {@link TracingParseListener} для start/end активностей,
+ * {@link TracingDelegateInterceptor} для delegate-ов и скриптов и {@link TracingDbEntityManagerFactory}
+ * для времени flush.
+ */
+public class TracingPlugin extends AbstractProcessEnginePlugin {
+
+    private final TraceRecorder recorder;
+
+    public TracingPlugin(TraceRecorder recorder) {
+        this.recorder = recorder;
+    }
+
+    @Override
+    public void preInit(ProcessEngineConfigurationImpl configuration) {
+        if (configuration.getCustomPostBPMNParseListeners() == null) {
+            configuration.setCustomPostBPMNParseListeners(new ArrayList<>());
+        }
+        configuration.getCustomPostBPMNParseListeners().add(new TracingParseListener(recorder));
+    }
+
+    @Override
+    public void postInit(ProcessEngineConfigurationImpl configuration) {
+        // Interceptor и фабрики сессий создаются движком в init, поэтому заменяются после него
+        configuration.setDelegateInterceptor(
+            new TracingDelegateInterceptor(configuration.getDelegateInterceptor(), recorder));
+        configuration.getSessionFactories().put(DbEntityManager.class,
+            new TracingDbEntityManagerFactory(configuration.getIdGenerator(), recorder));
+    }
+}
@@ -0,0 +1,233 @@
+package com.example.demo.variables;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Группа небольших переменных, хранимая одной переменной процесса в компактном двоичном виде.
+ *
+ * Значения: null, String, Boolean, Integer, Long. Строки в каноническом виде UUID и
+ * LocalDateTime.toString() хранятся как 16 и 12 байт и при чтении возвращаются той же строкой.
+ *
+ * Экземпляр неизменяемый. Прочитанный из БД экземпляр хранит только байты и разбирает их
+ * при первом обращении к значению.
+ */
+public final class PackedVariables {
+
+    private static final byte FORMAT_VERSION = 1;
+
+    private static final byte NULL = 0;
+    private static final byte STRING = 1;
+    private static final byte UUID_STRING = 2;
+    private static final byte DATE_TIME_STRING = 3;
+    private static final byte BOOLEAN = 4;
+    private static final byte INTEGER = 5;
+    private static final byte LONG = 6;
+
+    private static final PackedVariables EMPTY = new PackedVariables(null, Map.of());
+
+    private final byte[] bytes;
+    private volatile Map<String, Object> values;
+
+    private PackedVariables(byte[] bytes, Map<String, Object> values) {
+        this.bytes = bytes;
+        this.values = values;
+    }
+
+    public static PackedVariables empty() {
+        return EMPTY;
+    }
+
+    public static PackedVariables of(Map<String, ?> values) {
+        return EMPTY.with(values);
+    }
+
+    /**
+     * Экземпляр по байтам из {@link #toBytes()}; значения разбираются при первом обращении.
+     */
+    public static PackedVariables fromBytes(byte[] bytes) {
+        return new PackedVariables(bytes, null);
+    }
+
+    public boolean contains(String name) {
+        return values().containsKey(name);
+    }
+
+    public Object get(String name) {
+        return values().get(name);
+    }
+
+    public Map<String, Object> asMap() {
+        return values();
+    }
+
+    /**
+     * Копия с добавленными или замененными значениями.
+     */
+    public PackedVariables with(Map<String, ?> changes) {
+        Map<String, Object> merged = new LinkedHashMap<>(values());
+        changes.forEach((name, value) -> {
+            requireSupported(name, value);
+            merged.put(name, value);
+        });
+        return new PackedVariables(null, Collections.unmodifiableMap(merged));
+    }
+
+    public byte[] toBytes() {
+        if (bytes != null) {
+            return bytes.clone();
+        }
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(64);
+        try (DataOutputStream out = new DataOutputStream(buffer)) {
+            out.writeByte(FORMAT_VERSION);
+            out.writeShort(values.size());
+            for (Map.Entry<String, Object> entry : values.entrySet()) {
+                out.writeUTF(entry.getKey());
+                writeValue(out, entry.getValue());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return buffer.toByteArray();
+    }
+
+    private Map<String, Object> values() {
+        Map<String, Object> decoded = values;
+        if (decoded == null) {
+            decoded = decode(bytes);
+            values = decoded;
+        }
+        return decoded;
+    }
+
+    private static Map<String, Object> decode(byte[] bytes) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes))) {
+            byte version = in.readByte();
+            if (version != FORMAT_VERSION) {
+                throw new IllegalStateException("Unsupported packed variables format " + version);
+            }
+            int size = in.readUnsignedShort();
+            Map<String, Object> decoded = new LinkedHashMap<>(size * 2);
+            for (int i = 0; i < size; i++) {
+                decoded.put(in.readUTF(), readValue(in));
+            }
+            return Collections.unmodifiableMap(decoded);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void writeValue(DataOutputStream out, Object value) throws IOException {
+        if (value == null) {
+            out.writeByte(NULL);
+        } else if (value instanceof String string) {
+            writeString(out, string);
+        } else if (value instanceof Boolean bool) {
+            out.writeByte(BOOLEAN);
+            out.writeBoolean(bool);
+        } else if (value instanceof Integer integer) {
+            out.writeByte(INTEGER);
+            out.writeInt(integer);
+        } else {
+            out.writeByte(LONG);
+            out.writeLong((Long) value);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        UUID uuid = canonicalUuid(value);
+        if (uuid != null) {
+            out.writeByte(UUID_STRING);
+            out.writeLong(uuid.getMostSignificantBits());
+            out.writeLong(uuid.getLeastSignificantBits());
+            return;
+        }
+        LocalDateTime dateTime = canonicalDateTime(value);
+        if (dateTime != null) {
+            out.writeByte(DATE_TIME_STRING);
+            out.writeLong(dateTime.toEpochSecond(ZoneOffset.UTC));
+            out.writeInt(dateTime.getNano());
+            return;
+        }
+        out.writeByte(STRING);
+        out.writeUTF(value);
+    }
+
+    private static Object readValue(DataInputStream in) throws IOException {
+        byte tag = in.readByte();
+        return switch (tag) {
+            case NULL -> null;
+            case STRING -> in.readUTF();
+            case UUID_STRING -> new UUID(in.readLong(), in.readLong()).toString();
+            case DATE_TIME_STRING -> LocalDateTime.ofEpochSecond(in.readLong(), in.readInt(), ZoneOffset.UTC).toString();
+            case BOOLEAN -> in.readBoolean();
+            case INTEGER -> in.readInt();
+            case LONG -> in.readLong();
+            default -> throw new IllegalStateException("Unknown packed value tag " + tag);
+        };
+    }
+
+    /**
+     * UUID, если строка совпадает с UUID.toString() (иначе при чтении вернулась бы другая строка).
+     */
+    private static UUID canonicalUuid(String value) {
+        if (value.length() != 36 || value.charAt(8) != '-') {
+            return null;
+        }
+        try {
+            UUID uuid = UUID.fromString(value);
+            return uuid.toString().equals(value) ? uuid : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static LocalDateTime canonicalDateTime(String value) {
+        if (value.length() < 16 || value.length() > 29 || value.charAt(4) != '-' || value.charAt(10) != 'T') {
+            return null;
+        }
+        try {
+            LocalDateTime dateTime = LocalDateTime.parse(value);
+            return dateTime.toString().equals(value) ? dateTime : null;
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    private static void requireSupported(String name, Object value) {
+        if (value != null && !(value instanceof String || value instanceof Boolean
+            || value instanceof Integer || value instanceof Long)) {
+            throw new IllegalArgumentException("Variable '" + name + "' of type " + value.getClass().getName()
+                + " cannot be packed, only String, Boolean, Integer and Long are supported");
+        }
+        if (value instanceof String string && string.length() > 0xFFFF / 3) {
+            throw new IllegalArgumentException("Variable '" + name + "' is too long to be packed");
+        }
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof PackedVariables packed && values().equals(packed.values());
+    }
+
+    @Override
+    public int hashCode() {
+        return values().hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "PackedVariables" + values();
+    }
+}
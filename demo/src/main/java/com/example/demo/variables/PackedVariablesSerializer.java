@@ -0,0 +1,60 @@
+package com.example.demo.variables;
+
+import java.util.Base64;
+
+import org.camunda.bpm.engine.impl.variable.serializer.AbstractTypedValueSerializer;
+import org.camunda.bpm.engine.impl.variable.serializer.ValueFields;
+import org.camunda.bpm.engine.variable.impl.value.UntypedValueImpl;
+import org.camunda.bpm.engine.variable.value.TypedValue;
+
+/**
+ * Хранит {@link PackedVariables} в одной строке ACT_RU_VARIABLE (и истории): байты в Base64
+ * в колонке TEXT_. Если группа не помещается в TEXT_, байты пишутся в ACT_GE_BYTEARRAY.
+ *
+ * При чтении байты не разбираются: это происходит при первом обращении к значению группы.
+ */
+public class PackedVariablesSerializer extends AbstractTypedValueSerializer<PackedVariablesValue> {
+
+    /** Длина колонки TEXT_ */
+    static final int MAX_TEXT_LENGTH = 4000;
+
+    public PackedVariablesSerializer() {
+        super(PackedVariablesType.INSTANCE);
+    }
+
+    @Override
+    public String getName() {
+        return PackedVariablesType.TYPE_NAME;
+    }
+
+    @Override
+    public void writeValue(PackedVariablesValue value, ValueFields valueFields) {
+        byte[] bytes = value.getValue().toBytes();
+        String text = Base64.getEncoder().encodeToString(bytes);
+        if (text.length() <= MAX_TEXT_LENGTH) {
+            valueFields.setTextValue(text);
+            valueFields.setByteArrayValue(null);
+        } else {
+            valueFields.setTextValue(null);
+            valueFields.setByteArrayValue(bytes);
+        }
+    }
+
+    @Override
+    public PackedVariablesValue readValue(ValueFields valueFields, boolean deserializeValue, boolean isTransient) {
+        byte[] bytes = valueFields.getTextValue() != null
+            ? Base64.getDecoder().decode(valueFields.getTextValue())
+            : valueFields.getByteArrayValue();
+        return new PackedVariablesValue(PackedVariables.fromBytes(bytes));
+    }
+
+    @Override
+    public PackedVariablesValue convertToTypedValue(UntypedValueImpl untypedValue) {
+        return new PackedVariablesValue((PackedVariables) untypedValue.getValue());
+    }
+
+    @Override
+    protected boolean canWriteValue(TypedValue value) {
+        return value.getValue() instanceof PackedVariables;
+    }
+}
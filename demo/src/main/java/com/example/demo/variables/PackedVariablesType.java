@@ -0,0 +1,35 @@
+package com.example.demo.variables;
+
+import java.util.Map;
+
+import org.camunda.bpm.engine.variable.impl.type.AbstractValueTypeImpl;
+import org.camunda.bpm.engine.variable.value.TypedValue;
+
+/**
+ * Тип переменной "packed" для {@link PackedVariables}.
+ */
+public class PackedVariablesType extends AbstractValueTypeImpl {
+
+    public static final String TYPE_NAME = "packed";
+
+    public static final PackedVariablesType INSTANCE = new PackedVariablesType();
+
+    private PackedVariablesType() {
+        super(TYPE_NAME);
+    }
+
+    @Override
+    public boolean isPrimitiveValueType() {
+        return false;
+    }
+
+    @Override
+    public TypedValue createValue(Object value, Map<String, Object> valueInfo) {
+        return new PackedVariablesValue((PackedVariables) value);
+    }
+
+    @Override
+    public Map<String, Object> getValueInfo(TypedValue typedValue) {
+        return Map.of();
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.demo.variables;
+
+import org.camunda.bpm.engine.variable.impl.value.AbstractTypedValue;
+
+/**
+ * Типизированное значение переменной {@link PackedVariablesType}.
+ */
+public class PackedVariablesValue extends AbstractTypedValue<PackedVariables> {
+
+    public PackedVariablesValue(PackedVariables value) {
+        super(value, PackedVariablesType.INSTANCE);
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.demo.variables;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.camunda.bpm.engine.ProcessEngine;
+import org.camunda.bpm.engine.ProcessEngineException;
+import org.camunda.bpm.engine.delegate.VariableScope;
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.camunda.bpm.engine.impl.persistence.entity.ExecutionEntity;
+import org.springframework.beans.factory.ObjectProvider;
+
+/**
+ * Чтение и запись переменных, которые могут входить в упакованную группу
+ * ({@link VariablePackingProperties#getGroups()}).
+ *
+ * Вызывающий код работает с обычными именами переменных (userId, confirmationToken):
+ * при включенной упаковке значение пишется в переменную группы, при чтении сначала
+ * проверяется группа, затем обычная переменная. Поэтому экземпляры, запущенные до
+ * включения (или после выключения) упаковки, читаются так же.
+ */
+public class VariablePacking {
+
+    private final boolean enabled;
+    private final Map<String, String> groupByVariable = new HashMap<>();
+    private final ObjectProvider<ProcessEngine> processEngine;
+
+    public VariablePacking(VariablePackingProperties properties, ObjectProvider<ProcessEngine> processEngine) {
+        this.enabled = properties.isEnabled();
+        this.processEngine = processEngine;
+        properties.getGroups().forEach((group, names) -> names.forEach(name -> {
+            String previous = groupByVariable.put(name, group);
+            if (previous != null && !previous.equals(group)) {
+                throw new IllegalStateException("Variable '" + name + "' is declared in packed groups '"
+                    + previous + "' and '" + group + "'");
+            }
+        }));
+    }
+
+    public Object getVariable(VariableScope scope, String name) {
+        String group = groupByVariable.get(name);
+        if (group != null && scope.getVariable(group) instanceof PackedVariables packed && packed.contains(name)) {
+            return packed.get(name);
+        }
+        return scope.getVariable(name);
+    }
+
+    public void setVariable(VariableScope scope, String name, Object value) {
+        setVariables(scope, Collections.singletonMap(name, value));
+    }
+
+    /**
+     * Записывает переменные; переменные одной группы записываются одним обновлением группы.
+     */
+    public void setVariables(VariableScope scope, Map<String, ?> variables) {
+        Map<String, Map<String, Object>> packedChanges = new LinkedHashMap<>();
+        variables.forEach((name, value) -> {
+            String group = enabled ? groupByVariable.get(name) : null;
+            if (group == null) {
+                scope.setVariable(name, value);
+            } else {
+                packedChanges.computeIfAbsent(group, key -> new LinkedHashMap<>()).put(name, value);
+            }
+        });
+        packedChanges.forEach((group, changes) -> {
+            PackedVariables current = scope.getVariable(group) instanceof PackedVariables packed
+                ? packed : PackedVariables.empty();
+            scope.setVariable(group, current.with(changes));
+        });
+    }
+
+    /**
+     * Записывает переменные в экземпляр вне выполнения процесса. Группа читается и
+     * записывается в одной команде движка, параллельное изменение группы приводит
+     * к OptimisticLockingException, а не к потере значений.
+     */
+    public void setVariables(String executionId, Map<String, ?> variables) {
+        ProcessEngine engine = processEngine.getObject();
+        if (!enabled || variables.keySet().stream().noneMatch(groupByVariable::containsKey)) {
+            engine.getRuntimeService().setVariables(executionId, variables);
+            return;
+        }
+        ((ProcessEngineConfigurationImpl) engine.getProcessEngineConfiguration()).getCommandExecutorTxRequired()
+            .execute(commandContext -> {
+                ExecutionEntity execution = commandContext.getExecutionManager().findExecutionById(executionId);
+                if (execution == null) {
+                    throw new ProcessEngineException("Execution " + executionId + " does not exist");
+                }
+                setVariables(execution, variables);
+                return null;
+            });
+    }
+}
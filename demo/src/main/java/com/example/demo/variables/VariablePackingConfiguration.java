@@ -0,0 +1,26 @@
+package com.example.demo.variables;
+
+import org.camunda.bpm.engine.ProcessEngine;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Упаковка групп небольших переменных в одну переменную процесса (camunda.variable-packing.*).
+ */
+@Configuration
+@EnableConfigurationProperties(VariablePackingProperties.class)
+public class VariablePackingConfiguration {
+
+    @Bean
+    public VariablePackingPlugin variablePackingPlugin() {
+        return new VariablePackingPlugin();
+    }
+
+    @Bean
+    public VariablePacking variablePacking(VariablePackingProperties properties,
+                                           ObjectProvider<ProcessEngine> processEngine) {
+        return new VariablePacking(properties, processEngine);
+    }
+}
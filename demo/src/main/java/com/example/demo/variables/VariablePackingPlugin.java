@@ -0,0 +1,26 @@
+package com.example.demo.variables;
+
+import java.util.ArrayList;
+
+import org.camunda.bpm.engine.impl.cfg.AbstractProcessEnginePlugin;
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+
+/**
+ * Регистрирует {@link PackedVariablesSerializer}. Подключается всегда, чтобы упакованные
+ * значения читались и после выключения camunda.variable-packing.enabled.
+ */
+public class VariablePackingPlugin extends AbstractProcessEnginePlugin {
+
+    @Override
+    public void preInit(ProcessEngineConfigurationImpl configuration) {
+        if (configuration.getCustomPreVariableSerializers() == null) {
+            configuration.setCustomPreVariableSerializers(new ArrayList<>());
+        }
+        configuration.getCustomPreVariableSerializers().add(new PackedVariablesSerializer());
+    }
+
+    @Override
+    public void postInit(ProcessEngineConfigurationImpl configuration) {
+        configuration.getValueTypeResolver().addType(PackedVariablesType.INSTANCE);
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.demo.variables;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Настройки упаковки переменных (префикс camunda.variable-packing).
+ */
+@ConfigurationProperties(prefix = "camunda.variable-packing")
+public class VariablePackingProperties {
+
+    /**
+     * Записывать переменные из групп в упакованном виде. Упакованные ранее значения
+     * читаются и при false.
+     */
+    private boolean enabled = false;
+
+    /**
+     * Группы: имя переменной группы -> имена переменных в ней.
+     * Каждая переменная может входить только в одну группу.
+     */
+    private Map<String, List<String>> groups = new LinkedHashMap<>();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Map<String, List<String>> getGroups() {
+        return groups;
+    }
+
+    public void setGroups(Map<String, List<String>> groups) {
+        this.groups = groups;
+    }
+}
@@ -0,0 +1,60 @@
+-- Схема таблиц приложения для H2 (spring.sql.init.platform=h2), для PostgreSQL - schema-postgresql.sql
+
+-- Outbox для отправки email подтверждения (см. SendEmailDelegate и EmailOutboxDispatcher)
+CREATE TABLE IF NOT EXISTS email_outbox (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    process_instance_id VARCHAR(64) NOT NULL,
+    recipient VARCHAR(255) NOT NULL,
+    user_name VARCHAR(255),
+    confirmation_token VARCHAR(64),
+    status VARCHAR(16) NOT NULL,
+    attempts INT DEFAULT 0 NOT NULL,
+    next_attempt_at TIMESTAMP NOT NULL,
+    created_at TIMESTAMP NOT NULL,
+    sent_at TIMESTAMP,
+    last_error VARCHAR(1000)
+);
+
+CREATE INDEX IF NOT EXISTS idx_email_outbox_pending ON email_outbox (status, next_attempt_at);
+
+-- Индекс confirmationToken -> экземпляр процесса, ожидающий email_confirmed_message (см. ConfirmationTokenIndex)
+CREATE TABLE IF NOT EXISTS confirmation_token_index (
+    confirmation_token VARCHAR(64) PRIMARY KEY,
+    process_instance_id VARCHAR(64) NOT NULL,
+    created_at TIMESTAMP NOT NULL
+);
+
+-- Колонка execution_id из ранних версий таблицы не использовалась
+ALTER TABLE confirmation_token_index DROP COLUMN IF EXISTS execution_id;
+
+CREATE INDEX IF NOT EXISTS idx_confirmation_token_pi ON confirmation_token_index (process_instance_id);
+
+-- Ответы create-user по ключу идемпотентности (см. CreateUserIdempotencyStore)
+CREATE TABLE IF NOT EXISTS create_user_dedup (
+    idempotency_key VARCHAR(320) PRIMARY KEY,
+    user_id VARCHAR(64) NOT NULL,
+    response_status INT NOT NULL,
+    response_body VARCHAR(4000),
+    created_at TIMESTAMP NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_create_user_dedup_created ON create_user_dedup (created_at);
+
+-- Хэш ресурсов последнего auto-deployment по имени движка (см. FingerprintedDeploymentConfiguration)
+CREATE TABLE IF NOT EXISTS deployment_fingerprint (
+    engine_name VARCHAR(64) PRIMARY KEY,
+    fingerprint VARCHAR(64) NOT NULL,
+    deployment_id VARCHAR(64) NOT NULL,
+    updated_at TIMESTAMP NOT NULL
+);
+
+-- Аренда очистки истории: проход выполняет один узел кластера (см. HistoryCleanupLock)
+CREATE TABLE IF NOT EXISTS history_cleanup_lock (
+    name VARCHAR(64) PRIMARY KEY,
+    locked_by VARCHAR(255),
+    locked_until TIMESTAMP NOT NULL
+);
+
+INSERT INTO history_cleanup_lock (name, locked_until)
+SELECT 'history-cleanup', TIMESTAMP '1970-01-01 00:00:00'
+WHERE NOT EXISTS (SELECT 1 FROM history_cleanup_lock WHERE name = 'history-cleanup');
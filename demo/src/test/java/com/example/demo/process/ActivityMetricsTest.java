@@ -0,0 +1,123 @@
+package com.example.demo.process;
+
+import java.util.concurrent.TimeUnit;
+
+import org.camunda.bpm.engine.ProcessEngine;
+import org.camunda.bpm.engine.RuntimeService;
+import org.camunda.bpm.engine.runtime.ProcessInstance;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.parallel.Isolated;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import com.example.demo.metrics.ActivityMetricsRegistry;
+import com.example.demo.support.HttpStubServer;
+import com.example.demo.support.ProcessTest;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import static org.camunda.bpm.engine.test.assertions.bpmn.BpmnAwareTests.*;
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Тест метрик по активностям (camunda.activity.duration, camunda.activity.started).
+ */
+@ProcessTest
+@Isolated("Счетчики метрик и переключатель процесса общие для всех тестов контекста")
+public class ActivityMetricsTest {
+
+    private static final String PROCESS_KEY = "user-registration-process";
+
+    /** Заглушка SERVICE_API для create-registration-task */
+    private HttpStubServer serviceApi;
+
+    @Autowired
+    private ProcessEngine processEngine;
+
+    @Autowired
+    private RuntimeService runtimeService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ActivityMetricsRegistry activityMetricsRegistry;
+
+    @BeforeEach
+    public void setUp(HttpStubServer serviceApi) {
+        init(processEngine);
+        this.serviceApi = serviceApi;
+        activityMetricsRegistry.setEnabled(PROCESS_KEY, true);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        activityMetricsRegistry.setEnabled(PROCESS_KEY, true);
+    }
+
+    /**
+     * Для service task пишется время выполнения, для receive task - время ожидания сообщения.
+     */
+    @Test
+    public void testActivityDurationIsRecorded() throws InterruptedException {
+        // Given
+        long createRegistrationCount = duration("Activity_118iyp4").count();
+        long waitCount = duration("Activity_0g1mra7").count();
+        double waitTotal = duration("Activity_0g1mra7").totalTime(TimeUnit.MILLISECONDS);
+
+        // When
+        ProcessInstance processInstance = startAndConfirm(50);
+
+        // Then
+        assertThat(processInstance).isEnded();
+        assertThat(duration("Activity_118iyp4").count()).isEqualTo(createRegistrationCount + 1);
+        assertThat(duration("Activity_0nlwkvw").count()).isPositive();
+        assertThat(duration("Activity_0g1mra7").count()).isEqualTo(waitCount + 1);
+        assertThat(duration("Activity_0g1mra7").totalTime(TimeUnit.MILLISECONDS) - waitTotal)
+            .isGreaterThanOrEqualTo(50);
+        assertThat(meterRegistry.get(ActivityMetricsRegistry.STARTED)
+            .tags("process", PROCESS_KEY, "activity", "Activity_118iyp4")
+            .counter()
+            .count()).isPositive();
+    }
+
+    /**
+     * Выключенный в runtime процесс не пишет метрики.
+     */
+    @Test
+    public void testMetricsCanBeDisabledPerProcess() throws InterruptedException {
+        // Given
+        activityMetricsRegistry.setEnabled(PROCESS_KEY, false);
+        startAndConfirm(0);
+        long createRegistrationCount = duration("Activity_118iyp4").count();
+
+        // When
+        startAndConfirm(0);
+
+        // Then
+        assertThat(duration("Activity_118iyp4").count()).isEqualTo(createRegistrationCount);
+        assertThat(activityMetricsRegistry.switches()).containsEntry(PROCESS_KEY, false);
+    }
+
+    private ProcessInstance startAndConfirm(long waitMillis) throws InterruptedException {
+        ProcessInstance processInstance = runtimeService.startProcessInstanceByKey(
+            PROCESS_KEY,
+            withVariables("userName", "Metrics User", "SERVICE_API", serviceApi.baseUrl())
+        );
+        execute(job(processInstance));
+        Thread.sleep(waitMillis);
+        runtimeService.createMessageCorrelation("email_confirmed_message")
+            .processInstanceId(processInstance.getId())
+            .setVariable("emailConfirmed", true)
+            .correlate();
+        return processInstance;
+    }
+
+    private Timer duration(String activityId) {
+        return meterRegistry.get(ActivityMetricsRegistry.DURATION)
+            .tags("process", PROCESS_KEY, "activity", activityId)
+            .timer();
+    }
+}
@@ -0,0 +1,315 @@
+package com.example.demo.process;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import org.camunda.bpm.engine.HistoryService;
+import org.camunda.bpm.engine.ProcessEngine;
+import org.camunda.bpm.engine.ProcessEngineException;
+import org.camunda.bpm.engine.RuntimeService;
+import org.camunda.bpm.engine.history.HistoricProcessInstance;
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.camunda.bpm.engine.impl.history.event.HistoryEvent;
+import org.camunda.bpm.engine.impl.history.handler.HistoryEventHandler;
+import org.camunda.bpm.engine.impl.interceptor.CommandExecutor;
+import org.camunda.bpm.engine.runtime.ProcessInstance;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.demo.history.BufferedHistoryEventHandler;
+import com.example.demo.history.BufferedHistoryPlugin;
+import com.example.demo.history.BufferedHistoryProperties;
+import com.example.demo.support.HttpStubServer;
+import com.example.demo.support.ProcessTest;
+
+import static org.camunda.bpm.engine.test.assertions.bpmn.BpmnAwareTests.*;
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Тест буферизованной записи истории (history.buffer.durability=BUFFERED).
+ * Фоновый сброс фактически выключен, очередь записывается явным вызовом flush().
+ */
+@ProcessTest(properties = {
+    "history.buffer.durability=BUFFERED",
+    "history.buffer.flush-interval=1h",
+    "history.buffer.flush-size=100000"
+})
+public class BufferedHistoryTest {
+
+    /** Заглушка SERVICE_API для create-registration-task */
+    private HttpStubServer serviceApi;
+
+    @Autowired
+    private ProcessEngine processEngine;
+
+    @Autowired
+    private RuntimeService runtimeService;
+
+    @Autowired
+    private HistoryService historyService;
+
+    @Autowired
+    private BufferedHistoryPlugin bufferedHistoryPlugin;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    private BufferedHistoryEventHandler handler;
+
+    @BeforeEach
+    public void setUp(HttpStubServer serviceApi) {
+        init(processEngine);
+        this.serviceApi = serviceApi;
+        handler = bufferedHistoryPlugin.getHandler();
+        handler.flush();
+    }
+
+    /**
+     * История нескольких транзакций одного экземпляра копится в очереди
+     * и после сброса совпадает с той, что записал бы движок.
+     */
+    @Test
+    public void testHistoryIsWrittenOnFlush() {
+        // Given: три транзакции - старт, async job, корреляция сообщения
+        ProcessInstance processInstance = runtimeService.startProcessInstanceByKey(
+            "user-registration-process",
+            withVariables("userName", "Buffered User", "SERVICE_API", serviceApi.baseUrl())
+        );
+        execute(job(processInstance));
+        runtimeService.createMessageCorrelation("email_confirmed_message")
+            .processInstanceId(processInstance.getId())
+            .setVariable("emailConfirmed", true)
+            .correlate();
+        // isEnded() читает историю, поэтому завершение проверяется по runtime данным
+        assertThat(runtimeService.createProcessInstanceQuery()
+            .processInstanceId(processInstance.getId())
+            .count()).isZero();
+
+        // Then: до сброса истории нет
+        assertThat(handler.queueSize()).isPositive();
+        assertThat(historyService.createHistoricProcessInstanceQuery()
+            .processInstanceId(processInstance.getId())
+            .singleResult()).isNull();
+
+        // When
+        handler.flush();
+
+        // Then: экземпляр и все активности завершены в истории
+        assertThat(handler.queueSize()).isZero();
+        HistoricProcessInstance historicInstance = historyService.createHistoricProcessInstanceQuery()
+            .processInstanceId(processInstance.getId())
+            .singleResult();
+        assertThat(historicInstance.getEndTime()).isNotNull();
+        assertThat(historyService.createHistoricActivityInstanceQuery()
+            .processInstanceId(processInstance.getId())
+            .unfinished()
+            .count()).isZero();
+        assertThat(historyService.createHistoricActivityInstanceQuery()
+            .processInstanceId(processInstance.getId())
+            .activityId("Activity_0g1mra7")
+            .singleResult()
+            .getEndTime()).isNotNull();
+        assertThat(historyService.createHistoricVariableInstanceQuery()
+            .processInstanceId(processInstance.getId())
+            .variableName("emailConfirmed")
+            .singleResult()
+            .getValue()).isEqualTo(true);
+    }
+
+    /**
+     * События откаченной транзакции не попадают в очередь.
+     */
+    @Test
+    public void testRolledBackTransactionIsNotBuffered() {
+        // When: экземпляр запускается в транзакции, которая затем откатывается
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            runtimeService.startProcessInstanceByKey(
+                "user-registration-process",
+                withVariables("SERVICE_API", serviceApi.baseUrl())
+            );
+            status.setRollbackOnly();
+        });
+
+        // Then
+        assertThat(handler.queueSize()).isZero();
+    }
+
+    /**
+     * При заполненной очереди поток движка сам записывает очередь и свое событие, порядок сохраняется.
+     */
+    @Test
+    public void testFullQueueIsWrittenInCallerThread() {
+        // Given: очередь на два события
+        RecordingHandler delegate = new RecordingHandler();
+        BufferedHistoryEventHandler buffered = startedHandler(delegate, 2);
+        List<HistoryEvent> events = events("full", 5);
+
+        // When
+        commit(buffered, events);
+
+        // Then: первые два из очереди и третье записаны в потоке движка, два последних в очереди
+        assertThat(delegate.written).containsExactlyElementsOf(events.subList(0, 3));
+        assertThat(delegate.threads).containsOnly(Thread.currentThread().getName());
+        assertThat(buffered.queueSize()).isEqualTo(2);
+        buffered.stop();
+    }
+
+    /**
+     * Остановка записывает очередь, события транзакций после остановки пишутся синхронно.
+     */
+    @Test
+    public void testStopFlushesQueueAndWritesLaterEventsSynchronously() {
+        // Given
+        RecordingHandler delegate = new RecordingHandler();
+        BufferedHistoryEventHandler buffered = startedHandler(delegate, 100);
+        List<HistoryEvent> events = events("stop", 4);
+        commit(buffered, events.subList(0, 3));
+        assertThat(delegate.written).isEmpty();
+
+        // When
+        buffered.stop();
+        commit(buffered, events.subList(3, 4));
+
+        // Then
+        assertThat(delegate.written).containsExactlyElementsOf(events);
+        assertThat(buffered.queueSize()).isZero();
+    }
+
+    /**
+     * Пачка, запись которой упала, остается в буфере и записывается при следующем сбросе.
+     */
+    @Test
+    public void testFailedBatchIsRetried() {
+        // Given
+        RecordingHandler delegate = new RecordingHandler();
+        BufferedHistoryEventHandler buffered = startedHandler(delegate, 100);
+        List<HistoryEvent> events = events("retry", 3);
+        commit(buffered, events);
+        delegate.failures = 1;
+
+        // When
+        assertThatThrownBy(buffered::flush).isInstanceOf(RuntimeException.class);
+
+        // Then
+        assertThat(buffered.unwrittenCount()).isEqualTo(3);
+        buffered.flush();
+        assertThat(buffered.unwrittenCount()).isZero();
+        assertThat(delegate.written).containsExactlyElementsOf(events);
+        buffered.stop();
+    }
+
+    /**
+     * Пока БД недоступна, незаписанные события копятся не дольше лимита (емкость очереди),
+     * дальше ошибка записи возвращается потоку, закоммитившему транзакцию.
+     */
+    @Test
+    public void testUnwrittenEventsAreBounded() {
+        // Given: очередь на два события, каждая запись падает
+        RecordingHandler delegate = new RecordingHandler();
+        BufferedHistoryEventHandler buffered = startedHandler(delegate, 2);
+        delegate.failures = Integer.MAX_VALUE;
+        List<HistoryEvent> events = events("bounded", 10);
+
+        // When
+        int failedCommits = 0;
+        for (HistoryEvent event : events) {
+            try {
+                commit(buffered, List.of(event));
+            } catch (ProcessEngineException e) {
+                failedCommits++;
+            }
+        }
+
+        // Then: в памяти не больше очереди и лимита незаписанных
+        assertThat(failedCommits).isPositive();
+        assertThat(buffered.unwrittenCount()).isLessThanOrEqualTo(2);
+        assertThat(buffered.queueSize()).isLessThanOrEqualTo(2);
+
+        // После восстановления БД сохраненные события записываются
+        delegate.failures = 0;
+        buffered.flush();
+        assertThat(buffered.unwrittenCount()).isZero();
+        assertThat(delegate.written).isNotEmpty();
+        buffered.stop();
+    }
+
+    /**
+     * Плагин останавливается последним из lifecycle бинов: после web сервера и прочих,
+     * чьи транзакции могут порождать историю.
+     */
+    @Test
+    public void testPluginStopsLast() {
+        assertThat(applicationContext.getBeansOfType(SmartLifecycle.class).values())
+            .filteredOn(lifecycle -> lifecycle != bufferedHistoryPlugin)
+            .allSatisfy(lifecycle -> assertThat(lifecycle.getPhase()).isGreaterThan(bufferedHistoryPlugin.getPhase()));
+    }
+
+    private BufferedHistoryEventHandler startedHandler(HistoryEventHandler delegate, int queueCapacity) {
+        BufferedHistoryProperties properties = new BufferedHistoryProperties();
+        properties.setDurability(BufferedHistoryProperties.Durability.BUFFERED);
+        properties.setQueueCapacity(queueCapacity);
+        properties.setFlushInterval(Duration.ofHours(1));
+        BufferedHistoryEventHandler buffered = new BufferedHistoryEventHandler(delegate, properties);
+        buffered.start(commandExecutor());
+        return buffered;
+    }
+
+    /**
+     * Передает события handler-у в команде движка; в очередь они попадают после ее коммита.
+     */
+    private void commit(BufferedHistoryEventHandler buffered, List<HistoryEvent> events) {
+        commandExecutor().execute(commandContext -> {
+            buffered.handleEvents(events);
+            return null;
+        });
+    }
+
+    private CommandExecutor commandExecutor() {
+        return ((ProcessEngineConfigurationImpl) processEngine.getProcessEngineConfiguration())
+            .getCommandExecutorTxRequiresNew();
+    }
+
+    private static List<HistoryEvent> events(String prefix, int count) {
+        return IntStream.range(0, count).mapToObj(i -> {
+            HistoryEvent event = new HistoryEvent();
+            event.setId(prefix + "-" + i);
+            return event;
+        }).toList();
+    }
+
+    /**
+     * Handler записи, который запоминает события и поток записи; первые failures вызовов падают.
+     */
+    private static class RecordingHandler implements HistoryEventHandler {
+
+        final List<HistoryEvent> written = Collections.synchronizedList(new ArrayList<>());
+        final List<String> threads = Collections.synchronizedList(new ArrayList<>());
+        volatile int failures;
+
+        @Override
+        public void handleEvent(HistoryEvent historyEvent) {
+            if (failures > 0) {
+                failures--;
+                throw new IllegalStateException("write failed");
+            }
+            written.add(historyEvent);
+            threads.add(Thread.currentThread().getName());
+        }
+
+        @Override
+        public void handleEvents(List<HistoryEvent> historyEvents) {
+            historyEvents.forEach(this::handleEvent);
+        }
+    }
+}
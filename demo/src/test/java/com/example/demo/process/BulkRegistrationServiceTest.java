@@ -0,0 +1,110 @@
+package com.example.demo.process;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.camunda.bpm.engine.ProcessEngine;
+import org.camunda.bpm.engine.RuntimeService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import com.example.demo.registration.BulkRegistrationService;
+import com.example.demo.registration.RegistrationResult;
+import com.example.demo.support.ProcessTest;
+import com.example.demo.support.ProcessTestScope;
+
+import static org.camunda.bpm.engine.test.assertions.bpmn.BpmnAwareTests.*;
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Тесты массового запуска регистраций из NDJSON.
+ */
+@ProcessTest(properties = {
+    "registration.bulk.chunk-size=50",
+    "registration.bulk.workers=4",
+    "registration.bulk.max-pending-chunks=2"
+})
+public class BulkRegistrationServiceTest {
+
+    @Autowired
+    private ProcessEngine processEngine;
+
+    @Autowired
+    private RuntimeService runtimeService;
+
+    @Autowired
+    private BulkRegistrationService registrationService;
+
+    @BeforeEach
+    public void setUp() {
+        init(processEngine);
+    }
+
+    /**
+     * Каждая строка получает результат, экземпляры запускаются с businessKey и переменными строки.
+     */
+    @Test
+    public void testStartAll(ProcessTestScope scope) throws Exception {
+        // Given: 1000 строк, пустая строка, некорректный JSON и null
+        StringBuilder input = new StringBuilder();
+        IntStream.rangeClosed(1, 1000).forEach(i -> input
+            .append("{\"businessKey\":\"").append(scope.businessKey("bulk-" + i))
+            .append("\",\"userName\":\"Bulk User ").append(i)
+            .append("\",\"userEmail\":\"bulk").append(i).append("@example.com\"}\n"));
+        input.append("\n");
+        input.append("{not json\n");
+        input.append("null\n");
+
+        // When
+        List<RegistrationResult> results = new ArrayList<>();
+        long lines = registrationService.startAll(new BufferedReader(new StringReader(input.toString())),
+            results::addAll);
+
+        // Then
+        assertThat(lines).isEqualTo(1003);
+        assertThat(results).hasSize(1002);
+        Map<Long, RegistrationResult> byLine = results.stream()
+            .collect(Collectors.toMap(RegistrationResult::line, Function.identity()));
+        assertThat(byLine.get(1002L).status()).isEqualTo(RegistrationResult.Status.INVALID);
+        assertThat(byLine.get(1003L).status()).isEqualTo(RegistrationResult.Status.INVALID);
+        assertThat(results).filteredOn(r -> r.status() == RegistrationResult.Status.STARTED).hasSize(1000);
+
+        RegistrationResult first = byLine.get(1L);
+        assertThat(first.businessKey()).isEqualTo(scope.businessKey("bulk-1"));
+        assertThat(runtimeService.createProcessInstanceQuery()
+            .processInstanceId(first.processInstanceId())
+            .singleResult()
+            .getBusinessKey()).isEqualTo(scope.businessKey("bulk-1"));
+        assertThat(runtimeService.getVariable(first.processInstanceId(), "userEmail"))
+            .isEqualTo("bulk1@example.com");
+    }
+
+    /**
+     * Если клиент перестал принимать результаты, чтение входа прекращается.
+     */
+    @Test
+    public void testSinkFailureStopsReading(ProcessTestScope scope) {
+        // Given
+        StringBuilder input = new StringBuilder();
+        IntStream.rangeClosed(1, 1000).forEach(i -> input
+            .append("{\"businessKey\":\"").append(scope.businessKey("broken-" + i)).append("\"}\n"));
+
+        // When / Then
+        assertThatThrownBy(() -> registrationService.startAll(
+            new BufferedReader(new StringReader(input.toString())),
+            results -> {
+                throw new IllegalStateException("client disconnected");
+            }))
+            .isInstanceOf(IllegalStateException.class);
+        assertThat(runtimeService.createProcessInstanceQuery()
+            .processInstanceBusinessKeyLike(scope.businessKey("broken-%"))
+            .count()).isLessThan(1000);
+    }
+}
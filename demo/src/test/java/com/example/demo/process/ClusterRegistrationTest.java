@@ -0,0 +1,251 @@
+package com.example.demo.process;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.BooleanSupplier;
+
+import org.camunda.bpm.engine.ManagementService;
+import org.camunda.bpm.engine.ProcessEngine;
+import org.camunda.bpm.engine.RuntimeService;
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.camunda.bpm.engine.impl.metrics.Meter;
+import org.camunda.bpm.engine.management.Metrics;
+import org.h2.tools.Server;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.TestReporter;
+import org.junit.jupiter.api.parallel.Isolated;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.example.demo.DemoApplication;
+import com.example.demo.confirmation.ConfirmationResult;
+import com.example.demo.confirmation.EmailConfirmation;
+import com.example.demo.confirmation.EmailConfirmationService;
+import com.example.demo.outbox.EmailOutboxRepository;
+import com.example.demo.support.HttpStubServer;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Несколько узлов приложения (профиль cluster) в одном JVM с общей БД H2 в режиме сервера.
+ *
+ * Регистрации запускаются на всех узлах, job create-registration-task и отправку email из outbox
+ * выполняют job executor-ы и диспетчеры узлов, подтверждения распределяются по узлам.
+ * Отчет теста (report entry "cluster") - пропускная способность и доля конфликтов
+ * оптимистичной блокировки при росте числа узлов.
+ */
+@Isolated("Замер пропускной способности: job executor-ы узлов занимают все ядра")
+public class ClusterRegistrationTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(ClusterRegistrationTest.class);
+
+    static final String PROCESS_KEY = "user-registration-process";
+
+    /** Регистраций на один прогон, независимо от числа узлов */
+    static final int INSTANCES = 200;
+
+    static final Duration TIMEOUT = Duration.ofMinutes(2);
+
+    private static Server database;
+    private static HttpStubServer serviceApi;
+    private static HttpStubServer emailApi;
+
+    @BeforeAll
+    public static void startDatabase() throws SQLException, IOException {
+        database = Server.createTcpServer("-tcpPort", String.valueOf(freePort()), "-ifNotExists").start();
+        serviceApi = HttpStubServer.start();
+        emailApi = HttpStubServer.start();
+    }
+
+    @AfterAll
+    public static void stopDatabase() {
+        serviceApi.close();
+        emailApi.close();
+        database.stop();
+    }
+
+    @ParameterizedTest(name = "{0} node(s)")
+    @ValueSource(ints = {1, 2, 4})
+    public void testRegistrationsAcrossNodes(int nodeCount, TestReporter reporter) throws Exception {
+        serviceApi.reset();
+        emailApi.reset();
+        // Своя in-memory база на каждый прогон, живет до остановки сервера H2
+        String url = "jdbc:h2:tcp://localhost:" + database.getPort() + "/mem:cluster-" + nodeCount
+            + ";DB_CLOSE_DELAY=-1";
+
+        List<ConfigurableApplicationContext> nodes = new ArrayList<>();
+        try {
+            // Узлы стартуют по очереди: первый создает схему и деплоит ресурсы
+            for (int node = 1; node <= nodeCount; node++) {
+                nodes.add(startNode(url, "node" + node));
+            }
+            RuntimeService runtimeService = nodes.get(0).getBean(RuntimeService.class);
+            ManagementService managementService = nodes.get(0).getBean(ManagementService.class);
+            EmailOutboxRepository outbox = nodes.get(0).getBean(EmailOutboxRepository.class);
+            long started = System.nanoTime();
+
+            // When: регистрации запускаются на всех узлах параллельно
+            onEachNode(nodes, (node, index) -> {
+                RuntimeService nodeRuntimeService = node.getBean(RuntimeService.class);
+                for (int i = index; i < INSTANCES; i += nodes.size()) {
+                    nodeRuntimeService.startProcessInstanceByKey(PROCESS_KEY, businessKey(nodeCount, i), Map.of(
+                        "userName", "Cluster User " + i,
+                        "userEmail", "cluster" + i + "@example.com",
+                        "SERVICE_API", serviceApi.baseUrl()));
+                }
+            });
+            awaitUntil(() -> managementService.createJobQuery().count() == 0 && outbox.countPending() == 0);
+
+            // Подтверждения тоже распределяются по узлам
+            List<ConfirmationResult> results = Collections.synchronizedList(new ArrayList<>());
+            onEachNode(nodes, (node, index) -> {
+                List<EmailConfirmation> confirmations = new ArrayList<>();
+                for (int i = index; i < INSTANCES; i += nodes.size()) {
+                    confirmations.add(new EmailConfirmation(null, businessKey(nodeCount, i)));
+                }
+                results.addAll(node.getBean(EmailConfirmationService.class).confirmAll(confirmations));
+            });
+            // Корреляция могла столкнуться с диспетчером outbox, который выставляет emailSent в том же экземпляре
+            List<ConfirmationResult> conflicts = results.stream()
+                .filter(result -> result.status() == ConfirmationResult.Status.FAILED)
+                .toList();
+            EmailConfirmationService retryService = nodes.get(0).getBean(EmailConfirmationService.class);
+            conflicts.forEach(result -> assertThat(retryService.confirm(
+                    new EmailConfirmation(result.confirmationToken(), result.businessKey())).status())
+                .isEqualTo(ConfirmationResult.Status.CORRELATED));
+            awaitUntil(() -> runtimeService.createProcessInstanceQuery().processDefinitionKey(PROCESS_KEY).count() == 0);
+            double seconds = (System.nanoTime() - started) / 1e9;
+
+            // Then: каждое письмо отправлено ровно один раз, все экземпляры завершены
+            assertThat(results).hasSize(INSTANCES);
+            assertThat(requests(emailApi, "/send-email")).isEqualTo(INSTANCES);
+            assertThat(requests(serviceApi, "/create-user")).isGreaterThanOrEqualTo(INSTANCES);
+
+            long acquired = sum(nodes, Metrics.JOB_ACQUIRED_SUCCESS);
+            long acquisitionConflicts = sum(nodes, Metrics.JOB_ACQUIRED_FAILURE);
+            long jobsFailed = sum(nodes, Metrics.JOB_FAILED);
+            Map<String, Long> jobsPerNode = new LinkedHashMap<>();
+            nodes.forEach(node -> jobsPerNode.put(node.getBean(ProcessEngine.class).getName(),
+                meter(node, Metrics.JOB_SUCCESSFUL)));
+
+            String report = String.format(
+                "nodes=%d, instances=%d, time=%.2fs, throughput=%.1f/s, acquisitionConflicts=%d/%d (%.1f%%),"
+                    + " jobFailures=%d, confirmationConflicts=%d (%.1f%%), jobsPerNode=%s",
+                nodeCount, INSTANCES, seconds, INSTANCES / seconds,
+                acquisitionConflicts, acquired + acquisitionConflicts,
+                percent(acquisitionConflicts, acquired + acquisitionConflicts),
+                jobsFailed, conflicts.size(), percent(conflicts.size(), INSTANCES), jobsPerNode);
+            logger.info("Cluster run: {}", report);
+            reporter.publishEntry("cluster", report);
+        } finally {
+            Collections.reverse(nodes);
+            nodes.forEach(ConfigurableApplicationContext::close);
+        }
+    }
+
+    private static ConfigurableApplicationContext startNode(String url, String engineName) {
+        Map<String, Object> properties = new LinkedHashMap<>();
+        properties.put("CAMUNDA_DB_URL", url);
+        // Движки регистрируются в ProcessEngines по имени, в одном JVM имена должны различаться
+        properties.put("camunda.bpm.process-engine-name", engineName);
+        properties.put("SERVICE_API", serviceApi.baseUrl());
+        properties.put("email.outbox.url", emailApi.baseUrl() + "/send-email");
+        properties.put("email.outbox.poll-interval", "100ms");
+        properties.put("camunda.bpm.job-execution.wait-time-in-millis", "200");
+        properties.put("history.buffer.durability", "TRANSACTIONAL");
+        properties.put("spring.main.banner-mode", "off");
+        properties.put("logging.level.org.camunda", "WARN");
+        // REST API движка требует сервлетный контейнер, узлам теста он не нужен
+        properties.put("spring.autoconfigure.exclude",
+            "org.camunda.bpm.spring.boot.starter.rest.CamundaBpmRestJerseyAutoConfiguration");
+
+        // Аргументы командной строки, а не properties(): default properties уступают application.properties
+        String[] args = properties.entrySet().stream()
+            .map(entry -> "--" + entry.getKey() + "=" + entry.getValue())
+            .toArray(String[]::new);
+        return new SpringApplicationBuilder(DemoApplication.class)
+            .web(WebApplicationType.NONE)
+            .profiles("cluster")
+            .run(args);
+    }
+
+    private static void onEachNode(List<ConfigurableApplicationContext> nodes, NodeAction action) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(nodes.size());
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int index = 0; index < nodes.size(); index++) {
+                ConfigurableApplicationContext node = nodes.get(index);
+                int nodeIndex = index;
+                futures.add(executor.submit(() -> action.run(node, nodeIndex)));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void awaitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TIMEOUT.toNanos();
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                fail("Condition not reached within " + TIMEOUT);
+            }
+            Thread.sleep(50);
+        }
+    }
+
+    private static String businessKey(int nodeCount, int index) {
+        return "cluster-" + nodeCount + "-" + index;
+    }
+
+    private static long requests(HttpStubServer stub, String path) {
+        return stub.requests().stream().filter(request -> request.path().equals(path)).count();
+    }
+
+    /**
+     * Значение счетчика движка, накопленное с последней записи метрик в БД.
+     */
+    private static long meter(ConfigurableApplicationContext node, String name) {
+        ProcessEngineConfigurationImpl configuration = (ProcessEngineConfigurationImpl) node
+            .getBean(ProcessEngine.class).getProcessEngineConfiguration();
+        Meter meter = configuration.getMetricsRegistry().getDbMeterByName(name);
+        return meter != null ? meter.get() : 0;
+    }
+
+    private static long sum(List<ConfigurableApplicationContext> nodes, String name) {
+        return nodes.stream().mapToLong(node -> meter(node, name)).sum();
+    }
+
+    private static double percent(long part, long total) {
+        return total == 0 ? 0 : 100.0 * part / total;
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    @FunctionalInterface
+    interface NodeAction {
+        void run(ConfigurableApplicationContext node, int index);
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.demo.process;
+
+import org.camunda.bpm.engine.ProcessEngine;
+import org.camunda.bpm.engine.RuntimeService;
+import org.camunda.bpm.engine.runtime.ProcessInstance;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.example.demo.support.HttpStubServer;
+import com.example.demo.support.ProcessTest;
+import com.example.demo.support.ProcessTestScope;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+import static org.camunda.bpm.engine.test.assertions.bpmn.BpmnAwareTests.*;
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Тесты идемпотентности create-user (service-api.idempotency.enabled, включена и в профиле test).
+ *
+ * Свой контекст (отдельное свойство) дает свой MeterRegistry: счетчики попаданий не видят
+ * повторных email других тестов, выполняемых параллельно.
+ */
+@ProcessTest(properties = "service-api.idempotency.cache-expire-after-write=1h")
+public class CreateUserIdempotencyTest {
+
+    /** Заглушка SERVICE_API для create-registration-task */
+    private HttpStubServer serviceApi;
+
+    @Autowired
+    private ProcessEngine processEngine;
+
+    @Autowired
+    private RuntimeService runtimeService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    public void setUp(HttpStubServer serviceApi) {
+        init(processEngine);
+        this.serviceApi = serviceApi;
+    }
+
+    /**
+     * Повторная регистрация с тем же business key не вызывает create-user
+     * и получает userId первой регистрации.
+     */
+    @Test
+    public void testRepeatedBusinessKeyReusesStoredResponse(ProcessTestScope scope) {
+        // Given
+        String businessKey = scope.businessKey("idempotent");
+        ProcessInstance first = startAndExecuteJob(businessKey, "first@example.com");
+        String firstUserId = (String) runtimeService.getVariable(first.getId(), "userId");
+        double hitsBefore = hits();
+
+        // When
+        ProcessInstance second = startAndExecuteJob(businessKey, "first@example.com");
+
+        // Then
+        assertThat(serviceApi.requests()).hasSize(1);
+        assertThat(runtimeService.getVariable(second.getId(), "userId")).isEqualTo(firstUserId);
+        assertThat(hits()).isEqualTo(hitsBefore + 1);
+        assertThat(jdbcTemplate.queryForObject(
+            "SELECT user_id FROM create_user_dedup WHERE idempotency_key = ?", String.class, "bk:" + businessKey))
+            .isEqualTo(firstUserId);
+    }
+
+    /**
+     * Без business key ключом служит email без учета регистра.
+     */
+    @Test
+    public void testEmailIsUsedWithoutBusinessKey(ProcessTestScope scope) {
+        // Given
+        startAndExecuteJob(null, "Same.User." + scope.id() + "@example.com");
+
+        // When
+        startAndExecuteJob(null, "same.user." + scope.id() + "@example.com");
+        startAndExecuteJob(null, "other.user." + scope.id() + "@example.com");
+
+        // Then
+        assertThat(serviceApi.requests()).hasSize(2);
+    }
+
+    /**
+     * Без business key и без email (подставлен адрес по умолчанию) ключа нет:
+     * каждая регистрация создает своего пользователя.
+     */
+    @Test
+    public void testRegistrationsWithoutKeyAreNotDeduplicated() {
+        // When
+        ProcessInstance first = startAndExecuteJob(null, null);
+        ProcessInstance second = startAndExecuteJob(null, null);
+
+        // Then
+        assertThat(serviceApi.requests()).hasSize(2);
+        assertThat(runtimeService.getVariable(first.getId(), "userEmail"))
+            .isEqualTo(runtimeService.getVariable(second.getId(), "userEmail"));
+        assertThat(runtimeService.getVariable(second.getId(), "userId"))
+            .isNotEqualTo(runtimeService.getVariable(first.getId(), "userId"));
+    }
+
+    private ProcessInstance startAndExecuteJob(String businessKey, String userEmail) {
+        ProcessInstance processInstance = runtimeService.startProcessInstanceByKey(
+            "user-registration-process",
+            businessKey,
+            userEmail != null
+                ? withVariables("userEmail", userEmail, "SERVICE_API", serviceApi.baseUrl())
+                : withVariables("SERVICE_API", serviceApi.baseUrl())
+        );
+        execute(job(processInstance));
+        return processInstance;
+    }
+
+    private double hits() {
+        return meterRegistry.get("create-user.idempotency.lookups").tag("outcome", "cache").counter().count()
+            + meterRegistry.get("create-user.idempotency.lookups").tag("outcome", "table").counter().count();
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.demo.process;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.camunda.bpm.engine.ProcessEngineException;
+import org.camunda.bpm.engine.RepositoryService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import com.example.demo.delegate.ChooseNextProcessDelegate;
+import com.example.demo.routing.DecisionRouter;
+import com.example.demo.support.ProcessTest;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Тесты вычисления DMN решения next-process через DecisionRouter напрямую из Java.
+ */
+@ProcessTest
+public class DecisionRouterTest {
+
+    @Autowired
+    private DecisionRouter decisionRouter;
+
+    @Autowired
+    private RepositoryService repositoryService;
+
+    @Test
+    public void testConfirmedEmailRoutesToOnboarding() {
+        Map<String, Object> outputs = decisionRouter.evaluate(ChooseNextProcessDelegate.DECISION_KEY,
+            Map.of("emailConfirmed", true));
+
+        assertThat(outputs)
+            .containsEntry("nextProcess", "onboarding-process")
+            .containsEntry("processChosen", true);
+    }
+
+    /**
+     * Маршрут не зависит от входа, как и до перехода на DMN: всегда onboarding-process.
+     */
+    @Test
+    public void testUnconfirmedOrMissingInputRoutesToOnboarding() {
+        assertThat(decisionRouter.evaluate(ChooseNextProcessDelegate.DECISION_KEY, Map.of("emailConfirmed", false)))
+            .containsEntry("nextProcess", "onboarding-process");
+        assertThat(decisionRouter.evaluate(ChooseNextProcessDelegate.DECISION_KEY, new HashMap<>()))
+            .containsEntry("nextProcess", "onboarding-process");
+    }
+
+    /**
+     * Повторный вызов с теми же значениями входов возвращает запомненный результат.
+     */
+    @Test
+    public void testResultMemoizedByInputValues() {
+        Map<String, Object> first = decisionRouter.evaluate(ChooseNextProcessDelegate.DECISION_KEY,
+            Map.of("emailConfirmed", true, "userName", "First"));
+        Map<String, Object> second = decisionRouter.evaluate(ChooseNextProcessDelegate.DECISION_KEY,
+            Map.of("emailConfirmed", true, "userName", "Second"));
+
+        // userName не вход таблицы и на ключ не влияет
+        assertThat(second).isSameAs(first);
+        assertThatThrownBy(() -> second.put("nextProcess", "other"))
+            .isInstanceOf(UnsupportedOperationException.class);
+    }
+
+    @Test
+    public void testUnknownDecisionRejected() {
+        assertThatThrownBy(() -> decisionRouter.evaluate("unknown-decision", Map.of()))
+            .isInstanceOf(ProcessEngineException.class)
+            .hasMessageContaining("unknown-decision");
+    }
+
+    /**
+     * Деплой новой версии решения сбрасывает кэш: следующий вызов вычисляет новую версию.
+     */
+    @Test
+    public void testNewDeploymentInvalidatesCache() {
+        // Given
+        String first = deploy("first-route");
+        String second = null;
+        try {
+            assertThat(decisionRouter.evaluate("router-redeploy", Map.of("emailConfirmed", true)))
+                .containsEntry("nextProcess", "first-route");
+
+            // When
+            second = deploy("second-route");
+
+            // Then
+            assertThat(decisionRouter.evaluate("router-redeploy", Map.of("emailConfirmed", true)))
+                .containsEntry("nextProcess", "second-route");
+        } finally {
+            repositoryService.deleteDeployment(first, true);
+            if (second != null) {
+                repositoryService.deleteDeployment(second, true);
+            }
+            decisionRouter.invalidate();
+        }
+    }
+
+    private String deploy(String nextProcess) {
+        String dmn = """
+            <?xml version="1.0" encoding="UTF-8"?>
+            <definitions xmlns="https://www.omg.org/spec/DMN/20191111/MODEL/" xmlns:camunda="http://camunda.org/schema/1.0/dmn"
+                id="Definitions_router_redeploy" name="Router redeploy" namespace="http://camunda.org/schema/1.0/dmn">
+              <decision id="router-redeploy" name="Router redeploy" camunda:historyTimeToLive="1">
+                <decisionTable id="DecisionTable_router_redeploy" hitPolicy="FIRST">
+                  <input id="Input_emailConfirmed">
+                    <inputExpression id="InputExpression_emailConfirmed" typeRef="boolean">
+                      <text>emailConfirmed</text>
+                    </inputExpression>
+                  </input>
+                  <output id="Output_nextProcess" name="nextProcess" typeRef="string" />
+                  <rule id="Rule_any">
+                    <inputEntry id="InputEntry_any"><text></text></inputEntry>
+                    <outputEntry id="OutputEntry_any"><text>"%s"</text></outputEntry>
+                  </rule>
+                </decisionTable>
+              </decision>
+            </definitions>
+            """.formatted(nextProcess);
+        return repositoryService.createDeployment()
+            .addString("router-redeploy.dmn", dmn)
+            .deploy()
+            .getId();
+    }
+}
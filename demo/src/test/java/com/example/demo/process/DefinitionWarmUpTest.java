@@ -0,0 +1,213 @@
+package com.example.demo.process;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.camunda.bpm.engine.ProcessEngine;
+import org.camunda.bpm.engine.RuntimeService;
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.camunda.bpm.engine.impl.el.Expression;
+import org.camunda.bpm.engine.impl.el.ExpressionManager;
+import org.camunda.bpm.engine.impl.persistence.deploy.cache.DeploymentCache;
+import org.camunda.commons.utils.cache.Cache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+import org.junit.jupiter.api.parallel.Isolated;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import com.example.demo.definitions.DefinitionCacheFactory;
+import com.example.demo.definitions.DefinitionCacheProperties;
+import com.example.demo.definitions.DefinitionWarmUp;
+import com.example.demo.definitions.WarmUpProperties;
+import com.example.demo.support.ProcessTest;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import static org.camunda.bpm.engine.test.assertions.bpmn.BpmnAwareTests.*;
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Тесты прогрева определений и ограниченных кэшей определений и выражений (camunda.warm-up, camunda.definition-cache).
+ */
+@ProcessTest
+@Isolated("Сбрасывает кэш определений движка, общий для всех тестов контекста")
+public class DefinitionWarmUpTest {
+
+    private static final String PROCESS_KEY = "user-registration-process";
+    private static final String PROCESS_DEFINITION_CACHE = "camunda-process-definition";
+    private static final String EXPRESSION_CACHE = "camunda-expression";
+
+    @Autowired
+    private ProcessEngine processEngine;
+
+    @Autowired
+    private RuntimeService runtimeService;
+
+    @Autowired
+    private DefinitionWarmUp definitionWarmUp;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private DefinitionCacheProperties definitionCacheProperties;
+
+    @Autowired
+    private WarmUpProperties warmUpProperties;
+
+    @BeforeEach
+    public void setUp() {
+        init(processEngine);
+    }
+
+    /**
+     * Без прогрева первый экземпляр после сброса кэша разбирает BPMN (промах кэша),
+     * после прогрева промахов нет. Задержки первого старта в обоих случаях выводятся в отчет.
+     */
+    @Test
+    public void testWarmUpRemovesFirstInstanceCacheMiss(TestReporter reporter) {
+        // Given
+        discardDefinitionCaches();
+        double missesBefore = misses();
+
+        // When
+        long coldNanos = timeFirstStart();
+        double coldMisses = misses() - missesBefore;
+
+        discardDefinitionCaches();
+        assertThat(definitionWarmUp.warmUp()).isNotEmpty();
+        double missesAfterWarmUp = misses();
+        long warmNanos = timeFirstStart();
+        double warmMisses = misses() - missesAfterWarmUp;
+
+        // Then
+        assertThat(coldMisses).isPositive();
+        assertThat(warmMisses).isZero();
+        reporter.publishEntry("first-start-without-warm-up-ms",
+            String.valueOf(TimeUnit.NANOSECONDS.toMicros(coldNanos) / 1000.0));
+        reporter.publishEntry("first-start-after-warm-up-ms",
+            String.valueOf(TimeUnit.NANOSECONDS.toMicros(warmNanos) / 1000.0));
+        assertThat(meterRegistry.find("camunda.warm-up.duration").timer()).isNotNull();
+    }
+
+    /**
+     * Ошибка прогрева одного решения не прерывает прогрев остальных ключей.
+     */
+    @Test
+    public void testFailedStepDoesNotAbortWarmUp() {
+        List<String> decisionKeys = warmUpProperties.getDecisionKeys();
+        warmUpProperties.setDecisionKeys(List.of("unknown-decision"));
+        try {
+            assertThat(definitionWarmUp.warmUp()).isNotEmpty();
+        } finally {
+            warmUpProperties.setDecisionKeys(decisionKeys);
+        }
+    }
+
+    /**
+     * Кэш фабрики ограничен емкостью, заданной движком.
+     */
+    @Test
+    public void testCacheIsBounded() {
+        Cache<String, String> cache = new DefinitionCacheFactory(new SimpleMeterRegistry()).createCache(2);
+
+        cache.put("a", "1");
+        cache.put("b", "2");
+        cache.put("c", "3");
+
+        assertThat(cache.size()).isLessThanOrEqualTo(2);
+    }
+
+    /**
+     * Кэш движка подключен с метриками попаданий по виду определения.
+     */
+    @Test
+    public void testEngineCacheIsMetered() {
+        definitionWarmUp.warmUp();
+
+        assertThat(meterRegistry.find("cache.gets").tag("cache", PROCESS_DEFINITION_CACHE).functionCounters())
+            .extracting(counter -> counter.getId().getTag("result"))
+            .contains("hit", "miss");
+        assertThat(meterRegistry.find("cache.size").tag("cache", "camunda-bpmn-model-instance").gauge()).isNotNull();
+    }
+
+    /**
+     * Кэш выражений обернул ExpressionManager тестового профиля: повторный разбор того же текста -
+     * попадание в кэш, выражение разрешается так же, как без кэша.
+     */
+    @Test
+    public void testRepeatedExpressionIsServedFromCache() {
+        // Given
+        ExpressionManager expressionManager = configuration().getExpressionManager();
+        String text = "${cached" + System.nanoTime() + "}";
+        double hitsBefore = expressionGets("hit");
+        double missesBefore = expressionGets("miss");
+
+        // When
+        Expression first = expressionManager.createExpression(text);
+        Expression second = expressionManager.createExpression(text);
+
+        // Then
+        assertThat(second).isSameAs(first);
+        assertThat(expressionGets("miss") - missesBefore).isEqualTo(1);
+        assertThat(expressionGets("hit") - hitsBefore).isEqualTo(1);
+        assertThat(expressionManager.getClass().getSimpleName()).isEqualTo("CachingExpressionManager");
+    }
+
+    /**
+     * Число кэшированных выражений не превышает camunda.definition-cache.expression-maximum-size.
+     */
+    @Test
+    public void testExpressionCacheIsBounded() {
+        // Given
+        ExpressionManager expressionManager = configuration().getExpressionManager();
+        int maximumSize = definitionCacheProperties.getExpressionMaximumSize();
+
+        // When
+        for (int i = 0; i < maximumSize + 100; i++) {
+            expressionManager.createExpression("${bounded" + i + "}");
+        }
+
+        // Then
+        Gauge size = meterRegistry.find("cache.size").tag("cache", EXPRESSION_CACHE).gauge();
+        assertThat(size).isNotNull();
+        assertThat(size.value()).isLessThanOrEqualTo(maximumSize);
+        assertThat(meterRegistry.find("cache.evictions").tag("cache", EXPRESSION_CACHE).functionCounter().count())
+            .isPositive();
+    }
+
+    private double expressionGets(String result) {
+        FunctionCounter counter = meterRegistry.find("cache.gets")
+            .tags("cache", EXPRESSION_CACHE, "result", result)
+            .functionCounter();
+        return counter != null ? counter.count() : 0;
+    }
+
+    private long timeFirstStart() {
+        long start = System.nanoTime();
+        runtimeService.startProcessInstanceByKey(PROCESS_KEY,
+            withVariables("SERVICE_API", "http://mock-service:9999"));
+        return System.nanoTime() - start;
+    }
+
+    private double misses() {
+        FunctionCounter counter = meterRegistry.find("cache.gets")
+            .tags("cache", PROCESS_DEFINITION_CACHE, "result", "miss")
+            .functionCounter();
+        return counter != null ? counter.count() : 0;
+    }
+
+    private void discardDefinitionCaches() {
+        DeploymentCache deploymentCache = configuration().getDeploymentCache();
+        deploymentCache.discardProcessDefinitionCache();
+        deploymentCache.getBpmnModelInstanceCache().clear();
+    }
+
+    private ProcessEngineConfigurationImpl configuration() {
+        return (ProcessEngineConfigurationImpl) processEngine.getProcessEngineConfiguration();
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.demo.process;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+
+import org.camunda.bpm.engine.ProcessEngine;
+import org.camunda.bpm.engine.RepositoryService;
+import org.camunda.bpm.engine.spring.SpringProcessEngineConfiguration;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
+
+import com.example.demo.deployment.DeploymentFingerprint;
+import com.example.demo.deployment.DeploymentFingerprintStore;
+import com.example.demo.deployment.FingerprintedDeploymentConfiguration;
+import com.example.demo.support.ProcessTest;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Тесты пропуска auto-deployment по хэшу ресурсов.
+ */
+@ProcessTest
+public class DeploymentFingerprintTest {
+
+    @Autowired
+    private ProcessEngine processEngine;
+
+    @Autowired
+    private RepositoryService repositoryService;
+
+    @Autowired
+    private DeploymentFingerprintStore store;
+
+    @Autowired
+    private FingerprintedDeploymentConfiguration deploymentConfiguration;
+
+    @Test
+    public void testFingerprintStoredForDeployedResources() {
+        Resource[] resources = deploymentConfiguration.getDeploymentResources().toArray(new Resource[0]);
+
+        Optional<DeploymentFingerprintStore.StoredFingerprint> stored = store.find(processEngine.getName());
+
+        assertThat(stored).isPresent();
+        assertThat(stored.get().fingerprint()).isEqualTo(DeploymentFingerprint.of(resources));
+        assertThat(repositoryService.createDeploymentQuery().deploymentId(stored.get().deploymentId()).count())
+            .isEqualTo(1);
+    }
+
+    @Test
+    public void testUnchangedResourcesAreNotDeployed() {
+        SpringProcessEngineConfiguration configuration = new SpringProcessEngineConfiguration();
+
+        deploymentConfiguration.preInit(configuration);
+
+        assertThat(configuration.getDeploymentResources()).isEmpty();
+    }
+
+    @Test
+    public void testFingerprintIgnoresOrderAndTracksContent() {
+        Resource first = resource("a.bpmn", "<a/>");
+        Resource second = resource("b.bpmn", "<b/>");
+
+        assertThat(DeploymentFingerprint.of(first, second)).isEqualTo(DeploymentFingerprint.of(second, first));
+        assertThat(DeploymentFingerprint.of(first, second))
+            .isNotEqualTo(DeploymentFingerprint.of(first, resource("b.bpmn", "<b id=\"changed\"/>")));
+        assertThat(DeploymentFingerprint.of(first, second))
+            .isNotEqualTo(DeploymentFingerprint.of(first, resource("c.bpmn", "<b/>")));
+    }
+
+    private static Resource resource(String filename, String content) {
+        return new ByteArrayResource(content.getBytes(StandardCharsets.UTF_8)) {
+            @Override
+            public String getFilename() {
+                return filename;
+            }
+        };
+    }
+}
@@ -0,0 +1,151 @@
+package com.example.demo.process;
+
+import java.util.List;
+
+import org.camunda.bpm.engine.ProcessEngine;
+import org.camunda.bpm.engine.RuntimeService;
+import org.camunda.bpm.engine.runtime.ProcessInstance;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import com.example.demo.confirmation.ConfirmationResult;
+import com.example.demo.confirmation.ConfirmationTokenIndex;
+import com.example.demo.confirmation.EmailConfirmation;
+import com.example.demo.confirmation.EmailConfirmationService;
+import com.example.demo.support.HttpStubServer;
+import com.example.demo.support.ProcessTest;
+
+import static org.camunda.bpm.engine.test.assertions.bpmn.BpmnAwareTests.*;
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Тесты пакетной корреляции email_confirmed_message.
+ */
+@ProcessTest
+public class EmailConfirmationServiceTest {
+
+    /** Заглушка SERVICE_API для create-registration-task */
+    private HttpStubServer serviceApi;
+
+    @Autowired
+    private ProcessEngine processEngine;
+
+    @Autowired
+    private RuntimeService runtimeService;
+
+    @Autowired
+    private EmailConfirmationService confirmationService;
+
+    @Autowired
+    private ConfirmationTokenIndex tokenIndex;
+
+    @BeforeEach
+    public void setUp(HttpStubServer serviceApi) {
+        init(processEngine);
+        this.serviceApi = serviceApi;
+    }
+
+    private ProcessInstance startRegistration(String businessKey) {
+        ProcessInstance processInstance = runtimeService.startProcessInstanceByKey(
+            "user-registration-process",
+            businessKey,
+            withVariables("SERVICE_API", serviceApi.baseUrl())
+        );
+        execute(job(processInstance));
+        return processInstance;
+    }
+
+    private String confirmationToken(ProcessInstance processInstance) {
+        return (String) runtimeService.getVariable(processInstance.getId(), "confirmationToken");
+    }
+
+    /**
+     * Подтверждения по токену и по business key коррелируются в одной пачке.
+     */
+    @Test
+    public void testConfirmAllByTokenAndBusinessKey() {
+        // Given
+        ProcessInstance byToken = startRegistration("confirm-token-1");
+        ProcessInstance byBusinessKey = startRegistration("confirm-bk-1");
+
+        // When
+        List<ConfirmationResult> results = confirmationService.confirmAll(List.of(
+            EmailConfirmation.byToken(confirmationToken(byToken)),
+            EmailConfirmation.byBusinessKey("confirm-bk-1")));
+
+        // Then
+        assertThat(results).extracting(ConfirmationResult::status)
+            .containsExactly(ConfirmationResult.Status.CORRELATED, ConfirmationResult.Status.CORRELATED);
+        assertThat(results).extracting(ConfirmationResult::processInstanceId)
+            .containsExactly(byToken.getId(), byBusinessKey.getId());
+        assertThat(byToken).isEnded();
+        assertThat(byBusinessKey).isEnded();
+    }
+
+    /**
+     * Неизвестный токен не мешает корреляции остальных подтверждений пачки.
+     */
+    @Test
+    public void testUnknownTokenDoesNotFailBatch() {
+        // Given
+        ProcessInstance first = startRegistration("confirm-mixed-1");
+        ProcessInstance second = startRegistration("confirm-mixed-2");
+
+        // When
+        List<ConfirmationResult> results = confirmationService.confirmAll(List.of(
+            EmailConfirmation.byToken(confirmationToken(first)),
+            EmailConfirmation.byToken("unknown-token"),
+            new EmailConfirmation(null, null),
+            EmailConfirmation.byToken(confirmationToken(second))));
+
+        // Then
+        assertThat(results).extracting(ConfirmationResult::status).containsExactly(
+            ConfirmationResult.Status.CORRELATED,
+            ConfirmationResult.Status.NOT_FOUND,
+            ConfirmationResult.Status.INVALID,
+            ConfirmationResult.Status.CORRELATED);
+        assertThat(first).isEnded();
+        assertThat(second).isEnded();
+    }
+
+    /**
+     * Повторное подтверждение того же токена возвращает NOT_FOUND: экземпляр уже не ждет сообщения.
+     */
+    @Test
+    public void testRepeatedConfirmationIsNotFound() {
+        // Given
+        ProcessInstance processInstance = startRegistration("confirm-repeat-1");
+        EmailConfirmation confirmation = EmailConfirmation.byToken(confirmationToken(processInstance));
+        assertThat(confirmationService.confirm(confirmation).status()).isEqualTo(ConfirmationResult.Status.CORRELATED);
+
+        // When
+        ConfirmationResult repeated = confirmationService.confirm(confirmation);
+
+        // Then
+        assertThat(repeated.status()).isEqualTo(ConfirmationResult.Status.NOT_FOUND);
+    }
+
+    /**
+     * Токен попадает в индекс при инициализации переменных и удаляется после получения сообщения.
+     */
+    @Test
+    public void testTokenIndexFollowsReceiveTask() {
+        // Given
+        ProcessInstance processInstance = startRegistration("confirm-index-1");
+        String token = confirmationToken(processInstance);
+
+        // Then: экземпляр ожидает на ReceiveTask и находится по токену
+        assertThat(tokenIndex.find(token))
+            .get()
+            .extracting(ConfirmationTokenIndex.TokenTarget::processInstanceId)
+            .isEqualTo(processInstance.getId());
+
+        // When
+        confirmationService.confirm(EmailConfirmation.byToken(token));
+
+        // Then: запись индекса удалена вместе с завершением ReceiveTask
+        assertThat(processInstance).isEnded();
+        assertThat(tokenIndex.find(token)).isEmpty();
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.demo.process;
+
+import org.camunda.bpm.engine.ProcessEngine;
+import org.camunda.bpm.engine.RepositoryService;
+import org.camunda.bpm.engine.RuntimeService;
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.camunda.bpm.engine.repository.Deployment;
+import org.camunda.bpm.engine.runtime.ProcessInstance;
+import org.camunda.bpm.model.bpmn.Bpmn;
+import org.camunda.bpm.model.bpmn.BpmnModelInstance;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.example.demo.startup.DeferredScriptEngineResolver;
+import com.example.demo.support.ProcessTest;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Тесты режима быстрого старта (профиль fast-start): ленивая инициализация контекста
+ * и загрузка движков скриптов при первом скрипте.
+ */
+@ProcessTest(properties = {
+    "spring.main.lazy-initialization=true",
+    "camunda.scripting.deferred-engine-loading=true"
+})
+public class FastStartTest {
+
+    @Autowired
+    private ConfigurableApplicationContext applicationContext;
+
+    @Autowired
+    private ProcessEngine processEngine;
+
+    @Autowired
+    private RepositoryService repositoryService;
+
+    @Autowired
+    private RuntimeService runtimeService;
+
+    /**
+     * Движок с моделями и бины с @Scheduled создаются при старте, контроллеры - нет.
+     */
+    @Test
+    public void testWebLayerIsLazyAndEngineIsEager() {
+        assertThat(repositoryService.createProcessDefinitionQuery()
+            .processDefinitionKey("user-registration-process")
+            .count()).isPositive();
+        assertThat(applicationContext.getBeanFactory().containsSingleton("emailOutboxDispatcher")).isTrue();
+        assertThat(applicationContext.getBeanFactory().containsSingleton("emailConfirmationController")).isFalse();
+        assertThat(applicationContext.getBeanFactory().containsSingleton("bulkRegistrationController")).isFalse();
+
+        applicationContext.getBean("emailConfirmationController");
+        assertThat(applicationContext.getBeanFactory().containsSingleton("emailConfirmationController")).isTrue();
+    }
+
+    /**
+     * ScriptEngineManager создается первым скриптом, и скрипт выполняется как обычно.
+     */
+    @Test
+    public void testScriptEngineLoadedOnFirstScript() {
+        // Given
+        ProcessEngineConfigurationImpl configuration =
+            (ProcessEngineConfigurationImpl) processEngine.getProcessEngineConfiguration();
+        assertThat(configuration.getScriptEngineResolver()).isInstanceOf(DeferredScriptEngineResolver.class);
+        DeferredScriptEngineResolver resolver = (DeferredScriptEngineResolver) configuration.getScriptEngineResolver();
+        assertThat(resolver.isResolved()).isFalse();
+
+        BpmnModelInstance model = Bpmn.createExecutableProcess("fast-start-script")
+            .camundaHistoryTimeToLive(1)
+            .startEvent()
+            .scriptTask("Script_Sum")
+                .scriptFormat("groovy")
+                .scriptText("execution.setVariable('sum', 40 + 2)")
+            .userTask("Task_Wait")
+            .endEvent()
+            .done();
+        Deployment deployment = repositoryService.createDeployment()
+            .addModelInstance("fast-start-script.bpmn", model)
+            .deploy();
+        try {
+            // When
+            ProcessInstance processInstance = runtimeService.startProcessInstanceByKey("fast-start-script");
+
+            // Then
+            assertThat(runtimeService.getVariable(processInstance.getId(), "sum")).isEqualTo(42);
+            assertThat(resolver.isResolved()).isTrue();
+        } finally {
+            repositoryService.deleteDeployment(deployment.getId(), true);
+        }
+    }
+}
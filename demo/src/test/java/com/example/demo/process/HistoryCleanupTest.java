@@ -0,0 +1,205 @@
+package com.example.demo.process;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.camunda.bpm.engine.HistoryService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.parallel.Isolated;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.example.demo.history.HistoryCleanupRun;
+import com.example.demo.history.HistoryCleanupService;
+import com.example.demo.history.HistoryCleanupThrottle;
+import com.example.demo.history.HistoryCleanupWindow;
+import com.example.demo.support.ProcessTest;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Тесты потоковой очистки истории с истекшим historyTimeToLive.
+ *
+ * История засевается напрямую в ACT_HI_PROCINST и ACT_HI_VARINST: так быстрее, чем проводить
+ * десятки тысяч экземпляров через движок, а очистке важны только строки истории.
+ */
+@ProcessTest(properties = {
+    "history.cleanup.batch-size=250",
+    "history.cleanup.min-pause=0ms",
+    "history.cleanup.max-batch-duration=10s"
+})
+@Isolated("Очистка удаляет всю истекшую историю общей БД")
+public class HistoryCleanupTest {
+
+    static final String SEED_PREFIX = "cleanup-seed-";
+    static final int EXPIRED = 20_000;
+    static final int NOT_EXPIRED = 100;
+    static final int BATCH_SIZE = 250;
+
+    @Autowired
+    private HistoryCleanupService cleanupService;
+
+    @Autowired
+    private HistoryService historyService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @AfterEach
+    public void removeSeed() {
+        jdbcTemplate.update("DELETE FROM ACT_HI_VARINST WHERE PROC_INST_ID_ LIKE ?", SEED_PREFIX + "%");
+        jdbcTemplate.update("DELETE FROM ACT_HI_PROCINST WHERE ID_ LIKE ?", SEED_PREFIX + "%");
+    }
+
+    /**
+     * Истекшая история удаляется пачками не больше batch-size, backlog убывает
+     * от пачки к пачке, неистекшая история остается.
+     */
+    @Test
+    public void testExpiredHistoryDeletedInBoundedBatches() throws Exception {
+        // Given: 20000 истекших экземпляров с переменной и 100 с removal time в будущем
+        LocalDateTime now = LocalDateTime.now();
+        seed(0, EXPIRED, now.minusDays(200), now.minusDays(20));
+        seed(EXPIRED, NOT_EXPIRED, now.minusDays(1), now.plusDays(179));
+
+        // When: проход очистки, backlog снимается параллельно
+        List<Double> backlog = new CopyOnWriteArrayList<>();
+        ExecutorService sampler = Executors.newSingleThreadExecutor();
+        HistoryCleanupRun run;
+        try {
+            Future<HistoryCleanupRun> cleanup = sampler.submit(cleanupService::cleanUp);
+            while (!cleanup.isDone()) {
+                backlog.add(meterRegistry.get("history.cleanup.backlog").gauge().value());
+                Thread.sleep(10);
+            }
+            run = cleanup.get(2, TimeUnit.MINUTES);
+        } finally {
+            sampler.shutdownNow();
+        }
+
+        // Then
+        assertThat(run.deleted()).isEqualTo(EXPIRED);
+        assertThat(run.largestBatch()).isLessThanOrEqualTo(BATCH_SIZE);
+        assertThat(run.batches()).isEqualTo(EXPIRED / BATCH_SIZE);
+        // До подсчета backlog в начале прохода gauge показывает значение прошлого прохода
+        List<Double> progress = backlog.subList(backlog.indexOf(Collections.max(backlog)), backlog.size());
+        assertThat(progress).isSortedAccordingTo(Comparator.reverseOrder());
+        assertThat(progress.stream().distinct().count()).isGreaterThan(2);
+        assertThat(meterRegistry.get("history.cleanup.backlog").gauge().value()).isZero();
+        assertThat(meterRegistry.get("history.cleanup.rate").gauge().value()).isPositive();
+
+        assertThat(count("ACT_HI_PROCINST", "ID_")).isEqualTo(NOT_EXPIRED);
+        assertThat(count("ACT_HI_VARINST", "PROC_INST_ID_")).isEqualTo(NOT_EXPIRED);
+        assertThat(historyService.createHistoricProcessInstanceQuery()
+            .processInstanceId(SEED_PREFIX + (EXPIRED + 1)).count()).isEqualTo(1);
+    }
+
+    @Test
+    public void testNothingToCleanUp() {
+        // Given
+        LocalDateTime now = LocalDateTime.now();
+        seed(0, 10, now.minusDays(1), now.plusDays(179));
+
+        // When
+        HistoryCleanupRun run = cleanupService.cleanUp();
+
+        // Then
+        assertThat(run.deleted()).isZero();
+        assertThat(count("ACT_HI_PROCINST", "ID_")).isEqualTo(10);
+    }
+
+    /**
+     * Пока аренду очистки держит другой узел, проход не выполняется; после истечения аренды - выполняется.
+     */
+    @Test
+    public void testCleanupSkippedWhileAnotherNodeHoldsLease() {
+        // Given
+        LocalDateTime now = LocalDateTime.now();
+        seed(0, 10, now.minusDays(200), now.minusDays(20));
+        jdbcTemplate.update("UPDATE history_cleanup_lock SET locked_by = ?, locked_until = ? WHERE name = ?",
+            "other-node", Timestamp.valueOf(now.plusMinutes(5)), "history-cleanup");
+
+        try {
+            // When
+            HistoryCleanupRun skipped = cleanupService.cleanUp();
+
+            // Then
+            assertThat(skipped.deleted()).isZero();
+            assertThat(count("ACT_HI_PROCINST", "ID_")).isEqualTo(10);
+        } finally {
+            jdbcTemplate.update("UPDATE history_cleanup_lock SET locked_until = ? WHERE name = ?",
+                Timestamp.valueOf(now.minusSeconds(1)), "history-cleanup");
+        }
+        assertThat(cleanupService.cleanUp().deleted()).isEqualTo(10);
+    }
+
+    @Test
+    public void testWindowAcrossMidnight() {
+        HistoryCleanupWindow window = HistoryCleanupWindow.parse("22:00-06:00");
+
+        assertThat(window.contains(LocalTime.of(23, 30))).isTrue();
+        assertThat(window.contains(LocalTime.of(5, 59))).isTrue();
+        assertThat(window.contains(LocalTime.of(6, 0))).isFalse();
+        assertThat(window.contains(LocalTime.of(12, 0))).isFalse();
+        assertThat(HistoryCleanupWindow.parse("01:00-05:00").contains(LocalTime.of(0, 30))).isFalse();
+        assertThatThrownBy(() -> HistoryCleanupWindow.parse("night"))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void testThrottleBacksOffUnderLoad() {
+        HistoryCleanupThrottle throttle = new HistoryCleanupThrottle(Duration.ZERO, Duration.ofSeconds(1));
+
+        assertThat(throttle.onBatch(true)).isEqualTo(Duration.ofMillis(100));
+        assertThat(throttle.onBatch(true)).isEqualTo(Duration.ofMillis(200));
+        for (int i = 0; i < 10; i++) {
+            throttle.onBatch(true);
+        }
+        assertThat(throttle.pause()).isEqualTo(Duration.ofSeconds(1));
+        assertThat(throttle.onBatch(false)).isEqualTo(Duration.ofMillis(500));
+        for (int i = 0; i < 40; i++) {
+            throttle.onBatch(false);
+        }
+        assertThat(throttle.pause()).isZero();
+    }
+
+    private void seed(int from, int count, LocalDateTime endTime, LocalDateTime removalTime) {
+        Timestamp end = Timestamp.valueOf(endTime);
+        Timestamp removal = Timestamp.valueOf(removalTime);
+        jdbcTemplate.update(
+            "INSERT INTO ACT_HI_PROCINST (ID_, PROC_INST_ID_, ROOT_PROC_INST_ID_, PROC_DEF_KEY_, PROC_DEF_ID_,"
+                + " START_TIME_, END_TIME_, REMOVAL_TIME_, DURATION_, STATE_)"
+                + " SELECT ? || X, ? || X, ? || X, 'user-registration-process', 'user-registration-process:seed',"
+                + " ?, ?, ?, 0, 'COMPLETED' FROM SYSTEM_RANGE(?, ?)",
+            SEED_PREFIX, SEED_PREFIX, SEED_PREFIX, end, end, removal, from + 1, from + count);
+        jdbcTemplate.update(
+            "INSERT INTO ACT_HI_VARINST (ID_, PROC_INST_ID_, ROOT_PROC_INST_ID_, EXECUTION_ID_, NAME_, VAR_TYPE_,"
+                + " TEXT_, CREATE_TIME_, REV_, STATE_, REMOVAL_TIME_)"
+                + " SELECT ? || X || '-var', ? || X, ? || X, ? || X, 'userName', 'string',"
+                + " 'Seed User', ?, 0, 'CREATED', ? FROM SYSTEM_RANGE(?, ?)",
+            SEED_PREFIX, SEED_PREFIX, SEED_PREFIX, SEED_PREFIX, end, removal, from + 1, from + count);
+    }
+
+    private long count(String table, String processInstanceColumn) {
+        Long count = jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM " + table + " WHERE " + processInstanceColumn + " LIKE ?",
+            Long.class, SEED_PREFIX + "%");
+        return count != null ? count : 0;
+    }
+}
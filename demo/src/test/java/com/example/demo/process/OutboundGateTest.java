@@ -0,0 +1,189 @@
+package com.example.demo.process;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.camunda.bpm.engine.ManagementService;
+import org.camunda.bpm.engine.ProcessEngine;
+import org.camunda.bpm.engine.RuntimeService;
+import org.camunda.bpm.engine.runtime.Job;
+import org.camunda.bpm.engine.runtime.ProcessInstance;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import com.example.demo.outbound.OutboundGate;
+import com.example.demo.outbound.OutboundGateInterceptor;
+import com.example.demo.support.HttpStubServer;
+import com.example.demo.support.ProcessTest;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+import static org.camunda.bpm.engine.test.assertions.bpmn.BpmnAwareTests.*;
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Тесты gate исходящих вызовов на медленной и падающей заглушке SERVICE_API.
+ * Каждый тест использует свой путь, чтобы у него был собственный gate.
+ */
+@ProcessTest(properties = {
+    "service-api.gate.initial-limit=4",
+    "service-api.gate.max-limit=4",
+    "service-api.gate.minimum-calls=4",
+    "service-api.gate.sliding-window-size=4",
+    "service-api.gate.open-duration=1h"
+})
+public class OutboundGateTest {
+
+    /** Заглушка SERVICE_API, отвечающая с задержкой или ошибкой */
+    private HttpStubServer serviceApi;
+
+    @Autowired
+    private ProcessEngine processEngine;
+
+    @Autowired
+    private RuntimeService runtimeService;
+
+    @Autowired
+    private ManagementService managementService;
+
+    @Autowired
+    private OutboundGateInterceptor gateInterceptor;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    public void setUp(HttpStubServer serviceApi) {
+        init(processEngine);
+        this.serviceApi = serviceApi;
+    }
+
+    /**
+     * Когда медленный сервис занял все места, следующие job сразу отклоняются
+     * и откладываются на rejected-job-retry-delay без уменьшения retries.
+     */
+    @Test
+    public void testSaturatedGateReschedulesJobsWithoutConsumingRetries() throws Exception {
+        // Given: сервис отвечает за 2 секунды, одновременно выполняется 8 job при лимите 4
+        serviceApi.respondAfter(Duration.ofSeconds(2));
+        List<String> jobIds = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            jobIds.add(job(startRegistration(serviceApi.baseUrl() + "/slow")).getId());
+        }
+        int initialRetries = managementService.createJobQuery().jobId(jobIds.get(0)).singleResult().getRetries();
+
+        // When
+        Date executionStart = new Date();
+        ExecutorService threads = Executors.newFixedThreadPool(8);
+        List<CompletableFuture<Boolean>> results = new ArrayList<>();
+        for (String jobId : jobIds) {
+            results.add(CompletableFuture.supplyAsync(() -> {
+                try {
+                    managementService.executeJob(jobId);
+                    return true;
+                } catch (RuntimeException e) {
+                    return false;
+                }
+            }, threads));
+        }
+        List<String> rejectedJobIds = new ArrayList<>();
+        for (int i = 0; i < jobIds.size(); i++) {
+            if (!results.get(i).join()) {
+                rejectedJobIds.add(jobIds.get(i));
+            }
+        }
+        threads.shutdown();
+
+        // Then: вызовов не больше лимита, отклоненные job отложены не дольше чем на 2 * delay
+        assertThat(serviceApi.requests()).hasSizeLessThanOrEqualTo(4);
+        assertThat(rejectedJobIds).hasSize(8 - serviceApi.requests().size());
+        Date latestDuedate = new Date(System.currentTimeMillis() + 2000);
+        for (String jobId : rejectedJobIds) {
+            Job job = managementService.createJobQuery().jobId(jobId).singleResult();
+            assertThat(job.getRetries()).isEqualTo(initialRetries);
+            assertThat(job.getExceptionMessage()).isNull();
+            assertThat(job.getDuedate()).isAfter(executionStart).isBefore(latestDuedate);
+        }
+        assertThat(meterRegistry.get("service-api.gate.rejections")
+            .tags("endpoint", "/slow/create-user", "reason", "limit")
+            .counter()
+            .count()).isEqualTo(rejectedJobIds.size());
+    }
+
+    /**
+     * Разброс задержек здорового сервиса не уменьшает лимит: базовая задержка - средняя, а не минимальная.
+     */
+    @Test
+    public void testLatencyJitterDoesNotCollapseLimit() {
+        // Given
+        OutboundGate gate = gateInterceptor.gate("/jitter/create-user");
+        int initialLimit = gate.limit();
+
+        // When: задержки чередуются между 1 и 5 мс
+        for (int i = 0; i < 200; i++) {
+            long latencyNanos = Duration.ofMillis(i % 2 == 0 ? 1 : 5).toNanos();
+            gate.release(gate.acquire() - latencyNanos, false);
+        }
+
+        // Then
+        assertThat(gate.limit()).isEqualTo(initialLimit);
+    }
+
+    /**
+     * Лимит уменьшается, когда задержка сервиса растет.
+     */
+    @Test
+    public void testLimitAdaptsToLatency() throws Exception {
+        // Given
+        OutboundGate gate = gateInterceptor.gate("/adaptive/create-user");
+        for (int i = 0; i < 10; i++) {
+            gate.release(gate.acquire(), false);
+        }
+        int initialLimit = gate.limit();
+
+        // When: вызовы стали заметно медленнее базовой задержки
+        for (int i = 0; i < 5; i++) {
+            long start = gate.acquire();
+            Thread.sleep(20);
+            gate.release(start, false);
+        }
+
+        // Then
+        assertThat(gate.limit()).isLessThan(initialLimit);
+    }
+
+    /**
+     * После серии 5xx circuit breaker размыкается и вызовы отклоняются без обращения к сервису.
+     */
+    @Test
+    public void testCircuitOpensOnFailures() {
+        // Given
+        serviceApi.respondWith(500);
+        for (int i = 0; i < 4; i++) {
+            ProcessInstance instance = startRegistration(serviceApi.baseUrl() + "/failing");
+            assertThatThrownBy(() -> execute(job(instance))).isNotNull();
+        }
+        assertThat(gateInterceptor.gate("/failing/create-user").isCircuitOpen()).isTrue();
+
+        // When
+        serviceApi.respondWith(200);
+        ProcessInstance instance = startRegistration(serviceApi.baseUrl() + "/failing");
+
+        // Then
+        assertThatThrownBy(() -> execute(job(instance))).hasStackTraceContaining("Circuit breaker is open");
+        assertThat(serviceApi.requests()).hasSize(4);
+    }
+
+    private ProcessInstance startRegistration(String serviceApiUrl) {
+        return runtimeService.startProcessInstanceByKey(
+            "user-registration-process",
+            withVariables("SERVICE_API", serviceApiUrl)
+        );
+    }
+}
@@ -0,0 +1,214 @@
+package com.example.demo.process;
+
+import java.util.List;
+import java.util.Map;
+
+import org.camunda.bpm.engine.ProcessEngine;
+import org.camunda.bpm.engine.RuntimeService;
+import org.camunda.bpm.engine.runtime.ProcessInstance;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.parallel.Isolated;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import com.example.demo.support.HttpStubServer;
+import com.example.demo.support.ProcessTest;
+import com.example.demo.tracing.ProcessTraceEndpoint;
+import com.example.demo.tracing.ProcessTraceProperties;
+import com.example.demo.tracing.TraceEvent;
+import com.example.demo.tracing.TraceRecorder;
+
+import static org.camunda.bpm.engine.test.assertions.bpmn.BpmnAwareTests.*;
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Тесты трассировки выборочных экземпляров (camunda.tracing).
+ */
+@ProcessTest
+@Isolated("Доля выборки общая для всех тестов контекста")
+public class ProcessTraceTest {
+
+    private static final String PROCESS_KEY = "user-registration-process";
+    private static final String CREATE_REGISTRATION_TASK = "Activity_118iyp4";
+
+    /** Заглушка SERVICE_API для create-registration-task */
+    private HttpStubServer serviceApi;
+
+    @Autowired
+    private ProcessEngine processEngine;
+
+    @Autowired
+    private RuntimeService runtimeService;
+
+    @Autowired
+    private TraceRecorder traceRecorder;
+
+    @Autowired
+    private ProcessTraceEndpoint endpoint;
+
+    private double sampleRate;
+
+    @BeforeEach
+    public void setUp(HttpStubServer serviceApi) {
+        init(processEngine);
+        this.serviceApi = serviceApi;
+        sampleRate = traceRecorder.getSampleRate();
+        traceRecorder.setSampleRate(1.0);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        traceRecorder.setSampleRate(sampleRate);
+    }
+
+    /**
+     * В трассе есть start/end процесса и активностей, вызов delegate, HTTP create-user и flush
+     * транзакций старта и async continuation.
+     */
+    @Test
+    public void testTimelineOfSampledInstance() {
+        // When
+        ProcessInstance processInstance = startAndConfirm();
+
+        // Then
+        assertThat(processInstance).isEnded();
+        List<TraceEvent> events = endpoint.timeline(processInstance.getId());
+        assertThat(events.get(0).type()).isEqualTo(TraceEvent.Type.PROCESS_START);
+        assertThat(events).extracting(TraceEvent::type).contains(TraceEvent.Type.PROCESS_END);
+        assertThat(events).extracting(TraceEvent::startEpochNanos).isSorted();
+
+        TraceEvent activityStart = single(events, TraceEvent.Type.ACTIVITY_START, CREATE_REGISTRATION_TASK);
+        TraceEvent activityEnd = single(events, TraceEvent.Type.ACTIVITY_END, CREATE_REGISTRATION_TASK);
+        TraceEvent delegate = single(events, TraceEvent.Type.DELEGATE, CREATE_REGISTRATION_TASK);
+        TraceEvent http = single(events, TraceEvent.Type.HTTP, "POST /create-user");
+
+        assertThat(delegate.activityInstanceId()).isEqualTo(activityStart.activityInstanceId());
+        assertThat(http.activityInstanceId()).isEqualTo(activityStart.activityInstanceId());
+        assertThat(http.attributes()).containsEntry("http.response.status_code", "200");
+        assertThat(http.startEpochNanos()).isBetween(delegate.startEpochNanos(), delegate.endEpochNanos());
+        assertThat(delegate.endEpochNanos()).isBetween(activityStart.startEpochNanos(), activityEnd.startEpochNanos());
+        assertThat(events).filteredOn(event -> event.type() == TraceEvent.Type.DB_FLUSH)
+            .hasSizeGreaterThanOrEqualTo(2)
+            .allSatisfy(flush -> assertThat(flush.durationNanos()).isPositive());
+        assertThat((Iterable<String>) endpoint.status().get("processInstances")).contains(processInstance.getId());
+    }
+
+    /**
+     * Экспорт в OTLP JSON: одна трасса, span-ы активностей под корневым span процесса,
+     * HTTP вызов - клиентский span под своей активностью.
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testOtlpExport() {
+        // Given
+        ProcessInstance processInstance = startAndConfirm();
+
+        // When
+        Map<String, Object> export = endpoint.export(processInstance.getId(), "otlp");
+
+        // Then
+        Map<String, Object> resourceSpans = ((List<Map<String, Object>>) export.get("resourceSpans")).get(0);
+        Map<String, Object> scopeSpans = ((List<Map<String, Object>>) resourceSpans.get("scopeSpans")).get(0);
+        List<Map<String, Object>> spans = (List<Map<String, Object>>) scopeSpans.get("spans");
+
+        Map<String, Object> root = spans.get(0);
+        assertThat(root).doesNotContainKey("parentSpanId").containsEntry("name", PROCESS_KEY);
+        assertThat((String) root.get("traceId")).hasSize(32);
+        assertThat(spans).allSatisfy(span -> {
+            assertThat(span.get("traceId")).isEqualTo(root.get("traceId"));
+            assertThat(Long.parseLong((String) span.get("endTimeUnixNano")))
+                .isGreaterThanOrEqualTo(Long.parseLong((String) span.get("startTimeUnixNano")));
+        });
+        assertThat(spans).extracting(span -> span.get("spanId")).doesNotHaveDuplicates();
+
+        Map<String, Object> activity = span(spans, CREATE_REGISTRATION_TASK);
+        Map<String, Object> http = span(spans, "POST /create-user");
+        assertThat(activity).containsEntry("parentSpanId", root.get("spanId")).containsEntry("kind", 1);
+        assertThat(http).containsEntry("parentSpanId", activity.get("spanId")).containsEntry("kind", 3);
+        assertThat(span(spans, "db.flush")).containsEntry("parentSpanId", root.get("spanId"));
+    }
+
+    /**
+     * Экземпляр вне выборки не пишется.
+     */
+    @Test
+    public void testNotSampledInstanceIsNotRecorded() {
+        // Given
+        endpoint.setSampleRate(0);
+
+        // When
+        ProcessInstance processInstance = startAndConfirm();
+
+        // Then
+        assertThat(processInstance).isEnded();
+        assertThat(endpoint.timeline(processInstance.getId())).isEmpty();
+    }
+
+    /**
+     * Доля выборки соблюдается приблизительно и одинакова при повторной проверке того же id.
+     */
+    @Test
+    public void testSamplingIsDeterministic() {
+        TraceRecorder recorder = new TraceRecorder(new ProcessTraceProperties());
+        recorder.setSampleRate(0.1);
+
+        long sampled = 0;
+        for (int i = 0; i < 100_000; i++) {
+            String processInstanceId = "process-" + i;
+            boolean decision = recorder.isSampled(processInstanceId);
+            assertThat(recorder.isSampled(processInstanceId)).isEqualTo(decision);
+            sampled += decision ? 1 : 0;
+        }
+        assertThat(sampled).isBetween(9_000L, 11_000L);
+        assertThatThrownBy(() -> recorder.setSampleRate(1.5)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    /**
+     * При переполнении буфера затираются самые старые события.
+     */
+    @Test
+    public void testRingBufferOverwritesOldestEvents() {
+        ProcessTraceProperties properties = new ProcessTraceProperties();
+        properties.setBufferSize(5);
+        TraceRecorder recorder = new TraceRecorder(properties);
+
+        for (int i = 0; i < 12; i++) {
+            recorder.record("process", TraceEvent.Type.DELEGATE, "delegate-" + i, null, i, 1, Map.of());
+        }
+
+        assertThat(recorder.capacity()).isEqualTo(8);
+        assertThat(recorder.recorded()).isEqualTo(12);
+        assertThat(recorder.events("process")).extracting(TraceEvent::name)
+            .containsExactly("delegate-4", "delegate-5", "delegate-6", "delegate-7",
+                "delegate-8", "delegate-9", "delegate-10", "delegate-11");
+    }
+
+    private ProcessInstance startAndConfirm() {
+        ProcessInstance processInstance = runtimeService.startProcessInstanceByKey(
+            PROCESS_KEY,
+            withVariables("userName", "Traced User", "SERVICE_API", serviceApi.baseUrl())
+        );
+        execute(job(processInstance));
+        runtimeService.createMessageCorrelation("email_confirmed_message")
+            .processInstanceId(processInstance.getId())
+            .setVariable("emailConfirmed", true)
+            .correlate();
+        return processInstance;
+    }
+
+    private static TraceEvent single(List<TraceEvent> events, TraceEvent.Type type, String name) {
+        List<TraceEvent> matching = events.stream()
+            .filter(event -> event.type() == type && event.name().equals(name))
+            .toList();
+        assertThat(matching).as("%s %s", type, name).hasSize(1);
+        return matching.get(0);
+    }
+
+    private static Map<String, Object> span(List<Map<String, Object>> spans, String name) {
+        return spans.stream()
+            .filter(span -> name.equals(span.get("name")))
+            .findFirst()
+            .orElseThrow(() -> new AssertionError("No span " + name));
+    }
+}
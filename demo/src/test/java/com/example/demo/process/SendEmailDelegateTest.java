@@ -2,17 +2,14 @@ package com.example.demo.process;
 
 import org.camunda.bpm.engine.RuntimeService;
 import org.camunda.bpm.engine.runtime.ProcessInstance;
-import org.camunda.bpm.engine.test.Deployment;
 import org.camunda.bpm.engine.test.mock.Mocks;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.boot.test.context.SpringBootTest;
-import org.springframework.test.context.junit.jupiter.SpringExtension;
 
 import com.example.demo.delegate.SendEmailDelegate;
+import com.example.demo.support.ProcessTest;
 
 import static org.camunda.bpm.engine.test.assertions.bpmn.BpmnAwareTests.*;
 import static org.assertj.core.api.Assertions.*;
@@ -29,9 +26,7 @@ import static org.mockito.Mockito.*;
  * 
  * Это демонстрирует преимущество Java Delegate перед HTTP Connector для тестирования.
  */
-@SpringBootTest
-@ExtendWith(SpringExtension.class)
-@Deployment(resources = "bpmn/user-registration.bpmn")
+@ProcessTest
 public class SendEmailDelegateTest {
 
     @Autowired
@@ -0,0 +1,206 @@
+package com.example.demo.process;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import org.camunda.bpm.engine.ProcessEngine;
+import org.camunda.bpm.engine.RuntimeService;
+import org.camunda.bpm.engine.runtime.ProcessInstance;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.parallel.Isolated;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.example.demo.outbox.EmailOutboxDispatcher;
+import com.example.demo.support.HttpStubServer;
+import com.example.demo.support.ProcessTest;
+
+import static org.camunda.bpm.engine.test.assertions.bpmn.BpmnAwareTests.*;
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Тесты outbox отправки email (send-email-confirmation).
+ *
+ * Делегат только записывает сообщение в email_outbox, отправку выполняет EmailOutboxDispatcher.
+ * В тестовом профиле фоновая отправка выключена, поэтому dispatch() вызывается явно.
+ */
+@ProcessTest
+@Isolated("dispatch() отправляет сообщения outbox всех тестов, а заглушка занимает фиксированный порт 8086")
+public class SendEmailOutboxTest {
+
+    /** Заглушка SERVICE_API для create-registration-task */
+    private HttpStubServer serviceApi;
+
+    /** Заглушка сервиса отправки email на адресе email.outbox.url по умолчанию */
+    private static HttpStubServer emailApi;
+
+    @Autowired
+    private ProcessEngine processEngine;
+
+    @Autowired
+    private RuntimeService runtimeService;
+
+    @Autowired
+    private EmailOutboxDispatcher dispatcher;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeAll
+    public static void startStubs() {
+        emailApi = HttpStubServer.start(8086);
+    }
+
+    @AfterAll
+    public static void stopStubs() {
+        emailApi.close();
+    }
+
+    @BeforeEach
+    public void setUp(HttpStubServer serviceApi) {
+        init(processEngine);
+        this.serviceApi = serviceApi;
+        emailApi.reset();
+        // Сообщения от других тестов в общей БД не должны попадать в пачку
+        jdbcTemplate.update("DELETE FROM email_outbox");
+    }
+
+    private ProcessInstance startRegistration(String userEmail) {
+        ProcessInstance processInstance = runtimeService.startProcessInstanceByKey(
+            "user-registration-process",
+            withVariables(
+                "userName", "Outbox User",
+                "userEmail", userEmail,
+                "SERVICE_API", serviceApi.baseUrl()
+            )
+        );
+        execute(job(processInstance));
+        return processInstance;
+    }
+
+    private Map<String, Object> outboxRow(ProcessInstance processInstance) {
+        return jdbcTemplate.queryForMap(
+            "SELECT * FROM email_outbox WHERE process_instance_id = ?", processInstance.getId());
+    }
+
+    /**
+     * Делегат записывает сообщение в outbox и не вызывает email сервис.
+     */
+    @Test
+    public void testEmailIsQueuedInOutbox() {
+        // When
+        ProcessInstance processInstance = startRegistration("queued@example.com");
+
+        // Then: процесс дошел до ReceiveTask, сообщение ожидает отправки
+        assertThat(processInstance).isWaitingAt("Activity_0g1mra7");
+        Map<String, Object> row = outboxRow(processInstance);
+        assertThat(row.get("STATUS")).isEqualTo("PENDING");
+        assertThat(row.get("RECIPIENT")).isEqualTo("queued@example.com");
+        assertThat(row.get("CONFIRMATION_TOKEN"))
+            .isEqualTo(runtimeService.getVariable(processInstance.getId(), "confirmationToken"));
+
+        assertThat(emailApi.requests()).isEmpty();
+        assertThat(runtimeService.getVariable(processInstance.getId(), "emailSent")).isNull();
+    }
+
+    /**
+     * Диспетчер отправляет сообщение и после успешного ответа выставляет emailSent/emailSentDate.
+     */
+    @Test
+    public void testDispatchSendsEmailAndSetsVariables() {
+        // Given
+        ProcessInstance processInstance = startRegistration("sent@example.com");
+
+        // When
+        int dispatched = dispatcher.dispatch();
+
+        // Then
+        assertThat(dispatched).isEqualTo(1);
+        assertThat(emailApi.requests()).hasSize(1);
+        HttpStubServer.Request request = emailApi.requests().get(0);
+        assertThat(request.method()).isEqualTo("POST");
+        assertThat(request.path()).isEqualTo("/send-email");
+        assertThat(request.body())
+            .contains("\"to\":\"sent@example.com\"")
+            .contains("\"confirmationToken\":\""
+                + runtimeService.getVariable(processInstance.getId(), "confirmationToken") + "\"");
+
+        assertThat(outboxRow(processInstance).get("STATUS")).isEqualTo("SENT");
+        assertThat(runtimeService.getVariable(processInstance.getId(), "emailSent")).isEqualTo(true);
+        assertThat(runtimeService.getVariable(processInstance.getId(), "emailSentDate")).isNotNull();
+
+        // Повторный проход ничего не отправляет
+        assertThat(dispatcher.dispatch()).isZero();
+        assertThat(emailApi.requests()).hasSize(1);
+    }
+
+    /**
+     * При ошибке email сервиса сообщение остается в outbox и откладывается до следующей попытки.
+     */
+    @Test
+    public void testFailedDispatchIsRetriedWithBackoff() {
+        // Given
+        ProcessInstance processInstance = startRegistration("retry@example.com");
+        emailApi.respondWith(500);
+
+        // When
+        dispatcher.dispatch();
+
+        // Then: попытка учтена, следующая отложена
+        Map<String, Object> row = outboxRow(processInstance);
+        assertThat(row.get("STATUS")).isEqualTo("PENDING");
+        assertThat(row.get("ATTEMPTS")).isEqualTo(1);
+        assertThat(row.get("LAST_ERROR")).isNotNull();
+        assertThat(((Timestamp) row.get("NEXT_ATTEMPT_AT")).toLocalDateTime()).isAfter(LocalDateTime.now());
+        assertThat(runtimeService.getVariable(processInstance.getId(), "emailSent")).isNull();
+
+        // До истечения задержки сообщение не отправляется повторно
+        emailApi.respondWith(200);
+        assertThat(dispatcher.dispatch()).isZero();
+        assertThat(emailApi.requests()).hasSize(1);
+    }
+
+    /**
+     * Сообщение, доставку которого не удалось отметить в процессе (конфликт с параллельным
+     * изменением экземпляра), на следующем проходе отмечается без повторной отправки.
+     */
+    @Test
+    public void testUnconfirmedDeliveryIsConfirmedWithoutResend() {
+        // Given: email отправлен, emailSent не выставлен
+        ProcessInstance processInstance = startRegistration("unconfirmed@example.com");
+        jdbcTemplate.update("UPDATE email_outbox SET status = 'DELIVERED', sent_at = ?, attempts = 1"
+            + " WHERE process_instance_id = ?", Timestamp.valueOf(LocalDateTime.now()), processInstance.getId());
+
+        // When
+        int dispatched = dispatcher.dispatch();
+
+        // Then
+        assertThat(dispatched).isZero();
+        assertThat(emailApi.requests()).isEmpty();
+        assertThat(outboxRow(processInstance).get("STATUS")).isEqualTo("SENT");
+        assertThat(runtimeService.getVariable(processInstance.getId(), "emailSent")).isEqualTo(true);
+    }
+
+    /**
+     * Если экземпляр завершился до ответа email сервиса, отправка считается завершенной.
+     */
+    @Test
+    public void testDeliveryToEndedInstanceIsFinal() {
+        // Given
+        ProcessInstance processInstance = startRegistration("ended@example.com");
+        runtimeService.deleteProcessInstance(processInstance.getId(), "test");
+
+        // When
+        dispatcher.dispatch();
+
+        // Then
+        assertThat(emailApi.requests()).hasSize(1);
+        assertThat(outboxRow(processInstance).get("STATUS")).isEqualTo("SENT");
+        assertThat(dispatcher.dispatch()).isZero();
+        assertThat(emailApi.requests()).hasSize(1);
+    }
+}
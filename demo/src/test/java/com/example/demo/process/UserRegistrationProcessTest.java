@@ -1,18 +1,25 @@
 package com.example.demo.process;
 
+import java.util.HashMap;
+import java.util.Map;
+
+import org.camunda.bpm.engine.HistoryService;
+import org.camunda.bpm.engine.ProcessEngine;
 import org.camunda.bpm.engine.RuntimeService;
+import org.camunda.bpm.engine.delegate.DelegateExecution;
 import org.camunda.bpm.engine.runtime.ProcessInstance;
-import org.camunda.bpm.engine.test.Deployment;
 import org.camunda.bpm.engine.test.mock.Mocks;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.boot.test.context.SpringBootTest;
-import org.springframework.test.context.junit.jupiter.SpringExtension;
 
 import com.example.demo.delegate.SendEmailDelegate;
+import com.example.demo.support.HttpStubServer;
+import com.example.demo.support.ProcessTest;
+import com.example.demo.support.ProcessTestScope;
+import com.example.demo.support.SqlStatementsExtension;
 
 import static org.camunda.bpm.engine.test.assertions.bpmn.BpmnAwareTests.*;
 import static org.assertj.core.api.Assertions.*;
@@ -23,32 +30,42 @@ import static org.mockito.Mockito.*;
  * Тесты для процесса регистрации пользователя (user-registration-process).
  * 
  * Демонстрирует два подхода к Service Tasks:
- * 1. HTTP Connector (create-registration-task) - использует ${SERVICE_API} из env переменных
+ * 1. CreateRegistrationDelegate (create-registration-task) - async HTTP вызов ${SERVICE_API}/create-user
  * 2. Java Delegate (send-email-confirmation) - через делегат с моками
  * 
- * ВАЖНО: HTTP Connector будет пытаться сделать реальный запрос к ${SERVICE_API}/create-user
- * В тестах SERVICE_API=http://mock-service:9999 (см. application-test.properties)
- * Для полной изоляции используйте WireMock или MockServer
+ * ВАЖНО: create-registration-task делает реальный запрос к ${SERVICE_API}/create-user,
+ * в тестах SERVICE_API указывает на локальную заглушку HttpStubServer
  * 
  * Также тестируются:
  * - Инициализация переменных через скрипт
  * - Получение сообщения (ReceiveTask)
- * - Вызов CallActivity
+ * - Выбор следующего процесса по DMN решению next-process (business rule task)
  */
-@SpringBootTest
-@ExtendWith(SpringExtension.class)
-@Deployment(resources = "bpmn/user-registration.bpmn")
+@ProcessTest
+@ExtendWith(SqlStatementsExtension.class)
 public class UserRegistrationProcessTest {
 
+    /** Заглушка SERVICE_API для create-registration-task */
+    private HttpStubServer serviceApi;
+
+    @Autowired
+    private ProcessEngine processEngine;
+
     @Autowired
     private RuntimeService runtimeService;
 
+    @Autowired
+    private HistoryService historyService;
+
     private SendEmailDelegate sendEmailDelegate;
 
     @BeforeEach
-    public void setUp() {
+    public void setUp(HttpStubServer serviceApi) {
+        init(processEngine);
+        this.serviceApi = serviceApi;
+
         // Создаем мок только для SendEmailDelegate
-        // CreateRegistrationTask использует HTTP connector с ${SERVICE_API}
+        // CreateRegistrationTask ходит в заглушку SERVICE_API
         sendEmailDelegate = Mockito.mock(SendEmailDelegate.class);
         
         // Регистрируем мок делегата в Camunda
@@ -61,14 +78,25 @@ public class UserRegistrationProcessTest {
      * не доступны напрямую в Camunda Expression Language.
      */
     private ProcessInstance startProcessWithServiceApi(String userName, String userEmail) {
-        return runtimeService.startProcessInstanceByKey(
+        ProcessInstance processInstance = runtimeService.startProcessInstanceByKey(
             "user-registration-process",
             withVariables(
                 "userName", userName,
                 "userEmail", userEmail,
-                "SERVICE_API", "http://mock-service:9999" // Передаем SERVICE_API как переменную
+                "SERVICE_API", serviceApi.baseUrl()
             )
         );
+        // create-registration-task - async continuation, выполняем его job явно
+        execute(job(processInstance));
+        return processInstance;
+    }
+
+    private Object historicVariable(ProcessInstance processInstance, String name) {
+        return historyService.createHistoricVariableInstanceQuery()
+            .processInstanceId(processInstance.getId())
+            .variableName(name)
+            .singleResult()
+            .getValue();
     }
 
     /**
@@ -99,7 +127,7 @@ public class UserRegistrationProcessTest {
         assertThat(processInstance).isWaitingAt("Activity_0g1mra7");
 
         // Проверяем, что делегат SendEmail был вызван
-        // Примечание: create-registration-task использует HTTP connector (не делегат)
+        // Примечание: create-registration-task вызывает заглушку SERVICE_API, а не этот мок
         verify(sendEmailDelegate, times(1)).execute(any());
 
         // When: Отправляем сообщение для продолжения процесса (симуляция подтверждения email)
@@ -108,14 +136,8 @@ public class UserRegistrationProcessTest {
             .setVariable("emailConfirmed", true)
             .correlate();
 
-        // Then: Проверяем, что процесс перешел к CallActivity
-        assertThat(processInstance).isWaitingAt("Activity_0k5uvzl");
-
-        // When: Выполняем CallActivity (мокируем выполнение подпроцесса)
-        execute(job());
-
-        // Then: Проверяем, что процесс завершился
-        assertThat(processInstance).isEnded();
+        // Then: business rule task выполняется синхронно, процесс завершился
+        assertThat(processInstance).hasPassed("Activity_RouteNextProcess").isEnded();
     }
 
     /**
@@ -138,42 +160,31 @@ public class UserRegistrationProcessTest {
     }
 
     /**
-     * Тест проверки HTTP Connector (create-registration-task).
-     * Этот Service Task использует HTTP connector с переменной ${SERVICE_API}.
-     * 
-     * ВАЖНО: 
-     * - URL формируется как ${SERVICE_API}/create-user
-     * - В тестах SERVICE_API=http://mock-service:9999 (см. application-test.properties)
-     * - HTTP connector попытается сделать реальный запрос к http://mock-service:9999/create-user
-     * - Для полной изоляции используйте WireMock или MockServer
-     * 
-     * Этот тест демонстрирует подход БЕЗ делегата (только HTTP connector).
+     * Тест проверки HTTP вызова create-registration-task.
+     * Делегат выполняется как async continuation и отправляет POST ${SERVICE_API}/create-user
+     * с JSON телом, собранным из переменных процесса.
      */
     @Test
-    public void testCreateRegistrationServiceTaskWithHttpConnector() throws Exception {
-        // Given
+    public void testCreateRegistrationServiceTaskCallsServiceApi(ProcessTestScope scope) throws Exception {
+        // Given: уникальный email, иначе create-user пропускается по ключу идемпотентности прошлого теста
         String testUserName = "Test User";
-        String testUserEmail = "test.user@example.com";
+        String testUserEmail = scope.id() + "@example.com";
 
         // When: Запуск процесса
         ProcessInstance processInstance = startProcessWithServiceApi(testUserName, testUserEmail);
 
-        // Then: Проверяем, что переменные были корректно инициализированы
-        // (они будут использованы в HTTP connector для формирования payload)
-        assertThat(runtimeService.getVariable(processInstance.getId(), "userId")).isNotNull();
-        assertThat(runtimeService.getVariable(processInstance.getId(), "userName")).isEqualTo(testUserName);
-        assertThat(runtimeService.getVariable(processInstance.getId(), "userEmail")).isEqualTo(testUserEmail);
-        assertThat(runtimeService.getVariable(processInstance.getId(), "registrationDate")).isNotNull();
-
-        // Примечание: HTTP connector попытается выполнить реальный запрос к ${SERVICE_API}/create-user
-        // где SERVICE_API берется из application-test.properties (http://mock-service:9999)
-        // Тест упадет с ConnectorException, так как mock-service не существует
-        // Это нормально и демонстрирует разницу с Java Delegate подходом
-        
-        // Для production тестов:
-        // 1. Используйте WireMock: stubFor(post("/create-user").willReturn(ok()))
-        // 2. Или MockServer для имитации HTTP endpoint
-        // 3. Или переопределите SERVICE_API через @TestPropertySource
+        // Then: Заглушка SERVICE_API получила ровно один запрос create-user
+        assertThat(serviceApi.requests()).hasSize(1);
+        HttpStubServer.Request request = serviceApi.requests().get(0);
+        assertThat(request.method()).isEqualTo("POST");
+        assertThat(request.path()).isEqualTo("/create-user");
+
+        // Тело запроса собрано из переменных процесса
+        assertThat(request.body())
+            .contains("\"userId\":\"" + runtimeService.getVariable(processInstance.getId(), "userId") + "\"")
+            .contains("\"userName\":\"" + testUserName + "\"")
+            .contains("\"userEmail\":\"" + testUserEmail + "\"")
+            .contains("\"registrationDate\":");
     }
 
     /**
@@ -185,20 +196,26 @@ public class UserRegistrationProcessTest {
         String testUserName = "Test User";
         String testUserEmail = "test.user@example.com";
 
+        // Переменные читаются внутри вызова делегата: после команды execution
+        // уже не привязан к контексту движка
+        Map<String, Object> delegateVariables = new HashMap<>();
+        doAnswer(invocation -> {
+            DelegateExecution execution = invocation.getArgument(0);
+            delegateVariables.put("userName", execution.getVariable("userName"));
+            delegateVariables.put("userEmail", execution.getVariable("userEmail"));
+            delegateVariables.put("confirmationToken", execution.getVariable("confirmationToken"));
+            return null;
+        }).when(sendEmailDelegate).execute(any());
+
         // When: Запуск процесса
         ProcessInstance processInstance = startProcessWithServiceApi(testUserName, testUserEmail);
 
-        // Then: Проверяем, что делегат отправки email был вызван
-        verify(sendEmailDelegate, times(1)).execute(argThat(execution -> {
-            // Проверяем переменные, переданные в делегат
-            String userName = (String) execution.getVariable("userName");
-            String userEmail = (String) execution.getVariable("userEmail");
-            String confirmationToken = (String) execution.getVariable("confirmationToken");
-
-            return testUserName.equals(userName) 
-                && testUserEmail.equals(userEmail)
-                && confirmationToken != null;
-        }));
+        // Then: Проверяем, что делегат отправки email был вызван с переменными процесса
+        verify(sendEmailDelegate, times(1)).execute(any());
+        assertThat(delegateVariables)
+            .containsEntry("userName", testUserName)
+            .containsEntry("userEmail", testUserEmail);
+        assertThat(delegateVariables.get("confirmationToken")).isNotNull();
 
         // Проверяем, что процесс остановился на ReceiveTask
         assertThat(processInstance).isWaitingAt("Activity_0g1mra7");
@@ -223,66 +240,61 @@ public class UserRegistrationProcessTest {
             .correlate();
 
         // Then: Проверяем, что процесс продолжился после получения сообщения
-        assertThat(processInstance).isWaitingAt("Activity_0k5uvzl");
-        
+        assertThat(processInstance).hasPassed("Activity_0g1mra7").isEnded();
+
         // Проверяем, что переменные из сообщения установлены
-        assertThat(runtimeService.getVariable(processInstance.getId(), "emailConfirmed")).isEqualTo(true);
-        assertThat(runtimeService.getVariable(processInstance.getId(), "confirmationDate")).isNotNull();
+        assertThat(historicVariable(processInstance, "emailConfirmed")).isEqualTo(true);
+        assertThat(historicVariable(processInstance, "confirmationDate")).isNotNull();
     }
 
     /**
-     * Тест проверки вызова CallActivity без реального выполнения подпроцесса.
+     * Тест выбора следующего процесса: business rule task записывает выходы DMN решения
+     * next-process в экземпляр, подпроцесс не создается.
      */
     @Test
-    public void testCallActivityInvocation() throws Exception {
-        // Given: Запуск процесса и прохождение до CallActivity
+    public void testNextProcessRouting() throws Exception {
+        // Given
         ProcessInstance processInstance = startProcessWithServiceApi("Test User", "test.user@example.com");
 
-        // Отправляем сообщение для перехода к CallActivity
+        // When
         runtimeService.createMessageCorrelation("email_confirmed_message")
             .processInstanceId(processInstance.getId())
             .setVariable("emailConfirmed", true)
             .correlate();
 
-        // Then: Проверяем, что процесс остановился на CallActivity
-        assertThat(processInstance).isWaitingAt("Activity_0k5uvzl");
-
-        // Проверяем, что CallActivity пытается вызвать процесс "chose-next-process"
-        // Но реальный процесс не выполняется (так как его нет в деплойменте)
-        // Это и есть проверка вызова без реального выполнения
-        
-        // Получаем информацию о текущей активности
-        assertThat(processInstance.getProcessDefinitionId()).contains("user-registration-process");
-        
-        // Проверяем, что переменные передаются в CallActivity
-        assertThat(runtimeService.getVariable(processInstance.getId(), "userName")).isNotNull();
-        assertThat(runtimeService.getVariable(processInstance.getId(), "userEmail")).isNotNull();
-        assertThat(runtimeService.getVariable(processInstance.getId(), "emailConfirmed")).isEqualTo(true);
+        // Then
+        assertThat(processInstance).hasPassed("Activity_RouteNextProcess").isEnded();
+        assertThat(historicVariable(processInstance, "nextProcess")).isEqualTo("onboarding-process");
+        assertThat(historicVariable(processInstance, "processChosen")).isEqualTo(true);
+        assertThat(historyService.createHistoricProcessInstanceQuery()
+            .superProcessInstanceId(processInstance.getId())
+            .count()).isZero();
     }
 
     /**
-     * Тест проверки передачи всех переменных в CallActivity.
+     * Тест проверки, что переменные регистрации сохраняются до завершения процесса.
      */
     @Test
-    public void testCallActivityVariablesPropagation() throws Exception {
+    public void testVariablesKeptUntilCompletion() throws Exception {
         // Given
         String testUserName = "Test User";
         String testUserEmail = "test.user@example.com";
-        
+
         ProcessInstance processInstance = startProcessWithServiceApi(testUserName, testUserEmail);
 
-        // Переходим к CallActivity
+        // When
         runtimeService.createMessageCorrelation("email_confirmed_message")
             .processInstanceId(processInstance.getId())
             .setVariable("emailConfirmed", true)
             .correlate();
 
-        // Then: Проверяем, что все переменные доступны в контексте перед CallActivity
-        assertThat(runtimeService.getVariable(processInstance.getId(), "userId")).isNotNull();
-        assertThat(runtimeService.getVariable(processInstance.getId(), "userName")).isEqualTo(testUserName);
-        assertThat(runtimeService.getVariable(processInstance.getId(), "userEmail")).isEqualTo(testUserEmail);
-        assertThat(runtimeService.getVariable(processInstance.getId(), "registrationDate")).isNotNull();
-        assertThat(runtimeService.getVariable(processInstance.getId(), "confirmationToken")).isNotNull();
-        assertThat(runtimeService.getVariable(processInstance.getId(), "emailConfirmed")).isEqualTo(true);
+        // Then
+        assertThat(processInstance).isEnded();
+        assertThat(historicVariable(processInstance, "userId")).isNotNull();
+        assertThat(historicVariable(processInstance, "userName")).isEqualTo(testUserName);
+        assertThat(historicVariable(processInstance, "userEmail")).isEqualTo(testUserEmail);
+        assertThat(historicVariable(processInstance, "registrationDate")).isNotNull();
+        assertThat(historicVariable(processInstance, "confirmationToken")).isNotNull();
+        assertThat(historicVariable(processInstance, "emailConfirmed")).isEqualTo(true);
     }
 }
@@ -1,113 +1,100 @@
 package com.example.demo.process;
 
+import java.util.List;
+
 import org.camunda.bpm.engine.HistoryService;
+import org.camunda.bpm.engine.ProcessEngine;
+import org.camunda.bpm.engine.RepositoryService;
 import org.camunda.bpm.engine.RuntimeService;
+import org.camunda.bpm.engine.history.HistoricVariableInstance;
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.camunda.bpm.engine.repository.Deployment;
+import org.camunda.bpm.engine.repository.ProcessDefinition;
 import org.camunda.bpm.engine.runtime.ProcessInstance;
-import org.camunda.bpm.engine.test.Deployment;
-import org.camunda.bpm.engine.test.mock.Mocks;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.boot.test.context.SpringBootTest;
-import org.springframework.test.context.junit.jupiter.SpringExtension;
 
-import com.example.demo.delegate.SendEmailDelegate;
+import com.example.demo.support.ProcessTest;
+import com.example.demo.support.ProcessTestScope;
+import com.example.demo.support.SqlStatementsExtension;
 
 import static org.camunda.bpm.engine.test.assertions.bpmn.BpmnAwareTests.*;
 import static org.assertj.core.api.Assertions.*;
 
 /**
- * Тест процесса регистрации пользователя с реальным выполнением CallActivity.
- * 
+ * Тест подпроцесса chose-next-process с реальным выполнением CallActivity.
+ *
+ * user-registration-process выбирает следующий процесс business rule task-ом без подпроцесса,
+ * поэтому chose-next-process вызывается из тестового процесса chose-next-process-caller
+ * (src/test/resources/bpmn), который передает переменные так же, как раньше регистрация.
+ *
  * Демонстрирует:
- * - HTTP Connector (create-registration-task) - без делегата
- * - Java Delegate (send-email-confirmation) - с моком
  * - CallActivity с реальным выполнением подпроцесса
+ * - DMN решение next-process внутри подпроцесса
+ * - variables.mapping=selective
  */
-@SpringBootTest
-@ExtendWith(SpringExtension.class)
-@Deployment(resources = {
-    "bpmn/user-registration.bpmn",
-    "bpmn/chose-next-process.bpmn"
-})
+@ProcessTest
+@ExtendWith(SqlStatementsExtension.class)
 public class UserRegistrationProcessWithSubprocessTest {
 
+    static final String CALLER_PROCESS_KEY = "chose-next-process-caller";
+
+    @Autowired
+    private ProcessEngine processEngine;
+
     @Autowired
     private RuntimeService runtimeService;
 
     @Autowired
     private HistoryService historyService;
 
-    private SendEmailDelegate sendEmailDelegate;
+    @Autowired
+    private RepositoryService repositoryService;
 
     @BeforeEach
     public void setUp() {
-        // Создаем мок только для SendEmailDelegate
-        // CreateRegistrationTask использует HTTP connector напрямую (не делегат)
-        sendEmailDelegate = Mockito.mock(SendEmailDelegate.class);
-        
-        // Регистрируем мок делегата в Camunda
-        Mocks.register("sendEmailDelegate", sendEmailDelegate);
+        init(processEngine);
     }
-    
+
     /**
-     * Вспомогательный метод для запуска процесса с SERVICE_API переменной.
+     * Запуск вызывающего процесса с переменными регистрации после подтверждения email.
      */
-    private ProcessInstance startProcessWithServiceApi(String userName, String userEmail) {
+    private ProcessInstance startCaller(String userName, String userEmail) {
         return runtimeService.startProcessInstanceByKey(
-            "user-registration-process",
+            CALLER_PROCESS_KEY,
             withVariables(
                 "userName", userName,
                 "userEmail", userEmail,
-                "SERVICE_API", "http://mock-service:9999"
+                "confirmationToken", "caller-token",
+                "emailConfirmed", true
             )
         );
     }
 
+    private Object historicVariable(String processInstanceId, String name) {
+        return historyService.createHistoricVariableInstanceQuery()
+            .processInstanceId(processInstanceId)
+            .variableName(name)
+            .singleResult()
+            .getValue();
+    }
+
     /**
-     * Тест полного прохождения процесса регистрации с выполнением подпроцесса.
      * CallActivity реально выполняет процесс chose-next-process.
      */
     @Test
     public void testCompleteFlowWithSubprocess() throws Exception {
-        // Given: Подготовка входных данных
-        String testUserName = "Test User With Subprocess";
-        String testUserEmail = "test.subprocess@example.com";
-
-        // When: Запуск процесса с входными переменными
-        ProcessInstance processInstance = startProcessWithServiceApi(testUserName, testUserEmail);
-
-        // Then: Проверяем, что процесс запущен и остановился на ReceiveTask
-        assertThat(processInstance).isNotNull();
-        assertThat(processInstance).isWaitingAt("Activity_0g1mra7");
-
-        // When: Отправляем сообщение для продолжения процесса
-        runtimeService.createMessageCorrelation("email_confirmed_message")
-            .processInstanceId(processInstance.getId())
-            .setVariable("emailConfirmed", true)
-            .correlate();
+        // When
+        ProcessInstance processInstance = startCaller("Test User With Subprocess", "test.subprocess@example.com");
 
-        // Then: Процесс должен завершиться, так как подпроцесс выполнится полностью
+        // Then: Процесс завершился, так как подпроцесс выполнился полностью
         assertThat(processInstance).isEnded();
 
         // Проверяем, что переменные из подпроцесса были установлены
-        assertThat(
-            (String) historyService.createHistoricVariableInstanceQuery()
-                .processInstanceId(processInstance.getId())
-                .variableName("nextProcess")
-                .singleResult()
-                .getValue()
-        ).isEqualTo("onboarding-process");
-        
-        assertThat(
-            (Boolean) historyService.createHistoricVariableInstanceQuery()
-                .processInstanceId(processInstance.getId())
-                .variableName("processChosen")
-                .singleResult()
-                .getValue()
-        ).isTrue();
+        assertThat(historicVariable(processInstance.getId(), "nextProcess")).isEqualTo("onboarding-process");
+        assertThat(historicVariable(processInstance.getId(), "processChosen")).isEqualTo(true);
     }
 
     /**
@@ -120,41 +107,133 @@ public class UserRegistrationProcessWithSubprocessTest {
         String testUserEmail = "variable.test@example.com";
 
         // When
-        ProcessInstance processInstance = startProcessWithServiceApi(testUserName, testUserEmail);
-
-        // Отправляем сообщение
-        runtimeService.createMessageCorrelation("email_confirmed_message")
-            .processInstanceId(processInstance.getId())
-            .setVariable("emailConfirmed", true)
-            .correlate();
+        ProcessInstance processInstance = startCaller(testUserName, testUserEmail);
 
-        // Then: Процесс завершен
+        // Then
         assertThat(processInstance).isEnded();
+        assertThat(historicVariable(processInstance.getId(), "userName")).isEqualTo(testUserName);
+        assertThat(historicVariable(processInstance.getId(), "userEmail")).isEqualTo(testUserEmail);
 
-        // Проверяем, что все переменные корректно прошли через весь процесс
-        assertThat(
-            (String) historyService.createHistoricVariableInstanceQuery()
-                .processInstanceId(processInstance.getId())
-                .variableName("userName")
-                .singleResult()
-                .getValue()
-        ).isEqualTo(testUserName);
+        // Переменные, установленные в подпроцессе, должны быть доступны в родительском процессе
+        assertThat(historicVariable(processInstance.getId(), "nextProcess")).isNotNull();
+    }
 
-        assertThat(
-            (String) historyService.createHistoricVariableInstanceQuery()
-                .processInstanceId(processInstance.getId())
-                .variableName("userEmail")
-                .singleResult()
-                .getValue()
-        ).isEqualTo(testUserEmail);
+    /**
+     * CallActivity в режиме variables.mapping=selective передает в подпроцесс только variables.reads
+     * и возвращает только variables.writes из контракта chose-next-process.
+     */
+    @Test
+    public void testSelectiveVariableMappingToSubprocess() throws Exception {
+        // When
+        ProcessInstance processInstance = startCaller("Selective User", "selective@example.com");
+
+        // Then: в подпроцессе только входы контракта и переменные, которые он записал
+        String subprocessInstanceId = historyService.createHistoricProcessInstanceQuery()
+            .superProcessInstanceId(processInstance.getId())
+            .singleResult()
+            .getId();
+        List<String> subprocessVariables = historyService.createHistoricVariableInstanceQuery()
+            .processInstanceId(subprocessInstanceId)
+            .list()
+            .stream()
+            .map(HistoricVariableInstance::getName)
+            .toList();
+        assertThat(subprocessVariables)
+            .containsExactlyInAnyOrder("userName", "emailConfirmed", "nextProcess", "processChosen");
+
+        // Результат подпроцесса вернулся в родительский процесс
+        assertThat(historicVariable(processInstance.getId(), "nextProcess")).isEqualTo("onboarding-process");
+    }
 
-        // Переменные, установленные в подпроцессе, должны быть доступны в родительском процессе
-        assertThat(
-            (String) historyService.createHistoricVariableInstanceQuery()
-                .processInstanceId(processInstance.getId())
-                .variableName("nextProcess")
+    /**
+     * Контракт берется у вызываемой версии: повторный разбор старой версии (после вытеснения
+     * из кэша определений) не подменяет контракт последней.
+     */
+    @Test
+    public void testContractOfCalledVersionIsUsed(ProcessTestScope scope) {
+        // Given: две версии вызываемого процесса с разными variables.reads
+        String calleeKey = scope.businessKey("callee");
+        String callerKey = scope.businessKey("caller");
+        List<Deployment> deployments = List.of(
+            deploy(callerKey, callerXml(callerKey, calleeKey)),
+            deploy(calleeKey, calleeXml(calleeKey, "first")),
+            deploy(calleeKey, calleeXml(calleeKey, "second")));
+        try {
+            ProcessDefinition firstVersion = repositoryService.createProcessDefinitionQuery()
+                .processDefinitionKey(calleeKey)
+                .processDefinitionVersion(1)
+                .singleResult();
+            ProcessEngineConfigurationImpl configuration =
+                (ProcessEngineConfigurationImpl) processEngine.getProcessEngineConfiguration();
+            configuration.getDeploymentCache().discardProcessDefinitionCache();
+            repositoryService.getProcessDefinition(firstVersion.getId());
+
+            // When
+            ProcessInstance processInstance = runtimeService.startProcessInstanceByKey(callerKey,
+                withVariables("first", 1, "second", 2));
+
+            // Then: в подпроцесс передана только переменная из контракта второй версии
+            String subprocessInstanceId = historyService.createHistoricProcessInstanceQuery()
+                .superProcessInstanceId(processInstance.getId())
                 .singleResult()
-                .getValue()
-        ).isNotNull();
+                .getId();
+            assertThat(historyService.createHistoricVariableInstanceQuery()
+                .processInstanceId(subprocessInstanceId)
+                .list())
+                .extracting(HistoricVariableInstance::getName)
+                .containsExactly("second");
+        } finally {
+            deployments.forEach(deployment -> repositoryService.deleteDeployment(deployment.getId(), true));
+        }
+    }
+
+    private Deployment deploy(String processKey, String xml) {
+        return repositoryService.createDeployment()
+            .addString(processKey + ".bpmn", xml)
+            .deploy();
+    }
+
+    private static String callerXml(String callerKey, String calleeKey) {
+        return """
+            <?xml version="1.0" encoding="UTF-8"?>
+            <bpmn:definitions xmlns:bpmn="http://www.omg.org/spec/BPMN/20100524/MODEL"
+                xmlns:camunda="http://camunda.org/schema/1.0/bpmn" id="Definitions_%1$s" targetNamespace="test">
+              <bpmn:process id="%1$s" isExecutable="true" camunda:historyTimeToLive="1">
+                <bpmn:startEvent id="start" />
+                <bpmn:sequenceFlow id="toCall" sourceRef="start" targetRef="call" />
+                <bpmn:callActivity id="call" calledElement="%2$s">
+                  <bpmn:extensionElements>
+                    <camunda:properties>
+                      <camunda:property name="variables.mapping" value="selective" />
+                    </camunda:properties>
+                    <camunda:in variables="all" />
+                    <camunda:out variables="all" />
+                  </bpmn:extensionElements>
+                </bpmn:callActivity>
+                <bpmn:sequenceFlow id="toEnd" sourceRef="call" targetRef="end" />
+                <bpmn:endEvent id="end" />
+              </bpmn:process>
+            </bpmn:definitions>
+            """.formatted(callerKey, calleeKey);
+    }
+
+    private static String calleeXml(String calleeKey, String reads) {
+        return """
+            <?xml version="1.0" encoding="UTF-8"?>
+            <bpmn:definitions xmlns:bpmn="http://www.omg.org/spec/BPMN/20100524/MODEL"
+                xmlns:camunda="http://camunda.org/schema/1.0/bpmn" id="Definitions_%1$s" targetNamespace="test">
+              <bpmn:process id="%1$s" isExecutable="true" camunda:historyTimeToLive="1">
+                <bpmn:extensionElements>
+                  <camunda:properties>
+                    <camunda:property name="variables.reads" value="%2$s" />
+                    <camunda:property name="variables.writes" value="" />
+                  </camunda:properties>
+                </bpmn:extensionElements>
+                <bpmn:startEvent id="start" />
+                <bpmn:sequenceFlow id="toEnd" sourceRef="start" targetRef="end" />
+                <bpmn:endEvent id="end" />
+              </bpmn:process>
+            </bpmn:definitions>
+            """.formatted(calleeKey, reads);
     }
 }
@@ -0,0 +1,129 @@
+package com.example.demo.process;
+
+import java.util.UUID;
+
+import org.camunda.bpm.engine.ProcessEngine;
+import org.camunda.bpm.engine.RuntimeService;
+import org.camunda.bpm.engine.runtime.ProcessInstance;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import com.example.demo.support.HttpStubServer;
+import com.example.demo.support.ProcessTest;
+import com.example.demo.support.SqlStatementCount;
+import com.example.demo.support.SqlStatementCounter;
+import com.example.demo.support.SqlStatementsExtension;
+
+import static org.camunda.bpm.engine.test.assertions.bpmn.BpmnAwareTests.*;
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Бюджеты SQL выражений на шаги user-registration-process (история full, в транзакции движка).
+ *
+ * Бюджет - базовое число выражений шага плюс {@link #MARGIN}: удвоение числа выражений на любом
+ * шаге тест не пропустит. Если тест упал после изменения модели или движка, сравните разбивку
+ * по командам в отчете теста (report entry "sql") с разбивкой у базового значения и обновите его.
+ */
+@ProcessTest
+@ExtendWith(SqlStatementsExtension.class)
+public class UserRegistrationSqlBudgetTest {
+
+    /** Допустимый рост над базовым числом выражений шага */
+    static final int MARGIN = 5;
+
+    /**
+     * Старт экземпляра до async continuation create-registration-task: 28 выражений.
+     * SELECT последней версии определения 1; ACT_RU_EXECUTION 1, ACT_RU_VARIABLE 6 (3 входа и 3 из
+     * InitVariablesDelegate), ACT_RU_JOB 1; ACT_HI_PROCINST 1, ACT_HI_ACTINST 2, ACT_HI_VARINST 6,
+     * ACT_HI_DETAIL 8 (6 созданий и повторная запись userName, userEmail), ACT_HI_JOB_LOG 1;
+     * confirmation_token_index 1.
+     */
+    static final int START_BASELINE = 28;
+    static final int START_BUDGET = START_BASELINE + MARGIN;
+
+    /**
+     * Поиск и выполнение job create-registration-task до ReceiveTask Activity_0g1mra7: 18 выражений.
+     * SELECT: job из теста 2, job 1, execution 1, переменные 1, create_user_dedup 1, подписки execution 1,
+     * инцидент job 1, job-ы execution 1; INSERT: create_user_dedup 1, email_outbox 1, ACT_RU_EVENT_SUBSCR 1,
+     * ACT_HI_ACTINST 3, ACT_HI_JOB_LOG 1; UPDATE ACT_RU_EXECUTION 1; DELETE ACT_RU_JOB 1.
+     */
+    static final int CREATE_REGISTRATION_BASELINE = 18;
+    static final int CREATE_REGISTRATION_BUDGET = CREATE_REGISTRATION_BASELINE + MARGIN;
+
+    /**
+     * Корреляция email_confirmed_message до завершения экземпляра (business rule task
+     * Activity_RouteNextProcess, удаление runtime строк и закрытие истории): 65 выражений.
+     * SELECT: execution по подписке 1, подписка 1, переменные 1, job-ы, задачи, инциденты и внешние
+     * задачи execution 4, ACT_HI_ACTINST 1, ACT_HI_PROCINST 1, ACT_HI_VARINST 6;
+     * INSERT: ACT_HI_ACTINST 2, ACT_HI_VARINST 3, ACT_HI_DETAIL 12; UPDATE: ACT_HI_ACTINST 1,
+     * ACT_HI_PROCINST 1, ACT_HI_VARINST 6, removal time истории экземпляра 16;
+     * DELETE: подписка 1, confirmation_token_index 1, ACT_RU_VARIABLE 6, ACT_RU_EXECUTION 1.
+     */
+    static final int CORRELATION_BASELINE = 65;
+    static final int CORRELATION_BUDGET = CORRELATION_BASELINE + MARGIN;
+
+    /** Заглушка SERVICE_API для create-registration-task */
+    private HttpStubServer serviceApi;
+
+    @Autowired
+    private ProcessEngine processEngine;
+
+    @Autowired
+    private RuntimeService runtimeService;
+
+    @BeforeEach
+    public void setUp(HttpStubServer serviceApi) {
+        init(processEngine);
+        this.serviceApi = serviceApi;
+    }
+
+    @Test
+    public void testStartToReceiveTaskStatementBudget() throws Exception {
+        // Прогрев: определение процесса и его разбор попадают в кэш движка
+        ProcessInstance warmUp = start();
+        execute(job(warmUp));
+
+        // When
+        ProcessInstance[] processInstance = new ProcessInstance[1];
+        SqlStatementCount startCount = SqlStatementCounter.measure(() -> processInstance[0] = start());
+        SqlStatementCount jobCount = SqlStatementCounter.measure(() -> execute(job(processInstance[0])));
+
+        // Then
+        assertThat(processInstance[0]).isWaitingAt("Activity_0g1mra7");
+        assertThat(startCount.total()).as(startCount.report()).isLessThanOrEqualTo(START_BUDGET);
+        assertThat(startCount.commands()).as(startCount.report()).isEqualTo(1);
+        assertThat(jobCount.total()).as(jobCount.report()).isLessThanOrEqualTo(CREATE_REGISTRATION_BUDGET);
+        // Поиск job и его выполнение - две команды, запись только в выполнении
+        assertThat(jobCount.flushes()).as(jobCount.report()).isEqualTo(1);
+    }
+
+    @Test
+    public void testCorrelationStatementBudget() throws Exception {
+        // Given
+        ProcessInstance processInstance = start();
+        execute(job(processInstance));
+
+        // When
+        SqlStatementCount count = SqlStatementCounter.measure(() -> runtimeService
+            .createMessageCorrelation("email_confirmed_message")
+            .processInstanceId(processInstance.getId())
+            .setVariable("emailConfirmed", true)
+            .correlate());
+
+        // Then
+        assertThat(processInstance).isEnded();
+        assertThat(count.total()).as(count.report()).isLessThanOrEqualTo(CORRELATION_BUDGET);
+        assertThat(count.deletes()).as(count.report()).isPositive();
+    }
+
+    private ProcessInstance start() {
+        return runtimeService.startProcessInstanceByKey(
+            "user-registration-process",
+            // Уникальный email: create-user вызывается в каждом экземпляре, а не берется по ключу идемпотентности
+            withVariables("userName", "Budget User", "userEmail", "budget-" + UUID.randomUUID() + "@example.com",
+                "SERVICE_API", serviceApi.baseUrl())
+        );
+    }
+}
@@ -0,0 +1,157 @@
+package com.example.demo.process;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.camunda.bpm.engine.ProcessEngine;
+import org.camunda.bpm.engine.RuntimeService;
+import org.camunda.bpm.engine.runtime.ProcessInstance;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.example.demo.support.HttpStubServer;
+import com.example.demo.support.ProcessTest;
+import com.example.demo.variables.PackedVariables;
+import com.example.demo.variables.PackedVariablesType;
+import com.example.demo.variables.VariablePacking;
+
+import static org.camunda.bpm.engine.test.assertions.bpmn.BpmnAwareTests.*;
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Тесты упаковки переменных регистрации (camunda.variable-packing.enabled=true).
+ */
+@ProcessTest(properties = "camunda.variable-packing.enabled=true")
+public class VariablePackingTest {
+
+    /** Заглушка SERVICE_API для create-registration-task */
+    private HttpStubServer serviceApi;
+
+    @Autowired
+    private ProcessEngine processEngine;
+
+    @Autowired
+    private RuntimeService runtimeService;
+
+    @Autowired
+    private VariablePacking variablePacking;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    public void setUp(HttpStubServer serviceApi) {
+        init(processEngine);
+        this.serviceApi = serviceApi;
+    }
+
+    private ProcessInstance startRegistration() {
+        ProcessInstance processInstance = runtimeService.startProcessInstanceByKey(
+            "user-registration-process",
+            withVariables(
+                "userName", "Packed User",
+                "userEmail", "packed-" + UUID.randomUUID() + "@example.com",
+                "SERVICE_API", serviceApi.baseUrl()
+            )
+        );
+        execute(job(processInstance));
+        return processInstance;
+    }
+
+    private PackedVariables registration(ProcessInstance processInstance) {
+        return (PackedVariables) runtimeService.getVariable(processInstance.getId(), "registration");
+    }
+
+    /**
+     * userId, confirmationToken и registrationDate хранятся одной строкой ACT_RU_VARIABLE,
+     * делегаты читают их из группы.
+     */
+    @Test
+    public void testRegistrationVariablesStoredAsOneRow() {
+        // When
+        ProcessInstance processInstance = startRegistration();
+
+        // Then
+        assertThat(processInstance).isWaitingAt("Activity_0g1mra7");
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+            "SELECT NAME_, TYPE_ FROM ACT_RU_VARIABLE WHERE PROC_INST_ID_ = ? AND NAME_ IN (?, ?, ?, ?)",
+            processInstance.getId(), "registration", "userId", "confirmationToken", "registrationDate");
+        assertThat(rows).hasSize(1);
+        assertThat(rows.get(0).get("NAME_")).isEqualTo("registration");
+        assertThat(rows.get(0).get("TYPE_")).isEqualTo(PackedVariablesType.TYPE_NAME);
+
+        PackedVariables registration = registration(processInstance);
+        assertThat(registration.asMap()).containsOnlyKeys("userId", "confirmationToken", "registrationDate");
+        assertThat(serviceApi.requests()).hasSize(1);
+        assertThat(serviceApi.requests().get(0).body())
+            .contains("\"userId\":\"" + registration.get("userId") + "\"")
+            .contains("\"registrationDate\":\"" + registration.get("registrationDate") + "\"");
+    }
+
+    /**
+     * Запись вне выполнения процесса дополняет группу, переменные вне групп пишутся как обычно.
+     */
+    @Test
+    public void testSetVariablesOutsideExecutionUpdatesGroup() {
+        // Given
+        ProcessInstance processInstance = startRegistration();
+        Object userId = registration(processInstance).get("userId");
+
+        // When
+        variablePacking.setVariables(processInstance.getId(), Map.of(
+            "emailSent", true,
+            "emailSentDate", "2026-01-15T10:30:00.123"));
+
+        // Then
+        PackedVariables registration = registration(processInstance);
+        assertThat(registration.get("userId")).isEqualTo(userId);
+        assertThat(registration.get("emailSentDate")).isEqualTo("2026-01-15T10:30:00.123");
+        assertThat(runtimeService.getVariable(processInstance.getId(), "emailSent")).isEqualTo(true);
+        assertThat(runtimeService.getVariable(processInstance.getId(), "emailSentDate")).isNull();
+    }
+
+    /**
+     * Значения возвращаются в том же виде, в котором записаны, включая строки,
+     * похожие на UUID и дату, но не в каноническом виде.
+     */
+    @Test
+    public void testPackedValuesRoundTrip() {
+        Map<String, Object> values = new HashMap<>();
+        values.put("uuid", "0f8fad5b-d9cb-469f-a165-70867728950e");
+        values.put("upperUuid", "0F8FAD5B-D9CB-469F-A165-70867728950E");
+        values.put("dateTime", "2026-01-15T10:30:00.123456789");
+        values.put("dateTimeWithZeroSeconds", "2026-01-15T10:30:00");
+        values.put("text", "Ünïcode текст");
+        values.put("nothing", null);
+        values.put("flag", true);
+        values.put("count", 42);
+        values.put("big", Long.MAX_VALUE);
+
+        PackedVariables packed = PackedVariables.of(values);
+        PackedVariables read = PackedVariables.fromBytes(packed.toBytes());
+
+        assertThat(read.asMap()).isEqualTo(values);
+        assertThat(read).isEqualTo(packed);
+    }
+
+    @Test
+    public void testUuidAndDateTimeStoredCompactly() {
+        PackedVariables packed = PackedVariables.of(Map.of(
+            "userId", "0f8fad5b-d9cb-469f-a165-70867728950e",
+            "registrationDate", "2026-01-15T10:30:00.123456789"));
+
+        // версия + число значений + имена + 1 + 16 + 1 + 12 байт значений
+        assertThat(packed.toBytes()).hasSize(3 + (2 + 6) + (2 + 16) + 1 + 16 + 1 + 12);
+    }
+
+    @Test
+    public void testUnsupportedValueRejected() {
+        assertThatThrownBy(() -> PackedVariables.of(Map.of("amount", 1.5)))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("amount");
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.demo.support;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.jupiter.api.extension.ExtensionContext;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Локальная in-process заглушка HTTP сервисов для тестов
+ * (вместо несуществующего http://mock-service:9999).
+ * Отвечает пустым JSON (по умолчанию 200 OK) и запоминает полученные запросы.
+ * Запросы обрабатываются параллельно, задержка ответа задается через {@link #respondAfter}.
+ *
+ * Заглушку SERVICE_API тесты {@link ProcessTest} получают параметром от {@link ProcessTestExtension}.
+ */
+public final class HttpStubServer implements AutoCloseable, ExtensionContext.Store.CloseableResource {
+
+    private static final byte[] RESPONSE = "{}".getBytes(StandardCharsets.UTF_8);
+
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final List<Request> requests = new CopyOnWriteArrayList<>();
+    private volatile int responseStatus = 200;
+    private volatile Duration responseDelay = Duration.ZERO;
+
+    private HttpStubServer(HttpServer server) {
+        this.server = server;
+        server.setExecutor(executor);
+    }
+
+    /**
+     * Запускает заглушку на свободном порту.
+     */
+    public static HttpStubServer start() {
+        return start(0);
+    }
+
+    public static HttpStubServer start(int port) {
+        try {
+            HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 0);
+            HttpStubServer stub = new HttpStubServer(server);
+            server.createContext("/", stub::handle);
+            server.start();
+            return stub;
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot start HTTP stub on port " + port, e);
+        }
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (InputStream body = exchange.getRequestBody()) {
+            requests.add(new Request(
+                exchange.getRequestMethod(),
+                exchange.getRequestURI().getPath(),
+                new String(body.readAllBytes(), StandardCharsets.UTF_8)));
+        }
+        if (!responseDelay.isZero()) {
+            try {
+                Thread.sleep(responseDelay.toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(responseStatus, RESPONSE.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(RESPONSE);
+        }
+    }
+
+    public String baseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    public List<Request> requests() {
+        return requests;
+    }
+
+    /**
+     * HTTP статус для последующих ответов, например 500 для проверки повторных попыток.
+     */
+    public void respondWith(int status) {
+        this.responseStatus = status;
+    }
+
+    /**
+     * Задержка перед каждым ответом, например для имитации медленного сервиса.
+     */
+    public void respondAfter(Duration delay) {
+        this.responseDelay = delay;
+    }
+
+    public void reset() {
+        requests.clear();
+        responseStatus = 200;
+        responseDelay = Duration.ZERO;
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    /**
+     * Полученный заглушкой запрос.
+     */
+    public record Request(String method, String path, String body) {
+    }
+}
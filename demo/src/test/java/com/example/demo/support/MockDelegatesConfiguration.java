@@ -0,0 +1,56 @@
+package com.example.demo.support;
+
+import java.util.Map;
+
+import org.camunda.bpm.engine.impl.cfg.AbstractProcessEnginePlugin;
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.camunda.bpm.engine.spring.SpringExpressionManager;
+import org.camunda.bpm.engine.test.mock.MockElResolver;
+import org.camunda.bpm.impl.juel.jakarta.el.CompositeELResolver;
+import org.camunda.bpm.impl.juel.jakarta.el.ELResolver;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+
+/**
+ * Выражения движка в профиле test сначала ищут имя в {@link org.camunda.bpm.engine.test.mock.Mocks}
+ * потока, затем среди Spring бинов. Так ${sendEmailDelegate} разрешается в мок теста,
+ * а параллельные тесты в других потоках видят настоящий бин или свои моки.
+ */
+@Configuration
+@Profile("test")
+public class MockDelegatesConfiguration {
+
+    /**
+     * Выполняется раньше DefinitionCachePlugin, чтобы кэш выражений обернул этот ExpressionManager.
+     */
+    @Bean
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public AbstractProcessEnginePlugin mockDelegatesPlugin(ApplicationContext applicationContext) {
+        return new AbstractProcessEnginePlugin() {
+            @Override
+            public void preInit(ProcessEngineConfigurationImpl configuration) {
+                configuration.setExpressionManager(
+                    new MockAwareExpressionManager(applicationContext, configuration.getBeans()));
+            }
+        };
+    }
+
+    static class MockAwareExpressionManager extends SpringExpressionManager {
+
+        MockAwareExpressionManager(ApplicationContext applicationContext, Map<Object, Object> beans) {
+            super(applicationContext, beans);
+        }
+
+        @Override
+        protected ELResolver createElResolver() {
+            CompositeELResolver resolver = new CompositeELResolver();
+            resolver.add(new MockElResolver());
+            resolver.add(super.createElResolver());
+            return resolver;
+        }
+    }
+}
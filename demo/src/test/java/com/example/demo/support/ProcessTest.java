@@ -0,0 +1,38 @@
+package com.example.demo.support;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.annotation.AliasFor;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+/**
+ * Тест процесса на общем Spring контексте и движке.
+ *
+ * Все классы с одинаковыми properties получают один закэшированный контекст, поэтому
+ * BPMN разворачивается один раз (auto-deployment стартера), а не на каждый класс.
+ * Классы выполняются параллельно (см. junit-platform.properties), изоляцию теста дает
+ * {@link ProcessTestExtension}: моки делегатов в потоке теста и пространство business key.
+ *
+ * Свои properties создают отдельный контекст, используйте их только там, где настройку
+ * нельзя поменять в runtime.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@Inherited
+@SpringBootTest
+@ActiveProfiles("test")
+@ExtendWith({SpringExtension.class, ProcessTestExtension.class})
+public @interface ProcessTest {
+
+    @AliasFor(annotation = SpringBootTest.class, attribute = "properties")
+    String[] properties() default {};
+}
@@ -0,0 +1,84 @@
+package com.example.demo.support;
+
+import org.camunda.bpm.engine.ProcessEngine;
+import org.camunda.bpm.engine.RuntimeService;
+import org.camunda.bpm.engine.runtime.ProcessInstance;
+import org.camunda.bpm.engine.test.assertions.bpmn.BpmnAwareTests;
+import org.camunda.bpm.engine.test.mock.Mocks;
+import org.junit.jupiter.api.extension.AfterEachCallback;
+import org.junit.jupiter.api.extension.BeforeEachCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.jupiter.api.extension.ParameterContext;
+import org.junit.jupiter.api.extension.ParameterResolver;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+/**
+ * Изоляция тестов процесса на общем движке.
+ *
+ * - Перед тестом: BpmnAwareTests.init в потоке теста (camunda-bpm-assert хранит движок в ThreadLocal).
+ * - Моки делегатов: {@link Mocks} хранит их в ThreadLocal, {@link MockDelegatesConfiguration}
+ *   подключает их к выражениям движка. После теста моки потока сбрасываются.
+ * - {@link ProcessTestScope} как параметр теста или конструктора: после теста удаляются
+ *   незавершенные экземпляры с business key этого пространства.
+ * - {@link HttpStubServer} как параметр теста или @BeforeEach метода: заглушка SERVICE_API,
+ *   одна на класс теста. Запускается при первом запросе, после каждого теста сбрасывается,
+ *   останавливается после всех тестов класса.
+ *
+ * Моки видны только в потоке теста: job должны выполняться явно (execute(job(...))),
+ * job executor в профиле test выключен.
+ */
+public class ProcessTestExtension implements BeforeEachCallback, AfterEachCallback, ParameterResolver {
+
+    private static final ExtensionContext.Namespace NAMESPACE = ExtensionContext.Namespace.create(ProcessTestExtension.class);
+
+    @Override
+    public void beforeEach(ExtensionContext context) {
+        BpmnAwareTests.init(processEngine(context));
+    }
+
+    @Override
+    public void afterEach(ExtensionContext context) {
+        Mocks.reset();
+        HttpStubServer serviceApi = classContext(context).getStore(NAMESPACE)
+            .get(HttpStubServer.class, HttpStubServer.class);
+        if (serviceApi != null) {
+            serviceApi.reset();
+        }
+        ProcessTestScope scope = context.getStore(NAMESPACE).get(ProcessTestScope.class, ProcessTestScope.class);
+        if (scope != null) {
+            RuntimeService runtimeService = processEngine(context).getRuntimeService();
+            for (ProcessInstance processInstance : runtimeService.createProcessInstanceQuery()
+                .processInstanceBusinessKeyLike(scope.businessKeyPattern())
+                .list()) {
+                // Вызванные подпроцессы удаляются вместе с родителем
+                runtimeService.deleteProcessInstanceIfExists(processInstance.getId(), "test cleanup",
+                    true, true, true, false);
+            }
+        }
+    }
+
+    @Override
+    public boolean supportsParameter(ParameterContext parameterContext, ExtensionContext extensionContext) {
+        Class<?> type = parameterContext.getParameter().getType();
+        return type == ProcessTestScope.class || type == HttpStubServer.class;
+    }
+
+    @Override
+    public Object resolveParameter(ParameterContext parameterContext, ExtensionContext extensionContext) {
+        if (parameterContext.getParameter().getType() == HttpStubServer.class) {
+            // Хранилище класса закрывает заглушку после всех тестов класса
+            return classContext(extensionContext).getStore(NAMESPACE)
+                .getOrComputeIfAbsent(HttpStubServer.class, type -> HttpStubServer.start(), HttpStubServer.class);
+        }
+        return extensionContext.getStore(NAMESPACE)
+            .getOrComputeIfAbsent(ProcessTestScope.class, type -> new ProcessTestScope(), ProcessTestScope.class);
+    }
+
+    private static ExtensionContext classContext(ExtensionContext context) {
+        return context.getTestMethod().isPresent() ? context.getParent().orElseThrow() : context;
+    }
+
+    private static ProcessEngine processEngine(ExtensionContext context) {
+        return SpringExtension.getApplicationContext(context).getBean(ProcessEngine.class);
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.demo.support;
+
+import java.util.UUID;
+
+/**
+ * Пространство одного теста в общей БД: business key экземпляров теста начинаются с {@link #id()}.
+ * После теста {@link ProcessTestExtension} удаляет незавершенные экземпляры этого пространства.
+ */
+public final class ProcessTestScope {
+
+    private final String id = "t" + UUID.randomUUID().toString().substring(0, 8);
+
+    public String id() {
+        return id;
+    }
+
+    /**
+     * Business key, уникальный для теста, например "t1a2b3c4d-user-1".
+     */
+    public String businessKey(String name) {
+        return id + "-" + name;
+    }
+
+    String businessKeyPattern() {
+        return id + "-%";
+    }
+}
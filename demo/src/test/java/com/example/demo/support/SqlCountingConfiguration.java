@@ -0,0 +1,68 @@
+package com.example.demo.support;
+
+import java.util.ArrayList;
+
+import javax.sql.DataSource;
+
+import org.camunda.bpm.engine.impl.cfg.AbstractProcessEnginePlugin;
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.camunda.bpm.engine.impl.interceptor.Command;
+import org.camunda.bpm.engine.impl.interceptor.CommandInterceptor;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+/**
+ * Подключает {@link SqlStatementCounter} ко всем тестовым контекстам профиля test:
+ * оборачивает DataSource и отмечает команды движка.
+ * Пока тест не открыл запись, обертка только передает вызовы дальше.
+ */
+@Configuration
+@Profile("test")
+public class SqlCountingConfiguration {
+
+    @Bean
+    public static BeanPostProcessor sqlCountingDataSourcePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                return bean instanceof DataSource dataSource ? SqlStatementCounter.wrap(dataSource) : bean;
+            }
+        };
+    }
+
+    @Bean
+    public AbstractProcessEnginePlugin sqlCountingCommandPlugin() {
+        return new AbstractProcessEnginePlugin() {
+            @Override
+            public void preInit(ProcessEngineConfigurationImpl configuration) {
+                if (configuration.getCustomPreCommandInterceptorsTxRequired() == null) {
+                    configuration.setCustomPreCommandInterceptorsTxRequired(new ArrayList<>());
+                }
+                if (configuration.getCustomPreCommandInterceptorsTxRequiresNew() == null) {
+                    configuration.setCustomPreCommandInterceptorsTxRequiresNew(new ArrayList<>());
+                }
+                configuration.getCustomPreCommandInterceptorsTxRequired().add(new CommandNameInterceptor());
+                configuration.getCustomPreCommandInterceptorsTxRequiresNew().add(new CommandNameInterceptor());
+            }
+        };
+    }
+
+    /**
+     * Отмечает начало и конец команды; стоит до транзакционного interceptor-а,
+     * поэтому flush сессии и commit учитываются в команде.
+     */
+    static class CommandNameInterceptor extends CommandInterceptor {
+
+        @Override
+        public <T> T execute(Command<T> command) {
+            SqlStatementCounter.enterCommand(command.getClass().getSimpleName());
+            try {
+                return next.execute(command);
+            } finally {
+                SqlStatementCounter.exitCommand();
+            }
+        }
+    }
+}
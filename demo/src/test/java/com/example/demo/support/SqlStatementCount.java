@@ -0,0 +1,124 @@
+package com.example.demo.support;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Счетчики SQL выражений за запись {@link SqlStatementCounter}.
+ *
+ * commands - число команд движка верхнего уровня, flushes - сколько из них записали
+ * в БД хотя бы одно INSERT/UPDATE/DELETE.
+ */
+public record SqlStatementCount(
+    Map<Kind, Integer> totals,
+    int commands,
+    int flushes,
+    Map<String, Map<Kind, Integer>> byCommand) {
+
+    public enum Kind {
+        SELECT, INSERT, UPDATE, DELETE, OTHER;
+
+        static Kind of(String sql) {
+            String normalized = SqlStatementCounter.normalize(sql);
+            for (Kind kind : values()) {
+                if (kind != OTHER && normalized.startsWith(kind.name())) {
+                    return kind;
+                }
+            }
+            return OTHER;
+        }
+
+        boolean isWrite() {
+            return this == INSERT || this == UPDATE || this == DELETE;
+        }
+    }
+
+    static SqlStatementCount empty() {
+        return new Builder().snapshot();
+    }
+
+    public int selects() {
+        return totals.getOrDefault(Kind.SELECT, 0);
+    }
+
+    public int inserts() {
+        return totals.getOrDefault(Kind.INSERT, 0);
+    }
+
+    public int updates() {
+        return totals.getOrDefault(Kind.UPDATE, 0);
+    }
+
+    public int deletes() {
+        return totals.getOrDefault(Kind.DELETE, 0);
+    }
+
+    public int total() {
+        return totals.values().stream().mapToInt(Integer::intValue).sum();
+    }
+
+    /**
+     * Отчет вида "total=42 (SELECT=20, INSERT=18, UPDATE=4), commands=3, flushes=2" и строка на команду.
+     */
+    public String report() {
+        StringBuilder report = new StringBuilder()
+            .append("total=").append(total()).append(' ').append(format(totals))
+            .append(", commands=").append(commands)
+            .append(", flushes=").append(flushes);
+        byCommand.forEach((command, counts) -> report.append(System.lineSeparator())
+            .append("  ").append(command).append(": ").append(format(counts)));
+        return report.toString();
+    }
+
+    private static String format(Map<Kind, Integer> counts) {
+        return counts.entrySet().stream()
+            .map(entry -> entry.getKey() + "=" + entry.getValue())
+            .collect(Collectors.joining(", ", "(", ")"));
+    }
+
+    /**
+     * Изменяемые счетчики записи, доступны только потоку записи.
+     */
+    static final class Builder {
+
+        private final Map<Kind, Integer> totals = new EnumMap<>(Kind.class);
+        private final Map<String, Map<Kind, Integer>> byCommand = new LinkedHashMap<>();
+        private int commands;
+        private int flushes;
+        private String currentCommand;
+        private boolean currentWrote;
+
+        void command(String commandName) {
+            commands++;
+            currentCommand = commandName;
+            currentWrote = false;
+        }
+
+        void statement(String command, Kind kind) {
+            totals.merge(kind, 1, Integer::sum);
+            byCommand.computeIfAbsent(command, key -> new EnumMap<>(Kind.class)).merge(kind, 1, Integer::sum);
+            if (kind.isWrite() && command.equals(currentCommand) && !currentWrote) {
+                currentWrote = true;
+                flushes++;
+            }
+        }
+
+        void add(Builder other) {
+            other.totals.forEach((kind, count) -> totals.merge(kind, count, Integer::sum));
+            other.byCommand.forEach((command, counts) -> counts.forEach((kind, count) ->
+                byCommand.computeIfAbsent(command, key -> new EnumMap<>(Kind.class)).merge(kind, count, Integer::sum)));
+            commands += other.commands;
+            flushes += other.flushes;
+        }
+
+        SqlStatementCount snapshot() {
+            Map<String, Map<Kind, Integer>> commandsCopy = new LinkedHashMap<>();
+            byCommand.forEach((command, counts) -> commandsCopy.put(command, Collections.unmodifiableMap(new EnumMap<>(counts))));
+            return new SqlStatementCount(Collections.unmodifiableMap(new EnumMap<>(totals)), commands, flushes,
+                Collections.unmodifiableMap(commandsCopy));
+        }
+    }
+}
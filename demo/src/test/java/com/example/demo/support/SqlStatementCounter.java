@@ -0,0 +1,172 @@
+package com.example.demo.support;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Locale;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+/**
+ * Счетчик SQL выражений текущего потока.
+ *
+ * DataSource оборачивается через {@link #wrap}: каждое выполненное выражение (и каждый addBatch
+ * JDBC batch) учитывается в записи, открытой в этом потоке через {@link #start()}.
+ * Команды движка отмечает {@link SqlCountingConfiguration}, выражения относятся к самой внешней
+ * выполняемой команде. Потоки без открытой записи не учитываются, поэтому параллельные тесты
+ * не смешивают счетчики.
+ */
+public final class SqlStatementCounter {
+
+    /** Команда для выражений, выполненных вне команды движка (JdbcTemplate, schema-h2.sql) */
+    static final String NO_COMMAND = "<no command>";
+
+    private static final ThreadLocal<Recording> CURRENT = new ThreadLocal<>();
+
+    private SqlStatementCounter() {
+    }
+
+    public static DataSource wrap(DataSource dataSource) {
+        return new DelegatingDataSource(dataSource) {
+            @Override
+            public Connection getConnection() throws SQLException {
+                return proxy(Connection.class, super.getConnection());
+            }
+
+            @Override
+            public Connection getConnection(String username, String password) throws SQLException {
+                return proxy(Connection.class, super.getConnection(username, password));
+            }
+        };
+    }
+
+    /**
+     * Начинает запись в текущем потоке; незавершенная предыдущая запись отбрасывается.
+     */
+    public static void start() {
+        CURRENT.set(new Recording());
+    }
+
+    /**
+     * Завершает запись текущего потока и возвращает счетчики.
+     */
+    public static SqlStatementCount stop() {
+        Recording recording = CURRENT.get();
+        CURRENT.remove();
+        return recording != null ? recording.count.snapshot() : SqlStatementCount.empty();
+    }
+
+    /**
+     * Счетчики выражений, выполненных в action.
+     * Запись, открытая до вызова, продолжается и включает выражения action.
+     */
+    public static SqlStatementCount measure(ThrowingRunnable action) throws Exception {
+        Recording outer = CURRENT.get();
+        Recording recording = new Recording();
+        recording.commands.addAll(outer != null ? outer.commands : new ArrayDeque<>());
+        CURRENT.set(recording);
+        try {
+            action.run();
+        } finally {
+            CURRENT.set(outer);
+            if (outer != null) {
+                outer.count.add(recording.count);
+            }
+        }
+        return recording.count.snapshot();
+    }
+
+    static void enterCommand(String commandName) {
+        Recording recording = CURRENT.get();
+        if (recording != null) {
+            if (recording.commands.isEmpty()) {
+                recording.count.command(commandName);
+            }
+            recording.commands.push(commandName);
+        }
+    }
+
+    static void exitCommand() {
+        Recording recording = CURRENT.get();
+        if (recording != null && !recording.commands.isEmpty()) {
+            recording.commands.pop();
+        }
+    }
+
+    private static void record(String sql) {
+        Recording recording = CURRENT.get();
+        if (recording != null) {
+            String command = recording.commands.isEmpty() ? NO_COMMAND : recording.commands.peekLast();
+            recording.count.statement(command, SqlStatementCount.Kind.of(sql));
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, T target) {
+        return (T) Proxy.newProxyInstance(SqlStatementCounter.class.getClassLoader(), new Class<?>[] {type},
+            new CountingHandler(target, null));
+    }
+
+    /**
+     * Оборачивает Connection и Statement: Connection возвращает обернутые Statement,
+     * Statement учитывает execute* и addBatch.
+     */
+    private record CountingHandler(Object target, String sql) implements InvocationHandler {
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (sql != null && name.equals("addBatch") && (args == null || args.length == 0)) {
+                record(sql);
+            } else if (name.equals("addBatch") && args != null && args.length == 1) {
+                record((String) args[0]);
+            } else if (name.startsWith("execute") && !name.equals("executeBatch")) {
+                record(args != null && args.length > 0 && args[0] instanceof String statement ? statement : sql);
+            }
+            Object result;
+            try {
+                result = method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+            if (result instanceof PreparedStatement statement && (name.equals("prepareStatement") || name.equals("prepareCall"))) {
+                Class<?> type = name.equals("prepareCall") ? CallableStatement.class : PreparedStatement.class;
+                return Proxy.newProxyInstance(SqlStatementCounter.class.getClassLoader(), new Class<?>[] {type},
+                    new CountingHandler(statement, (String) args[0]));
+            }
+            if (result instanceof Statement statement && name.equals("createStatement")) {
+                return Proxy.newProxyInstance(SqlStatementCounter.class.getClassLoader(), new Class<?>[] {Statement.class},
+                    new CountingHandler(statement, null));
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Запись одного потока: счетчики и стек выполняемых команд движка.
+     */
+    private static final class Recording {
+
+        private final SqlStatementCount.Builder count = new SqlStatementCount.Builder();
+        private final Deque<String> commands = new ArrayDeque<>();
+    }
+
+    @FunctionalInterface
+    public interface ThrowingRunnable {
+        void run() throws Exception;
+    }
+
+    static String normalize(String sql) {
+        return sql == null ? "" : sql.stripLeading().toUpperCase(Locale.ROOT);
+    }
+}
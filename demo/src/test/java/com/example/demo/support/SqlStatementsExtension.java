@@ -0,0 +1,36 @@
+package com.example.demo.support;
+
+import org.junit.jupiter.api.extension.AfterEachCallback;
+import org.junit.jupiter.api.extension.BeforeEachCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * JUnit расширение: считает SQL выражения каждого теста и публикует отчет
+ * (report entry "sql" и лог на уровне INFO) с разбивкой по командам движка.
+ *
+ * Бюджеты проверяются в тесте через {@link SqlStatementCounter#measure}:
+ * <pre>
+ * SqlStatementCount count = SqlStatementCounter.measure(() -> startProcess());
+ * assertThat(count.total()).isLessThanOrEqualTo(60);
+ * </pre>
+ * Нужен профиль test, в котором подключается {@link SqlCountingConfiguration}.
+ */
+public class SqlStatementsExtension implements BeforeEachCallback, AfterEachCallback {
+
+    private static final Logger logger = LoggerFactory.getLogger(SqlStatementsExtension.class);
+
+    @Override
+    public void beforeEach(ExtensionContext context) {
+        SqlStatementCounter.start();
+    }
+
+    @Override
+    public void afterEach(ExtensionContext context) {
+        SqlStatementCount count = SqlStatementCounter.stop();
+        String report = count.report();
+        context.publishReportEntry("sql", report);
+        logger.info("SQL statements of {}: {}", context.getDisplayName(), report);
+    }
+}